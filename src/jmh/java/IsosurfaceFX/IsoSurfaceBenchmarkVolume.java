@@ -0,0 +1,332 @@
+package IsosurfaceFX;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class builds the volumes the benchmarks run on.  Every storage class
+ *  gets the same field, so their numbers can be compared: a gyroid, which
+ *  has surface spread evenly through it, filling a cube centered in the
+ *  volume, with BACKGROUND everywhere else.  The fill fraction is the share
+ *  of the volume the cube takes up, so it controls how much of the volume
+ *  block skipping, uniform bricks, and sparse leaves can leave out.
+ * The single threshold is v >= THRESHOLD, the dual one LOW_THRES <= v <=
+ *  HIGH_THRES; both cut through the gyroid and leave BACKGROUND outside.
+**/
+final class IsoSurfaceBenchmarkVolume implements IsoDataMatConstInterface {
+
+  /** The value outside the filled cube, below every gyroid value. **/
+  static final float BACKGROUND = -2.0f;
+
+  /** The single threshold. **/
+  static final double THRESHOLD = 0.0;
+
+  /** The lower bound of the dual threshold. **/
+  static final double LOW_THRES = -0.5;
+
+  /** The upper bound of the dual threshold. **/
+  static final double HIGH_THRES = 0.5;
+
+  /** The number of gyroid periods across the volume. **/
+  private static final int PERIODS = 4;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This class only has static methods.
+  **/
+  private IsoSurfaceBenchmarkVolume() {
+  } // end constructor
+
+  //----< toPlane >---------------------------------------------------------//
+
+  /**
+   * This method converts a plane parameter to its constant.
+   * @param _plane "XY", "XZ", or "YZ".
+   * @return XY_PLANE, XZ_PLANE, or YZ_PLANE.
+   * @throws IllegalArgumentException If the name isn't a plane.
+  **/
+  static byte toPlane(final String _plane) throws IllegalArgumentException {
+    switch(_plane) {
+      case "XY" : return(XY_PLANE);
+      case "XZ" : return(XZ_PLANE);
+      case "YZ" : return(YZ_PLANE);
+      default :   throw new IllegalArgumentException("Unknown plane: " + _plane);
+    } // end switch
+  } // end toPlane
+
+  //----< isDual >----------------------------------------------------------//
+
+  /**
+   * This method converts a thresholds parameter to whether it is a band.
+   * @param _thresholds "single" or "dual".
+   * @return true for "dual".
+   * @throws IllegalArgumentException If the name is neither.
+  **/
+  static boolean isDual(final String _thresholds)
+    throws IllegalArgumentException
+  {
+    switch(_thresholds) {
+      case "single" : return(false);
+      case "dual" :   return(true);
+      default :       throw new IllegalArgumentException("Unknown thresholds: "
+                                                         + _thresholds);
+    } // end switch
+  } // end isDual
+
+  //----< createField >-----------------------------------------------------//
+
+  /**
+   * This method creates the field as a dense float matrix, which the other
+   *  storage forms are copied from.
+   * @param _plane The plane of the matrix.
+   * @param _size The number of points along each axis.
+   * @param _fill The share of the volume the gyroid fills, 0 to 1.
+   * @return The new matrix.
+  **/
+  static IsoSurfaceDenseFloatDataMatrix createField(final byte _plane,
+                                                   final int _size,
+                                                   final double _fill)
+  {
+    final IsoSurfaceDenseFloatDataMatrix field =
+      new IsoSurfaceDenseFloatDataMatrix(_plane, _size, _size, _size,
+                                         1.0f, 1.0f, 1.0f, CENTER, BACKGROUND);
+    final float[] data = field.getData();
+    final int side = (int)Math.round(Math.cbrt(_fill) * _size);
+    final int lo = (_size - side) / 2;
+    final int hi = lo + side;
+    final double k = 2.0 * Math.PI * PERIODS / _size;
+    for(int x = 0; x < _size; x++) {
+      for(int y = 0; y < _size; y++) {
+        for(int z = 0; z < _size; z++) {
+          float val = BACKGROUND;
+          if(x >= lo && x < hi && y >= lo && y < hi && z >= lo && z < hi)
+            val = (float)(Math.sin(x * k) * Math.cos(y * k)
+                          + Math.sin(y * k) * Math.cos(z * k)
+                          + Math.sin(z * k) * Math.cos(x * k));
+          data[field.getIndex(x, y, z)] = val;
+        } // end for
+      } // end for
+    } // end for
+    field.invalidateIndexes();
+    return(field);
+  } // end createField
+
+  //----< create >----------------------------------------------------------//
+
+  /**
+   * This method copies the field into one of the storage classes.
+   * @param _storage "denseFloat", "denseDouble", "float", "double",
+   *  "bricked", "sparse", or "mapped".
+   * @param _field The field, from createField.
+   * @return The new matrix.  A mapped matrix must be closed.
+   * @throws IOException If the mapped matrix's file can't be written.
+   * @throws IllegalArgumentException If the name isn't a storage class.
+  **/
+  static IsoSurfaceDataMatrix create(final String _storage,
+                                     final IsoSurfaceDenseFloatDataMatrix _field)
+    throws IOException, IllegalArgumentException
+  {
+    switch(_storage) {
+      case "denseFloat" :  return(_field);
+      case "denseDouble" : return(new IsoSurfaceDenseDoubleDataMatrix(_field,
+                                                                      BACKGROUND));
+      case "float" :       return(createFloat(_field));
+      case "double" :      return(createDouble(_field));
+      case "bricked" :     return(new IsoSurfaceBrickedDataMatrix(_field,
+                                                                  BACKGROUND));
+      case "sparse" :      return(createSparse(_field));
+      case "mapped" :      return(createMapped(_field));
+      default :            throw new IllegalArgumentException(
+                                   "Unknown storage: " + _storage);
+    } // end switch
+  } // end create
+
+  //----< close >-----------------------------------------------------------//
+
+  /**
+   * This method releases a matrix from create, unmapping a mapped one.
+   * @param _matrix The matrix, may be null.
+  **/
+  static void close(final IsoSurfaceDataMatrix _matrix) {
+    if(_matrix instanceof IsoSurfaceMappedDataMatrix)
+      ((IsoSurfaceMappedDataMatrix)_matrix).close();
+  } // end close
+
+  //----< createFloat >-----------------------------------------------------//
+
+  /**
+   * This method copies the field into a variable-length float matrix, a
+   *  plane at a time.
+   * @param _field The field.
+   * @return The new matrix.
+  **/
+  private static IsoSurfaceDataMatrix createFloat(
+    final IsoSurfaceDenseFloatDataMatrix _field)
+  {
+    final int[] dims = getPlaneDims(_field);
+    final IsoSurfaceFloatDataMatrix matrix =
+      new IsoSurfaceFloatDataMatrix((byte)_field.getPlane(), _field.getXMaxDim(),
+                                    _field.getYMaxDim(), _field.getZMaxDim(),
+                                    1.0f, 1.0f, 1.0f, CENTER, BACKGROUND);
+    for(int i = 0; i < dims[0]; i++) {
+      final float[][] plane = new float[dims[1]][dims[2]];
+      for(int maj = 0; maj < dims[1]; maj++)
+        for(int min = 0; min < dims[2]; min++)
+          plane[maj][min] = (float)getPlanePoint(_field, i, maj, min);
+      matrix.setPlaneData(i, plane);
+    } // end for
+    return(matrix);
+  } // end createFloat
+
+  //----< createDouble >----------------------------------------------------//
+
+  /**
+   * This method copies the field into a variable-length double matrix, a
+   *  plane at a time.
+   * @param _field The field.
+   * @return The new matrix.
+  **/
+  private static IsoSurfaceDataMatrix createDouble(
+    final IsoSurfaceDenseFloatDataMatrix _field)
+  {
+    final int[] dims = getPlaneDims(_field);
+    final IsoSurfaceDoubleDataMatrix matrix =
+      new IsoSurfaceDoubleDataMatrix((byte)_field.getPlane(), _field.getXMaxDim(),
+                                     _field.getYMaxDim(), _field.getZMaxDim(),
+                                     1.0f, 1.0f, 1.0f, new int[dims[0]],
+                                     new int[dims[0]], CENTER, BACKGROUND);
+    for(int i = 0; i < dims[0]; i++) {
+      final double[][] plane = new double[dims[1]][dims[2]];
+      for(int maj = 0; maj < dims[1]; maj++)
+        for(int min = 0; min < dims[2]; min++)
+          plane[maj][min] = getPlanePoint(_field, i, maj, min);
+      matrix.setPlaneData(i, plane);
+    } // end for
+    return(matrix);
+  } // end createDouble
+
+  //----< createSparse >----------------------------------------------------//
+
+  /**
+   * This method copies the points of the field that aren't BACKGROUND into
+   *  a sparse matrix.
+   * @param _field The field.
+   * @return The new matrix.
+  **/
+  private static IsoSurfaceDataMatrix createSparse(
+    final IsoSurfaceDenseFloatDataMatrix _field)
+  {
+    final IsoSurfaceSparseDataMatrix matrix =
+      new IsoSurfaceSparseDataMatrix((byte)_field.getPlane(), _field.getXMaxDim(),
+                                     _field.getYMaxDim(), _field.getZMaxDim(),
+                                     1.0f, 1.0f, 1.0f, CENTER, BACKGROUND);
+    final float[] data = _field.getData();
+    for(int x = 0; x < _field.getXMaxDim(); x++) {
+      for(int y = 0; y < _field.getYMaxDim(); y++) {
+        for(int z = 0; z < _field.getZMaxDim(); z++) {
+          final float val = data[_field.getIndex(x, y, z)];
+          if(val != BACKGROUND)
+            matrix.setPoint(x, y, z, val);
+        } // end for
+      } // end for
+    } // end for
+    return(matrix);
+  } // end createSparse
+
+  //----< createMapped >----------------------------------------------------//
+
+  /**
+   * This method writes the field to a temporary raw float file, in the
+   *  field's own layout, and maps it.  The file is deleted when the JVM
+   *  exits.
+   * @param _field The field.
+   * @return The new matrix.
+   * @throws IOException If the file can't be written or mapped.
+  **/
+  private static IsoSurfaceDataMatrix createMapped(
+    final IsoSurfaceDenseFloatDataMatrix _field)
+    throws IOException
+  {
+    final Path file = Files.createTempFile("isosurface-bench", ".raw");
+    file.toFile().deleteOnExit();
+    final float[] data = _field.getData();
+    try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      final ByteBuffer buf = ByteBuffer.allocate(1 << 20)
+                                       .order(ByteOrder.LITTLE_ENDIAN);
+      for(final float val : data) {
+        if(!buf.hasRemaining()) {
+          buf.flip();
+          while(buf.hasRemaining())
+            channel.write(buf);
+          buf.clear();
+        } // end if
+        buf.putFloat(val);
+      } // end for
+      buf.flip();
+      while(buf.hasRemaining())
+        channel.write(buf);
+    } // end try
+
+    final String order;
+    switch(_field.getPlane()) {
+      case XZ_PLANE : order = "zxy";  break;
+      case XY_PLANE : order = "yxz";  break;
+      default :       order = "zyx";
+    } // end switch
+    return(new IsoSurfaceMappedDataMatrix(file, 0L,
+                                          IsoSurfaceMappedDataMatrix.FLOAT32,
+                                          ByteOrder.LITTLE_ENDIAN, order,
+                                          _field.getXMaxDim(),
+                                          _field.getYMaxDim(),
+                                          _field.getZMaxDim(),
+                                          1.0f, 1.0f, 1.0f, CENTER, BACKGROUND));
+  } // end createMapped
+
+  //----< getPlaneDims >----------------------------------------------------//
+
+  /**
+   * This method returns the sizes of a matrix's independent, major, and
+   *  minor axes.
+   * @param _matrix The matrix.
+   * @return The three sizes.
+  **/
+  private static int[] getPlaneDims(final IsoSurfaceDataMatrix _matrix) {
+    final int x = _matrix.getXMaxDim();
+    final int y = _matrix.getYMaxDim();
+    final int z = _matrix.getZMaxDim();
+    switch(_matrix.getPlane()) {
+      case XZ_PLANE : return(new int[] { y, x, z });
+      case XY_PLANE : return(new int[] { z, x, y });
+      default :       return(new int[] { x, y, z });
+    } // end switch
+  } // end getPlaneDims
+
+  //----< getPlanePoint >---------------------------------------------------//
+
+  /**
+   * This method reads a point of a matrix by its independent, major, and
+   *  minor indices.
+   * @param _matrix The matrix.
+   * @param _ind The index along the independent axis.
+   * @param _maj The index along the major axis.
+   * @param _min The index along the minor axis.
+   * @return The value of the point.
+  **/
+  private static double getPlanePoint(final IsoSurfaceDataMatrix _matrix,
+                                      final int _ind, final int _maj,
+                                      final int _min)
+  {
+    switch(_matrix.getPlane()) {
+      case XZ_PLANE : return(_matrix.getPoint(_maj, _ind, _min));
+      case XY_PLANE : return(_matrix.getPoint(_maj, _min, _ind));
+      default :       return(_matrix.getPoint(_ind, _maj, _min));
+    } // end switch
+  } // end getPlanePoint
+
+} // end class IsoSurfaceBenchmarkVolume
@@ -0,0 +1,184 @@
+package IsosurfaceFX;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks reading points out of each storage class: getPoint
+ *  and isPoint at scattered points, and classifyRow over the whole volume
+ *  in the generator's walk order, which is the classification pass every
+ *  extraction starts with.
+ * The point benchmarks report the time per point.
+**/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class IsoSurfaceDataMatrixBenchmark implements IsoDataMatConstInterface {
+
+  /** The number of scattered points read per invocation. **/
+  private static final int POINTS = 4096;
+
+  /** The storage class, see IsoSurfaceBenchmarkVolume.create. **/
+  @Param({ "denseFloat", "denseDouble", "float", "double", "bricked",
+           "sparse", "mapped" })
+  public String storage;
+
+  /** The number of points along each axis. **/
+  @Param({ "64", "256" })
+  public int size;
+
+  /** The share of the volume the surface's field fills. **/
+  @Param({ "0.1", "1.0" })
+  public double fill;
+
+  /** The plane of the matrix, which sets its memory layout. **/
+  @Param({ "XY", "XZ", "YZ" })
+  public String plane;
+
+  /** "single" or "dual" thresholds. **/
+  @Param({ "single", "dual" })
+  public String thresholds;
+
+  /** The matrix being read. **/
+  private IsoSurfaceDataMatrix matrix;
+
+  /** The classifier for the thresholds. **/
+  private IsoSurfaceClassifier classifier;
+
+  /** true for a dual threshold. **/
+  private boolean dual;
+
+  /** The scattered points, as x, y, z triples. **/
+  private int[] points;
+
+  /** The independent, major, and minor axes, 0 for x to 2 for z. **/
+  private int[] walkAxes;
+
+  /** The classification of one plane. **/
+  private byte[] bits;
+
+  //----< setup >-----------------------------------------------------------//
+
+  /**
+   * This method builds the matrix and the points to read.
+   * @throws IOException If a mapped matrix's file can't be written.
+  **/
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final byte pl = IsoSurfaceBenchmarkVolume.toPlane(plane);
+    matrix = IsoSurfaceBenchmarkVolume.create(storage,
+               IsoSurfaceBenchmarkVolume.createField(pl, size, fill));
+    dual = IsoSurfaceBenchmarkVolume.isDual(thresholds);
+    classifier = dual
+      ? IsoSurfaceClassifier.create(GREATER_THAN_EQ,
+                                    IsoSurfaceBenchmarkVolume.LOW_THRES,
+                                    LESS_THAN_EQ,
+                                    IsoSurfaceBenchmarkVolume.HIGH_THRES)
+      : IsoSurfaceClassifier.create(GREATER_THAN_EQ,
+                                    IsoSurfaceBenchmarkVolume.THRESHOLD);
+
+    final Random rand = new Random(42);
+    points = new int[POINTS * 3];
+    for(int i = 0; i < points.length; i++)
+      points[i] = rand.nextInt(size);
+
+    switch(pl) {
+      case XZ_PLANE : walkAxes = new int[] { 1, 0, 2 };  break;
+      case XY_PLANE : walkAxes = new int[] { 2, 0, 1 };  break;
+      default :       walkAxes = new int[] { 0, 1, 2 };
+    } // end switch
+    bits = new byte[size * size];
+  } // end setup
+
+  //----< tearDown >--------------------------------------------------------//
+
+  /**
+   * This method releases the matrix.
+  **/
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    IsoSurfaceBenchmarkVolume.close(matrix);
+  } // end tearDown
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method reads the scattered points.
+   * @return The sum of the values, so the reads aren't optimized away.
+  **/
+  @Benchmark
+  @OperationsPerInvocation(POINTS)
+  public double getPoint() {
+    double sum = 0.0;
+    for(int i = 0; i < points.length; i += 3)
+      sum += matrix.getPoint(points[i], points[i + 1], points[i + 2]);
+    return(sum);
+  } // end getPoint
+
+  //----< isPoint >---------------------------------------------------------//
+
+  /**
+   * This method tests the scattered points against the thresholds.
+   * @return The number of points inside.
+  **/
+  @Benchmark
+  @OperationsPerInvocation(POINTS)
+  public int isPoint() {
+    int inside = 0;
+    if(dual) {
+      for(int i = 0; i < points.length; i += 3)
+        if(matrix.isPoint(points[i], points[i + 1], points[i + 2],
+                          GREATER_THAN_EQ, IsoSurfaceBenchmarkVolume.LOW_THRES,
+                          LESS_THAN_EQ, IsoSurfaceBenchmarkVolume.HIGH_THRES))
+          inside++;
+    } else {
+      for(int i = 0; i < points.length; i += 3)
+        if(matrix.isPoint(points[i], points[i + 1], points[i + 2],
+                          GREATER_THAN_EQ, IsoSurfaceBenchmarkVolume.THRESHOLD))
+          inside++;
+    } // end if
+    return(inside);
+  } // end isPoint
+
+  //----< classifyVolume >--------------------------------------------------//
+
+  /**
+   * This method classifies every point of the volume a row at a time, in
+   *  the order the generator does.
+   * @return The classification of the last plane.
+  **/
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public byte[] classifyVolume() {
+    final int[] pos = new int[3];
+    for(int ind = 0; ind < size; ind++) {
+      pos[walkAxes[0]] = ind;
+      for(int maj = 0; maj < size; maj++) {
+        pos[walkAxes[1]] = maj;
+        pos[walkAxes[2]] = 0;
+        matrix.classifyRow(classifier, pos[0], pos[1], pos[2], walkAxes[2],
+                           bits, maj * size, size);
+      } // end for
+    } // end for
+    return(bits);
+  } // end classifyVolume
+
+} // end class IsoSurfaceDataMatrixBenchmark
@@ -0,0 +1,188 @@
+package IsosurfaceFX;
+
+import java.io.IOException;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the IsoSurfaceGenerator: a whole extraction with
+ *  calculateSurface, and coloring an extracted surface with calcColorArrays.
+ *  The per-cell work of an extraction, classifying the corners and looking
+ *  up the cube configuration, has no entry point of its own, so it is
+ *  measured as part of calculateSurface; the classification pass on its own
+ *  is IsoSurfaceDataMatrixBenchmark.classifyVolume.
+**/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class IsoSurfaceGeneratorBenchmark implements IsoDataMatConstInterface {
+
+  /** The storage class, see IsoSurfaceBenchmarkVolume.create. **/
+  @Param({ "denseFloat", "denseDouble", "float", "double", "bricked",
+           "sparse", "mapped" })
+  public String storage;
+
+  /** The number of points along each axis. **/
+  @Param({ "64", "128" })
+  public int size;
+
+  /** The share of the volume the surface's field fills. **/
+  @Param({ "0.1", "1.0" })
+  public double fill;
+
+  /** The plane of the matrix, which sets its memory layout and walk. **/
+  @Param({ "XY", "XZ", "YZ" })
+  public String plane;
+
+  /** "single" or "dual" thresholds. **/
+  @Param({ "single", "dual" })
+  public String thresholds;
+
+  /** The number of extraction threads, 0 for all processors. **/
+  @Param({ "1" })
+  public int threads;
+
+  /** The matrix being extracted. **/
+  private IsoSurfaceDataMatrix matrix;
+
+  /** The extraction options. **/
+  private IsoSurfaceExtractionOptions options;
+
+  /** A surface already extracted, for calcColorArrays. **/
+  private IsoSurfaceGenerator surface;
+
+  /** The colorer calcColorArrays runs. **/
+  private IsoSurfaceVertexColorer colorer;
+
+  //----< setup >-----------------------------------------------------------//
+
+  /**
+   * This method builds the matrix and extracts the surface that is colored.
+   * @throws IOException If a mapped matrix's file can't be written.
+  **/
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    matrix = IsoSurfaceBenchmarkVolume.create(storage,
+               IsoSurfaceBenchmarkVolume.createField(
+                 IsoSurfaceBenchmarkVolume.toPlane(plane), size, fill));
+    options = new IsoSurfaceExtractionOptions(threads);
+    colorer = new ValueColorer();
+    surface = extract();
+  } // end setup
+
+  //----< tearDown >--------------------------------------------------------//
+
+  /**
+   * This method releases the matrix.
+  **/
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    IsoSurfaceBenchmarkVolume.close(matrix);
+  } // end tearDown
+
+  //----< calculateSurface >------------------------------------------------//
+
+  /**
+   * This method extracts the whole surface.
+   * @return The generator, holding the surface.
+  **/
+  @Benchmark
+  public IsoSurfaceGenerator calculateSurface() {
+    return(extract());
+  } // end calculateSurface
+
+  //----< calcColorArrays >-------------------------------------------------//
+
+  /**
+   * This method colors every vertex of the extracted surface.
+   * @return The colors.
+  **/
+  @Benchmark
+  public Vector<float[]> calcColorArrays() {
+    final Vector<float[]> colors = new Vector<float[]>();
+    final Vector<float[]> materials = new Vector<float[]>();
+    surface.calcColorArrays(colors, materials, colorer);
+    return(colors);
+  } // end calcColorArrays
+
+  //----< extract >---------------------------------------------------------//
+
+  /**
+   * This method extracts the surface for the thresholds parameter.
+   * @return The generator, holding the surface.
+  **/
+  private IsoSurfaceGenerator extract() {
+    if(IsoSurfaceBenchmarkVolume.isDual(thresholds))
+      return(new IsoSurfaceGenerator(matrix, null,
+                                     GREATER_THAN_EQ,
+                                     IsoSurfaceBenchmarkVolume.LOW_THRES,
+                                     LESS_THAN_EQ,
+                                     IsoSurfaceBenchmarkVolume.HIGH_THRES,
+                                     options));
+    return(new IsoSurfaceGenerator(matrix, null, GREATER_THAN_EQ,
+                                   IsoSurfaceBenchmarkVolume.THRESHOLD,
+                                   options));
+  } // end extract
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Colorer
+  ////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A colorer that shades each vertex by the value at its cell, both lit and
+   *  unlit, about as cheap as a colorer can be, so the benchmark measures
+   *  the generator's side of the work.
+  **/
+  private static final class ValueColorer extends IsoSurfaceVertexColorer {
+    ValueColorer() { super(BOTH); }
+    @Override
+    public float[] calcUnlitColor(final Vector3f _vert, final int _x,
+                                  final int _y, final int _z,
+                                  final double _val)
+    {
+      return(shade(_val));
+    } // end calcUnlitColor
+    @Override
+    public float[] calcUnlitColor(final Vector3d _vert, final int _x,
+                                  final int _y, final int _z,
+                                  final double _val)
+    {
+      return(shade(_val));
+    } // end calcUnlitColor
+    @Override
+    public float[] calcLitColor(final Vector3f _vert, final int _x,
+                                final int _y, final int _z,
+                                final double _val)
+    {
+      return(shade(_val));
+    } // end calcLitColor
+    @Override
+    public float[] calcLitColor(final Vector3d _vert, final int _x,
+                                final int _y, final int _z,
+                                final double _val)
+    {
+      return(shade(_val));
+    } // end calcLitColor
+    private static float[] shade(final double _val) {
+      final float s = (float)((_val + 2.0) / 4.0);
+      return(new float[] { s, s, s, 1.0f });
+    } // end shade
+  } // end class ValueColorer
+
+} // end class IsoSurfaceGeneratorBenchmark
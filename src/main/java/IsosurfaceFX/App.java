@@ -1,6 +1,7 @@
 package IsosurfaceFX;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Point3D;
 import javafx.scene.AmbientLight;
@@ -23,11 +24,10 @@ import javafx.scene.shape.Sphere;
 import javafx.stage.Stage;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.shape.CullFace;
 import javafx.scene.shape.DrawMode;
 import javafx.scene.shape.MeshView;
-import javafx.scene.shape.TriangleMesh;
-import javafx.scene.shape.VertexFormat;
 import org.fxyz3d.shapes.composites.PolyLine3D;
 
 public class App extends Application {
@@ -53,6 +53,12 @@ public class App extends Application {
     int totalPoints = 10;
     double radius = 1;
     int divisions = 8;
+    //distance from the camera within which the surface has full detail
+    double detailDistance = 150;
+
+    //built in the background, null until it's ready
+    volatile IsoSurfaceLodGenerator lodGen;
+    IsoSurfaceMeshBuilder meshBuilder;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
@@ -65,7 +71,10 @@ public class App extends Application {
             mouseOldX = me.getSceneX();
             mouseOldY = me.getSceneY();
         });
-        subScene.setOnMouseDragged((MouseEvent me) -> mouseDragCamera(me));
+        subScene.setOnMouseDragged((MouseEvent me) -> {
+            mouseDragCamera(me);
+            updateLevelOfDetail();
+        });
         subScene.setOnScroll((ScrollEvent event) -> {
             double modifier = 2.0;
             double modifierFactor = 0.1;
@@ -79,6 +88,7 @@ public class App extends Application {
             double z = camera.getTranslateZ();
             double newZ = z + event.getDeltaY() * modifierFactor * modifier;
             camera.setTranslateZ(newZ);
+            updateLevelOfDetail();
         });
         StackPane stackPane = new StackPane(subScene);
         subScene.widthProperty().bind(stackPane.widthProperty());
@@ -100,9 +110,15 @@ public class App extends Application {
         int pointCount = 100;
         positions = new ArrayList<>(pointCount);
 
-        //create 3D Matrix to hold data
+        //create a sparse 3D Matrix to hold data, only the leaves holding
+        //points are allocated
         int width = Double.valueOf(scale).intValue()+1;
-        double[][][] dataArr = new double[width][width][width];
+        IsoSurfaceSparseDataMatrix dataMatrix = new IsoSurfaceSparseDataMatrix(
+            IsoSurfaceDataMatrix.XY_PLANE, 
+            width, width, width,  //dimension widths
+            1.0f, 1.0f, 1.0f, //scaling
+            IsoSurfaceDataMatrix.CENTER, 
+            0.0f); //background
 
         //generate some random positions
         for (int i = 0; i < pointCount; i++) {
@@ -117,70 +133,34 @@ public class App extends Application {
             sphere.setTranslateZ(p3D.getZ());
             sceneRoot.getChildren().add(sphere);
     
-            //map points into 3D matrix
-            dataArr[Double.valueOf(p3D.getX()).intValue()]
-                [Double.valueOf(p3D.getY()).intValue()]
-                [Double.valueOf(p3D.getZ()).intValue()] = 1.0;    
+            //map points into 3D matrix, in the same place the XY planes
+            //of a [x][y][z] array used to put them
+            dataMatrix.setPoint(Double.valueOf(p3D.getY()).intValue(),
+                Double.valueOf(p3D.getZ()).intValue(),
+                Double.valueOf(p3D.getX()).intValue(), 1.0f);
         }
-        
-
-        
-        byte leastValue = 0;
-        IsoSurfaceDoubleDataMatrix dataMatrix = new IsoSurfaceDoubleDataMatrix(
-            IsoSurfaceDataMatrix.XY_PLANE, 
-            width, width, width,  //dimension widths
-            1.0f, 1.0f, 1.0f, //scaling
-            IsoSurfaceDataMatrix.CENTER, 
-            leastValue);
-        
-         // For each of the layers along the y-axis, fill in the XZ plane of
-         // data. The first argument is the y-value, the second is a 2-D
-         // array
-         // of values that are to go at that particular y-value, and the last
-         // two are the midpoint values (X and Z respectively) for the plane
-         // of data. This allows centering of the data.
-         for (int i = 0; i < dataArr.length; i++) {
-//             System.out.println("i == " + i);
-            dataMatrix.setPlaneData(i, dataArr[i], width / 2, width / 2);
-         } // end for        
                 
         // This class take in the data and, using the the specified threshold
         // parameters, will figure out which points of data are inside or
         // outside
-        // the isosurface.
-        final IsoSurfaceGenerator isoGen = new IsoSurfaceGenerator(
-        dataMatrix, IsoSurfaceGenerator.GREATER_THAN, 0.0);
+        // the isosurface.  Parts of the surface further from the camera
+        // are extracted with less detail, and re-extracted as it moves.
+        // Building it downsamples the whole volume, so it's built in the
+        // background, and the first update runs once it's ready.
+        CompletableFuture.runAsync(() -> lodGen = new IsoSurfaceLodGenerator(
+            dataMatrix, IsoSurfaceGenerator.GREATER_THAN, 0.0,
+            new IsoSurfaceExtractionOptions(
+                IsoSurfaceExtractionOptions.ALL_PROCESSORS),
+            detailDistance))
+            .thenRun(() -> Platform.runLater(this::updateLevelOfDetail));
         
-        System.out.println("Vertices Used: " + isoGen.getVertexArray().length);
         MeshView meshView = new MeshView();
         meshView.setCullFace(CullFace.NONE);
         meshView.setDrawMode(DrawMode.FILL);
-        
-        TriangleMesh mesh = new TriangleMesh();
-        for(Vector3d vector3d : isoGen.getVertexArray()) {
-            mesh.getPoints().setAll(
-            Double.valueOf(vector3d.x).floatValue(),
-            Double.valueOf(vector3d.y).floatValue(),
-            Double.valueOf(vector3d.z).floatValue()
-            );
-        }
-        
-        mesh.getTexCoords().setAll(0,0);
-//        for(Vector3f vector3f : isoGen.getNormalArray()){
-//            mesh.getNormals().addAll(vector3f.get());
-//        }
 
-        meshView.setMesh(mesh);
-//        for(int i=0;i<isoGen.getVertexArray().length-3;i+=3) {  //add each triangle tube segment 
-        for(int i=0;i<3;i+=3) {  //add each triangle tube segment 
-            //Face Triangle 
-            mesh.getFaces().addAll(
-            i,0,i+1, 0,i+3,0
-            ); 
-            mesh.getFaces().addAll(
-                i+1,0, i+2, 0, i+3,0
-            ); 
-        }        
+        //the mesh starts empty and is filled in once the surface is ready
+        meshBuilder = new IsoSurfaceMeshBuilder();
+        meshView.setMesh(meshBuilder.getMesh());
 
         PhongMaterial mat = new PhongMaterial(Color.CYAN);
         meshView.setMaterial(mat);
@@ -234,6 +214,7 @@ public class App extends Application {
 
             change = event.isShiftDown() ? 10.0 : 1.0;
 
+            updateLevelOfDetail();
         });
 
         BorderPane bpOilSpill = new BorderPane(subScene);
@@ -249,6 +230,30 @@ public class App extends Application {
         primaryStage.show();
     }
 
+    //re-extract the surface for where the camera is now, if that changes
+    //the level of detail of any part of it; the extraction runs in the
+    //background, a newer camera position cancels it, and the builder
+    //refills the mesh the view already shows
+    private void updateLevelOfDetail() {
+        IsoSurfaceLodGenerator lod = lodGen;
+        if (lod == null) {
+            return;
+        }
+        Point3D eye = camera.localToScene(0, 0, 0);
+        Vector3d eyePos = new Vector3d(eye.getX(), eye.getY(), eye.getZ());
+        lod.updateAsync(eyePos).thenAccept(changed -> {
+            if (changed) {
+                Platform.runLater(() -> {
+                    //the lock keeps the next update from swapping in a new
+                    //surface while this one is read
+                    synchronized (lod) {
+                        meshBuilder.build(lod);
+                    }
+                });
+            }
+        });
+    }
+
     private void mouseDragCamera(MouseEvent me) {
         mouseOldX = mousePosX;
         mouseOldY = mousePosY;
@@ -0,0 +1,146 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class is a growable array of primitive doubles.  It's used to sum
+ *  packed values (x,y,z interleaved) in double, so that sums of floats come
+ *  out exactly whatever order they're added in, and are rounded to floats
+ *  once at the end.  It is not thread safe; each thread should fill its own
+ *  buffer.
+**/
+public class IsoDoubleBuffer {
+
+  /** The default capacity of a new buffer. **/
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  /** The backing array.  Only the first size elements are in use. **/
+  private double[] data;
+
+  /** The number of doubles in the buffer. **/
+  private int size = 0;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the default capacity.
+  **/
+  public IsoDoubleBuffer() {
+    data = new double[DEFAULT_CAPACITY];
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the given capacity.
+   * @param _capacity The number of doubles the buffer can hold before it has
+   *  to grow.
+  **/
+  public IsoDoubleBuffer(final int _capacity) {
+    data = new double[Math.max(_capacity, 3)];
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends three doubles, typically the x, y, and z of a
+   *  normal, to the buffer.
+   * @param _x The first double to append.
+   * @param _y The second double to append.
+   * @param _z The third double to append.
+  **/
+  public void add(final double _x, final double _y, final double _z) {
+    if(size + 3 > data.length)
+      grow(size + 3);
+    data[size]   = _x;
+    data[size+1] = _y;
+    data[size+2] = _z;
+    size += 3;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends a range of another buffer to this one.
+   * @param _buf The buffer to copy doubles from.
+   * @param _start The index of the first double to copy.
+   * @param _len The number of doubles to copy.
+  **/
+  public void add(final IsoDoubleBuffer _buf, final int _start,
+                  final int _len)
+  {
+    if(size + _len > data.length)
+      grow(size + _len);
+    System.arraycopy(_buf.data, _start, data, size, _len);
+    size += _len;
+  } // end add
+
+  //----< set >-------------------------------------------------------------//
+
+  /**
+   * This method replaces the double at an index of the buffer.
+   * @param _idx The index of the double, less than size().
+   * @param _val The new value.
+  **/
+  public void set(final int _idx, final double _val) {
+    data[_idx] = _val;
+  } // end set
+
+  //----< grow >------------------------------------------------------------//
+
+  /**
+   * This method enlarges the backing array to hold at least _minCapacity
+   *  doubles, growing by half again of its current size.
+   * @param _minCapacity The number of doubles the buffer must be able to
+   *  hold.
+  **/
+  private void grow(final int _minCapacity) {
+    int capacity = data.length + (data.length >> 1);
+    if(capacity < _minCapacity)
+      capacity = _minCapacity;
+    data = Arrays.copyOf(data, capacity);
+  } // end grow
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< get >-------------------------------------------------------------//
+
+  /**
+   * This method returns the double at an index of the buffer.
+   * @param _idx The index of the double, less than size().
+   * @return The double at that index.
+  **/
+  public double get(final int _idx) {
+    return(data[_idx]);
+  } // end get
+
+  //----< size >------------------------------------------------------------//
+
+  /**
+   * This method returns the number of doubles in the buffer.
+   * @return An integer containing the number of doubles.
+  **/
+  public int size() {
+    return(size);
+  } // end size
+
+  //----< toFloatArray >----------------------------------------------------//
+
+  /**
+   * This method returns the contents of the buffer rounded to floats.
+   * @return A float array of exactly size() floats.
+  **/
+  public float[] toFloatArray() {
+    final float[] floats = new float[size];
+    for(int i = 0; i < size; i++)
+      floats[i] = (float)data[i];
+    return(floats);
+  } // end toFloatArray
+
+} // end class IsoDoubleBuffer
@@ -0,0 +1,201 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class is a growable array of primitive floats.  It's used to collect
+ *  packed geometry (x,y,z interleaved) without creating an object per vertex.
+ *  It is not thread safe; each thread should fill its own buffer.
+**/
+public class IsoFloatBuffer {
+
+  /** The default capacity of a new buffer. **/
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  /** The backing array.  Only the first size elements are in use. **/
+  private float[] data;
+
+  /** The number of floats in the buffer. **/
+  private int size = 0;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the default capacity.
+  **/
+  public IsoFloatBuffer() {
+    data = new float[DEFAULT_CAPACITY];
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the given capacity.
+   * @param _capacity The number of floats the buffer can hold before it has
+   *  to grow.
+  **/
+  public IsoFloatBuffer(final int _capacity) {
+    data = new float[Math.max(_capacity, 3)];
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends one float to the buffer.
+   * @param _val The float to append.
+  **/
+  public void add(final float _val) {
+    if(size == data.length)
+      grow(size + 1);
+    data[size++] = _val;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends three floats, typically the x, y, and z of a vertex
+   *  or a normal, to the buffer.
+   * @param _x The first float to append.
+   * @param _y The second float to append.
+   * @param _z The third float to append.
+  **/
+  public void add(final float _x, final float _y, final float _z) {
+    if(size + 3 > data.length)
+      grow(size + 3);
+    data[size]   = _x;
+    data[size+1] = _y;
+    data[size+2] = _z;
+    size += 3;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends a range of another buffer to this one.
+   * @param _buf The buffer to copy floats from.
+   * @param _start The index of the first float to copy.
+   * @param _len The number of floats to copy.
+  **/
+  public void add(final IsoFloatBuffer _buf, final int _start, final int _len) {
+    if(size + _len > data.length)
+      grow(size + _len);
+    System.arraycopy(_buf.data, _start, data, size, _len);
+    size += _len;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends a range of an array to this buffer.
+   * @param _arr The array to copy floats from.
+   * @param _start The index of the first float to copy.
+   * @param _len The number of floats to copy.
+  **/
+  public void add(final float[] _arr, final int _start, final int _len) {
+    if(size + _len > data.length)
+      grow(size + _len);
+    System.arraycopy(_arr, _start, data, size, _len);
+    size += _len;
+  } // end add
+
+  //----< set >-------------------------------------------------------------//
+
+  /**
+   * This method replaces the float at an index of the buffer.
+   * @param _idx The index of the float, less than size().
+   * @param _val The new value.
+  **/
+  public void set(final int _idx, final float _val) {
+    data[_idx] = _val;
+  } // end set
+
+  //----< clear >-----------------------------------------------------------//
+
+  /**
+   * This method empties the buffer, keeping its capacity for reuse.
+  **/
+  public void clear() {
+    size = 0;
+  } // end clear
+
+  //----< grow >------------------------------------------------------------//
+
+  /**
+   * This method enlarges the backing array to hold at least _minCapacity
+   *  floats, growing by half again of its current size.
+   * @param _minCapacity The number of floats the buffer must be able to hold.
+  **/
+  private void grow(final int _minCapacity) {
+    int capacity = data.length + (data.length >> 1);
+    if(capacity < _minCapacity)
+      capacity = _minCapacity;
+    data = Arrays.copyOf(data, capacity);
+  } // end grow
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< get >-------------------------------------------------------------//
+
+  /**
+   * This method returns the float at an index of the buffer.
+   * @param _idx The index of the float, less than size().
+   * @return The float at that index.
+  **/
+  public float get(final int _idx) {
+    return(data[_idx]);
+  } // end get
+
+  //----< size >------------------------------------------------------------//
+
+  /**
+   * This method returns the number of floats in the buffer.
+   * @return An integer containing the number of floats.
+  **/
+  public int size() {
+    return(size);
+  } // end size
+
+  //----< getArray >--------------------------------------------------------//
+
+  /**
+   * This method returns the backing array of the buffer.  Only the first
+   *  size() floats are valid, and the array is replaced when the buffer
+   *  grows.
+   * @return The backing float array.
+  **/
+  public float[] getArray() {
+    return(data);
+  } // end getArray
+
+  //----< toArray >---------------------------------------------------------//
+
+  /**
+   * This method returns the contents of the buffer as an array of exactly
+   *  size() floats.  The backing array is returned as is when it's already
+   *  that size, otherwise a copy is made.
+   * @return A float array containing the contents of the buffer.
+  **/
+  public float[] toArray() {
+    if(data.length == size)
+      return(data);
+    return(Arrays.copyOf(data, size));
+  } // end toArray
+
+  //----< copyTo >----------------------------------------------------------//
+
+  /**
+   * This method copies the contents of the buffer into an array.
+   * @param _dest The array to copy into.
+   * @param _destPos The index in _dest of the first float copied.
+  **/
+  public void copyTo(final float[] _dest, final int _destPos) {
+    System.arraycopy(data, 0, _dest, _destPos, size);
+  } // end copyTo
+
+} // end class IsoFloatBuffer
@@ -866,6 +866,36 @@ public final class IsoGeomTable {
     geoms[255] = new float[] {};
   } // end static block
 
+  /**
+   * This is the grid edge that each vertex of geoms lies on, one int per
+   *  vertex (so a quarter of the length of the geoms entry).  Every vertex
+   *  in geoms sits on the midpoint of a cube edge.  Bits 0-1 hold the axis
+   *  of the edge (IsoConstInterface X, Y, or Z) and bits 2, 3, and 4 hold the
+   *  x, y, and z offsets of the cube corner the edge starts at.  Two cubes
+   *  that share an edge agree on it, which is what allows vertices to be
+   *  shared between cubes.
+  **/
+  public static final int[][] edges = new int[256][];
+
+  static {
+    for(int i = 0; i < 256; i++) {
+      edges[i] = new int[geoms[i].length / 4];
+      for(int j = 0; j < edges[i].length; j++) {
+        final float vx = geoms[i][j*4];
+        final float vy = geoms[i][j*4+1];
+        final float vz = -geoms[i][j*4+2];    // table z grows away from you
+        int axis;
+        if(vx == F)
+          axis = IsoConstInterface.X;
+        else if(vy == F)
+          axis = IsoConstInterface.Y;
+        else
+          axis = IsoConstInterface.Z;
+        edges[i][j] = axis | ((int)vx << 2) | ((int)vy << 3) | ((int)vz << 4);
+      } // end for
+    } // end for
+  } // end static block
+
   private IsoGeomTable() {
      /*
       * Prevent construction.
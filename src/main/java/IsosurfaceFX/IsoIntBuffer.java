@@ -0,0 +1,186 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class is a growable array of primitive ints.  It's the int
+ *  counterpart of IsoFloatBuffer.  It is not thread safe; each thread should
+ *  fill its own buffer.
+**/
+public class IsoIntBuffer {
+
+  /** The default capacity of a new buffer. **/
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  /** The backing array.  Only the first size elements are in use. **/
+  private int[] data;
+
+  /** The number of ints in the buffer. **/
+  private int size = 0;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the default capacity.
+  **/
+  public IsoIntBuffer() {
+    data = new int[DEFAULT_CAPACITY];
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the given capacity.
+   * @param _capacity The number of ints the buffer can hold before it has
+   *  to grow.
+  **/
+  public IsoIntBuffer(final int _capacity) {
+    data = new int[Math.max(_capacity, 3)];
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends one int to the buffer.
+   * @param _val The int to append.
+  **/
+  public void add(final int _val) {
+    if(size == data.length)
+      grow(size + 1);
+    data[size++] = _val;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends three ints, typically the vertex indices of a
+   *  triangle, to the buffer.
+   * @param _x The first int to append.
+   * @param _y The second int to append.
+   * @param _z The third int to append.
+  **/
+  public void add(final int _x, final int _y, final int _z) {
+    if(size + 3 > data.length)
+      grow(size + 3);
+    data[size]   = _x;
+    data[size+1] = _y;
+    data[size+2] = _z;
+    size += 3;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends a range of another buffer to this one.
+   * @param _buf The buffer to copy ints from.
+   * @param _start The index of the first int to copy.
+   * @param _len The number of ints to copy.
+  **/
+  public void add(final IsoIntBuffer _buf, final int _start, final int _len) {
+    if(size + _len > data.length)
+      grow(size + _len);
+    System.arraycopy(_buf.data, _start, data, size, _len);
+    size += _len;
+  } // end add
+
+  //----< set >-------------------------------------------------------------//
+
+  /**
+   * This method replaces the int at an index of the buffer.
+   * @param _idx The index of the int, less than size().
+   * @param _val The new value.
+  **/
+  public void set(final int _idx, final int _val) {
+    data[_idx] = _val;
+  } // end set
+
+  //----< clear >-----------------------------------------------------------//
+
+  /**
+   * This method empties the buffer, keeping its capacity for reuse.
+  **/
+  public void clear() {
+    size = 0;
+  } // end clear
+
+  //----< grow >------------------------------------------------------------//
+
+  /**
+   * This method enlarges the backing array to hold at least _minCapacity
+   *  ints, growing by half again of its current size.
+   * @param _minCapacity The number of ints the buffer must be able to hold.
+  **/
+  private void grow(final int _minCapacity) {
+    int capacity = data.length + (data.length >> 1);
+    if(capacity < _minCapacity)
+      capacity = _minCapacity;
+    data = Arrays.copyOf(data, capacity);
+  } // end grow
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< get >-------------------------------------------------------------//
+
+  /**
+   * This method returns the int at an index of the buffer.
+   * @param _idx The index of the int, less than size().
+   * @return The int at that index.
+  **/
+  public int get(final int _idx) {
+    return(data[_idx]);
+  } // end get
+
+  //----< size >------------------------------------------------------------//
+
+  /**
+   * This method returns the number of ints in the buffer.
+   * @return An integer containing the number of ints.
+  **/
+  public int size() {
+    return(size);
+  } // end size
+
+  //----< getArray >--------------------------------------------------------//
+
+  /**
+   * This method returns the backing array of the buffer.  Only the first
+   *  size() ints are valid, and the array is replaced when the buffer
+   *  grows.
+   * @return The backing int array.
+  **/
+  public int[] getArray() {
+    return(data);
+  } // end getArray
+
+  //----< toArray >---------------------------------------------------------//
+
+  /**
+   * This method returns the contents of the buffer as an array of exactly
+   *  size() ints.  The backing array is returned as is when it's already
+   *  that size, otherwise a copy is made.
+   * @return A int array containing the contents of the buffer.
+  **/
+  public int[] toArray() {
+    if(data.length == size)
+      return(data);
+    return(Arrays.copyOf(data, size));
+  } // end toArray
+
+  //----< copyTo >----------------------------------------------------------//
+
+  /**
+   * This method copies the contents of the buffer into an array.
+   * @param _dest The array to copy into.
+   * @param _destPos The index in _dest of the first int copied.
+  **/
+  public void copyTo(final int[] _dest, final int _destPos) {
+    System.arraycopy(data, 0, _dest, _destPos, size);
+  } // end copyTo
+
+} // end class IsoIntBuffer
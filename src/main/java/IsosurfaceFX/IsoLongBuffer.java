@@ -0,0 +1,185 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class is a growable array of primitive longs.  It's the long
+ *  counterpart of IsoFloatBuffer.  It is not thread safe; each thread should
+ *  fill its own buffer.
+**/
+public class IsoLongBuffer {
+
+  /** The default capacity of a new buffer. **/
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  /** The backing array.  Only the first size elements are in use. **/
+  private long[] data;
+
+  /** The number of longs in the buffer. **/
+  private int size = 0;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the default capacity.
+  **/
+  public IsoLongBuffer() {
+    data = new long[DEFAULT_CAPACITY];
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty buffer with the given capacity.
+   * @param _capacity The number of longs the buffer can hold before it has
+   *  to grow.
+  **/
+  public IsoLongBuffer(final int _capacity) {
+    data = new long[Math.max(_capacity, 3)];
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends one long to the buffer.
+   * @param _val The long to append.
+  **/
+  public void add(final long _val) {
+    if(size == data.length)
+      grow(size + 1);
+    data[size++] = _val;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends three longs to the buffer.
+   * @param _x The first long to append.
+   * @param _y The second long to append.
+   * @param _z The third long to append.
+  **/
+  public void add(final long _x, final long _y, final long _z) {
+    if(size + 3 > data.length)
+      grow(size + 3);
+    data[size]   = _x;
+    data[size+1] = _y;
+    data[size+2] = _z;
+    size += 3;
+  } // end add
+
+  //----< add >-------------------------------------------------------------//
+
+  /**
+   * This method appends a range of another buffer to this one.
+   * @param _buf The buffer to copy longs from.
+   * @param _start The index of the first long to copy.
+   * @param _len The number of longs to copy.
+  **/
+  public void add(final IsoLongBuffer _buf, final int _start, final int _len) {
+    if(size + _len > data.length)
+      grow(size + _len);
+    System.arraycopy(_buf.data, _start, data, size, _len);
+    size += _len;
+  } // end add
+
+  //----< set >-------------------------------------------------------------//
+
+  /**
+   * This method replaces the long at an index of the buffer.
+   * @param _idx The index of the long, less than size().
+   * @param _val The new value.
+  **/
+  public void set(final int _idx, final long _val) {
+    data[_idx] = _val;
+  } // end set
+
+  //----< clear >-----------------------------------------------------------//
+
+  /**
+   * This method empties the buffer, keeping its capacity for reuse.
+  **/
+  public void clear() {
+    size = 0;
+  } // end clear
+
+  //----< grow >------------------------------------------------------------//
+
+  /**
+   * This method enlarges the backing array to hold at least _minCapacity
+   *  longs, growing by half again of its current size.
+   * @param _minCapacity The number of longs the buffer must be able to hold.
+  **/
+  private void grow(final int _minCapacity) {
+    int capacity = data.length + (data.length >> 1);
+    if(capacity < _minCapacity)
+      capacity = _minCapacity;
+    data = Arrays.copyOf(data, capacity);
+  } // end grow
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< get >-------------------------------------------------------------//
+
+  /**
+   * This method returns the long at an index of the buffer.
+   * @param _idx The index of the long, less than size().
+   * @return The long at that index.
+  **/
+  public long get(final int _idx) {
+    return(data[_idx]);
+  } // end get
+
+  //----< size >------------------------------------------------------------//
+
+  /**
+   * This method returns the number of longs in the buffer.
+   * @return An integer containing the number of longs.
+  **/
+  public int size() {
+    return(size);
+  } // end size
+
+  //----< getArray >--------------------------------------------------------//
+
+  /**
+   * This method returns the backing array of the buffer.  Only the first
+   *  size() longs are valid, and the array is replaced when the buffer
+   *  grows.
+   * @return The backing long array.
+  **/
+  public long[] getArray() {
+    return(data);
+  } // end getArray
+
+  //----< toArray >---------------------------------------------------------//
+
+  /**
+   * This method returns the contents of the buffer as an array of exactly
+   *  size() longs.  The backing array is returned as is when it's already
+   *  that size, otherwise a copy is made.
+   * @return A long array containing the contents of the buffer.
+  **/
+  public long[] toArray() {
+    if(data.length == size)
+      return(data);
+    return(Arrays.copyOf(data, size));
+  } // end toArray
+
+  //----< copyTo >----------------------------------------------------------//
+
+  /**
+   * This method copies the contents of the buffer into an array.
+   * @param _dest The array to copy into.
+   * @param _destPos The index in _dest of the first long copied.
+  **/
+  public void copyTo(final long[] _dest, final int _destPos) {
+    System.arraycopy(data, 0, _dest, _destPos, size);
+  } // end copyTo
+
+} // end class IsoLongBuffer
@@ -0,0 +1,175 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class is an open-addressing hash map from primitive long keys to
+ *  primitive int values, using linear probing.  It's used to weld vertices
+ *  by their grid edge ID without boxing a Long per vertex.  Entries can't
+ *  be removed.  It is not thread safe.
+**/
+public class IsoLongIntHashMap {
+
+  /** The value returned by get when a key is not in the map. **/
+  public static final int NO_VALUE = -1;
+
+  /** The key marking an empty slot.  It can't be used as a key. **/
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  /** The default number of slots of a new map.  Must be a power of two. **/
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  /** The keys of the slots, EMPTY for unused slots. **/
+  private long[] keys;
+
+  /** The values of the slots. **/
+  private int[] values;
+
+  /** The number of entries in the map. **/
+  private int size = 0;
+
+  /** The number of entries at which the map doubles its slots. **/
+  private int resizeAt;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty map with the default capacity.
+  **/
+  public IsoLongIntHashMap() {
+    allocate(DEFAULT_CAPACITY);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty map that can hold the given number of
+   *  entries before it has to grow.
+   * @param _expected The number of entries expected.
+  **/
+  public IsoLongIntHashMap(final int _expected) {
+    int capacity = DEFAULT_CAPACITY;
+    while(capacity * 3 / 4 < _expected)
+      capacity <<= 1;
+    allocate(capacity);
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< put >-------------------------------------------------------------//
+
+  /**
+   * This method maps a key to a value, replacing any previous value.
+   * @param _key The key.  Must not be Long.MIN_VALUE.
+   * @param _value The value to map the key to.
+  **/
+  public void put(final long _key, final int _value) {
+    final int mask = keys.length - 1;
+    int slot = hash(_key) & mask;
+    while(keys[slot] != EMPTY) {
+      if(keys[slot] == _key) {
+        values[slot] = _value;
+        return;
+      } // end if
+      slot = (slot + 1) & mask;
+    } // end while
+    keys[slot] = _key;
+    values[slot] = _value;
+    if(++size >= resizeAt)
+      rehash(keys.length << 1);
+  } // end put
+
+  //----< clear >-----------------------------------------------------------//
+
+  /**
+   * This method removes all of the entries, keeping the capacity for reuse.
+  **/
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  } // end clear
+
+  //----< allocate >--------------------------------------------------------//
+
+  /**
+   * This method allocates empty slot arrays.
+   * @param _capacity The number of slots, a power of two.
+  **/
+  private void allocate(final int _capacity) {
+    keys = new long[_capacity];
+    values = new int[_capacity];
+    Arrays.fill(keys, EMPTY);
+    resizeAt = _capacity * 3 / 4;
+  } // end allocate
+
+  //----< rehash >----------------------------------------------------------//
+
+  /**
+   * This method moves all of the entries into a larger set of slots.
+   * @param _capacity The new number of slots, a power of two.
+  **/
+  private void rehash(final int _capacity) {
+    final long[] oldKeys = keys;
+    final int[] oldValues = values;
+    allocate(_capacity);
+    final int mask = _capacity - 1;
+    for(int i = 0; i < oldKeys.length; i++) {
+      if(oldKeys[i] != EMPTY) {
+        int slot = hash(oldKeys[i]) & mask;
+        while(keys[slot] != EMPTY)
+          slot = (slot + 1) & mask;
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      } // end if
+    } // end for
+  } // end rehash
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< get >-------------------------------------------------------------//
+
+  /**
+   * This method looks up the value of a key.
+   * @param _key The key to look up.
+   * @return The value mapped to the key, or NO_VALUE if there is none.
+  **/
+  public int get(final long _key) {
+    final int mask = keys.length - 1;
+    int slot = hash(_key) & mask;
+    while(keys[slot] != EMPTY) {
+      if(keys[slot] == _key)
+        return(values[slot]);
+      slot = (slot + 1) & mask;
+    } // end while
+    return(NO_VALUE);
+  } // end get
+
+  //----< size >------------------------------------------------------------//
+
+  /**
+   * This method returns the number of entries in the map.
+   * @return An integer containing the number of entries.
+  **/
+  public int size() {
+    return(size);
+  } // end size
+
+  //----< hash >------------------------------------------------------------//
+
+  /**
+   * This method spreads the bits of a key so that keys that differ only in
+   *  their high bits (neighboring grid edges) land in different slots.
+   * @param _key The key to hash.
+   * @return The mixed hash of the key.
+  **/
+  private static int hash(final long _key) {
+    long h = _key * 0x9E3779B97F4A7C15L;
+    h ^= (h >>> 32);
+    return((int)(h ^ (h >>> 16)));
+  } // end hash
+
+} // end class IsoLongIntHashMap
@@ -0,0 +1,123 @@
+package IsosurfaceFX;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class runs asynchronous extractions (see
+ *  IsoSurfaceGenerator.extractAsync) for something that keeps asking for new
+ *  surfaces, like a threshold slider, where only the latest one matters.
+ *  Starting an extraction cancels the one before it, if it's still running,
+ *  so the new one doesn't wait behind a surface nobody will look at.
+ * The cancelled future completes with a CancellationException, so a
+ *  dependent stage that shows the surface should check for it (or use
+ *  thenAccept, which skips it).
+**/
+public class IsoSurfaceAsyncExtractor {
+
+  /** The options to extract with. **/
+  private final IsoSurfaceExtractionOptions options;
+
+  /** The time each extraction may take, in milliseconds, or 0 for none. **/
+  private final long deadlineMillis;
+
+  /** The latest extraction, or null before the first. **/
+  private CompletableFuture<IsoSurfaceGenerator> current;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an extractor with no deadline.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+  **/
+  public IsoSurfaceAsyncExtractor(final IsoSurfaceExtractionOptions _options) {
+    this(_options, 0);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an extractor whose extractions have a deadline.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @param _deadlineMillis The time each extraction may take, in
+   *  milliseconds, or 0 for no deadline.
+  **/
+  public IsoSurfaceAsyncExtractor(final IsoSurfaceExtractionOptions _options,
+                                  final long _deadlineMillis)
+  {
+    options = _options;
+    deadlineMillis = _deadlineMillis;
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< extract >---------------------------------------------------------//
+
+  /**
+   * This method starts an extraction, cancelling the previous one.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surface.  May be null.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @return A CompletableFuture of the generator holding the surface.
+  **/
+  public synchronized CompletableFuture<IsoSurfaceGenerator> extract(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _lowOp, final double _lowThres,
+                                  final byte _highOp, final double _highThres)
+  {
+    cancel();
+    current = IsoSurfaceGenerator.extractAsync(_dataMatrix, _vc,
+                                               _lowOp, _lowThres,
+                                               _highOp, _highThres,
+                                               options, deadlineMillis);
+    return(current);
+  } // end extract
+
+  //----< extract >---------------------------------------------------------//
+
+  /**
+   * This method starts an extraction with a single threshold, cancelling the
+   *  previous one.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surface.  May be null.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @return A CompletableFuture of the generator holding the surface.
+  **/
+  public CompletableFuture<IsoSurfaceGenerator> extract(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _op, final double _threshold)
+  {
+    return(extract(_dataMatrix, _vc, _op, _threshold, _op, _threshold));
+  } // end extract
+
+  //----< cancel >----------------------------------------------------------//
+
+  /**
+   * This method cancels the latest extraction, if it's still running.
+  **/
+  public synchronized void cancel() {
+    if(current != null)
+      current.cancel(false);
+  } // end cancel
+
+} // end class IsoSurfaceAsyncExtractor
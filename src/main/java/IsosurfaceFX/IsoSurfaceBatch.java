@@ -0,0 +1,122 @@
+package IsosurfaceFX;
+
+/**
+ * This class is one piece of a streaming extraction (see
+ *  IsoSurfaceGenerator.publish): the geometry of a range of cell layers along
+ *  the independent axis of the data matrix.  The batches of an extraction
+ *  come in layer order, and putting their triangles one after another gives
+ *  the same triangles, in the same order, as an IsoSurfaceGenerator with the
+ *  same settings.
+ * The arrays are laid out like the generator's packed arrays.  The indices of
+ *  an indexed batch refer to the batch's own vertices.
+**/
+public class IsoSurfaceBatch {
+
+  /** The first cell layer (inclusive) of the batch. **/
+  private final int startLayer;
+
+  /** The last cell layer (exclusive) of the batch. **/
+  private final int endLayer;
+
+  /** The number of triangles in the batch. **/
+  private final int triangleCount;
+
+  /** The vertices of the batch, packed x,y,z. **/
+  private final float[] vertices;
+
+  /** The normals of the batch, packed x,y,z, one per vertex. **/
+  private final float[] normals;
+
+  /**
+   * The vertex indices of the batch's triangles, three per triangle, or null
+   *  when every triangle has three vertices of its own.
+  **/
+  private final int[] indices;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor takes the pieces of a batch.  The arrays are used as
+   *  is, not copied.
+   * @param _startLayer The first cell layer (inclusive) of the batch.
+   * @param _endLayer The last cell layer (exclusive) of the batch.
+   * @param _triangleCount The number of triangles in the batch.
+   * @param _vertices The packed vertices.
+   * @param _normals The packed normals.
+   * @param _indices The vertex indices, or null for a triangle soup.
+  **/
+  public IsoSurfaceBatch(final int _startLayer, final int _endLayer,
+                         final int _triangleCount,
+                         final float[] _vertices, final float[] _normals,
+                         final int[] _indices)
+  {
+    startLayer = _startLayer;
+    endLayer = _endLayer;
+    triangleCount = _triangleCount;
+    vertices = _vertices;
+    normals = _normals;
+    indices = _indices;
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getStartLayer >---------------------------------------------------//
+
+  /**
+   * This method returns the first cell layer of the batch.
+   * @return An integer containing the layer index, inclusive.
+  **/
+  public int getStartLayer() { return(startLayer); }
+
+  //----< getEndLayer >-----------------------------------------------------//
+
+  /**
+   * This method returns the end of the batch's cell layers.
+   * @return An integer containing the layer index, exclusive.
+  **/
+  public int getEndLayer() { return(endLayer); }
+
+  //----< getTriangleCount >------------------------------------------------//
+
+  /**
+   * This method returns the number of triangles in the batch.
+   * @return An integer containing the triangle count.
+  **/
+  public int getTriangleCount() { return(triangleCount); }
+
+  //----< getVertices >-----------------------------------------------------//
+
+  /**
+   * This method returns the vertices of the batch.
+   * @return The packed vertex array, x,y,z interleaved.
+  **/
+  public float[] getVertices() { return(vertices); }
+
+  //----< getNormals >------------------------------------------------------//
+
+  /**
+   * This method returns the normals of the batch's vertices.
+   * @return The packed normal array, x,y,z interleaved.
+  **/
+  public float[] getNormals() { return(normals); }
+
+  //----< getIndices >------------------------------------------------------//
+
+  /**
+   * This method returns the vertex indices of the batch's triangles.
+   * @return The index array, three per triangle, or null for a triangle
+   *  soup.
+  **/
+  public int[] getIndices() { return(indices); }
+
+  //----< isIndexed >-------------------------------------------------------//
+
+  /**
+   * This method indicates whether the batch is an indexed mesh.
+   * @return A boolean that is true when the batch has an index array.
+  **/
+  public boolean isIndexed() { return(indices != null); }
+
+} // end class IsoSurfaceBatch
@@ -0,0 +1,350 @@
+package IsosurfaceFX;
+
+/**
+ * This class summarizes an IsoSurfaceDataMatrix as the minimum and maximum
+ *  value of each block of cells, so an IsoSurfaceGenerator can skip the
+ *  blocks that can't produce any of the surface.  A block of a given range
+ *  only produces geometry when its samples can be on both sides of the
+ *  thresholds, which IsoSurfaceClassifier.mayStraddle decides from the
+ *  range alone, so the same pyramid serves every threshold.
+ * Level 0 holds one range per block of blockSize^3 cells, covering all of
+ *  the block's samples including the ones it shares with its neighbors.
+ *  Each higher level holds one range per 2x2x2 blocks of the level below, up
+ *  to a single range for the whole matrix, so large empty regions are
+ *  rejected without looking at their blocks one by one.
+ * The ranges hold NaN when a block contains a NaN, which keeps the block
+ *  from being skipped.  A pyramid describes the matrix as it was when the
+ *  pyramid was built; IsoSurfaceDataMatrix.getBlockPyramid builds a new
+ *  one after the matrix's data changes.
+**/
+public class IsoSurfaceBlockPyramid {
+
+  /** The default edge length, in cells, of a level 0 block. **/
+  public static final int DEFAULT_BLOCK_SIZE = 8;
+
+  /** The edge length, in cells, of a level 0 block. **/
+  private final int blockSize;
+
+  /** The number of blocks along x, y, and z, for each level. **/
+  private final int[][] counts;
+
+  /** The minimum value of each block, for each level, x slowest. **/
+  private final double[][] mins;
+
+  /** The maximum value of each block, for each level, x slowest. **/
+  private final double[][] maxs;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor builds the pyramid of a data matrix with the default
+   *  block size.
+   * @param _dataMatrix The data matrix to summarize.
+  **/
+  public IsoSurfaceBlockPyramid(final IsoSurfaceDataMatrix _dataMatrix) {
+    this(_dataMatrix, DEFAULT_BLOCK_SIZE);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor builds the pyramid of a data matrix.  Every sample of
+   *  the matrix is read once per block it belongs to.
+   * @param _dataMatrix The data matrix to summarize.
+   * @param _blockSize The edge length, in cells, of a level 0 block.
+   * @throws IllegalArgumentException If the block size is less than 1.
+  **/
+  public IsoSurfaceBlockPyramid(final IsoSurfaceDataMatrix _dataMatrix,
+                                final int _blockSize)
+    throws IllegalArgumentException
+  {
+    if(_blockSize < 1)
+      throw new IllegalArgumentException("Block size must be at least 1");
+    blockSize = _blockSize;
+
+    final int[] samples = { _dataMatrix.getXMaxDim(),
+                            _dataMatrix.getYMaxDim(),
+                            _dataMatrix.getZMaxDim() };
+    final int[] level0 = countBlocks(samples, blockSize);
+    counts = new int[countLevels(level0)][];
+    mins = new double[counts.length][];
+    maxs = new double[counts.length][];
+    counts[0] = level0;
+    buildLevel0(_dataMatrix, samples);
+    for(int level = 1; level < counts.length; level++)
+      buildLevel(level);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor builds the pyramid from level 0 ranges that were
+   *  worked out some other way, for example by a data matrix that knows
+   *  which of its regions hold a single value.  Each range must cover all of
+   *  its block's samples, the way the other constructor reads them.
+   * @param _blockSize The edge length, in cells, of a level 0 block.
+   * @param _samples The number of samples along x, y, and z.
+   * @param _mins The minimum of each level 0 block, indexed
+   *  (bx * ny + by) * nz + bz.  The array is used as is, not copied.
+   * @param _maxs The maximum of each level 0 block, indexed like _mins.
+   * @throws IllegalArgumentException If the block size is less than 1 or
+   *  the arrays don't have one range per block.
+  **/
+  public IsoSurfaceBlockPyramid(final int _blockSize, final int[] _samples,
+                                final double[] _mins, final double[] _maxs)
+    throws IllegalArgumentException
+  {
+    if(_blockSize < 1)
+      throw new IllegalArgumentException("Block size must be at least 1");
+    blockSize = _blockSize;
+
+    final int[] level0 = countBlocks(_samples, blockSize);
+    final int blocks = level0[0] * level0[1] * level0[2];
+    if(_mins.length != blocks || _maxs.length != blocks)
+      throw new IllegalArgumentException("Expected " + blocks + " blocks");
+    counts = new int[countLevels(level0)][];
+    mins = new double[counts.length][];
+    maxs = new double[counts.length][];
+    counts[0] = level0;
+    mins[0] = _mins;
+    maxs[0] = _maxs;
+    for(int level = 1; level < counts.length; level++)
+      buildLevel(level);
+  } // end constructor
+
+  //----< countBlocks >-----------------------------------------------------//
+
+  /**
+   * This method works out the number of level 0 blocks along each axis.
+   * @param _samples The number of samples along x, y, and z.
+   * @param _blockSize The edge length, in cells, of a level 0 block.
+   * @return A new array of the x, y, and z block counts.
+  **/
+  public static int[] countBlocks(final int[] _samples, final int _blockSize) {
+    final int[] level0 = new int[3];
+    for(int i = 0; i < 3; i++) {
+      final int cells = Math.max(0, _samples[i] - 1);
+      level0[i] = (cells + _blockSize - 1) / _blockSize;
+    } // end for
+    return(level0);
+  } // end countBlocks
+
+  //----< countLevels >-----------------------------------------------------//
+
+  /**
+   * This method works out the number of levels above a level 0 grid, down
+   *  to a single block.
+   * @param _level0 The level 0 block counts.
+   * @return An integer containing the number of levels, at least 1.
+  **/
+  private static int countLevels(final int[] _level0) {
+    int levelCnt = 1;
+    for(int[] cnt = _level0.clone(); cnt[0] > 1 || cnt[1] > 1 || cnt[2] > 1;
+        levelCnt++)
+    {
+      for(int i = 0; i < 3; i++)
+        cnt[i] = (cnt[i] + 1) / 2;
+    } // end for
+    return(levelCnt);
+  } // end countLevels
+
+  //----< buildLevel0 >-----------------------------------------------------//
+
+  /**
+   * This method reads the samples of every level 0 block.
+   * @param _dataMatrix The data matrix to summarize.
+   * @param _samples The number of samples along x, y, and z.
+  **/
+  private void buildLevel0(final IsoSurfaceDataMatrix _dataMatrix,
+                           final int[] _samples)
+  {
+    final int[] cnt = counts[0];
+    final int blocks = cnt[0] * cnt[1] * cnt[2];
+    mins[0] = new double[blocks];
+    maxs[0] = new double[blocks];
+
+    int block = 0;
+    for(int bx = 0; bx < cnt[0]; bx++) {
+      final int x0 = bx * blockSize;
+      final int x1 = Math.min(x0 + blockSize, _samples[0] - 1);
+      for(int by = 0; by < cnt[1]; by++) {
+        final int y0 = by * blockSize;
+        final int y1 = Math.min(y0 + blockSize, _samples[1] - 1);
+        for(int bz = 0; bz < cnt[2]; bz++, block++) {
+          final int z0 = bz * blockSize;
+          final int z1 = Math.min(z0 + blockSize, _samples[2] - 1);
+
+          double min = Double.POSITIVE_INFINITY;
+          double max = Double.NEGATIVE_INFINITY;
+          for(int x = x0; x <= x1; x++) {
+            for(int y = y0; y <= y1; y++) {
+              for(int z = z0; z <= z1; z++) {
+                final double val = _dataMatrix.getPoint(x, y, z);
+                min = Math.min(min, val);
+                max = Math.max(max, val);
+              } // end for
+            } // end for
+          } // end for
+          mins[0][block] = min;
+          maxs[0][block] = max;
+        } // end for
+      } // end for
+    } // end for
+  } // end buildLevel0
+
+  //----< buildLevel >------------------------------------------------------//
+
+  /**
+   * This method combines the ranges of each 2x2x2 group of blocks of the
+   *  level below.
+   * @param _level The level to build, at least 1.
+  **/
+  private void buildLevel(final int _level) {
+    final int[] below = counts[_level - 1];
+    final int[] cnt = { (below[0] + 1) / 2, (below[1] + 1) / 2,
+                        (below[2] + 1) / 2 };
+    counts[_level] = cnt;
+    mins[_level] = new double[cnt[0] * cnt[1] * cnt[2]];
+    maxs[_level] = new double[cnt[0] * cnt[1] * cnt[2]];
+
+    int block = 0;
+    for(int bx = 0; bx < cnt[0]; bx++) {
+      for(int by = 0; by < cnt[1]; by++) {
+        for(int bz = 0; bz < cnt[2]; bz++, block++) {
+          double min = Double.POSITIVE_INFINITY;
+          double max = Double.NEGATIVE_INFINITY;
+          for(int cx = bx*2; cx < Math.min(bx*2 + 2, below[0]); cx++) {
+            for(int cy = by*2; cy < Math.min(by*2 + 2, below[1]); cy++) {
+              for(int cz = bz*2; cz < Math.min(bz*2 + 2, below[2]); cz++) {
+                final int child = (cx * below[1] + cy) * below[2] + cz;
+                min = Math.min(min, mins[_level - 1][child]);
+                max = Math.max(max, maxs[_level - 1][child]);
+              } // end for
+            } // end for
+          } // end for
+          mins[_level][block] = min;
+          maxs[_level][block] = max;
+        } // end for
+      } // end for
+    } // end for
+  } // end buildLevel
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< findActiveBlocks >------------------------------------------------//
+
+  /**
+   * This method finds the level 0 blocks that may produce part of the
+   *  surface for a classifier.  The pyramid is searched from the top, so a
+   *  group of blocks whose combined range can't straddle the thresholds is
+   *  rejected as a whole.
+   * @param _cls The classifier for the thresholds.
+   * @return A flag per level 0 block, indexed (bx * ny + by) * nz + bz, that
+   *  is true for the blocks that have to be extracted.
+  **/
+  public boolean[] findActiveBlocks(final IsoSurfaceClassifier _cls) {
+    final int[] cnt = counts[0];
+    final boolean[] active = new boolean[cnt[0] * cnt[1] * cnt[2]];
+    if(active.length > 0)
+      markActive(_cls, counts.length - 1, 0, 0, 0, active);
+    return(active);
+  } // end findActiveBlocks
+
+  //----< markActive >------------------------------------------------------//
+
+  /**
+   * This method flags the level 0 blocks under one block that may produce
+   *  part of the surface.
+   * @param _cls The classifier for the thresholds.
+   * @param _level The level of the block.
+   * @param _bx The x index of the block.
+   * @param _by The y index of the block.
+   * @param _bz The z index of the block.
+   * @param _active The level 0 flags to set.
+  **/
+  private void markActive(final IsoSurfaceClassifier _cls, final int _level,
+                          final int _bx, final int _by, final int _bz,
+                          final boolean[] _active)
+  {
+    final int[] cnt = counts[_level];
+    final int block = (_bx * cnt[1] + _by) * cnt[2] + _bz;
+    if(!_cls.mayStraddle(mins[_level][block], maxs[_level][block]))
+      return;
+    if(_level == 0) {
+      _active[block] = true;
+      return;
+    } // end if
+
+    final int[] below = counts[_level - 1];
+    for(int cx = _bx*2; cx < Math.min(_bx*2 + 2, below[0]); cx++) {
+      for(int cy = _by*2; cy < Math.min(_by*2 + 2, below[1]); cy++) {
+        for(int cz = _bz*2; cz < Math.min(_bz*2 + 2, below[2]); cz++)
+          markActive(_cls, _level - 1, cx, cy, cz, _active);
+      } // end for
+    } // end for
+  } // end markActive
+
+  //----< getBlockSize >----------------------------------------------------//
+
+  /**
+   * This method returns the edge length of a level 0 block.
+   * @return An integer containing the number of cells along each edge.
+  **/
+  public int getBlockSize() { return(blockSize); }
+
+  //----< getLevelCount >---------------------------------------------------//
+
+  /**
+   * This method returns the number of levels of the pyramid.
+   * @return An integer containing the number of levels, at least 1.
+  **/
+  public int getLevelCount() { return(counts.length); }
+
+  //----< getBlockCounts >--------------------------------------------------//
+
+  /**
+   * This method returns the number of blocks of a level along each axis.
+   * @param _level The level, 0 for the finest.
+   * @return A new array of the x, y, and z block counts.
+  **/
+  public int[] getBlockCounts(final int _level) {
+    return(counts[_level].clone());
+  } // end getBlockCounts
+
+  //----< getMin >----------------------------------------------------------//
+
+  /**
+   * This method returns the smallest sample value of a block.
+   * @param _level The level of the block.
+   * @param _bx The x index of the block.
+   * @param _by The y index of the block.
+   * @param _bz The z index of the block.
+   * @return The minimum, or NaN if the block holds a NaN.
+  **/
+  public double getMin(final int _level,
+                       final int _bx, final int _by, final int _bz)
+  {
+    final int[] cnt = counts[_level];
+    return(mins[_level][(_bx * cnt[1] + _by) * cnt[2] + _bz]);
+  } // end getMin
+
+  //----< getMax >----------------------------------------------------------//
+
+  /**
+   * This method returns the largest sample value of a block.
+   * @param _level The level of the block.
+   * @param _bx The x index of the block.
+   * @param _by The y index of the block.
+   * @param _bz The z index of the block.
+   * @return The maximum, or NaN if the block holds a NaN.
+  **/
+  public double getMax(final int _level,
+                       final int _bx, final int _by, final int _bz)
+  {
+    final int[] cnt = counts[_level];
+    return(maxs[_level][(_bx * cnt[1] + _by) * cnt[2] + _bz]);
+  } // end getMax
+
+} // end class IsoSurfaceBlockPyramid
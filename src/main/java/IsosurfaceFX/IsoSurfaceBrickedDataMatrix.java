@@ -0,0 +1,691 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This implementation of the IsoSurfaceDataMatrix stores its points as float
+ *  bricks, cubes of brickSize points on a side.  A brick whose points all
+ *  have the same value is stored as that one value; only the mixed bricks
+ *  get an array.  Segmented scans and volumes with a lot of empty background
+ *  take a fraction of the memory of a dense matrix, and reading a point is
+ *  still a bounds check, a brick lookup and at most one array load.
+ * The points of a mixed brick are laid out like a small dense matrix: the
+ *  independent axis is the slowest varying, then the major axis, then the
+ *  minor axis.  Bricks are numbered (bx * yBricks + by) * zBricks + bz.
+ * The major and minor axis offsets are applied when a plane of data is
+ *  loaded, by shifting the plane into place, and not when a point is read.
+ *  Mixed bricks whose points become the same value are folded back into one
+ *  value when the last plane of their layer of bricks is loaded, or by
+ *  compact.
+**/
+public final class IsoSurfaceBrickedDataMatrix extends IsoSurfaceDataMatrix {
+
+  // Inherits plane
+  // Inherits xMaxDim, yMaxDim, zMaxDim
+  // Inherits xScale, yScale, zScale
+  // Inherits majorAxisOffset, minorAxisOffset
+
+  /** The number of points on a side of a brick unless told otherwise. **/
+  public static final int DEFAULT_BRICK_SIZE = 16;
+
+  /** The number of points on a side of a brick, a power of two. **/
+  private final int brickSize;
+
+  /** The log base 2 of brickSize, to find a point's brick. **/
+  private final int brickShift;
+
+  /** brickSize - 1, to find a point's place in its brick. **/
+  private final int brickMask;
+
+  /** The number of bricks along the x-axis. **/
+  private final int xBricks;
+  /** The number of bricks along the y-axis. **/
+  private final int yBricks;
+  /** The number of bricks along the z-axis. **/
+  private final int zBricks;
+
+  /** The distance in a brick's array between neighbors along the x-axis. **/
+  private final int xStride;
+  /** The distance in a brick's array between neighbors along the y-axis. **/
+  private final int yStride;
+  /** The distance in a brick's array between neighbors along the z-axis. **/
+  private final int zStride;
+
+  /** The value of every point outside the matrix. **/
+  private final float leastValue;
+
+  /** The value of each uniform brick; unused for a mixed brick. **/
+  private final float[] values;
+
+  /** The points of each mixed brick, or null for a uniform brick. **/
+  private final float[][] bricks;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates a matrix with every point set to leastValue,
+   *  using bricks of DEFAULT_BRICK_SIZE.
+   * @param _plane The plane of the two dependent axes are in.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.
+   * @param _leastValue The value of every point outside the matrix, and the
+   *  initial value of every point inside it.
+  **/
+  public IsoSurfaceBrickedDataMatrix(final byte _plane,
+                                     final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                     final float _xScale, final float _yScale, final float _zScale,
+                                     final Tuple3f _centroidPercentages,
+                                     final float _leastValue)
+  {
+    this(_plane, _xMaxDim, _yMaxDim, _zMaxDim, _xScale, _yScale, _zScale,
+         _centroidPercentages, DEFAULT_BRICK_SIZE, _leastValue);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates a matrix with every point set to leastValue.
+   * @param _plane The plane of the two dependent axes are in.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.
+   * @param _brickSize The number of points on a side of a brick, a power of
+   *  two.
+   * @param _leastValue The value of every point outside the matrix, and the
+   *  initial value of every point inside it.
+   * @throws IllegalArgumentException If a dimension is negative, the brick
+   *  size isn't a power of two, or there are too many bricks.
+  **/
+  public IsoSurfaceBrickedDataMatrix(final byte _plane,
+                                     final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                     final float _xScale, final float _yScale, final float _zScale,
+                                     final Tuple3f _centroidPercentages,
+                                     final int _brickSize, final float _leastValue)
+    throws IllegalArgumentException
+  {
+    super(_plane, _xMaxDim, _yMaxDim, _zMaxDim,
+          _xScale, _yScale, _zScale, _centroidPercentages);
+
+    if(_xMaxDim < 0 || _yMaxDim < 0 || _zMaxDim < 0)
+      throw new IllegalArgumentException("Negative matrix dimension");
+    if(_brickSize < 1 || Integer.bitCount(_brickSize) != 1 || _brickSize > 1024)
+      throw new IllegalArgumentException("Brick size must be a power of two: "
+                                         + _brickSize);
+    brickSize = _brickSize;
+    brickShift = Integer.numberOfTrailingZeros(_brickSize);
+    brickMask = _brickSize - 1;
+    xBricks = (_xMaxDim + brickMask) >> brickShift;
+    yBricks = (_yMaxDim + brickMask) >> brickShift;
+    zBricks = (_zMaxDim + brickMask) >> brickShift;
+    final long count = (long)xBricks * yBricks * zBricks;
+    if(count > Integer.MAX_VALUE - 8)
+      throw new IllegalArgumentException("Too many bricks: " + count);
+
+    switch(plane) {
+      case XZ_PLANE : zStride = 1;                  // ind = y, maj = x, min = z
+                      xStride = brickSize;
+                      yStride = brickSize * brickSize;
+                      break;
+      case XY_PLANE : yStride = 1;                  // ind = z, maj = x, min = y
+                      xStride = brickSize;
+                      zStride = brickSize * brickSize;
+                      break;
+      default :       zStride = 1;                  // ind = x, maj = y, min = z
+                      yStride = brickSize;
+                      xStride = brickSize * brickSize;
+    } // end switch
+
+    leastValue = _leastValue;
+    values = new float[(int)count];
+    bricks = new float[(int)count][];
+    if(leastValue != 0.0f)
+      Arrays.fill(values, leastValue);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor makes a bricked copy of another data matrix, such as a
+   *  variable-length IsoSurfaceFloatDataMatrix.  The plane, dimensions,
+   *  scales and centroid are taken from the source.
+   * @param _source The data matrix to copy.
+   * @param _leastValue The value of every point outside the matrix.  Points
+   *  inside the matrix get whatever the source returns for them.
+  **/
+  public IsoSurfaceBrickedDataMatrix(final IsoSurfaceDataMatrix _source,
+                                     final float _leastValue)
+  {
+    this((byte)_source.getPlane(), _source.getXMaxDim(), _source.getYMaxDim(),
+         _source.getZMaxDim(), _source.getXScale(), _source.getYScale(),
+         _source.getZScale(), LOWER_LEFT, _leastValue);
+    centroid = new Tuple3f(_source.getCentroid());
+    load(_source);
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< load >------------------------------------------------------------//
+
+  /**
+   * This method copies every point of another data matrix into this one, a
+   *  brick at a time, so a mixed brick is the only array it allocates.  The
+   *  source's offsets are applied by its getPoint method.
+   * @param _source The data matrix to copy the points from.  It should have
+   *  the same dimensions as this matrix.
+  **/
+  public void load(final IsoSurfaceDataMatrix _source) {
+    final IsoSurfaceVolumeLoadEvent event = new IsoSurfaceVolumeLoadEvent();
+    event.begin();
+    float[] brick = new float[brickSize * brickSize * brickSize];
+    for(int bx = 0; bx < xBricks; bx++) {
+      for(int by = 0; by < yBricks; by++) {
+        for(int bz = 0; bz < zBricks; bz++) {
+          final int x0 = bx << brickShift;
+          final int y0 = by << brickShift;
+          final int z0 = bz << brickShift;
+          for(int lx = 0; lx < brickSize; lx++) {
+            for(int ly = 0; ly < brickSize; ly++) {
+              int idx = lx * xStride + ly * yStride;
+              for(int lz = 0; lz < brickSize; lz++, idx += zStride) {
+                final int x = x0 + lx;
+                final int y = y0 + ly;
+                final int z = z0 + lz;
+                brick[idx] = (x < xMaxDim && y < yMaxDim && z < zMaxDim)
+                             ? (float)_source.getPoint(x, y, z) : leastValue;
+              } // end for
+            } // end for
+          } // end for
+
+          final int b = (bx * yBricks + by) * zBricks + bz;
+          if(isUniform(brick)) {
+            values[b] = brick[0];
+            bricks[b] = null;
+          } else {
+            bricks[b] = brick;
+            brick = new float[brick.length];
+          } // end if
+        } // end for
+      } // end for
+    } // end for
+    invalidateIndexes();
+    if(event.shouldCommit()) {
+      event.set(this, _source);
+      event.commit();
+    } // end if
+  } // end load
+
+  //----< setPoint >--------------------------------------------------------//
+
+  /**
+   * This method stores the value of one point.  A uniform brick gets an
+   *  array when the value differs from the brick's value.  Loading a whole
+   *  data set a point at a time is best followed by compact.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @param _value The value to store.
+   * @throws ArrayIndexOutOfBoundsException If the point is outside the
+   *  matrix.
+  **/
+  public void setPoint(final int _x, final int _y, final int _z,
+                       final float _value)
+  {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      throw new ArrayIndexOutOfBoundsException("(" + _x + ", " + _y + ", "
+                                               + _z + ")");
+    store(_x, _y, _z, _value);
+    invalidateIndexes();
+  } // end setPoint
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method copies one plane of data into the matrix, shifted by the
+   *  major and minor axis offsets at its index.  Points of the plane that
+   *  fall outside the matrix are dropped, and points of the matrix the plane
+   *  doesn't cover are set to leastValue.  When the plane is the last one of
+   *  a layer of bricks, the layer's mixed bricks that turned out uniform are
+   *  folded back into one value.
+   * @param _idx The index in the independent axis of the matrix the plane of
+   *  data corresponds to.
+   * @param _dataPlane A two dimensional float array that contains a plane's
+   *  worth of 3-D data, indexed [major][minor].  Rows may have different
+   *  lengths or be null.
+  **/
+  public void setPlaneData(final int _idx, final float[][] _dataPlane) {
+    final int indDim;
+    final int majDim;
+    final int minDim;
+    switch(plane) {
+      case XZ_PLANE : indDim = yMaxDim;  majDim = xMaxDim;  minDim = zMaxDim;
+                      break;
+      case XY_PLANE : indDim = zMaxDim;  majDim = xMaxDim;  minDim = yMaxDim;
+                      break;
+      default :       indDim = xMaxDim;  majDim = yMaxDim;  minDim = zMaxDim;
+    } // end switch
+    if(_idx < 0 || _idx >= indDim)
+      throw new ArrayIndexOutOfBoundsException(_idx);
+
+    final int majOff = majorAxisOffsets[_idx];
+    final int minOff = minorAxisOffsets[_idx];
+    for(int maj = 0; maj < majDim; maj++) {
+      final int i = maj - majOff;
+      final float[] row = (_dataPlane != null && i >= 0 && i < _dataPlane.length)
+                          ? _dataPlane[i] : null;
+      for(int min = 0; min < minDim; min++) {
+        final int j = min - minOff;
+        final float val = (row != null && j >= 0 && j < row.length)
+                          ? row[j] : leastValue;
+        switch(plane) {
+          case XZ_PLANE : store(maj, _idx, min, val);  break;
+          case XY_PLANE : store(maj, min, _idx, val);  break;
+          default :       store(_idx, maj, min, val);
+        } // end switch
+      } // end for
+    } // end for
+
+    if((_idx & brickMask) == brickMask || _idx == indDim - 1)
+      compactLayer(_idx >> brickShift);
+    invalidateIndexes();
+  } // end setPlaneData
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method copies one plane of data into the matrix, centered on the
+   *  given point of the plane.  The offsets for the plane are derived from
+   *  the center before the plane is copied.
+   * @param _idx The index in the independent axis of the matrix the plane of
+   *  data corresponds to.
+   * @param _dataPlane A two dimensional float array that contains a plane's
+   *  worth of 3-D data, indexed [major][minor].
+   * @param _majAxisCenter The index value along the major axis of the data
+   *  plane that is the center of this plane.
+   * @param _minAxisCenter The index value along the minor axis of the data
+   *  plane that is the center of this plane.
+  **/
+  public void setPlaneData(final int _idx, final float[][] _dataPlane,
+                           final int _majAxisCenter, final int _minAxisCenter)
+  {
+    calculatePlaneCenter(_idx, _majAxisCenter, _minAxisCenter);
+    setPlaneData(_idx, _dataPlane);
+  } // end setPlaneData
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method copies one plane of data into the matrix.  It replaces the
+   *  reflective store of the base class, which has no array of planes to
+   *  store into.
+   * @param _idx The index in the independent axis of the matrix the plane of
+   *  data corresponds to.
+   * @param _dataPlane A float[][] containing the plane's data.
+   * @throws IllegalArgumentException If the plane isn't a float[][].
+  **/
+  @Override
+protected void setPlaneData(final int _idx, final Object _dataPlane) {
+    if(_dataPlane != null && !(_dataPlane instanceof float[][]))
+      throw new IllegalArgumentException("Expected float[][] plane data");
+    setPlaneData(_idx, (float[][])_dataPlane);
+  } // end setPlaneData
+
+  //----< compact >---------------------------------------------------------//
+
+  /**
+   * This method folds every mixed brick whose points all have the same
+   *  value back into that one value.
+   * @return The number of bricks that were folded.
+  **/
+  public int compact() {
+    int cnt = 0;
+    for(int b = 0; b < bricks.length; b++)
+      if(compactBrick(b))
+        cnt++;
+    return(cnt);
+  } // end compact
+
+  //----< compactLayer >----------------------------------------------------//
+
+  /**
+   * This method folds the uniform mixed bricks of one layer of bricks along
+   *  the independent axis.
+   * @param _layer The index of the layer of bricks.
+  **/
+  private void compactLayer(final int _layer) {
+    for(int b0 = 0; b0 < xBricks; b0++) {
+      for(int b1 = 0; b1 < yBricks; b1++) {
+        for(int b2 = 0; b2 < zBricks; b2++) {
+          final int layer;
+          switch(plane) {
+            case XZ_PLANE : layer = b1;  break;
+            case XY_PLANE : layer = b2;  break;
+            default :       layer = b0;
+          } // end switch
+          if(layer == _layer)
+            compactBrick((b0 * yBricks + b1) * zBricks + b2);
+        } // end for
+      } // end for
+    } // end for
+  } // end compactLayer
+
+  //----< compactBrick >----------------------------------------------------//
+
+  /**
+   * This method folds a mixed brick into one value if its points are all
+   *  the same.
+   * @param _b The index of the brick.
+   * @return A boolean that is true when the brick was folded.
+  **/
+  private boolean compactBrick(final int _b) {
+    final float[] brick = bricks[_b];
+    if(brick == null || !isUniform(brick))
+      return(false);
+    values[_b] = brick[0];
+    bricks[_b] = null;
+    return(true);
+  } // end compactBrick
+
+  //----< isUniform >-------------------------------------------------------//
+
+  /**
+   * This method checks whether every value of an array is the same.  Values
+   *  are compared by their bits, so a brick of NaNs is uniform.
+   * @param _brick The array to check.
+   * @return A boolean that is true when all the values are the same.
+  **/
+  private static boolean isUniform(final float[] _brick) {
+    final int bits = Float.floatToRawIntBits(_brick[0]);
+    for(int i = 1; i < _brick.length; i++)
+      if(Float.floatToRawIntBits(_brick[i]) != bits)
+        return(false);
+    return(true);
+  } // end isUniform
+
+  //----< store >-----------------------------------------------------------//
+
+  /**
+   * This method stores the value of a point inside the matrix, giving its
+   *  brick an array if it needs one.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @param _value The value to store.
+  **/
+  private void store(final int _x, final int _y, final int _z,
+                     final float _value)
+  {
+    final int b = getBrickIndex(_x >> brickShift, _y >> brickShift,
+                                _z >> brickShift);
+    float[] brick = bricks[b];
+    if(brick == null) {
+      if(Float.floatToRawIntBits(_value) == Float.floatToRawIntBits(values[b]))
+        return;
+      brick = new float[brickSize * brickSize * brickSize];
+      Arrays.fill(brick, values[b]);
+      bricks[b] = brick;
+    } // end if
+    brick[(_x & brickMask) * xStride + (_y & brickMask) * yStride
+          + (_z & brickMask) * zStride] = _value;
+  } // end store
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method will return the value of in the matrix at the point
+   *  (_x, _y, _z).  Any indices not within the range of the matrix dimensions
+   *  will automatically return the leastValue specified for the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return A double containing the value of the point at location
+   *  (_x, _y, _z).
+  **/
+  @Override
+public double getPoint(final int _x, final int _y, final int _z) {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      return(leastValue);
+    final int b = ((_x >> brickShift) * yBricks + (_y >> brickShift)) * zBricks
+                  + (_z >> brickShift);
+    final float[] brick = bricks[b];
+    if(brick == null)
+      return(values[b]);
+    return(brick[(_x & brickMask) * xStride + (_y & brickMask) * yStride
+                 + (_z & brickMask) * zStride]);
+  } // end getPoint
+
+  //----< classifySpan >----------------------------------------------------//
+
+  /**
+   * This method classifies a run of consecutive points inside the matrix
+   *  along one axis, a brick at a time: the points in a uniform brick are
+   *  classified once, and the points in a mixed brick are read straight from
+   *  its array by the classifier.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _bits The array receiving the results, 1 for a point that is
+   *  inside, 0 for one that isn't.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void classifySpan(final IsoSurfaceClassifier _cls,
+                              final int _x, final int _y, final int _z,
+                              final int _axis, final byte[] _bits,
+                              final int _offset, final int _count)
+  {
+    final int pos;
+    final int stride;
+    switch(_axis) {
+      case 0 :  pos = _x;  stride = xStride;  break;
+      case 1 :  pos = _y;  stride = yStride;  break;
+      default : pos = _z;  stride = zStride;
+    } // end switch
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+
+    for(int i = 0; i < _count; ) {
+      final int x = _x + i*dx;
+      final int y = _y + i*dy;
+      final int z = _z + i*dz;
+      final int len = Math.min(_count - i,
+                               brickSize - ((pos + i) & brickMask));
+      final int b = getBrickIndex(x >> brickShift, y >> brickShift,
+                                  z >> brickShift);
+      final float[] brick = bricks[b];
+      if(brick == null)
+        Arrays.fill(_bits, _offset + i, _offset + i + len,
+                    _cls.isInside(values[b]) ? (byte)1 : (byte)0);
+      else
+        _cls.classify(brick, (x & brickMask) * xStride + (y & brickMask) * yStride
+                             + (z & brickMask) * zStride,
+                      stride, _bits, _offset + i, len);
+      i += len;
+    } // end for
+  } // end classifySpan
+
+  //----< readSpan >--------------------------------------------------------//
+
+  /**
+   * This method reads a run of consecutive points inside the matrix along
+   *  one axis into an array.  A uniform brick's points are its value, and a
+   *  mixed brick's are copied from its array.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void readSpan(final int _x, final int _y, final int _z,
+                          final int _axis, final double[] _values,
+                          final int _offset, final int _count)
+  {
+    final int pos;
+    final int stride;
+    switch(_axis) {
+      case 0 :  pos = _x;  stride = xStride;  break;
+      case 1 :  pos = _y;  stride = yStride;  break;
+      default : pos = _z;  stride = zStride;
+    } // end switch
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+
+    for(int i = 0; i < _count; ) {
+      final int x = _x + i*dx;
+      final int y = _y + i*dy;
+      final int z = _z + i*dz;
+      final int len = Math.min(_count - i,
+                               brickSize - ((pos + i) & brickMask));
+      final int b = getBrickIndex(x >> brickShift, y >> brickShift,
+                                  z >> brickShift);
+      final float[] brick = bricks[b];
+      if(brick == null) {
+        Arrays.fill(_values, _offset + i, _offset + i + len, values[b]);
+      } else {
+        int idx = (x & brickMask) * xStride + (y & brickMask) * yStride
+                  + (z & brickMask) * zStride;
+        for(int j = 0; j < len; j++, idx += stride)
+          _values[_offset + i + j] = brick[idx];
+      } // end if
+      i += len;
+    } // end for
+  } // end readSpan
+
+  //----< getBrickIndex >---------------------------------------------------//
+
+  /**
+   * This method returns the index of a brick.
+   * @param _bx The index of the brick along the x-axis.
+   * @param _by The index of the brick along the y-axis.
+   * @param _bz The index of the brick along the z-axis.
+   * @return The brick's index, (bx * yBricks + by) * zBricks + bz.
+  **/
+  public final int getBrickIndex(final int _bx, final int _by, final int _bz) {
+    return((_bx * yBricks + _by) * zBricks + _bz);
+  } // end getBrickIndex
+
+  //----< isBrickUniform >--------------------------------------------------//
+
+  /**
+   * This method indicates whether a brick is stored as one value.
+   * @param _b The index of the brick, see getBrickIndex.
+   * @return A boolean that is true when every point of the brick has the
+   *  brick's value.
+  **/
+  public boolean isBrickUniform(final int _b) {
+    return(bricks[_b] == null);
+  } // end isBrickUniform
+
+  //----< getBrickValue >---------------------------------------------------//
+
+  /**
+   * This method returns the value of a uniform brick.
+   * @param _b The index of the brick, see getBrickIndex.
+   * @return The value of every point of the brick, or NaN for a mixed brick.
+  **/
+  public float getBrickValue(final int _b) {
+    return(bricks[_b] == null ? values[_b] : Float.NaN);
+  } // end getBrickValue
+
+  //----< getBrickData >----------------------------------------------------//
+
+  /**
+   * This method returns the array of a mixed brick.  Changes to the array
+   *  are changes to the matrix; call invalidateIndexes after making them.
+   * @param _b The index of the brick, see getBrickIndex.
+   * @return The brick's points, laid out like a dense matrix of brickSize
+   *  points on a side, or null for a uniform brick.
+  **/
+  public float[] getBrickData(final int _b) {
+    return(bricks[_b]);
+  } // end getBrickData
+
+  //----< getBrickSize >----------------------------------------------------//
+
+  /**
+   * This method returns the number of points on a side of a brick.
+   * @return An integer containing the brick size.
+  **/
+  public int getBrickSize() { return(brickSize); }
+
+  //----< getBrickCounts >--------------------------------------------------//
+
+  /**
+   * This method returns the number of bricks along each axis.
+   * @return An array of the x, y and z brick counts.
+  **/
+  public int[] getBrickCounts() {
+    return(new int[] { xBricks, yBricks, zBricks });
+  } // end getBrickCounts
+
+  //----< getMixedBrickCount >----------------------------------------------//
+
+  /**
+   * This method returns the number of bricks stored as arrays.
+   * @return An integer containing the mixed brick count.
+  **/
+  public int getMixedBrickCount() {
+    int cnt = 0;
+    for(final float[] brick : bricks)
+      if(brick != null)
+        cnt++;
+    return(cnt);
+  } // end getMixedBrickCount
+
+  //----< getStoredBytes >--------------------------------------------------//
+
+  /**
+   * This method estimates the memory used by the points: the per-brick
+   *  value and reference, plus the mixed bricks' arrays.
+   * @return The number of bytes.
+  **/
+  public long getStoredBytes() {
+    final long brickBytes = 4L * brickSize * brickSize * brickSize + 16;
+    return(values.length * 12L + getMixedBrickCount() * brickBytes);
+  } // end getStoredBytes
+
+  //----< getLeastValue >---------------------------------------------------//
+
+  /**
+   * This method returns the value of the points outside the matrix.
+   * @return The float least value.
+  **/
+  public float getLeastValue() {
+    return(leastValue);
+  } // end getLeastValue
+
+} // end class IsoSurfaceBrickedDataMatrix
@@ -0,0 +1,120 @@
+package IsosurfaceFX;
+
+/**
+ * This class holds the cube configuration of every cell of an extraction,
+ *  one byte per cell, in blocks of BLOCK_SIZE cells on a side.  A block is
+ *  only allocated when one of its cells gets a configuration other than 0,
+ *  so an extraction that skips most of a large matrix (a sparse matrix, or
+ *  block skipping over empty space) only pays for the blocks it reaches.
+ * Blocks are numbered (bx * yBlocks + by) * zBlocks + bz.  Different cells
+ *  may be set from different threads, as slabs are extracted concurrently.
+**/
+class IsoSurfaceCellConfigs {
+
+  /** The log base 2 of BLOCK_SIZE. **/
+  private static final int BLOCK_SHIFT = 4;
+
+  /** The number of cells on a side of a block. **/
+  static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+  /** BLOCK_SIZE - 1, to find a cell's place in its block. **/
+  private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+  /** The number of blocks along the y-axis. **/
+  private final int yBlocks;
+
+  /** The number of blocks along the z-axis. **/
+  private final int zBlocks;
+
+  /** The configurations of each block's cells, or null when all are 0. **/
+  private final byte[][] blocks;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates the configurations of a grid of cells, all 0.
+   * @param _cellDims The number of cells along x, y, and z.
+  **/
+  IsoSurfaceCellConfigs(final int[] _cellDims) {
+    final int xBlocks = (Math.max(0, _cellDims[0]) + BLOCK_MASK) >> BLOCK_SHIFT;
+    yBlocks = (Math.max(0, _cellDims[1]) + BLOCK_MASK) >> BLOCK_SHIFT;
+    zBlocks = (Math.max(0, _cellDims[2]) + BLOCK_MASK) >> BLOCK_SHIFT;
+    blocks = new byte[xBlocks * yBlocks * zBlocks][];
+  } // end constructor
+
+  //----< get >-------------------------------------------------------------//
+
+  /**
+   * This method returns the configuration of a cell.
+   * @param _x The x index of the cell.
+   * @param _y The y index of the cell.
+   * @param _z The z index of the cell.
+   * @return The cube configuration, 0 to 255.
+  **/
+  int get(final int _x, final int _y, final int _z) {
+    final byte[] block = blocks[getBlockIndex(_x, _y, _z)];
+    return((block == null) ? 0 : block[getLocalIndex(_x, _y, _z)] & 0xff);
+  } // end get
+
+  //----< set >-------------------------------------------------------------//
+
+  /**
+   * This method stores the configuration of a cell.
+   * @param _x The x index of the cell.
+   * @param _y The y index of the cell.
+   * @param _z The z index of the cell.
+   * @param _config The cube configuration, 0 to 255.
+  **/
+  void set(final int _x, final int _y, final int _z, final int _config) {
+    final int b = getBlockIndex(_x, _y, _z);
+    byte[] block = blocks[b];
+    if(block == null) {
+      if(_config == 0)
+        return;
+      block = allocate(b);
+    } // end if
+    block[getLocalIndex(_x, _y, _z)] = (byte)_config;
+  } // end set
+
+  //----< allocate >--------------------------------------------------------//
+
+  /**
+   * This method allocates a block, unless another thread just did.
+   * @param _b The index of the block.
+   * @return The block's array.
+  **/
+  private synchronized byte[] allocate(final int _b) {
+    if(blocks[_b] == null)
+      blocks[_b] = new byte[BLOCK_SIZE * BLOCK_SIZE * BLOCK_SIZE];
+    return(blocks[_b]);
+  } // end allocate
+
+  //----< getBlockIndex >---------------------------------------------------//
+
+  /**
+   * This method returns the index of the block holding a cell.
+   * @param _x The x index of the cell.
+   * @param _y The y index of the cell.
+   * @param _z The z index of the cell.
+   * @return The index of the block.
+  **/
+  private int getBlockIndex(final int _x, final int _y, final int _z) {
+    return(((_x >> BLOCK_SHIFT) * yBlocks + (_y >> BLOCK_SHIFT)) * zBlocks
+           + (_z >> BLOCK_SHIFT));
+  } // end getBlockIndex
+
+  //----< getLocalIndex >---------------------------------------------------//
+
+  /**
+   * This method returns where a cell is stored in its block.
+   * @param _x The x index of the cell.
+   * @param _y The y index of the cell.
+   * @param _z The z index of the cell.
+   * @return The index in the block's array.
+  **/
+  private static int getLocalIndex(final int _x, final int _y, final int _z) {
+    return((((_x & BLOCK_MASK) << BLOCK_SHIFT) | (_y & BLOCK_MASK))
+           << BLOCK_SHIFT | (_z & BLOCK_MASK));
+  } // end getLocalIndex
+
+} // end class IsoSurfaceCellConfigs
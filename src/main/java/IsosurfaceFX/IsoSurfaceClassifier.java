@@ -0,0 +1,562 @@
+package IsosurfaceFX;
+
+/**
+ * This abstract class decides whether a data value is inside an isosurface.
+ *  It's the precompiled form of the comparitor and threshold settings of an
+ *  IsoSurfaceGenerator: instead of switching on the comparitor bytes for
+ *  every sample, the settings are turned into one small final subclass whose
+ *  isInside method is a single comparison (or a pair of comparisons for a
+ *  band), which the JIT can inline into the classification loops.
+ * Classifiers are created with the create methods, which take the same
+ *  comparitor constants (EQUAL, LESS_THAN, ...) as the rest of the API.
+ *  Classifiers are immutable and thread safe.
+ * When the jdk.incubator.vector module is in the boot layer (java
+ *  --add-modules jdk.incubator.vector), runs of contiguous values are
+ *  classified with SIMD compares by IsoSurfaceVectorKernel, a vector of
+ *  values at a time, and only the leftover values go through isInside.  The
+ *  system property IsosurfaceFX.vector=false turns this off.
+**/
+public abstract class IsoSurfaceClassifier implements IsoDataMatConstInterface {
+
+  /** The kernel comparitor meaning there is no comparison. **/
+  private static final byte NO_OP = -1;
+
+  /** true when the SIMD kernel can be used. **/
+  private static final boolean VECTOR = isVectorAvailable();
+
+  /** The first comparitor the kernel tests, or NO_OP for no kernel. **/
+  private final byte kernelOp1;
+
+  /** The first threshold the kernel tests against. **/
+  private final double kernelThres1;
+
+  /** The second comparitor the kernel tests, or NO_OP for none. **/
+  private final byte kernelOp2;
+
+  /** The second threshold the kernel tests against. **/
+  private final double kernelThres2;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor is only used by the subclasses.  The classifier has no
+   *  SIMD form, so its runs go through isInside.
+  **/
+  protected IsoSurfaceClassifier() {
+    this(NO_OP, 0.0, NO_OP, 0.0);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor is used by the built in subclasses, to describe their
+   *  test to the SIMD kernel: a value is inside when "v op1 thres1" and, if
+   *  op2 isn't NO_OP, "v op2 thres2".
+   * @param _op1 The first comparitor, or NO_OP for no SIMD form.
+   * @param _thres1 The first threshold.
+   * @param _op2 The second comparitor, or NO_OP for none.
+   * @param _thres2 The second threshold.
+  **/
+  IsoSurfaceClassifier(final byte _op1, final double _thres1,
+                       final byte _op2, final double _thres2)
+  {
+    kernelOp1 = _op1;
+    kernelThres1 = _thres1;
+    kernelOp2 = _op2;
+    kernelThres2 = _thres2;
+  } // end constructor
+
+  //----< isVectorAvailable >-----------------------------------------------//
+
+  /**
+   * This method checks whether the SIMD kernel can be used, which takes the
+   *  incubator module, and a vector of more than one float.
+   * @return true when IsoSurfaceVectorKernel can be used.
+  **/
+  private static boolean isVectorAvailable() {
+    if(!Boolean.parseBoolean(System.getProperty("IsosurfaceFX.vector", "true")))
+      return(false);
+    if(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+      return(false);
+    try {
+      return(IsoSurfaceVectorKernel.getFloatLanes() > 1);
+    } catch(LinkageError e) {
+      return(false);
+    } // end try
+  } // end isVectorAvailable
+
+  //----< isVectorized >----------------------------------------------------//
+
+  /**
+   * This method checks whether the classify methods use the SIMD kernel for
+   *  runs with a stride of 1.
+   * @return true when runs of contiguous values are classified with SIMD
+   *  compares.
+  **/
+  public boolean isVectorized() {
+    return(VECTOR && kernelOp1 != NO_OP);
+  } // end isVectorized
+
+  //----< create >----------------------------------------------------------//
+
+  /**
+   * This method creates the classifier for a single threshold.
+   * @param _op A byte that is of the value EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.  Any other value makes a classifier
+   *  that never reports a value as inside.
+   * @param _threshold The threshold the values are compared to.
+   * @return A classifier that is true for values v where "v op threshold".
+  **/
+  public static IsoSurfaceClassifier create(final byte _op,
+                                            final double _threshold)
+  {
+    switch(_op) {
+      case EQUAL :           return(new Equal(_threshold));
+      case LESS_THAN :       return(new Less(_threshold));
+      case LESS_THAN_EQ :    return(new LessEq(_threshold));
+      case GREATER_THAN :    return(new Greater(_threshold));
+      case GREATER_THAN_EQ : return(new GreaterEq(_threshold));
+      default :              return(new Never());
+    } // end switch
+  } // end create
+
+  //----< create >----------------------------------------------------------//
+
+  /**
+   * This method creates the classifier for a pair of thresholds, which
+   *  must both be met.  When one comparitor is a greater than and the other a
+   *  less than, the result is a band classifier that tests both bounds
+   *  without a branch.  Other combinations test the two thresholds one after
+   *  the other.
+   * @param _lowOp The comparitor used against the low threshold.
+   * @param _lowThres The low threshold.
+   * @param _highOp The comparitor used against the high threshold.
+   * @param _highThres The high threshold.
+   * @return A classifier that is true for values v where "v lowOp lowThres"
+   *  and "v highOp highThres".
+  **/
+  public static IsoSurfaceClassifier create(final byte _lowOp,
+                                            final double _lowThres,
+                                            final byte _highOp,
+                                            final double _highThres)
+  {
+    if(isGreater(_lowOp) && isLess(_highOp))
+      return(createBand(_lowOp, _lowThres, _highOp, _highThres));
+    if(isLess(_lowOp) && isGreater(_highOp))
+      return(createBand(_highOp, _highThres, _lowOp, _lowThres));
+    return(new Both(create(_lowOp, _lowThres), create(_highOp, _highThres)));
+  } // end create
+
+  //----< createBand >------------------------------------------------------//
+
+  /**
+   * This method creates the band classifier for a lower and an upper bound.
+   * @param _greaterOp GREATER_THAN or GREATER_THAN_EQ.
+   * @param _lower The lower bound.
+   * @param _lessOp LESS_THAN or LESS_THAN_EQ.
+   * @param _upper The upper bound.
+   * @return The band classifier.
+  **/
+  private static IsoSurfaceClassifier createBand(final byte _greaterOp,
+                                                 final double _lower,
+                                                 final byte _lessOp,
+                                                 final double _upper)
+  {
+    if(_greaterOp == GREATER_THAN)
+      return(_lessOp == LESS_THAN ? new BandOpen(_lower, _upper)
+                                  : new BandOpenClosed(_lower, _upper));
+    else
+      return(_lessOp == LESS_THAN ? new BandClosedOpen(_lower, _upper)
+                                  : new BandClosed(_lower, _upper));
+  } // end createBand
+
+  //----< isGreater >-------------------------------------------------------//
+
+  /**
+   * This method checks for the lower bound comparitors.
+   * @param _op The comparitor.
+   * @return true for GREATER_THAN and GREATER_THAN_EQ.
+  **/
+  private static boolean isGreater(final byte _op) {
+    return(_op == GREATER_THAN || _op == GREATER_THAN_EQ);
+  } // end isGreater
+
+  //----< isLess >----------------------------------------------------------//
+
+  /**
+   * This method checks for the upper bound comparitors.
+   * @param _op The comparitor.
+   * @return true for LESS_THAN and LESS_THAN_EQ.
+  **/
+  private static boolean isLess(final byte _op) {
+    return(_op == LESS_THAN || _op == LESS_THAN_EQ);
+  } // end isLess
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< isInside >--------------------------------------------------------//
+
+  /**
+   * This method classifies one value.
+   * @param _val The value to classify.
+   * @return true when the value is inside the isosurface.
+  **/
+  public abstract boolean isInside(double _val);
+
+  //----< isAllInside >-----------------------------------------------------//
+
+  /**
+   * This method checks whether every value of a range is inside.  It may
+   *  answer false for a range that is in fact all inside, but never true
+   *  for one that isn't.
+   * @param _min The smallest value of the range, or NaN if the range holds a
+   *  NaN.
+   * @param _max The largest value of the range, or NaN if the range holds a
+   *  NaN.
+   * @return true when every value in [_min, _max] is inside.
+  **/
+  public abstract boolean isAllInside(double _min, double _max);
+
+  //----< isAllOutside >----------------------------------------------------//
+
+  /**
+   * This method checks whether every value of a range is outside.  It may
+   *  answer false for a range that is in fact all outside, but never true
+   *  for one that isn't.
+   * @param _min The smallest value of the range, or NaN if the range holds a
+   *  NaN.
+   * @param _max The largest value of the range, or NaN if the range holds a
+   *  NaN.
+   * @return true when every value in [_min, _max] is outside.
+  **/
+  public abstract boolean isAllOutside(double _min, double _max);
+
+  //----< mayStraddle >-----------------------------------------------------//
+
+  /**
+   * This method checks whether a range of values could hold both inside and
+   *  outside values, which is what it takes for the cells the values belong
+   *  to to produce any of the isosurface.
+   * @param _min The smallest value of the range, or NaN if the range holds a
+   *  NaN.
+   * @param _max The largest value of the range, or NaN if the range holds a
+   *  NaN.
+   * @return false when the whole range is known to be inside, or known to be
+   *  outside.
+  **/
+  public boolean mayStraddle(final double _min, final double _max) {
+    return(!isAllInside(_min, _max) && !isAllOutside(_min, _max));
+  } // end mayStraddle
+
+  //----< getThresholds >---------------------------------------------------//
+
+  /**
+   * This method returns the values the classification changes at.  A range
+   *  of values that holds both inside and outside values, and no NaN,
+   *  always contains at least one of them, which is what lets
+   *  IsoSurfaceSpanSpaceIndex find the cells that produce the surface.
+   * @return A new array of the thresholds, empty when the classification
+   *  never changes.
+  **/
+  public abstract double[] getThresholds();
+
+  //----< classify >--------------------------------------------------------//
+
+  /**
+   * This method classifies a run of values in a float array, evenly spaced
+   *  by a stride.
+   * @param _data The array holding the values.
+   * @param _idx The index of the first value.
+   * @param _stride The distance between consecutive values.
+   * @param _bits The array receiving the results, 1 for inside, 0 for
+   *  outside.
+   * @param _offset The index in _bits of the first result.
+   * @param _count The number of values to classify.
+  **/
+  public void classify(final float[] _data, final int _idx, final int _stride,
+                       final byte[] _bits, final int _offset, final int _count)
+  {
+    int i = 0;
+    if(_stride == 1 && VECTOR && kernelOp1 != NO_OP)
+      i = IsoSurfaceVectorKernel.classify(_data, _idx, _bits, _offset, _count,
+                                          kernelOp1, kernelThres1,
+                                          kernelOp2, kernelThres2);
+    for(int j = _idx + i * _stride; i < _count; i++, j += _stride)
+      _bits[_offset + i] = isInside(_data[j]) ? (byte)1 : (byte)0;
+  } // end classify
+
+  //----< classify >--------------------------------------------------------//
+
+  /**
+   * This method classifies a run of values in a double array, evenly spaced
+   *  by a stride.
+   * @param _data The array holding the values.
+   * @param _idx The index of the first value.
+   * @param _stride The distance between consecutive values.
+   * @param _bits The array receiving the results, 1 for inside, 0 for
+   *  outside.
+   * @param _offset The index in _bits of the first result.
+   * @param _count The number of values to classify.
+  **/
+  public void classify(final double[] _data, final int _idx, final int _stride,
+                       final byte[] _bits, final int _offset, final int _count)
+  {
+    int i = 0;
+    if(_stride == 1 && VECTOR && kernelOp1 != NO_OP)
+      i = IsoSurfaceVectorKernel.classify(_data, _idx, _bits, _offset, _count,
+                                          kernelOp1, kernelThres1,
+                                          kernelOp2, kernelThres2);
+    for(int j = _idx + i * _stride; i < _count; i++, j += _stride)
+      _bits[_offset + i] = isInside(_data[j]) ? (byte)1 : (byte)0;
+  } // end classify
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Classifiers
+  ////////////////////////////////////////////////////////////////////////////
+
+  /** v == t **/
+  private static final class Equal extends IsoSurfaceClassifier {
+    private final double t;
+    Equal(final double _t) { super(EQUAL, _t, NO_OP, 0.0); t = _t; }
+    @Override
+    public boolean isInside(final double _val) { return(_val == t); }
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min == t && _max == t);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_min > t || _max < t);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { t }); }
+  } // end class Equal
+
+  /** v < t **/
+  private static final class Less extends IsoSurfaceClassifier {
+    private final double t;
+    Less(final double _t) { super(LESS_THAN, _t, NO_OP, 0.0); t = _t; }
+    @Override
+    public boolean isInside(final double _val) { return(_val < t); }
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_max < t);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_min >= t);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { t }); }
+  } // end class Less
+
+  /** v <= t **/
+  private static final class LessEq extends IsoSurfaceClassifier {
+    private final double t;
+    LessEq(final double _t) { super(LESS_THAN_EQ, _t, NO_OP, 0.0); t = _t; }
+    @Override
+    public boolean isInside(final double _val) { return(_val <= t); }
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_max <= t);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_min > t);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { t }); }
+  } // end class LessEq
+
+  /** v > t **/
+  private static final class Greater extends IsoSurfaceClassifier {
+    private final double t;
+    Greater(final double _t) { super(GREATER_THAN, _t, NO_OP, 0.0); t = _t; }
+    @Override
+    public boolean isInside(final double _val) { return(_val > t); }
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min > t);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_max <= t);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { t }); }
+  } // end class Greater
+
+  /** v >= t **/
+  private static final class GreaterEq extends IsoSurfaceClassifier {
+    private final double t;
+    GreaterEq(final double _t) { super(GREATER_THAN_EQ, _t, NO_OP, 0.0); t = _t; }
+    @Override
+    public boolean isInside(final double _val) { return(_val >= t); }
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min >= t);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_max < t);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { t }); }
+  } // end class GreaterEq
+
+  /** lo < v < hi **/
+  private static final class BandOpen extends IsoSurfaceClassifier {
+    private final double lo;
+    private final double hi;
+    BandOpen(final double _lo, final double _hi) {
+      super(GREATER_THAN, _lo, LESS_THAN, _hi);
+      lo = _lo;
+      hi = _hi;
+    } // end constructor
+    @Override
+    public boolean isInside(final double _val) {
+      return(_val > lo & _val < hi);
+    } // end isInside
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min > lo && _max < hi);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_max <= lo || _min >= hi);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { lo, hi }); }
+  } // end class BandOpen
+
+  /** lo <= v <= hi **/
+  private static final class BandClosed extends IsoSurfaceClassifier {
+    private final double lo;
+    private final double hi;
+    BandClosed(final double _lo, final double _hi) {
+      super(GREATER_THAN_EQ, _lo, LESS_THAN_EQ, _hi);
+      lo = _lo;
+      hi = _hi;
+    } // end constructor
+    @Override
+    public boolean isInside(final double _val) {
+      return(_val >= lo & _val <= hi);
+    } // end isInside
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min >= lo && _max <= hi);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_max < lo || _min > hi);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { lo, hi }); }
+  } // end class BandClosed
+
+  /** lo < v <= hi **/
+  private static final class BandOpenClosed extends IsoSurfaceClassifier {
+    private final double lo;
+    private final double hi;
+    BandOpenClosed(final double _lo, final double _hi) {
+      super(GREATER_THAN, _lo, LESS_THAN_EQ, _hi);
+      lo = _lo;
+      hi = _hi;
+    } // end constructor
+    @Override
+    public boolean isInside(final double _val) {
+      return(_val > lo & _val <= hi);
+    } // end isInside
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min > lo && _max <= hi);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_max <= lo || _min > hi);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { lo, hi }); }
+  } // end class BandOpenClosed
+
+  /** lo <= v < hi **/
+  private static final class BandClosedOpen extends IsoSurfaceClassifier {
+    private final double lo;
+    private final double hi;
+    BandClosedOpen(final double _lo, final double _hi) {
+      super(GREATER_THAN_EQ, _lo, LESS_THAN, _hi);
+      lo = _lo;
+      hi = _hi;
+    } // end constructor
+    @Override
+    public boolean isInside(final double _val) {
+      return(_val >= lo & _val < hi);
+    } // end isInside
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(_min >= lo && _max < hi);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(_max < lo || _min >= hi);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[] { lo, hi }); }
+  } // end class BandClosedOpen
+
+  /** Both of two classifiers, for comparitor pairs that aren't a band. **/
+  private static final class Both extends IsoSurfaceClassifier {
+    private final IsoSurfaceClassifier first;
+    private final IsoSurfaceClassifier second;
+    Both(final IsoSurfaceClassifier _first, final IsoSurfaceClassifier _second) {
+      super(isSingle(_first) && isSingle(_second) ? _first.kernelOp1 : NO_OP,
+            _first.kernelThres1, _second.kernelOp1, _second.kernelThres1);
+      first = _first;
+      second = _second;
+    } // end constructor
+    @Override
+    public boolean isInside(final double _val) {
+      return(first.isInside(_val) && second.isInside(_val));
+    } // end isInside
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(first.isAllInside(_min, _max) && second.isAllInside(_min, _max));
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(first.isAllOutside(_min, _max) || second.isAllOutside(_min, _max));
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() {
+      final double[] firstThres = first.getThresholds();
+      final double[] secondThres = second.getThresholds();
+      final double[] thres = new double[firstThres.length + secondThres.length];
+      System.arraycopy(firstThres, 0, thres, 0, firstThres.length);
+      System.arraycopy(secondThres, 0, thres, firstThres.length,
+                       secondThres.length);
+      return(thres);
+    } // end getThresholds
+    private static boolean isSingle(final IsoSurfaceClassifier _cls) {
+      return(_cls.kernelOp1 != NO_OP && _cls.kernelOp2 == NO_OP);
+    } // end isSingle
+  } // end class Both
+
+  /** Nothing is inside, for an unknown comparitor. **/
+  private static final class Never extends IsoSurfaceClassifier {
+    @Override
+    public boolean isInside(final double _val) { return(false); }
+    @Override
+    public boolean isAllInside(final double _min, final double _max) {
+      return(false);
+    } // end isAllInside
+    @Override
+    public boolean isAllOutside(final double _min, final double _max) {
+      return(true);
+    } // end isAllOutside
+    @Override
+    public double[] getThresholds() { return(new double[0]); }
+  } // end class Never
+
+} // end class IsoSurfaceClassifier
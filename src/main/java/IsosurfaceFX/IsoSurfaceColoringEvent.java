@@ -0,0 +1,31 @@
+package IsosurfaceFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This Java Flight Recorder event covers one pass of a vertex colorer over
+ *  a surface, which calls user code once or twice per vertex.
+**/
+@Name("IsosurfaceFX.Coloring")
+@Label("Isosurface Coloring")
+@Category({ "IsosurfaceFX" })
+@Description("One pass of a vertex colorer over a surface")
+final class IsoSurfaceColoringEvent extends jdk.jfr.Event {
+
+  @Label("Colorer Class")
+  Class<?> colorerClass;
+
+  @Label("Colorer Type")
+  @Description("0 NONE, 1 UNLIT, 2 LIT, 3 BOTH")
+  int colorerType;
+
+  @Label("Colors")
+  int colors;
+
+  @Label("Materials")
+  int materials;
+
+} // end class IsoSurfaceColoringEvent
@@ -76,6 +76,30 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
   /** The reference to the underlying data matrix. **/
   protected Object matRef;
 
+  /**
+   * The min/max summary of the matrix, built the first time it's asked for
+   *  and dropped whenever the data changes.
+  **/
+  private IsoSurfaceBlockPyramid blockPyramid;
+
+  /**
+   * The span-space index of the matrix's cells, built the first time it's
+   *  asked for and dropped whenever the data changes.
+  **/
+  private IsoSurfaceSpanSpaceIndex spanSpaceIndex;
+
+  /**
+   * The coarser copies of the matrix, built the first time they're asked
+   *  for and dropped whenever the data changes.
+  **/
+  private IsoSurfaceResolutionPyramid resolutionPyramid;
+
+  /**
+   * Whether the data changed since the indexes were built.  Writers only set
+   *  it, which takes no lock; the getters drop the indexes when it's set.
+  **/
+  private volatile boolean indexesStale = false;
+
   // Have to add the least value in the subclasses.
 
   //----< constructor >-----------------------------------------------------//
@@ -312,6 +336,7 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
   public void setMajorAxisOffset(final int _idx, final int _offset) {
     if(_idx >= 0 && _idx < majorAxisOffsets.length) {
       majorAxisOffsets[_idx] = _offset;
+      invalidateIndexes();
     } // end if
   } // end setMajorAxisOffset
 
@@ -329,6 +354,7 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
   public void setMinorAxisOffset(final int _idx, final int _offset) {
     if(_idx >= 0 && _idx < minorAxisOffsets.length) {
       minorAxisOffsets[_idx] = _offset;
+      invalidateIndexes();
     } // end if
   } // end setMinorAxisOffset
 
@@ -348,6 +374,7 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
     if(matRef == null)
       System.out.println("Houston, we have a problem");
     Array.set(matRef, _idx, _dataPlane);  // throws
+    invalidateIndexes();
   } // end setPlaneData
 
   //----< setPlaneData >----------------------------------------------------//
@@ -383,7 +410,7 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
    *  corresponds to.
    * @param _majAxisCenter The value of the point 
   **/
-  private void calculatePlaneCenter(final int _idx, final int _majAxisCenter,
+  protected void calculatePlaneCenter(final int _idx, final int _majAxisCenter,
                                     final int _minAxisCenter)
   {
     int majDim;
@@ -402,13 +429,105 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
 
     majorAxisOffsets[_idx] = (majDim/2) - _majAxisCenter;
     minorAxisOffsets[_idx] = (minDim/2) - _minAxisCenter;
+    invalidateIndexes();
 
   } // end calculatePlaneCenter
 
+  //----< invalidateIndexes >-----------------------------------------------//
+
+  /**
+   * This method marks the block pyramid, the span-space index, and the
+   *  resolution pyramid out of date, so they are built again the next time
+   *  they're asked for.  It takes no lock, so a setter may call it on every
+   *  point it writes.  The setters of the
+   *  data matrix call it; code that changes the data some other way (for
+   *  example through an array it handed to the matrix) must call it too.
+  **/
+  public void invalidateIndexes() {
+    indexesStale = true;
+  } // end invalidateIndexes
+
+  //----< dropStaleIndexes >------------------------------------------------//
+
+  /**
+   * This method drops the indexes if the data changed since they were built.
+   *  The flag is cleared before anything is rebuilt, so a write made during
+   *  a rebuild marks the new index out of date.  Callers hold the lock.
+  **/
+  private void dropStaleIndexes() {
+    if(indexesStale) {
+      indexesStale = false;
+      blockPyramid = null;
+      spanSpaceIndex = null;
+      resolutionPyramid = null;
+    } // end if
+  } // end dropStaleIndexes
+
   ////////////////////////////////////////////////////////////////////////////
   // Getters
   ////////////////////////////////////////////////////////////////////////////
 
+  //----< getBlockPyramid >-------------------------------------------------//
+
+  /**
+   * This method returns the min/max block pyramid of the matrix, which lets
+   *  an IsoSurfaceGenerator skip the parts of the matrix that can't produce
+   *  any surface.  The pyramid is built on the first call and then reused,
+   *  for any thresholds, until the data changes.
+   * @return The IsoSurfaceBlockPyramid of the matrix's current data.
+  **/
+  public synchronized IsoSurfaceBlockPyramid getBlockPyramid() {
+    dropStaleIndexes();
+    if(blockPyramid == null)
+      blockPyramid = createBlockPyramid();
+    return(blockPyramid);
+  } // end getBlockPyramid
+
+  //----< createBlockPyramid >----------------------------------------------//
+
+  /**
+   * This method builds the min/max block pyramid for getBlockPyramid.  This
+   *  version reads every point of the matrix; subclasses that know the
+   *  ranges of their regions without reading them should override it.
+   * @return A new IsoSurfaceBlockPyramid of the matrix's current data.
+  **/
+  protected IsoSurfaceBlockPyramid createBlockPyramid() {
+    return(new IsoSurfaceBlockPyramid(this));
+  } // end createBlockPyramid
+
+  //----< getSpanSpaceIndex >-----------------------------------------------//
+
+  /**
+   * This method returns the span-space index of the matrix's cells, which
+   *  lets an IsoSurfaceGenerator go straight to the cells a threshold passes
+   *  through.  Building the index reads and sorts the whole matrix, so it
+   *  pays off when the same data is extracted at many thresholds.  The index
+   *  is built on the first call and then reused until the data changes.
+   * @return The IsoSurfaceSpanSpaceIndex of the matrix's current data.
+  **/
+  public synchronized IsoSurfaceSpanSpaceIndex getSpanSpaceIndex() {
+    dropStaleIndexes();
+    if(spanSpaceIndex == null)
+      spanSpaceIndex = new IsoSurfaceSpanSpaceIndex(this);
+    return(spanSpaceIndex);
+  } // end getSpanSpaceIndex
+
+  //----< getResolutionPyramid >--------------------------------------------//
+
+  /**
+   * This method returns the resolution pyramid of the matrix, the halved
+   *  copies an IsoSurfaceLodGenerator extracts distant regions from.  The
+   *  pyramid is built on the first call and then reused until the data
+   *  changes.
+   * @return The IsoSurfaceResolutionPyramid of the matrix's current data.
+  **/
+  public synchronized IsoSurfaceResolutionPyramid getResolutionPyramid() {
+    dropStaleIndexes();
+    if(resolutionPyramid == null)
+      resolutionPyramid = new IsoSurfaceResolutionPyramid(this);
+    return(resolutionPyramid);
+  } // end getResolutionPyramid
+
   //----< isPoint >---------------------------------------------------------//
 
   /**
@@ -462,6 +581,184 @@ public abstract class IsoSurfaceDataMatrix implements IsoDataMatConstInterface {
     return(compareOp(getPoint(_x, _y, _z), _comparitor, _threshold));
   } // end isPoint
 
+  //----< classifyRow >-----------------------------------------------------//
+
+  /**
+   * This method classifies a row of consecutive points along one axis.  The
+   *  IsoSurfaceGenerator uses it to classify each point of the matrix once.
+   *  The part of the row inside the matrix is handed to classifySpan; the
+   *  points outside it are read through getPoint.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _x The index along the x-axis of the first point of the row.
+   * @param _y The index along the y-axis of the first point of the row.
+   * @param _z The index along the z-axis of the first point of the row.
+   * @param _axis The axis the row runs along: 0 for x, 1 for y, 2 for z.
+   * @param _bits The array receiving the results, 1 for a point that is
+   *  inside, 0 for one that isn't.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the row.
+  **/
+  public void classifyRow(final IsoSurfaceClassifier _cls,
+                          final int _x, final int _y, final int _z,
+                          final int _axis, final byte[] _bits,
+                          final int _offset, final int _count)
+  {
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+    final int first = getRowStart(_x, _y, _z, _axis, _count);
+    final int last = getRowEnd(_x, _y, _z, _axis, _count);
+    for(int i = 0; i < first; i++) {
+      final double val = getPoint(_x + i*dx, _y + i*dy, _z + i*dz);
+      _bits[_offset + i] = _cls.isInside(val) ? (byte)1 : (byte)0;
+    } // end for
+    if(first < last)
+      classifySpan(_cls, _x + first*dx, _y + first*dy, _z + first*dz, _axis,
+                   _bits, _offset + first, last - first);
+    for(int i = last; i < _count; i++) {
+      final double val = getPoint(_x + i*dx, _y + i*dy, _z + i*dz);
+      _bits[_offset + i] = _cls.isInside(val) ? (byte)1 : (byte)0;
+    } // end for
+  } // end classifyRow
+
+  //----< classifySpan >----------------------------------------------------//
+
+  /**
+   * This method classifies a run of consecutive points along one axis, all
+   *  of which are inside the matrix.  This version reads every point through
+   *  getPoint; subclasses that can reach their points faster should override
+   *  it.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _bits The array receiving the results, 1 for a point that is
+   *  inside, 0 for one that isn't.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run, at least one.
+  **/
+  protected void classifySpan(final IsoSurfaceClassifier _cls,
+                              final int _x, final int _y, final int _z,
+                              final int _axis, final byte[] _bits,
+                              final int _offset, final int _count)
+  {
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+    for(int i = 0; i < _count; i++) {
+      final double val = getPoint(_x + i*dx, _y + i*dy, _z + i*dz);
+      _bits[_offset + i] = _cls.isInside(val) ? (byte)1 : (byte)0;
+    } // end for
+  } // end classifySpan
+
+  //----< readRow >---------------------------------------------------------//
+
+  /**
+   * This method reads a row of consecutive points along one axis into an
+   *  array, for classifying them against several thresholds without reading
+   *  the matrix again for each (see IsoSurfaceGenerator.extractMulti).  The
+   *  part of the row inside the matrix is handed to readSpan; the points
+   *  outside it are read through getPoint.
+   * @param _x The index along the x-axis of the first point of the row.
+   * @param _y The index along the y-axis of the first point of the row.
+   * @param _z The index along the z-axis of the first point of the row.
+   * @param _axis The axis the row runs along: 0 for x, 1 for y, 2 for z.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the row.
+  **/
+  public void readRow(final int _x, final int _y, final int _z,
+                      final int _axis, final double[] _values,
+                      final int _offset, final int _count)
+  {
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+    final int first = getRowStart(_x, _y, _z, _axis, _count);
+    final int last = getRowEnd(_x, _y, _z, _axis, _count);
+    for(int i = 0; i < first; i++)
+      _values[_offset + i] = getPoint(_x + i*dx, _y + i*dy, _z + i*dz);
+    if(first < last)
+      readSpan(_x + first*dx, _y + first*dy, _z + first*dz, _axis, _values,
+               _offset + first, last - first);
+    for(int i = last; i < _count; i++)
+      _values[_offset + i] = getPoint(_x + i*dx, _y + i*dy, _z + i*dz);
+  } // end readRow
+
+  //----< readSpan >--------------------------------------------------------//
+
+  /**
+   * This method reads a run of consecutive points along one axis, all of
+   *  which are inside the matrix, into an array.  This version reads every
+   *  point through getPoint; subclasses that can reach their points faster
+   *  should override it.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the run, at least one.
+  **/
+  protected void readSpan(final int _x, final int _y, final int _z,
+                          final int _axis, final double[] _values,
+                          final int _offset, final int _count)
+  {
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+    for(int i = 0; i < _count; i++)
+      _values[_offset + i] = getPoint(_x + i*dx, _y + i*dy, _z + i*dz);
+  } // end readSpan
+
+  //----< getRowStart >-----------------------------------------------------//
+
+  /**
+   * This method returns where the part of a row inside the matrix starts.
+   *  A row runs along one axis, so the points inside the matrix are one run
+   *  [getRowStart, getRowEnd).
+   * @param _x The index along the x-axis of the first point of the row.
+   * @param _y The index along the y-axis of the first point of the row.
+   * @param _z The index along the z-axis of the first point of the row.
+   * @param _axis The axis the row runs along: 0 for x, 1 for y, 2 for z.
+   * @param _count The number of points in the row.
+   * @return The index in the row of the first point inside the matrix, or
+   *  the row's end if its start is past the matrix.
+  **/
+  protected final int getRowStart(final int _x, final int _y, final int _z,
+                                  final int _axis, final int _count)
+  {
+    final int pos = (_axis == 0) ? _x : (_axis == 1) ? _y : _z;
+    return(Math.min(_count, Math.max(0, -pos)));
+  } // end getRowStart
+
+  //----< getRowEnd >-------------------------------------------------------//
+
+  /**
+   * This method returns where the part of a row inside the matrix ends.
+   * @param _x The index along the x-axis of the first point of the row.
+   * @param _y The index along the y-axis of the first point of the row.
+   * @param _z The index along the z-axis of the first point of the row.
+   * @param _axis The axis the row runs along: 0 for x, 1 for y, 2 for z.
+   * @param _count The number of points in the row.
+   * @return One past the index in the row of the last point inside the
+   *  matrix, or getRowStart if no point of the row is inside it.
+  **/
+  protected final int getRowEnd(final int _x, final int _y, final int _z,
+                                final int _axis, final int _count)
+  {
+    final int first = getRowStart(_x, _y, _z, _axis, _count);
+    final int x = (_axis == 0) ? _x + first : _x;
+    final int y = (_axis == 1) ? _y + first : _y;
+    final int z = (_axis == 2) ? _z + first : _z;
+    if(x < 0 || x >= xMaxDim || y < 0 || y >= yMaxDim || z < 0 || z >= zMaxDim)
+      return(first);
+    final int pos = (_axis == 0) ? _x : (_axis == 1) ? _y : _z;
+    final int dim = (_axis == 0) ? xMaxDim : (_axis == 1) ? yMaxDim : zMaxDim;
+    return(Math.max(first, Math.min(_count, dim - pos)));
+  } // end getRowEnd
+
   //----< getPoint >--------------------------------------------------------//
 
   /**
@@ -0,0 +1,1242 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class decimates the indexed mesh of a generator, such as an
+ *  IsoSurfaceGenerator extracted with indexed options, by quadric error edge
+ *  collapse.  Marching cubes tessellates flat parts of a surface as finely as
+ *  curved ones; collapsing edges where the surface is flat removes most of
+ *  those triangles without changing its shape.
+ * Each vertex carries the quadric of the planes of the triangles around it
+ *  in the original mesh, and collapsing an edge merges the quadrics of its
+ *  vertices and places the merged vertex where the sum is smallest.  The
+ *  quadric there, the sum of the squared distances to the planes, is the
+ *  cost of the collapse.  The cheapest collapses are done first until the
+ *  mesh is down to the target triangle count or the next collapse would
+ *  cost more than the square of the error bound.  A collapse is skipped if
+ *  it would make the mesh non-manifold or turn a triangle over.  Edges on
+ *  the border of an open mesh are never collapsed, and vertices on it never
+ *  move, so the border, e.g. where the surface meets the edge of the volume,
+ *  stays where it was.
+ * The work is split into slabs of the mesh along its longest axis, with
+ *  equal triangle counts, and the slabs are decimated in parallel.  The
+ *  vertices two slabs share are locked, so the slabs can be decimated
+ *  independently.  This is done in rounds, the slab boundaries moving by
+ *  half a slab each round, so the parts one round locks are decimated by
+ *  the next.  Each round but the last removes only half of the triangles
+ *  still over the target: a slab made to reach its whole share at once,
+ *  with its locked boundary left fine, would have to pull what's inside
+ *  it far out of shape.  On one thread the whole mesh is decimated at once
+ *  in a single round.
+ * The decimated vertices keep their normals, merged when they are
+ *  collapsed, and lose their colors, so the decimator reports no colorer.
+ *  It takes the source's mesh as it is when the decimator is created.
+**/
+public class IsoSurfaceDecimator implements IsoConstInterface,
+                                            IsoSurfaceGeneratorInterface
+{
+
+  /**
+   * The smallest cosine of the angle a collapse may turn a triangle's
+   *  normal by.  Collapses that turn a triangle further are skipped.
+  **/
+  private static final double MIN_NORMAL_COS = 0.2;
+
+  /**
+   * The smallest determinant of a quadric for which the position that
+   *  minimizes it is solved for.  Flatter quadrics, whose best position is
+   *  badly defined, use the best of the edge's ends and midpoint instead.
+  **/
+  private static final double MIN_DETERMINANT = 1e-10;
+
+  /**
+   * The share of the triangles still over the target that a round of
+   *  parallel decimation removes, when it isn't the last round.
+  **/
+  private static final double ROUND_SHARE = 0.5;
+
+  /** The most rounds of parallel decimation. **/
+  private static final int MAX_ROUNDS = 8;
+
+  /** The owner of a vertex that triangles of several slabs use. **/
+  private static final int SHARED = -2;
+
+  /** The mesh being decimated. **/
+  private final IsoSurfaceGeneratorInterface source;
+
+  /** The number of triangles to stop at, or 0 to stop at the error only. **/
+  private final int targetTriangles;
+
+  /** The largest error of a collapse, in the units of the vertices. **/
+  private final double maxError;
+
+  /** The options whose threads and executor decimate the slabs. **/
+  private final IsoSurfaceExtractionOptions options;
+
+  /** The positions of the vertices while decimating, x,y,z interleaved. **/
+  private double[] positions;
+
+  /** The normals of the vertices while decimating, x,y,z interleaved. **/
+  private float[] normals;
+
+  /** The quadrics of the vertices while decimating, ten per vertex. **/
+  private double[] quadrics;
+
+  /** The vertex indices of the triangles while decimating. **/
+  private int[] triangles;
+
+  /** Whether each triangle is still part of the mesh. **/
+  private boolean[] live;
+
+  /** The number of triangles still part of the mesh. **/
+  private int liveCnt;
+
+  /** The decimated vertices, x,y,z interleaved. **/
+  private float[] vertexBuf;
+
+  /** The decimated normals, x,y,z interleaved. **/
+  private float[] normalBuf;
+
+  /** The vertex indices of the decimated triangles. **/
+  private int[] indexBuf;
+
+  /** The vertices as objects, created when first asked for. **/
+  private Vector3d[] vertexArr;
+
+  /** The normals as objects, created when first asked for. **/
+  private Vector3f[] normalArr;
+
+  /** The number of decimated triangles. **/
+  private int triCnt = 0;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor decimates a mesh down to a triangle count.
+   * @param _source The generator holding the mesh, which must be indexed.
+   * @param _targetTriangles The number of triangles to stop at.
+   * @param _options The IsoSurfaceExtractionOptions whose threads and
+   *  executor decimate the slabs.
+   * @throws IllegalArgumentException If the mesh isn't indexed.
+  **/
+  public IsoSurfaceDecimator(final IsoSurfaceGeneratorInterface _source,
+                             final int _targetTriangles,
+                             final IsoSurfaceExtractionOptions _options)
+    throws IllegalArgumentException
+  {
+    this(_source, _targetTriangles, Double.POSITIVE_INFINITY, _options);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor decimates a mesh down to a triangle count or until the
+   *  next collapse would move the surface too far, whichever comes first.
+   * @param _source The generator holding the mesh, which must be indexed.
+   * @param _targetTriangles The number of triangles to stop at, or 0 to
+   *  stop at the error bound only.
+   * @param _maxError The error bound, roughly the distance a collapse may
+   *  move the surface, in the units of the vertices.
+   * @param _options The IsoSurfaceExtractionOptions whose threads and
+   *  executor decimate the slabs.
+   * @throws IllegalArgumentException If the mesh isn't indexed.
+  **/
+  public IsoSurfaceDecimator(final IsoSurfaceGeneratorInterface _source,
+                             final int _targetTriangles,
+                             final double _maxError,
+                             final IsoSurfaceExtractionOptions _options)
+    throws IllegalArgumentException
+  {
+    if(_source.getIndexArray() == null && _source.getPolygonCount() > 0)
+      throw new IllegalArgumentException("Mesh is not indexed");
+    source = _source;
+    targetTriangles = Math.max(0, _targetTriangles);
+    maxError = _maxError;
+    options = _options;
+    decimate();
+  } // end constructor
+
+  //----< decimate >--------------------------------------------------------//
+
+  /**
+   * This method decimates the source's mesh into the decimator's buffers.
+  **/
+  private void decimate() {
+    final int vertCnt = source.getVertexCount();
+    final float[] verts = source.getPackedVertexArray();
+    final float[] norms = source.getPackedNormalArray();
+    final int[] indices = source.getIndexArray();
+    positions = new double[vertCnt * 3];
+    for(int i = 0; i < vertCnt * 3; i++)
+      positions[i] = verts[i];
+    normals = (vertCnt == 0) ? new float[0]
+                             : Arrays.copyOf(norms, vertCnt * 3);
+    triangles = (indices == null) ? new int[0] : indices.clone();
+    liveCnt = triangles.length / 3;
+    live = new boolean[liveCnt];
+    Arrays.fill(live, true);
+    quadrics = calcQuadrics();
+
+    final int slabs = options.isParallel() ? options.getEffectiveThreadCount()
+                                           : 1;
+    final int axis = calcLongestAxis();
+    final int rounds = (slabs == 1) ? 1 : MAX_ROUNDS;
+    for(int round = 0; round < rounds; round++) {
+      final int before = liveCnt;
+      decimateRound(axis, slabs, (round % 2) * 0.5,
+                    (round == rounds - 1) ? 1.0 : ROUND_SHARE);
+      if(liveCnt == before)
+        break;
+    } // end for
+    compact();
+
+    positions = null;
+    normals = null;
+    quadrics = null;
+    triangles = null;
+    live = null;
+  } // end decimate
+
+  //----< calcQuadrics >----------------------------------------------------//
+
+  /**
+   * This method sums the quadric of the plane of each triangle into the
+   *  quadrics of its vertices.  A quadric is stored as the ten coefficients
+   *  aa, ab, ac, ad, bb, bc, bd, cc, cd, dd of the plane ax + by + cz + d.
+   * @return The quadrics, ten per vertex.
+  **/
+  private double[] calcQuadrics() {
+    final double[] sums = new double[positions.length / 3 * 10];
+    final double[] n = new double[3];
+    for(int t = 0; t < liveCnt; t++) {
+      final int v0 = triangles[t*3];
+      if(!calcNormal(positions, v0, triangles[t*3 + 1], triangles[t*3 + 2], n))
+        continue;
+      final double d = -(n[X] * positions[v0*3] + n[Y] * positions[v0*3 + 1]
+                         + n[Z] * positions[v0*3 + 2]);
+      for(int k = 0; k < 3; k++) {
+        final int q = triangles[t*3 + k] * 10;
+        sums[q]     += n[X] * n[X];
+        sums[q + 1] += n[X] * n[Y];
+        sums[q + 2] += n[X] * n[Z];
+        sums[q + 3] += n[X] * d;
+        sums[q + 4] += n[Y] * n[Y];
+        sums[q + 5] += n[Y] * n[Z];
+        sums[q + 6] += n[Y] * d;
+        sums[q + 7] += n[Z] * n[Z];
+        sums[q + 8] += n[Z] * d;
+        sums[q + 9] += d * d;
+      } // end for
+    } // end for
+    return(sums);
+  } // end calcQuadrics
+
+  //----< calcNormal >------------------------------------------------------//
+
+  /**
+   * This method works out the unit normal of a triangle.
+   * @param _pos The packed positions of the vertices.
+   * @param _v0 The first vertex of the triangle.
+   * @param _v1 The second vertex of the triangle.
+   * @param _v2 The third vertex of the triangle.
+   * @param _n The array receiving the normal.
+   * @return false when the triangle has no area, and so no normal.
+  **/
+  private static boolean calcNormal(final double[] _pos, final int _v0,
+                                    final int _v1, final int _v2,
+                                    final double[] _n)
+  {
+    final double ux = _pos[_v1*3] - _pos[_v0*3];
+    final double uy = _pos[_v1*3 + 1] - _pos[_v0*3 + 1];
+    final double uz = _pos[_v1*3 + 2] - _pos[_v0*3 + 2];
+    final double vx = _pos[_v2*3] - _pos[_v0*3];
+    final double vy = _pos[_v2*3 + 1] - _pos[_v0*3 + 1];
+    final double vz = _pos[_v2*3 + 2] - _pos[_v0*3 + 2];
+    _n[X] = uy * vz - uz * vy;
+    _n[Y] = uz * vx - ux * vz;
+    _n[Z] = ux * vy - uy * vx;
+    final double len = Math.sqrt(_n[X] * _n[X] + _n[Y] * _n[Y]
+                                 + _n[Z] * _n[Z]);
+    if(len == 0.0)
+      return(false);
+    _n[X] /= len;
+    _n[Y] /= len;
+    _n[Z] /= len;
+    return(true);
+  } // end calcNormal
+
+  //----< calcLongestAxis >-------------------------------------------------//
+
+  /**
+   * This method finds the axis the mesh is longest along.
+   * @return X, Y, or Z.
+  **/
+  private int calcLongestAxis() {
+    final double[] min = { Double.MAX_VALUE, Double.MAX_VALUE,
+                           Double.MAX_VALUE };
+    final double[] max = { -Double.MAX_VALUE, -Double.MAX_VALUE,
+                           -Double.MAX_VALUE };
+    for(int i = 0; i < positions.length; i++) {
+      min[i % 3] = Math.min(min[i % 3], positions[i]);
+      max[i % 3] = Math.max(max[i % 3], positions[i]);
+    } // end for
+    int axis = X;
+    for(int a = Y; a <= Z; a++)
+      if(max[a] - min[a] > max[axis] - min[axis])
+        axis = a;
+    return(axis);
+  } // end calcLongestAxis
+
+  //----< decimateRound >---------------------------------------------------//
+
+  /**
+   * This method decimates the mesh once, in slabs along an axis, each slab
+   *  removing its part of a share of the triangles still over the target.
+   *  The slab boundaries are quantiles of the triangles' centers, so the
+   *  slabs have equal triangle counts.
+   * @param _axis The axis to cut the mesh along.
+   * @param _slabs The number of slabs.
+   * @param _shift The fraction of a slab to move the boundaries by; with a
+   *  shift there is an extra slab at the end.
+   * @param _share The share of the triangles over the target to remove.
+  **/
+  private void decimateRound(final int _axis, final int _slabs,
+                             final double _shift, final double _share)
+  {
+    if(liveCnt == 0 || (targetTriangles > 0 && liveCnt <= targetTriangles))
+      return;
+
+    // Find the center of each triangle along the axis, and cut the sorted
+    //  centers into quantiles.
+    final int[] faces = new int[liveCnt];
+    final double[] centers = new double[liveCnt];
+    int cnt = 0;
+    for(int t = 0; t < live.length; t++) {
+      if(!live[t])
+        continue;
+      faces[cnt] = t;
+      centers[cnt++] = positions[triangles[t*3]*3 + _axis]
+                       + positions[triangles[t*3 + 1]*3 + _axis]
+                       + positions[triangles[t*3 + 2]*3 + _axis];
+    } // end for
+    final double[] sorted = centers.clone();
+    Arrays.sort(sorted);
+    final int cutCnt = (_shift == 0.0) ? _slabs - 1 : _slabs;
+    final double[] cuts = new double[cutCnt];
+    for(int j = 0; j < cutCnt; j++)
+      cuts[j] = sorted[Math.min(cnt - 1,
+                                (int)((j + 1 - _shift) * cnt / _slabs))];
+
+    // Sort the triangles into slabs, and find the vertices of several.
+    final IsoIntBuffer[] slabFaces = new IsoIntBuffer[cutCnt + 1];
+    for(int s = 0; s < slabFaces.length; s++)
+      slabFaces[s] = new IsoIntBuffer(cnt / slabFaces.length + 1);
+    final int[] owners = new int[positions.length / 3];
+    Arrays.fill(owners, -1);
+    for(int i = 0; i < cnt; i++) {
+      int slab = 0;
+      while(slab < cutCnt && centers[i] >= cuts[slab])
+        slab++;
+      slabFaces[slab].add(faces[i]);
+      for(int k = 0; k < 3; k++) {
+        final int v = triangles[faces[i]*3 + k];
+        if(owners[v] == -1)
+          owners[v] = slab;
+        else if(owners[v] != slab)
+          owners[v] = SHARED;
+      } // end for
+    } // end for
+
+    final Partition[] parts = new Partition[slabFaces.length];
+    final long excess = (long)Math.ceil(_share * ((targetTriangles == 0)
+                                          ? cnt : cnt - targetTriangles));
+    for(int s = 0; s < parts.length; s++) {
+      final int size = slabFaces[s].size();
+      parts[s] = new Partition(s, slabFaces[s].toArray(), owners,
+                               size - (int)((excess * size + cnt - 1) / cnt));
+    } // end for
+    runPartitions(parts);
+    for(int s = 0; s < parts.length; s++)
+      liveCnt -= parts[s].removed;
+  } // end decimateRound
+
+  //----< runPartitions >---------------------------------------------------//
+
+  /**
+   * This method decimates the slabs of a round, see
+   *  IsoSurfaceExtractionOptions.runTasks.
+   * @param _parts The slabs.
+  **/
+  private void runPartitions(final Partition[] _parts) {
+    options.runTasks(_parts.length, i -> _parts[i].decimate());
+  } // end runPartitions
+
+  //----< compact >---------------------------------------------------------//
+
+  /**
+   * This method copies the remaining triangles and the vertices they use
+   *  into the decimator's buffers, keeping the vertices in their original
+   *  order.
+  **/
+  private void compact() {
+    final int[] remap = new int[positions.length / 3];
+    Arrays.fill(remap, -1);
+    for(int t = 0; t < live.length; t++)
+      if(live[t])
+        for(int k = 0; k < 3; k++)
+          remap[triangles[t*3 + k]] = 0;
+    int vertCnt = 0;
+    for(int v = 0; v < remap.length; v++)
+      if(remap[v] == 0)
+        remap[v] = vertCnt++;
+
+    vertexBuf = new float[vertCnt * 3];
+    normalBuf = new float[vertCnt * 3];
+    for(int v = 0; v < remap.length; v++) {
+      if(remap[v] < 0)
+        continue;
+      for(int a = 0; a < 3; a++) {
+        vertexBuf[remap[v]*3 + a] = (float)positions[v*3 + a];
+        normalBuf[remap[v]*3 + a] = normals[v*3 + a];
+      } // end for
+    } // end for
+
+    triCnt = liveCnt;
+    indexBuf = new int[triCnt * 3];
+    int pos = 0;
+    for(int t = 0; t < live.length; t++)
+      if(live[t])
+        for(int k = 0; k < 3; k++)
+          indexBuf[pos++] = remap[triangles[t*3 + k]];
+    vertexArr = null;
+    normalArr = null;
+  } // end compact
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getSource >-------------------------------------------------------//
+
+  /**
+   * This method returns the generator whose mesh was decimated.
+   * @return The source generator.
+  **/
+  public IsoSurfaceGeneratorInterface getSource() {
+    return(source);
+  } // end getSource
+
+  //----< getPolygonCount >-------------------------------------------------//
+
+  /**
+   * This method will return the number of polygons in the decimated mesh.
+   * @return An integer containing the polygon count.
+  **/
+  @Override
+public int getPolygonCount() {
+    return(triCnt);
+  } // end getPolygonCount
+
+  //----< getVertexArray >--------------------------------------------------//
+
+  /**
+   * This method will return the array of vertices that comprises the
+   *  decimated mesh.
+   * @return An array of Vector3d objects, one object for each vertex.
+  **/
+  @Override
+public synchronized Vector3d[] getVertexArray() {
+    if(vertexArr == null) {
+      vertexArr = new Vector3d[vertexBuf.length / 3];
+      for(int i = 0; i < vertexArr.length; i++)
+        vertexArr[i] = new Vector3d(vertexBuf[i*3], vertexBuf[i*3+1],
+                                    vertexBuf[i*3+2]);
+    } // end if
+    return(vertexArr);
+  } // end getVertexArray
+
+  //----< getPackedVertexArray >--------------------------------------------//
+
+  /**
+   * This method will return the vertices of the decimated mesh as one packed
+   *  float array, x,y,z interleaved.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  @Override
+public float[] getPackedVertexArray() {
+    return(vertexBuf);
+  } // end getPackedVertexArray
+
+  //----< getIndexArray >---------------------------------------------------//
+
+  /**
+   * This method will return the vertex indices of the decimated triangles,
+   *  three per triangle.
+   * @return An int array of 3 * getPolygonCount() indices.
+  **/
+  @Override
+public int[] getIndexArray() {
+    return(indexBuf);
+  } // end getIndexArray
+
+  //----< getVertexCount >--------------------------------------------------//
+
+  /**
+   * This method will return the number of vertices in the decimated mesh.
+   * @return An integer containing the vertex count.
+  **/
+  @Override
+public int getVertexCount() {
+    return(vertexBuf.length / 3);
+  } // end getVertexCount
+
+  //----< getNormalArray >--------------------------------------------------//
+
+  /**
+   * This method will return the array of normals of the decimated mesh.
+   *  This array's indices correspond to the equivalent indices in the vertex
+   *  array.
+   * @return An array of Vector3f objects, one object for each vertex.
+  **/
+  @Override
+public synchronized Vector3f[] getNormalArray() {
+    if(normalArr == null) {
+      normalArr = new Vector3f[normalBuf.length / 3];
+      for(int i = 0; i < normalArr.length; i++)
+        normalArr[i] = new Vector3f(normalBuf[i*3], normalBuf[i*3+1],
+                                    normalBuf[i*3+2]);
+    } // end if
+    return(normalArr);
+  } // end getNormalArray
+
+  //----< getPackedNormalArray >--------------------------------------------//
+
+  /**
+   * This method will return the normals of the decimated mesh as one packed
+   *  float array, x,y,z interleaved, one normal for each vertex in the packed
+   *  vertex array.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  @Override
+public float[] getPackedNormalArray() {
+    return(normalBuf);
+  } // end getPackedNormalArray
+
+  //----< getColorerType >--------------------------------------------------//
+
+  /**
+   * This method will return the type of colorer used for the per-vertex
+   *  coloring, which for a decimated mesh is always none.
+   * @return IsoSurfaceVertexColorer.NONE.
+  **/
+  @Override
+public byte getColorerType() {
+    return(IsoSurfaceVertexColorer.NONE);
+  } // end getColorerType
+
+  //----< getVertexColorArray >---------------------------------------------//
+
+  /**
+   * This method would return the unlit colors of the vertices, which a
+   *  decimated mesh doesn't keep.
+   * @return null.
+  **/
+  @Override
+public float[][] getVertexColorArray() {
+    return(null);
+  } // end getVertexColorArray
+
+  //----< getVertexMaterialArray >------------------------------------------//
+
+  /**
+   * This method would return the lit colors of the vertices, which a
+   *  decimated mesh doesn't keep.
+   * @return null.
+  **/
+  @Override
+public float[][] getVertexMaterialArray() {
+    return(null);
+  } // end getVertexMaterialArray
+
+  //----< isTranslucencyEnabled >-------------------------------------------//
+
+  /**
+   * This method will indicate whether of not the surface is translucent,
+   *  which without a colorer it never is.
+   * @return false.
+  **/
+  @Override
+public boolean isTranslucencyEnabled() {
+    return(false);
+  } // end isTranslucencyEnabled
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Partition
+  ////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * One slab of a round.  A slab copies out the part of the mesh it
+   *  decimates, with its vertices numbered locally, decimates the copy, and
+   *  writes its triangles and the vertices only it uses back.  The vertices
+   *  it shares with other slabs are frozen: they don't move and no edge
+   *  touching them is collapsed, since the slab doesn't see their other
+   *  triangles.  Vertices on a border edge of the mesh are pinned: they
+   *  don't move, but other vertices can collapse onto them.
+   * The triangles around a vertex are kept as a fan, a run of a shared
+   *  list; a collapse gathers the live triangles of both vertices into a new
+   *  run at the end of the list for the merged vertex, so dead triangles
+   *  drop out of its fan as it grows.  Candidate collapses wait in a heap, stamped with the versions of
+   *  their vertices; a collapse bumps the versions of its two vertices, which
+   *  turns their old candidates stale, and adds new ones for the edges
+   *  around the merged vertex.
+  **/
+  private final class Partition {
+
+    /** The number of the slab. **/
+    private final int slab;
+
+    /** The mesh triangles of the slab. **/
+    private final int[] faces;
+
+    /** The slab of each mesh vertex, or SHARED. **/
+    private final int[] owners;
+
+    /** The number of triangles to stop at. **/
+    private final int target;
+
+    /** The number of triangles the slab removed. **/
+    int removed = 0;
+
+    /** The mesh vertex of each local vertex. **/
+    private int[] global;
+
+    /** The local vertex indices of the slab's triangles. **/
+    private int[] corners;
+
+    /** Whether each of the slab's triangles is still part of the mesh. **/
+    private boolean[] faceLive;
+
+    /** The local copies of the positions, normals, and quadrics. **/
+    private double[] pos;
+    private float[] nrm;
+    private double[] quad;
+
+    /** Whether each local vertex is frozen or pinned. **/
+    private boolean[] frozen;
+    private boolean[] pinned;
+
+    /** The version of each local vertex, bumped by each collapse. **/
+    private int[] versions;
+
+    /** The fans: the triangles of vertex v are fanList[fanStart[v] ..
+     *  fanEnd[v]), some of which may have died since. **/
+    private int[] fanStart;
+    private int[] fanEnd;
+    private int[] fanList;
+
+    /** The length of the used part of fanList. **/
+    private int fanUsed;
+
+    /** Scratch marks for sets of vertices, current when equal to stamp. **/
+    private int[] marks;
+    private int[] seen;
+    private int stamp = 0;
+
+    /** Scratch lists of triangles and vertices. **/
+    private final IsoIntBuffer fromFaces = new IsoIntBuffer(32);
+    private final IsoIntBuffer toFaces = new IsoIntBuffer(32);
+
+    /** The candidate collapses. **/
+    private final EdgeHeap heap = new EdgeHeap();
+
+    /** The last candidate found by evaluate. **/
+    private int candFrom;
+    private int candTo;
+    private double candCost;
+    private final double[] cand = new double[3];
+
+    /** Scratch space for quadrics, normals, and positions. **/
+    private final double[] sum = new double[10];
+    private final double[] n0 = new double[3];
+    private final double[] n1 = new double[3];
+    private final double[] saved = new double[3];
+
+    //----< constructor >---------------------------------------------------//
+
+    /**
+     * This constructor sets up a slab; decimate does the work.
+     * @param _slab The number of the slab.
+     * @param _faces The mesh triangles of the slab.
+     * @param _owners The slab of each mesh vertex, or SHARED.
+     * @param _target The number of triangles to stop at.
+    **/
+    Partition(final int _slab, final int[] _faces, final int[] _owners,
+              final int _target)
+    {
+      slab = _slab;
+      faces = _faces;
+      owners = _owners;
+      target = _target;
+    } // end constructor
+
+    //----< decimate >------------------------------------------------------//
+
+    /**
+     * This method decimates the slab and writes it back into the mesh.
+    **/
+    void decimate() {
+      if(faces.length == 0)
+        return;
+      build();
+      final double limit = maxError * maxError;
+      int liveFaces = faces.length;
+      for(int f = 0; f < faces.length; f++)
+        for(int k = 0; k < 3; k++) {
+          final int a = corners[f*3 + k];
+          final int b = corners[f*3 + (k + 1) % 3];
+          if(a < b && evaluate(a, b))
+            push();
+        } // end for
+
+      while(liveFaces > target && heap.size > 0) {
+        heap.pop();
+        final int from = heap.topFrom;
+        final int to = heap.topTo;
+        if(heap.topStamp != stampOf(from, to))
+          continue;
+        if(heap.topCost > limit)
+          break;
+        evaluate(from, to);
+        if(!isValid(from, to))
+          continue;
+        liveFaces -= collapse(from, to);
+      } // end while
+
+      removed = faces.length - liveFaces;
+      writeBack();
+    } // end decimate
+
+    //----< build >---------------------------------------------------------//
+
+    /**
+     * This method copies the slab out of the mesh, numbering its vertices
+     *  locally, and finds the frozen and pinned vertices.
+    **/
+    private void build() {
+      final IsoLongIntHashMap map = new IsoLongIntHashMap(faces.length);
+      final IsoIntBuffer verts = new IsoIntBuffer(faces.length);
+      corners = new int[faces.length * 3];
+      for(int f = 0; f < faces.length; f++) {
+        for(int k = 0; k < 3; k++) {
+          final int g = triangles[faces[f]*3 + k];
+          int l = map.get(g);
+          if(l == IsoLongIntHashMap.NO_VALUE) {
+            l = verts.size();
+            map.put(g, l);
+            verts.add(g);
+          } // end if
+          corners[f*3 + k] = l;
+        } // end for
+      } // end for
+      global = verts.toArray();
+      final int n = global.length;
+
+      faceLive = new boolean[faces.length];
+      Arrays.fill(faceLive, true);
+      pos = new double[n * 3];
+      nrm = new float[n * 3];
+      quad = new double[n * 10];
+      frozen = new boolean[n];
+      pinned = new boolean[n];
+      for(int v = 0; v < n; v++) {
+        System.arraycopy(positions, global[v]*3, pos, v*3, 3);
+        System.arraycopy(normals, global[v]*3, nrm, v*3, 3);
+        System.arraycopy(quadrics, global[v]*10, quad, v*10, 10);
+        frozen[v] = (owners[global[v]] == SHARED);
+      } // end for
+
+      fanStart = new int[n + 1];
+      for(int i = 0; i < corners.length; i++)
+        fanStart[corners[i] + 1]++;
+      for(int v = 0; v < n; v++)
+        fanStart[v + 1] += fanStart[v];
+      fanList = new int[corners.length * 2];
+      fanEnd = Arrays.copyOf(fanStart, n);
+      for(int i = 0; i < corners.length; i++)
+        fanList[fanEnd[corners[i]]++] = i / 3;
+      fanUsed = corners.length;
+
+      versions = new int[n];
+      marks = new int[n];
+      seen = new int[n];
+      final int[] counts = new int[n];
+
+      // A vertex with an edge only one of the slab's triangles uses is on
+      //  the border of the mesh, or of the slab, where it is also frozen.
+      for(int v = 0; v < n; v++) {
+        if(frozen[v]) {
+          pinned[v] = true;
+          continue;
+        } // end if
+        stamp++;
+        for(int i = fanStart[v]; i < fanEnd[v]; i++)
+          for(int k = 0; k < 3; k++) {
+            final int w = corners[fanList[i]*3 + k];
+            if(marks[w] != stamp) {
+              marks[w] = stamp;
+              counts[w] = 0;
+            } // end if
+            counts[w]++;
+          } // end for
+        for(int i = fanStart[v]; i < fanEnd[v] && !pinned[v]; i++)
+          for(int k = 0; k < 3; k++)
+            if(counts[corners[fanList[i]*3 + k]] == 1)
+              pinned[v] = true;
+      } // end for
+    } // end build
+
+    //----< collectFaces >--------------------------------------------------//
+
+    /**
+     * This method gathers the live triangles around a vertex.
+     * @param _v The vertex.
+     * @param _out The list to fill.
+    **/
+    private void collectFaces(final int _v, final IsoIntBuffer _out) {
+      _out.clear();
+      for(int i = fanStart[_v]; i < fanEnd[_v]; i++)
+        if(faceLive[fanList[i]])
+          _out.add(fanList[i]);
+    } // end collectFaces
+
+    //----< contains >------------------------------------------------------//
+
+    /**
+     * This method checks whether a triangle uses a vertex.
+     * @param _f The triangle.
+     * @param _v The vertex.
+     * @return true when _v is a corner of _f.
+    **/
+    private boolean contains(final int _f, final int _v) {
+      return(corners[_f*3] == _v || corners[_f*3 + 1] == _v
+             || corners[_f*3 + 2] == _v);
+    } // end contains
+
+    //----< stampOf >-------------------------------------------------------//
+
+    /**
+     * This method stamps a candidate with the versions of its vertices.
+     * @param _from The vertex that goes away.
+     * @param _to The vertex that stays.
+     * @return The stamp.
+    **/
+    private long stampOf(final int _from, final int _to) {
+      return(((long)versions[_from] << 32) | (versions[_to] & 0xffffffffL));
+    } // end stampOf
+
+    //----< push >----------------------------------------------------------//
+
+    /**
+     * This method adds the last candidate evaluate found to the heap.
+    **/
+    private void push() {
+      heap.push(candCost, candFrom, candTo, stampOf(candFrom, candTo));
+    } // end push
+
+    //----< evaluate >------------------------------------------------------//
+
+    /**
+     * This method works out the collapse of an edge: which vertex goes
+     *  away, where the other ends up, and what it costs.  A pinned vertex
+     *  stays where it is; otherwise the vertex goes where the sum of the
+     *  two quadrics is smallest.
+     * @param _a One vertex of the edge.
+     * @param _b The other vertex of the edge.
+     * @return false when the edge can't be collapsed.
+    **/
+    private boolean evaluate(final int _a, final int _b) {
+      if(frozen[_a] || frozen[_b] || (pinned[_a] && pinned[_b]))
+        return(false);
+      for(int i = 0; i < 10; i++)
+        sum[i] = quad[_a*10 + i] + quad[_b*10 + i];
+
+      if(pinned[_a] || pinned[_b]) {
+        candFrom = pinned[_a] ? _b : _a;
+        candTo = pinned[_a] ? _a : _b;
+        System.arraycopy(pos, candTo*3, cand, 0, 3);
+        candCost = Math.max(0.0, calcError(cand[X], cand[Y], cand[Z]));
+        return(true);
+      } // end if
+
+      candFrom = _a;
+      candTo = _b;
+      double lenSq = 0.0;
+      for(int a = 0; a < 3; a++) {
+        final double d = pos[_a*3 + a] - pos[_b*3 + a];
+        lenSq += d * d;
+      } // end for
+      if(solve() && distanceSq(cand, _a, _b) <= lenSq) {
+        candCost = Math.max(0.0, calcError(cand[X], cand[Y], cand[Z]));
+        return(true);
+      } // end if
+
+      // Take the best of the ends and the midpoint.
+      candCost = Double.MAX_VALUE;
+      for(int i = 0; i < 3; i++) {
+        final double t = i * 0.5;
+        final double x = pos[_a*3] + (pos[_b*3] - pos[_a*3]) * t;
+        final double y = pos[_a*3 + 1] + (pos[_b*3 + 1] - pos[_a*3 + 1]) * t;
+        final double z = pos[_a*3 + 2] + (pos[_b*3 + 2] - pos[_a*3 + 2]) * t;
+        final double cost = Math.max(0.0, calcError(x, y, z));
+        if(cost < candCost) {
+          candCost = cost;
+          cand[X] = x;
+          cand[Y] = y;
+          cand[Z] = z;
+        } // end if
+      } // end for
+      return(true);
+    } // end evaluate
+
+    //----< solve >---------------------------------------------------------//
+
+    /**
+     * This method finds the position where the summed quadric is smallest.
+     * @return false when the quadric is too flat to solve.
+    **/
+    private boolean solve() {
+      final double a = sum[0], b = sum[1], c = sum[2];
+      final double e = sum[4], f = sum[5], h = sum[7];
+      final double rx = -sum[3], ry = -sum[6], rz = -sum[8];
+      final double det = a * (e * h - f * f) - b * (b * h - f * c)
+                         + c * (b * f - e * c);
+      if(Math.abs(det) < MIN_DETERMINANT)
+        return(false);
+      cand[X] = (rx * (e * h - f * f) - b * (ry * h - f * rz)
+                 + c * (ry * f - e * rz)) / det;
+      cand[Y] = (a * (ry * h - f * rz) - rx * (b * h - f * c)
+                 + c * (b * rz - ry * c)) / det;
+      cand[Z] = (a * (e * rz - ry * f) - b * (b * rz - ry * c)
+                 + rx * (b * f - e * c)) / det;
+      return(true);
+    } // end solve
+
+    //----< distanceSq >----------------------------------------------------//
+
+    /**
+     * This method works out the squared distance from a point to the
+     *  midpoint of an edge.
+     * @param _p The point.
+     * @param _a One vertex of the edge.
+     * @param _b The other vertex of the edge.
+     * @return The squared distance.
+    **/
+    private double distanceSq(final double[] _p, final int _a, final int _b) {
+      double sq = 0.0;
+      for(int a = 0; a < 3; a++) {
+        final double d = _p[a] - (pos[_a*3 + a] + pos[_b*3 + a]) * 0.5;
+        sq += d * d;
+      } // end for
+      return(sq);
+    } // end distanceSq
+
+    //----< calcError >-----------------------------------------------------//
+
+    /**
+     * This method evaluates the summed quadric at a point.
+     * @param _x The x coordinate of the point.
+     * @param _y The y coordinate of the point.
+     * @param _z The z coordinate of the point.
+     * @return The sum of the squared distances to the quadric's planes.
+    **/
+    private double calcError(final double _x, final double _y,
+                             final double _z)
+    {
+      return(sum[0] * _x * _x + 2.0 * sum[1] * _x * _y
+             + 2.0 * sum[2] * _x * _z + 2.0 * sum[3] * _x
+             + sum[4] * _y * _y + 2.0 * sum[5] * _y * _z + 2.0 * sum[6] * _y
+             + sum[7] * _z * _z + 2.0 * sum[8] * _z + sum[9]);
+    } // end calcError
+
+    //----< isValid >-------------------------------------------------------//
+
+    /**
+     * This method checks that the candidate collapse keeps the mesh
+     *  manifold and turns no triangle over.  It collects the triangles
+     *  around both vertices for collapse.
+     * @param _from The vertex that goes away.
+     * @param _to The vertex that stays.
+     * @return true when the collapse may go ahead.
+    **/
+    private boolean isValid(final int _from, final int _to) {
+      collectFaces(_from, fromFaces);
+      collectFaces(_to, toFaces);
+
+      // The edge's vertices may only share the neighbors across the
+      //  triangles on the edge.
+      stamp++;
+      int shared = 0;
+      for(int i = 0; i < fromFaces.size(); i++) {
+        final int f = fromFaces.get(i);
+        if(contains(f, _to))
+          shared++;
+        for(int k = 0; k < 3; k++)
+          marks[corners[f*3 + k]] = stamp;
+      } // end for
+      if(shared == 0)
+        return(false);
+      int common = 0;
+      for(int i = 0; i < toFaces.size(); i++) {
+        final int f = toFaces.get(i);
+        for(int k = 0; k < 3; k++) {
+          final int w = corners[f*3 + k];
+          if(w != _from && w != _to && marks[w] == stamp
+             && seen[w] != stamp)
+          {
+            seen[w] = stamp;
+            common++;
+          } // end if
+        } // end for
+      } // end for
+      if(common != shared)
+        return(false);
+
+      if(!keepsFacing(fromFaces, _from, _to))
+        return(false);
+      if(pos[_to*3] == cand[X] && pos[_to*3 + 1] == cand[Y]
+         && pos[_to*3 + 2] == cand[Z])
+        return(true);
+      return(keepsFacing(toFaces, _to, _from));
+    } // end isValid
+
+    //----< keepsFacing >---------------------------------------------------//
+
+    /**
+     * This method checks that moving a vertex to the candidate position
+     *  turns none of its triangles too far, leaving out the ones that go
+     *  away with the edge.
+     * @param _faces The triangles around the vertex.
+     * @param _v The vertex that moves.
+     * @param _other The other vertex of the edge.
+     * @return true when no triangle turns too far or loses its area.
+    **/
+    private boolean keepsFacing(final IsoIntBuffer _faces, final int _v,
+                                final int _other)
+    {
+      for(int i = 0; i < _faces.size(); i++) {
+        final int f = _faces.get(i);
+        if(contains(f, _other))
+          continue;
+        final int v0 = corners[f*3];
+        final int v1 = corners[f*3 + 1];
+        final int v2 = corners[f*3 + 2];
+        if(!calcNormal(pos, v0, v1, v2, n0))
+          continue;
+        System.arraycopy(pos, _v*3, saved, 0, 3);
+        System.arraycopy(cand, 0, pos, _v*3, 3);
+        final boolean area = calcNormal(pos, v0, v1, v2, n1);
+        System.arraycopy(saved, 0, pos, _v*3, 3);
+        if(!area || n0[X] * n1[X] + n0[Y] * n1[Y] + n0[Z] * n1[Z]
+                    < MIN_NORMAL_COS)
+          return(false);
+      } // end for
+      return(true);
+    } // end keepsFacing
+
+    //----< collapse >------------------------------------------------------//
+
+    /**
+     * This method collapses the candidate edge, whose triangles isValid
+     *  collected, and adds new candidates for the edges around the vertex
+     *  that stays.
+     * @param _from The vertex that goes away.
+     * @param _to The vertex that stays.
+     * @return The number of triangles removed.
+    **/
+    private int collapse(final int _from, final int _to) {
+      int gone = 0;
+      for(int i = 0; i < fromFaces.size(); i++) {
+        final int f = fromFaces.get(i);
+        if(contains(f, _to)) {
+          faceLive[f] = false;
+          gone++;
+          continue;
+        } // end if
+        for(int k = 0; k < 3; k++)
+          if(corners[f*3 + k] == _from)
+            corners[f*3 + k] = _to;
+      } // end for
+
+      if(!pinned[_to]) {
+        System.arraycopy(cand, 0, pos, _to*3, 3);
+        final double nx = nrm[_from*3] + nrm[_to*3];
+        final double ny = nrm[_from*3 + 1] + nrm[_to*3 + 1];
+        final double nz = nrm[_from*3 + 2] + nrm[_to*3 + 2];
+        final double len = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if(len > 0.0) {
+          nrm[_to*3] = (float)(nx / len);
+          nrm[_to*3 + 1] = (float)(ny / len);
+          nrm[_to*3 + 2] = (float)(nz / len);
+        } // end if
+      } // end if
+      for(int i = 0; i < 10; i++)
+        quad[_to*10 + i] += quad[_from*10 + i];
+      versions[_from]++;
+      versions[_to]++;
+
+      // The merged fan is what's left of both, written to the end of the
+      //  list; the triangles of _from that survived don't hold _to's fan yet.
+      collectFaces(_to, toFaces);
+      for(int i = 0; i < fromFaces.size(); i++)
+        if(faceLive[fromFaces.get(i)])
+          toFaces.add(fromFaces.get(i));
+      if(fanUsed + toFaces.size() > fanList.length)
+        fanList = Arrays.copyOf(fanList,
+                                Math.max(fanList.length * 2,
+                                         fanUsed + toFaces.size()));
+      fanStart[_to] = fanUsed;
+      for(int i = 0; i < toFaces.size(); i++)
+        fanList[fanUsed++] = toFaces.get(i);
+      fanEnd[_to] = fanUsed;
+      stamp++;
+      marks[_to] = stamp;
+      for(int i = 0; i < toFaces.size(); i++) {
+        final int f = toFaces.get(i);
+        for(int k = 0; k < 3; k++) {
+          final int w = corners[f*3 + k];
+          if(marks[w] == stamp)
+            continue;
+          marks[w] = stamp;
+          if(evaluate(_to, w))
+            push();
+        } // end for
+      } // end for
+      return(gone);
+    } // end collapse
+
+    //----< writeBack >-----------------------------------------------------//
+
+    /**
+     * This method writes the slab's triangles, and the vertices only it
+     *  uses, back into the mesh.
+    **/
+    private void writeBack() {
+      for(int f = 0; f < faces.length; f++) {
+        live[faces[f]] = faceLive[f];
+        if(faceLive[f])
+          for(int k = 0; k < 3; k++)
+            triangles[faces[f]*3 + k] = global[corners[f*3 + k]];
+      } // end for
+      for(int v = 0; v < global.length; v++) {
+        if(owners[global[v]] != slab)
+          continue;
+        System.arraycopy(pos, v*3, positions, global[v]*3, 3);
+        System.arraycopy(nrm, v*3, normals, global[v]*3, 3);
+        System.arraycopy(quad, v*10, quadrics, global[v]*10, 10);
+      } // end for
+    } // end writeBack
+
+  } // end class Partition
+
+  ////////////////////////////////////////////////////////////////////////////
+  // EdgeHeap
+  ////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A binary min-heap of candidate collapses, ordered by cost, in parallel
+   *  primitive arrays.
+  **/
+  private static final class EdgeHeap {
+
+    /** The costs, vertices, and stamps of the entries. **/
+    private double[] costs = new double[256];
+    private int[] froms = new int[256];
+    private int[] tos = new int[256];
+    private long[] stamps = new long[256];
+
+    /** The number of entries. **/
+    int size = 0;
+
+    /** The entry last popped. **/
+    double topCost;
+    int topFrom;
+    int topTo;
+    long topStamp;
+
+    //----< push >----------------------------------------------------------//
+
+    /**
+     * This method adds an entry.
+     * @param _cost The cost of the collapse.
+     * @param _from The vertex that goes away.
+     * @param _to The vertex that stays.
+     * @param _stamp The versions of the vertices.
+    **/
+    void push(final double _cost, final int _from, final int _to,
+              final long _stamp)
+    {
+      if(size == costs.length) {
+        costs = Arrays.copyOf(costs, size * 2);
+        froms = Arrays.copyOf(froms, size * 2);
+        tos = Arrays.copyOf(tos, size * 2);
+        stamps = Arrays.copyOf(stamps, size * 2);
+      } // end if
+      int i = size++;
+      while(i > 0) {
+        final int parent = (i - 1) / 2;
+        if(costs[parent] <= _cost)
+          break;
+        move(parent, i);
+        i = parent;
+      } // end while
+      costs[i] = _cost;
+      froms[i] = _from;
+      tos[i] = _to;
+      stamps[i] = _stamp;
+    } // end push
+
+    //----< pop >-----------------------------------------------------------//
+
+    /**
+     * This method removes the cheapest entry into the top fields.
+    **/
+    void pop() {
+      topCost = costs[0];
+      topFrom = froms[0];
+      topTo = tos[0];
+      topStamp = stamps[0];
+      size--;
+      final double cost = costs[size];
+      int i = 0;
+      while(true) {
+        int child = i * 2 + 1;
+        if(child >= size)
+          break;
+        if(child + 1 < size && costs[child + 1] < costs[child])
+          child++;
+        if(cost <= costs[child])
+          break;
+        move(child, i);
+        i = child;
+      } // end while
+      move(size, i);
+    } // end pop
+
+    //----< move >----------------------------------------------------------//
+
+    /**
+     * This method copies one entry over another.
+     * @param _src The entry to copy.
+     * @param _dst The entry to overwrite.
+    **/
+    private void move(final int _src, final int _dst) {
+      costs[_dst] = costs[_src];
+      froms[_dst] = froms[_src];
+      tos[_dst] = tos[_src];
+      stamps[_dst] = stamps[_src];
+    } // end move
+
+  } // end class EdgeHeap
+
+} // end class IsoSurfaceDecimator
@@ -0,0 +1,184 @@
+package IsosurfaceFX;
+
+/**
+ * This class describes how an isosurface changed when an IsoSurfaceGenerator
+ *  was given new thresholds, in terms of whole triangles.  Triangles are
+ *  numbered by their position in the generator's output: triangle t is
+ *  vertices 3t to 3t+2 of a triangle soup, or indices 3t to 3t+2 of an
+ *  indexed mesh.
+ * The old surface becomes the new one by deleting the removed runs of old
+ *  triangles and then inserting the added runs, each at its position in the
+ *  new surface.  The triangles that are kept stay in the same order, so a
+ *  renderer holding the old mesh can patch it with the changed runs instead
+ *  of uploading the whole new mesh.
+ * Runs are stored as (first triangle, triangle count) pairs, ascending and
+ *  never adjacent.  The added triangles are given in run order, as packed
+ *  vertices and normals for a triangle soup, or as indices into the new
+ *  vertex array for an indexed mesh.
+**/
+public class IsoSurfaceDelta {
+
+  /** The runs of old triangles that were removed, as (first, count). **/
+  private final int[] removedRuns;
+
+  /** The runs of new triangles that were added, as (first, count). **/
+  private final int[] addedRuns;
+
+  /**
+   * The vertices of the added triangles, packed x,y,z, nine floats per
+   *  triangle.  Null for an indexed mesh.
+  **/
+  private final float[] addedVertices;
+
+  /**
+   * The normals of the added triangles' vertices, packed like addedVertices.
+   *  Null for an indexed mesh.
+  **/
+  private final float[] addedNormals;
+
+  /**
+   * The vertex indices of the added triangles, three per triangle, into the
+   *  new surface's vertex array.  Null for a triangle soup.
+  **/
+  private final int[] addedIndices;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates the delta of a triangle soup.
+   * @param _removedRuns The removed runs, as (first, count) pairs.
+   * @param _addedRuns The added runs, as (first, count) pairs.
+   * @param _addedVertices The packed vertices of the added triangles.
+   * @param _addedNormals The packed normals of the added triangles.
+  **/
+  public IsoSurfaceDelta(final int[] _removedRuns, final int[] _addedRuns,
+                         final float[] _addedVertices,
+                         final float[] _addedNormals)
+  {
+    removedRuns = _removedRuns;
+    addedRuns = _addedRuns;
+    addedVertices = _addedVertices;
+    addedNormals = _addedNormals;
+    addedIndices = null;
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates the delta of an indexed mesh.
+   * @param _removedRuns The removed runs, as (first, count) pairs.
+   * @param _addedRuns The added runs, as (first, count) pairs.
+   * @param _addedIndices The vertex indices of the added triangles.
+  **/
+  public IsoSurfaceDelta(final int[] _removedRuns, final int[] _addedRuns,
+                         final int[] _addedIndices)
+  {
+    removedRuns = _removedRuns;
+    addedRuns = _addedRuns;
+    addedVertices = null;
+    addedNormals = null;
+    addedIndices = _addedIndices;
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getRemovedRuns >--------------------------------------------------//
+
+  /**
+   * This method returns the runs of old triangles that were removed.
+   * @return An array of (first triangle, triangle count) pairs, numbered in
+   *  the old surface.
+  **/
+  public int[] getRemovedRuns() {
+    return(removedRuns);
+  } // end getRemovedRuns
+
+  //----< getAddedRuns >----------------------------------------------------//
+
+  /**
+   * This method returns the runs of new triangles that were added.
+   * @return An array of (first triangle, triangle count) pairs, numbered in
+   *  the new surface.
+  **/
+  public int[] getAddedRuns() {
+    return(addedRuns);
+  } // end getAddedRuns
+
+  //----< getAddedVertices >------------------------------------------------//
+
+  /**
+   * This method returns the vertices of the added triangles.
+   * @return The packed vertices, in run order, or null for an indexed mesh.
+  **/
+  public float[] getAddedVertices() {
+    return(addedVertices);
+  } // end getAddedVertices
+
+  //----< getAddedNormals >-------------------------------------------------//
+
+  /**
+   * This method returns the normals of the added triangles' vertices.
+   * @return The packed normals, in run order, or null for an indexed mesh.
+  **/
+  public float[] getAddedNormals() {
+    return(addedNormals);
+  } // end getAddedNormals
+
+  //----< getAddedIndices >-------------------------------------------------//
+
+  /**
+   * This method returns the vertex indices of the added triangles.
+   * @return The indices, three per triangle in run order, or null for a
+   *  triangle soup.
+  **/
+  public int[] getAddedIndices() {
+    return(addedIndices);
+  } // end getAddedIndices
+
+  //----< getRemovedTriangleCount >-----------------------------------------//
+
+  /**
+   * This method returns the number of triangles that were removed.
+   * @return An integer containing the sum of the removed run counts.
+  **/
+  public int getRemovedTriangleCount() {
+    return(countRuns(removedRuns));
+  } // end getRemovedTriangleCount
+
+  //----< getAddedTriangleCount >-------------------------------------------//
+
+  /**
+   * This method returns the number of triangles that were added.
+   * @return An integer containing the sum of the added run counts.
+  **/
+  public int getAddedTriangleCount() {
+    return(countRuns(addedRuns));
+  } // end getAddedTriangleCount
+
+  //----< isEmpty >---------------------------------------------------------//
+
+  /**
+   * This method indicates whether the surface stayed the same.
+   * @return A boolean that is true when no triangle was removed or added.
+  **/
+  public boolean isEmpty() {
+    return(removedRuns.length == 0 && addedRuns.length == 0);
+  } // end isEmpty
+
+  //----< countRuns >-------------------------------------------------------//
+
+  /**
+   * This method adds up the triangle counts of a list of runs.
+   * @param _runs The runs, as (first, count) pairs.
+   * @return The total number of triangles.
+  **/
+  private static int countRuns(final int[] _runs) {
+    int cnt = 0;
+    for(int i = 1; i < _runs.length; i += 2)
+      cnt += _runs[i];
+    return(cnt);
+  } // end countRuns
+
+} // end class IsoSurfaceDelta
@@ -0,0 +1,340 @@
+package IsosurfaceFX;
+
+/**
+ * This abstract class is the basis for data matrices that store every point
+ *  of the matrix in one flat primitive array, instead of the variable-length
+ *  arrays of arrays used by IsoSurfaceFloatDataMatrix and
+ *  IsoSurfaceDoubleDataMatrix.  Reading a point is a bounds check and a
+ *  single array load at x * xStride + y * yStride + z * zStride.
+ * The points are laid out in the same order as the variable-length matrices:
+ *  the independent axis is the slowest varying, then the major axis, then
+ *  the minor axis.  This is also the order an IsoSurfaceGenerator walks the
+ *  cells in, so the generator reads the array front to back.
+ * The major and minor axis offsets are applied when a plane of data is
+ *  loaded, by shifting the plane into place, and not when a point is read.
+ *  Changing an offset after its plane has been loaded has no effect.
+**/
+public abstract class IsoSurfaceDenseDataMatrix extends IsoSurfaceDataMatrix {
+
+  // Inherits plane
+  // Inherits xMaxDim, yMaxDim, zMaxDim
+  // Inherits xScale, yScale, zScale
+  // Inherits majorAxisOffset, minorAxisOffset
+
+  /** The distance in the flat array between neighbors along the x-axis. **/
+  protected int xStride;
+  /** The distance in the flat array between neighbors along the y-axis. **/
+  protected int yStride;
+  /** The distance in the flat array between neighbors along the z-axis. **/
+  protected int zStride;
+
+  /** The number of points in the matrix, the length of the flat array. **/
+  protected int size;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This is the component constructor.  It takes the pieces that make up a
+   *  data matrix (aside from the actual matrix of data) and sets its internal
+   *  member variables to them, then derives the strides of the flat array.
+   * @param _plane The plane of the two dependent axes are in.  The
+   *  independent axis is the slowest varying axis of the flat array.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.  For example, (0.0, 0.0, 0.0) will make the
+   *  lower-left-front corner of the data the center of the data, and
+   *  (1.0, 1.0, 1.0) will make the upper-right-back the center of the data.
+   * @throws IllegalArgumentException If a dimension is negative or the
+   *  matrix has more points than an array can hold.
+  **/
+  public IsoSurfaceDenseDataMatrix(final byte _plane,
+                                   final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                   final float _xScale, final float _yScale, final float _zScale,
+                                   final Tuple3f _centroidPercentages)
+    throws IllegalArgumentException
+  {
+    super(_plane, _xMaxDim, _yMaxDim, _zMaxDim,
+          _xScale, _yScale, _zScale, _centroidPercentages);
+
+    if(_xMaxDim < 0 || _yMaxDim < 0 || _zMaxDim < 0)
+      throw new IllegalArgumentException("Negative matrix dimension");
+    final long points = (long)_xMaxDim * _yMaxDim * _zMaxDim;
+    if(points > Integer.MAX_VALUE - 8)
+      throw new IllegalArgumentException("Too many points for a dense matrix: "
+                                         + points);
+    size = (int)points;
+
+    switch(plane) {
+      case XZ_PLANE : zStride = 1;                  // ind = y, maj = x, min = z
+                      xStride = zMaxDim;
+                      yStride = xMaxDim * zMaxDim;
+                      break;
+      case XY_PLANE : yStride = 1;                  // ind = z, maj = x, min = y
+                      xStride = yMaxDim;
+                      zStride = xMaxDim * yMaxDim;
+                      break;
+      default :       zStride = 1;                  // ind = x, maj = y, min = z
+                      yStride = zMaxDim;
+                      xStride = yMaxDim * zMaxDim;
+    } // end switch
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< load >------------------------------------------------------------//
+
+  /**
+   * This method copies every point of another data matrix into this one.
+   *  The source can be any kind of data matrix, such as a variable-length
+   *  IsoSurfaceFloatDataMatrix, and its offsets are applied by its getPoint
+   *  method, so the points end up in the same place.
+   * @param _source The data matrix to copy the points from.  It should have
+   *  the same dimensions as this matrix.
+  **/
+  public void load(final IsoSurfaceDataMatrix _source) {
+    final IsoSurfaceVolumeLoadEvent event = new IsoSurfaceVolumeLoadEvent();
+    event.begin();
+    for(int x = 0; x < xMaxDim; x++) {
+      for(int y = 0; y < yMaxDim; y++) {
+        int idx = x * xStride + y * yStride;
+        for(int z = 0; z < zMaxDim; z++, idx += zStride)
+          setValue(idx, _source.getPoint(x, y, z));
+      } // end for
+    } // end for
+    invalidateIndexes();
+    if(event.shouldCommit()) {
+      event.set(this, _source);
+      event.commit();
+    } // end if
+  } // end load
+
+  //----< copyFrom >--------------------------------------------------------//
+
+  /**
+   * This method makes this matrix a dense copy of another data matrix: it
+   *  takes over the source's centroid and then loads all of its points.
+   * @param _source The data matrix to copy.  It should have the same
+   *  plane, dimensions and scales as this matrix.
+  **/
+  protected void copyFrom(final IsoSurfaceDataMatrix _source) {
+    centroid = new Tuple3f(_source.getCentroid());
+    load(_source);
+  } // end copyFrom
+
+  //----< setValue >--------------------------------------------------------//
+
+  /**
+   * This method stores a value in the flat array.
+   * @param _idx The index in the flat array, see getIndex.
+   * @param _value The value to store.
+  **/
+  protected abstract void setValue(int _idx, double _value);
+
+  //----< classifyRun >-----------------------------------------------------//
+
+  /**
+   * This method classifies a run of points in the flat array.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _idx The flat array index of the first point.
+   * @param _stride The distance in the flat array between the points.
+   * @param _bits The array receiving the results.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run.
+  **/
+  protected abstract void classifyRun(IsoSurfaceClassifier _cls,
+                                      int _idx, int _stride, byte[] _bits,
+                                      int _offset, int _count);
+
+  //----< readRun >---------------------------------------------------------//
+
+  /**
+   * This method copies a run of points in the flat array into an array.
+   * @param _idx The flat array index of the first point.
+   * @param _stride The distance in the flat array between the points.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the run.
+  **/
+  protected abstract void readRun(int _idx, int _stride, double[] _values,
+                                  int _offset, int _count);
+
+  //----< getPlaneStart >---------------------------------------------------//
+
+  /**
+   * This method returns where a plane along the independent axis starts in
+   *  the flat array.
+   * @param _idx The index of the plane along the independent axis.
+   * @return The flat array index of the plane's first point.
+  **/
+  protected int getPlaneStart(final int _idx) {
+    switch(plane) {
+      case XZ_PLANE : return(_idx * yStride);
+      case XY_PLANE : return(_idx * zStride);
+      default :       return(_idx * xStride);
+    } // end switch
+  } // end getPlaneStart
+
+  //----< getMajorDim >-----------------------------------------------------//
+
+  /**
+   * This method returns the size of the matrix along the major axis.
+   * @return An integer containing the major axis size.
+  **/
+  protected int getMajorDim() {
+    return(plane == YZ_PLANE ? yMaxDim : xMaxDim);
+  } // end getMajorDim
+
+  //----< getMinorDim >-----------------------------------------------------//
+
+  /**
+   * This method returns the size of the matrix along the minor axis, which
+   *  is also the distance between rows of a plane in the flat array.
+   * @return An integer containing the minor axis size.
+  **/
+  protected int getMinorDim() {
+    return(plane == XY_PLANE ? yMaxDim : zMaxDim);
+  } // end getMinorDim
+
+  //----< getIndependentDim >-----------------------------------------------//
+
+  /**
+   * This method returns the number of planes along the independent axis.
+   * @return An integer containing the independent axis size.
+  **/
+  protected int getIndependentDim() {
+    switch(plane) {
+      case XZ_PLANE : return(yMaxDim);
+      case XY_PLANE : return(zMaxDim);
+      default :       return(xMaxDim);
+    } // end switch
+  } // end getIndependentDim
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< classifySpan >----------------------------------------------------//
+
+  /**
+   * This method classifies a run of consecutive points inside the matrix
+   *  along one axis, read straight from the flat array by the classifier.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _bits The array receiving the results, 1 for a point that is
+   *  inside, 0 for one that isn't.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void classifySpan(final IsoSurfaceClassifier _cls,
+                              final int _x, final int _y, final int _z,
+                              final int _axis, final byte[] _bits,
+                              final int _offset, final int _count)
+  {
+    final int stride = (_axis == 0) ? xStride
+                     : (_axis == 1) ? yStride : zStride;
+    classifyRun(_cls, getIndex(_x, _y, _z), stride, _bits, _offset, _count);
+  } // end classifySpan
+
+  //----< readSpan >--------------------------------------------------------//
+
+  /**
+   * This method reads a run of consecutive points inside the matrix along
+   *  one axis, copied straight from the flat array.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void readSpan(final int _x, final int _y, final int _z,
+                          final int _axis, final double[] _values,
+                          final int _offset, final int _count)
+  {
+    final int stride = (_axis == 0) ? xStride
+                     : (_axis == 1) ? yStride : zStride;
+    readRun(getIndex(_x, _y, _z), stride, _values, _offset, _count);
+  } // end readSpan
+
+  //----< contains >--------------------------------------------------------//
+
+  /**
+   * This method checks whether a point is inside the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return A boolean that is true when the point has a place in the flat
+   *  array.
+  **/
+  public final boolean contains(final int _x, final int _y, final int _z) {
+    return(_x >= 0 && _x < xMaxDim && _y >= 0 && _y < yMaxDim
+           && _z >= 0 && _z < zMaxDim);
+  } // end contains
+
+  //----< getIndex >--------------------------------------------------------//
+
+  /**
+   * This method returns where a point is stored in the flat array.  The point
+   *  is not checked against the bounds of the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return The index of the point in the flat array.
+  **/
+  public final int getIndex(final int _x, final int _y, final int _z) {
+    return(_x * xStride + _y * yStride + _z * zStride);
+  } // end getIndex
+
+  //----< getXStride >------------------------------------------------------//
+
+  /**
+   * This method returns the distance in the flat array between neighboring
+   *  points along the x-axis.
+   * @return An integer containing the x stride.
+  **/
+  public int getXStride() { return(xStride); }
+
+  //----< getYStride >------------------------------------------------------//
+
+  /**
+   * This method returns the distance in the flat array between neighboring
+   *  points along the y-axis.
+   * @return An integer containing the y stride.
+  **/
+  public int getYStride() { return(yStride); }
+
+  //----< getZStride >------------------------------------------------------//
+
+  /**
+   * This method returns the distance in the flat array between neighboring
+   *  points along the z-axis.
+   * @return An integer containing the z stride.
+  **/
+  public int getZStride() { return(zStride); }
+
+  //----< getSize >---------------------------------------------------------//
+
+  /**
+   * This method returns the number of points in the matrix.
+   * @return An integer containing the length of the flat array.
+  **/
+  public int getSize() { return(size); }
+
+} // end class IsoSurfaceDenseDataMatrix
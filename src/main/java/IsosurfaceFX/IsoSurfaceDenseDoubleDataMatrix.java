@@ -0,0 +1,337 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This implementation of the IsoSurfaceDenseDataMatrix stores the data set
+ *  in one flat double array.
+**/
+public final class IsoSurfaceDenseDoubleDataMatrix extends IsoSurfaceDenseDataMatrix {
+
+  // Inherits plane
+  // Inherits xMaxDim, yMaxDim, zMaxDim
+  // Inherits xScale, yScale, zScale
+  // Inherits majorAxisOffset, minorAxisOffset
+  // Inherits xStride, yStride, zStride
+
+  /**
+   * The value of every point outside the matrix, and of every point a loaded
+   *  plane doesn't cover.
+  **/
+  private final double leastValue;
+
+  /** The points of the matrix, see IsoSurfaceDenseDataMatrix for layout. **/
+  private final double[] data;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates a matrix with every point set to leastValue.
+   * @param _plane The plane of the two dependent axes are in.  The
+   *  independent axis is the slowest varying axis of the flat array.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.
+   * @param _leastValue The value of every point outside the matrix, and the
+   *  initial value of every point inside it.
+  **/
+  public IsoSurfaceDenseDoubleDataMatrix(final byte _plane,
+                                         final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                         final float _xScale, final float _yScale, final float _zScale,
+                                         final Tuple3f _centroidPercentages,
+                                         final double _leastValue)
+  {
+    super(_plane, _xMaxDim, _yMaxDim, _zMaxDim,
+          _xScale, _yScale, _zScale, _centroidPercentages);
+
+    leastValue = _leastValue;
+    data = new double[size];
+    if(leastValue != 0.0)
+      Arrays.fill(data, leastValue);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor wraps a flat array that already holds the data set.  The
+   *  array is used as is, not copied.
+   * @param _plane The plane of the two dependent axes are in.  The
+   *  independent axis is the slowest varying axis of the flat array.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.
+   * @param _data The points, independent axis slowest, then the major axis,
+   *  then the minor axis.
+   * @param _leastValue The value of every point outside the matrix.
+   * @throws IllegalArgumentException If the array length doesn't match the
+   *  dimensions.
+  **/
+  public IsoSurfaceDenseDoubleDataMatrix(final byte _plane,
+                                         final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                         final float _xScale, final float _yScale, final float _zScale,
+                                         final Tuple3f _centroidPercentages,
+                                         final double[] _data,
+                                         final double _leastValue)
+    throws IllegalArgumentException
+  {
+    super(_plane, _xMaxDim, _yMaxDim, _zMaxDim,
+          _xScale, _yScale, _zScale, _centroidPercentages);
+
+    if(_data.length != size)
+      throw new IllegalArgumentException("Expected " + size + " points, got "
+                                         + _data.length);
+    leastValue = _leastValue;
+    data = _data;
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor makes a dense copy of another data matrix, such as a
+   *  variable-length IsoSurfaceDoubleDataMatrix.  The plane, dimensions,
+   *  scales and centroid are taken from the source.
+   * @param _source The data matrix to copy.
+   * @param _leastValue The value of every point outside the matrix.  Points
+   *  inside the matrix get whatever the source returns for them.
+  **/
+  public IsoSurfaceDenseDoubleDataMatrix(final IsoSurfaceDataMatrix _source,
+                                         final double _leastValue)
+  {
+    this((byte)_source.getPlane(), _source.getXMaxDim(), _source.getYMaxDim(),
+         _source.getZMaxDim(), _source.getXScale(), _source.getYScale(),
+         _source.getZScale(), LOWER_LEFT, _leastValue);
+    copyFrom(_source);
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< setData >---------------------------------------------------------//
+
+  /**
+   * This method copies a whole data set into the matrix.
+   * @param _data The points, laid out like the matrix's own array.
+   * @throws IllegalArgumentException If the array length doesn't match the
+   *  dimensions.
+  **/
+  public void setData(final double[] _data) throws IllegalArgumentException {
+    if(_data.length != size)
+      throw new IllegalArgumentException("Expected " + size + " points, got "
+                                         + _data.length);
+    System.arraycopy(_data, 0, data, 0, size);
+    invalidateIndexes();
+  } // end setData
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method copies one plane of data into the matrix, shifted by the
+   *  major and minor axis offsets at its index.  Points of the plane that
+   *  fall outside the matrix are dropped, and points of the matrix the plane
+   *  doesn't cover are set to leastValue.
+   * @param _idx The index in the independent axis of the matrix the plane of
+   *  data corresponds to.
+   * @param _dataPlane A two dimensional double array that contains a plane's
+   *  worth of 3-D data, indexed [major][minor].  Rows may have different
+   *  lengths or be null.
+  **/
+  public void setPlaneData(final int _idx, final double[][] _dataPlane) {
+    if(_idx < 0 || _idx >= getIndependentDim())
+      throw new ArrayIndexOutOfBoundsException(_idx);
+
+    invalidateIndexes();
+    final int start = getPlaneStart(_idx);
+    final int majDim = getMajorDim();
+    final int minDim = getMinorDim();
+    Arrays.fill(data, start, start + majDim * minDim, leastValue);
+    if(_dataPlane == null)
+      return;
+
+    final int majOff = majorAxisOffsets[_idx];
+    final int minOff = minorAxisOffsets[_idx];
+    for(int i = 0; i < _dataPlane.length; i++) {
+      final double[] row = _dataPlane[i];
+      final int maj = i + majOff;
+      if(row == null || maj < 0 || maj >= majDim)
+        continue;
+      final int from = Math.max(0, -minOff);
+      final int to = Math.min(row.length, minDim - minOff);
+      if(from < to)
+        System.arraycopy(row, from, data, start + maj * minDim + from + minOff,
+                         to - from);
+    } // end for
+  } // end setPlaneData
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method copies one plane of data into the matrix, centered on the
+   *  given point of the plane.  The offsets for the plane are derived from
+   *  the center before the plane is copied.
+   * @param _idx The index in the independent axis of the matrix the plane of
+   *  data corresponds to.
+   * @param _dataPlane A two dimensional double array that contains a plane's
+   *  worth of 3-D data, indexed [major][minor].
+   * @param _majAxisCenter The index value along the major axis of the data
+   *  plane that is the center of this plane.
+   * @param _minAxisCenter The index value along the minor axis of the data
+   *  plane that is the center of this plane.
+  **/
+  public void setPlaneData(final int _idx, final double[][] _dataPlane,
+                           final int _majAxisCenter, final int _minAxisCenter)
+  {
+    calculatePlaneCenter(_idx, _majAxisCenter, _minAxisCenter);
+    setPlaneData(_idx, _dataPlane);
+  } // end setPlaneData
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method copies one plane of data into the matrix.  It replaces the
+   *  reflective store of the base class, which has no array of planes to
+   *  store into.
+   * @param _idx The index in the independent axis of the matrix the plane of
+   *  data corresponds to.
+   * @param _dataPlane A double[][] containing the plane's data.
+   * @throws IllegalArgumentException If the plane isn't a double[][].
+  **/
+  @Override
+protected void setPlaneData(final int _idx, final Object _dataPlane) {
+    if(_dataPlane != null && !(_dataPlane instanceof double[][]))
+      throw new IllegalArgumentException("Expected double[][] plane data");
+    setPlaneData(_idx, (double[][])_dataPlane);
+  } // end setPlaneData
+
+  //----< setValue >--------------------------------------------------------//
+
+  /**
+   * This method stores a value in the flat array.
+   * @param _idx The index in the flat array.
+   * @param _value The value to store.
+  **/
+  @Override
+protected void setValue(final int _idx, final double _value) {
+    data[_idx] = _value;
+  } // end setValue
+
+  //----< classifyRun >-----------------------------------------------------//
+
+  /**
+   * This method classifies a run of points in the flat array.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _idx The flat array index of the first point.
+   * @param _stride The distance in the flat array between the points.
+   * @param _bits The array receiving the results.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run.
+  **/
+  @Override
+protected void classifyRun(final IsoSurfaceClassifier _cls,
+                             final int _idx, final int _stride,
+                             final byte[] _bits, final int _offset,
+                             final int _count)
+  {
+    _cls.classify(data, _idx, _stride, _bits, _offset, _count);
+  } // end classifyRun
+
+  //----< readRun >---------------------------------------------------------//
+
+  /**
+   * This method copies a run of points in the flat array into an array.
+   * @param _idx The flat array index of the first point.
+   * @param _stride The distance in the flat array between the points.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the run.
+  **/
+  @Override
+protected void readRun(final int _idx, final int _stride,
+                         final double[] _values, final int _offset,
+                         final int _count)
+  {
+    if(_stride == 1) {
+      System.arraycopy(data, _idx, _values, _offset, _count);
+      return;
+    } // end if
+    for(int i = 0; i < _count; i++)
+      _values[_offset + i] = data[_idx + i * _stride];
+  } // end readRun
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method will return the value of in the matrix at the point
+   *  (_x, _y, _z).  Any indices not within the range of the matrix dimensions
+   *  will automatically return the leastValue specified for the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return A double containing the value of the point at location
+   *  (_x, _y, _z).
+  **/
+  @Override
+public double getPoint(final int _x, final int _y, final int _z) {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      return(leastValue);
+    return(data[_x * xStride + _y * yStride + _z * zStride]);
+  } // end getPoint
+
+  //----< getValue >--------------------------------------------------------//
+
+  /**
+   * This method returns a value straight from the flat array, without any
+   *  bounds checks against the matrix dimensions.
+   * @param _idx The index in the flat array, see getIndex.
+   * @return The double at that index.
+  **/
+  public double getValue(final int _idx) {
+    return(data[_idx]);
+  } // end getValue
+
+  //----< getData >---------------------------------------------------------//
+
+  /**
+   * This method returns the flat array backing the matrix.  Changes to the
+   *  array are changes to the matrix; call invalidateIndexes after making
+   *  them.
+   * @return The double array of points.
+  **/
+  public double[] getData() {
+    return(data);
+  } // end getData
+
+  //----< getLeastValue >---------------------------------------------------//
+
+  /**
+   * This method returns the value of the points outside the matrix.
+   * @return The double least value.
+  **/
+  public double getLeastValue() {
+    return(leastValue);
+  } // end getLeastValue
+
+} // end class IsoSurfaceDenseDoubleDataMatrix
@@ -0,0 +1,87 @@
+package IsosurfaceFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This Java Flight Recorder event covers one IsoSurfaceGenerator run, the
+ *  constructor's extraction or a setThresholds, from the walk being set up
+ *  to the colors being done.  Its slab and coloring events nest inside it
+ *  in time.  The fields repeat the run's IsoSurfaceExtractionStats, so a
+ *  recording holds the breakdown of every slow run.
+**/
+@Name("IsosurfaceFX.Extraction")
+@Label("Isosurface Extraction")
+@Category({ "IsosurfaceFX" })
+@Description("One isosurface extraction or threshold change")
+final class IsoSurfaceExtractionEvent extends jdk.jfr.Event {
+
+  @Label("Matrix Class")
+  String matrixClass;
+
+  @Label("X Dimension")
+  int xDim;
+
+  @Label("Y Dimension")
+  int yDim;
+
+  @Label("Z Dimension")
+  int zDim;
+
+  @Label("Plane")
+  @Description("0 for XZ, 1 for XY, 2 for YZ")
+  int plane;
+
+  @Label("Low Comparitor")
+  @Description("0 EQUAL, 1 LESS_THAN, 2 LESS_THAN_EQ, 3 GREATER_THAN, 4 GREATER_THAN_EQ")
+  int lowOp;
+
+  @Label("Low Threshold")
+  double lowThreshold;
+
+  @Label("High Comparitor")
+  @Description("0 EQUAL, 1 LESS_THAN, 2 LESS_THAN_EQ, 3 GREATER_THAN, 4 GREATER_THAN_EQ")
+  int highOp;
+
+  @Label("High Threshold")
+  double highThreshold;
+
+  @Label("Incremental")
+  @Description("Only the cells that changed were emitted again")
+  boolean incremental;
+
+  @Label("Indexed")
+  boolean indexed;
+
+  @Label("Threads")
+  int threads;
+
+  @Label("Cells Visited")
+  long cellsVisited;
+
+  @Label("Non-Empty Cells")
+  long nonEmptyCells;
+
+  @Label("Triangles")
+  int triangles;
+
+  @Label("Vertices")
+  int vertices;
+
+  @Label("Output Size")
+  @DataAmount
+  long outputBytes;
+
+  @Label("Classify Time (ns)")
+  long classifyNanos;
+
+  @Label("Emit Time (ns)")
+  long emitNanos;
+
+  @Label("Copy Time (ns)")
+  long copyNanos;
+
+} // end class IsoSurfaceExtractionEvent
@@ -0,0 +1,417 @@
+package IsosurfaceFX;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * This class holds the settings that control how an IsoSurfaceGenerator
+ *  walks the data matrix.  A default instance describes a single slab
+ *  processed on the calling thread.
+ * With options, the cells are walked in the order the data matrix stores
+ *  its samples, its independent axis (the axis chosen by its plane)
+ *  outermost; the constructors without options keep the original x, y, z
+ *  order, and so its triangle order.  The volume is split into slabs along
+ *  the independent axis, and each slab is extracted as a separate task.
+ *  The slab outputs are always merged in slab order, so the resulting
+ *  vertex order does not depend on the number of threads.
+**/
+public class IsoSurfaceExtractionOptions {
+
+  /**
+   * The thread count value that asks for one thread per available processor.
+  **/
+  public static final int ALL_PROCESSORS = 0;
+
+  /**
+   * The number of slabs created per thread.  More slabs than threads keeps
+   *  all of the threads busy when the surface is unevenly distributed.
+  **/
+  private static final int SLABS_PER_THREAD = 4;
+
+  /** The number of threads to extract with.  1 means serial extraction. **/
+  private int threadCount = 1;
+
+  /**
+   * The executor that runs the slab tasks.  When null, the tasks run on the
+   *  common ForkJoinPool.
+  **/
+  private Executor executor;
+
+  /**
+   * Whether the surface is produced as an indexed mesh, with each vertex
+   *  stored once and shared by all of the triangles that use it.
+  **/
+  private boolean indexed = false;
+
+  /**
+   * Whether blocks of cells that can't produce any of the surface are
+   *  skipped, using the data matrix's min/max block pyramid.
+  **/
+  private boolean blockSkipping = true;
+
+  /**
+   * Whether the cells to extract are looked up in the data matrix's
+   *  span-space index instead of being searched for.
+  **/
+  private boolean spanSpaceIndexing = false;
+
+  /**
+   * Whether each vertex is placed where the values interpolate to the
+   *  threshold, rather than at the midpoint of its cube edge.
+  **/
+  private boolean interpolated = false;
+
+  /**
+   * Whether each vertex gets a smooth normal from the gradient of the
+   *  values, rather than the flat normal of its triangle.
+  **/
+  private boolean gradientNormals = false;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates options for serial extraction on the calling
+   *  thread.
+  **/
+  public IsoSurfaceExtractionOptions() {
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates options for parallel extraction on the common
+   *  ForkJoinPool, split for the given number of threads.  The calling
+   *  thread works too, so no more than one thread more than the common
+   *  pool's parallelism is used.
+   * @param _threadCount The number of threads to use, or ALL_PROCESSORS.
+  **/
+  public IsoSurfaceExtractionOptions(final int _threadCount) {
+    setThreadCount(_threadCount);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates options for parallel extraction on a caller
+   *  supplied executor.
+   * @param _threadCount The number of threads the executor provides, used to
+   *  decide how many slabs to create.  Can be ALL_PROCESSORS.
+   * @param _executor The executor to run the slab tasks on.
+  **/
+  public IsoSurfaceExtractionOptions(final int _threadCount,
+                                     final Executor _executor)
+  {
+    setThreadCount(_threadCount);
+    executor = _executor;
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< setThreadCount >--------------------------------------------------//
+
+  /**
+   * This method sets the number of threads used for extraction.
+   * @param _threadCount The number of threads to use.  1 extracts serially
+   *  on the calling thread, ALL_PROCESSORS (or any value below 1) uses one
+   *  thread per available processor.
+  **/
+  public final void setThreadCount(final int _threadCount) {
+    if(_threadCount < 1)
+      threadCount = ALL_PROCESSORS;
+    else
+      threadCount = _threadCount;
+  } // end setThreadCount
+
+  //----< setExecutor >-----------------------------------------------------//
+
+  /**
+   * This method sets the executor that runs the slab tasks.
+   * @param _executor The executor to use, or null to use the common
+   *  ForkJoinPool.
+  **/
+  public void setExecutor(final Executor _executor) {
+    executor = _executor;
+  } // end setExecutor
+
+  //----< setIndexed >------------------------------------------------------//
+
+  /**
+   * This method selects between the two output layouts.  By default every
+   *  triangle gets three vertices of its own.  An indexed mesh stores each
+   *  vertex once, keyed by the grid edge it lies on, plus an array of three
+   *  vertex indices per triangle.  The normal of a shared vertex is the
+   *  normalized sum of the normals of the triangles that use it.
+   * @param _indexed true to produce an indexed mesh.
+  **/
+  public void setIndexed(final boolean _indexed) {
+    indexed = _indexed;
+  } // end setIndexed
+
+  //----< setBlockSkipping >------------------------------------------------//
+
+  /**
+   * This method turns empty space skipping on or off.  When on (the
+   *  default), the generator asks the data matrix for its min/max block
+   *  pyramid and doesn't classify or visit the blocks whose value range is
+   *  entirely inside or entirely outside the thresholds.  The pyramid is
+   *  built by the first extraction and reused by later ones until the data
+   *  changes.  The surface produced is the same either way.
+   * @param _blockSkipping true to skip blocks that produce no surface.
+  **/
+  public void setBlockSkipping(final boolean _blockSkipping) {
+    blockSkipping = _blockSkipping;
+  } // end setBlockSkipping
+
+  //----< setSpanSpaceIndexing >--------------------------------------------//
+
+  /**
+   * This method turns the use of the span-space index on or off.  When on,
+   *  the generator asks the data matrix for its IsoSurfaceSpanSpaceIndex and
+   *  only classifies and visits the cells the thresholds pass through, so
+   *  an extraction costs time in proportion to the surface rather than the
+   *  volume.  Building the index costs more than an extraction, but it is
+   *  kept by the matrix and reused until the data changes, which makes it
+   *  the choice for extracting the same data at many thresholds.  Block
+   *  skipping has no effect while it's on.  The surface produced is the
+   *  same either way.
+   * @param _spanSpaceIndexing true to extract through the span-space index.
+  **/
+  public void setSpanSpaceIndexing(final boolean _spanSpaceIndexing) {
+    spanSpaceIndexing = _spanSpaceIndexing;
+  } // end setSpanSpaceIndexing
+
+  //----< setInterpolated >-------------------------------------------------//
+
+  /**
+   * This method selects where the vertices go along their cube edges.  By
+   *  default every vertex is at the midpoint of its edge, as IsoGeomTable
+   *  has it, so a surface follows the grid in steps of half a cell.  When
+   *  interpolated, a vertex is placed where the straight line between the
+   *  values at the edge's two corners meets the threshold that separates
+   *  them, which follows the data closely enough that a volume doesn't need
+   *  upsampling to look smooth.  The triangles and their normals are the
+   *  same either way.  An EQUAL comparitor has no crossing point to find,
+   *  so its vertices stay at the midpoints.
+   * Vertices then move with the thresholds, so setThresholds emits every
+   *  non-empty cell again and its delta replaces all of their triangles.
+   * @param _interpolated true to interpolate the vertex positions.
+  **/
+  public void setInterpolated(final boolean _interpolated) {
+    interpolated = _interpolated;
+  } // end setInterpolated
+
+  //----< setGradientNormals >----------------------------------------------//
+
+  /**
+   * This method selects where the normals come from.  By default each
+   *  vertex has the normal IsoNormTable gives its triangle, so the surface
+   *  is flat shaded, or, in an indexed mesh, shaded by the average of the
+   *  triangles around each vertex.  With gradient normals, each vertex gets
+   *  the gradient of the values where it sits: the central difference
+   *  gradients at the two samples of its edge, blended by the vertex's
+   *  position along the edge and pointed from inside the surface to
+   *  outside.  The normals come out smooth in the same pass, so no
+   *  averaging pass is needed afterwards.  Each sample's gradient is
+   *  computed once per slab.  A vertex whose gradient vanishes, or holds a
+   *  NaN, keeps its triangle's normal.
+   * @param _gradientNormals true for gradient normals.
+  **/
+  public void setGradientNormals(final boolean _gradientNormals) {
+    gradientNormals = _gradientNormals;
+  } // end setGradientNormals
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getThreadCount >--------------------------------------------------//
+
+  /**
+   * This method returns the thread count as it was set.
+   * @return An integer containing the thread count, or ALL_PROCESSORS.
+  **/
+  public int getThreadCount() {
+    return(threadCount);
+  } // end getThreadCount
+
+  //----< getEffectiveThreadCount >-----------------------------------------//
+
+  /**
+   * This method returns the number of threads extraction will actually use,
+   *  resolving ALL_PROCESSORS against the running JVM.
+   * @return An integer containing the number of threads, at least 1.
+  **/
+  public int getEffectiveThreadCount() {
+    if(threadCount == ALL_PROCESSORS)
+      return(Runtime.getRuntime().availableProcessors());
+    else
+      return(threadCount);
+  } // end getEffectiveThreadCount
+
+  //----< getSlabCount >----------------------------------------------------//
+
+  /**
+   * This method returns the number of slabs a volume should be split into.
+   * @param _layers The number of cell layers along the independent axis.
+   * @return An integer containing the number of slabs, between 1 and
+   *  _layers.
+  **/
+  public int getSlabCount(final int _layers) {
+    final int threads = getEffectiveThreadCount();
+    if(threads == 1 || _layers <= 1)
+      return(1);
+    return(Math.min(_layers, threads * SLABS_PER_THREAD));
+  } // end getSlabCount
+
+  //----< getExecutor >-----------------------------------------------------//
+
+  /**
+   * This method returns the executor that runs the slab tasks.
+   * @return The executor, or null if the common ForkJoinPool is used.
+  **/
+  public Executor getExecutor() {
+    return(executor);
+  } // end getExecutor
+
+  //----< isIndexed >-------------------------------------------------------//
+
+  /**
+   * This method indicates whether the surface is produced as an indexed
+   *  mesh.
+   * @return A boolean that is true for an indexed mesh.
+  **/
+  public boolean isIndexed() {
+    return(indexed);
+  } // end isIndexed
+
+  //----< isBlockSkipping >-------------------------------------------------//
+
+  /**
+   * This method indicates whether blocks that can't produce any of the
+   *  surface are skipped.
+   * @return A boolean that is true when empty space skipping is on.
+  **/
+  public boolean isBlockSkipping() {
+    return(blockSkipping);
+  } // end isBlockSkipping
+
+  //----< isSpanSpaceIndexing >---------------------------------------------//
+
+  /**
+   * This method indicates whether the cells to extract are looked up in the
+   *  data matrix's span-space index.
+   * @return A boolean that is true when the span-space index is used.
+  **/
+  public boolean isSpanSpaceIndexing() {
+    return(spanSpaceIndexing);
+  } // end isSpanSpaceIndexing
+
+  //----< isInterpolated >--------------------------------------------------//
+
+  /**
+   * This method indicates whether vertices are placed by interpolating the
+   *  values along their cube edges.
+   * @return A boolean that is true for interpolated vertex positions.
+  **/
+  public boolean isInterpolated() {
+    return(interpolated);
+  } // end isInterpolated
+
+  //----< isGradientNormals >-----------------------------------------------//
+
+  /**
+   * This method indicates whether the vertex normals come from the gradient
+   *  of the values.
+   * @return A boolean that is true for gradient normals.
+  **/
+  public boolean isGradientNormals() {
+    return(gradientNormals);
+  } // end isGradientNormals
+
+  //----< isParallel >------------------------------------------------------//
+
+  /**
+   * This method indicates whether these options extract on more than one
+   *  thread.
+   * @return A boolean that is true when more than one thread is used.
+  **/
+  public boolean isParallel() {
+    return(getEffectiveThreadCount() > 1);
+  } // end isParallel
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Execution
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< runTasks >--------------------------------------------------------//
+
+  /**
+   * This method runs a number of tasks and waits for them all.  It is how
+   *  the generator, the decimator and the level of detail generator spread
+   *  their slabs, partitions and regions over threads.  A single task, or
+   *  any number with one thread, runs on the calling thread; otherwise
+   *  workers on the executor, or on the common ForkJoinPool when there is
+   *  none, take the tasks one at a time, and the calling thread takes them
+   *  too.  So the run finishes even when the calling thread is one of the
+   *  executor's and every other thread is busy, as with an asynchronous
+   *  extraction on a small fixed pool: the calling thread then runs the
+   *  tasks itself, and the workers that get a thread later find nothing
+   *  left.  It only waits for tasks a running worker has taken.
+   * @param _count The number of tasks.
+   * @param _task The task, given its index.
+  **/
+  void runTasks(final int _count, final IntConsumer _task) {
+    final int workers = Math.min(_count, getEffectiveThreadCount());
+    if(workers <= 1) {
+      for(int i = 0; i < _count; i++)
+        _task.accept(i);
+      return;
+    } // end if
+
+    final Executor exec = (executor != null) ? executor
+                                             : ForkJoinPool.commonPool();
+    final AtomicInteger next = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(_count);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final Runnable worker = () -> {
+      for(int i = next.getAndIncrement(); i < _count;
+          i = next.getAndIncrement())
+      {
+        try {
+          _task.accept(i);
+        } catch(final RuntimeException | Error e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          done.countDown();
+        } // end try
+      } // end for
+    };
+
+    for(int i = 1; i < workers; i++)
+      exec.execute(worker);
+    worker.run();
+    boolean interrupted = false;
+    while(true) {
+      try {
+        done.await();
+        break;
+      } catch(final InterruptedException e) {
+        interrupted = true;
+      } // end try
+    } // end while
+    if(interrupted)
+      Thread.currentThread().interrupt();
+
+    if(failure.get() instanceof RuntimeException)
+      throw (RuntimeException)failure.get();
+    if(failure.get() instanceof Error)
+      throw (Error)failure.get();
+  } // end runTasks
+
+} // end class IsoSurfaceExtractionOptions
@@ -0,0 +1,227 @@
+package IsosurfaceFX;
+
+/**
+ * This class holds the timings and counts of one IsoSurfaceGenerator run,
+ *  the constructor's calculateSurface or a setThresholds, so a slow
+ *  extraction can be broken down into where its time went.  The generator
+ *  fills an instance in as it goes and hands it out when the run is done;
+ *  after that it doesn't change.
+ * The phases are:
+ * <ul>
+ * <li>classify: finding the cells to visit (span-space or block pyramid
+ *  lookups) and classifying the samples against the thresholds.</li>
+ * <li>emit: looking up each visited cell's configuration and writing its
+ *  triangles.  With the span-space index, the corners of each cell are
+ *  classified as it's visited, and that is counted here.</li>
+ * <li>copy: gathering the slabs' buffers into the packed arrays (and
+ *  welding them, for an indexed mesh), and turning the colors and materials
+ *  into arrays.</li>
+ * <li>color and material: running the vertex colorer.</li>
+ * </ul>
+ * When slabs run on several threads, classify and emit are the sums over the
+ *  threads, so together they can exceed the wall time of extraction, which
+ *  is getExtractNanos.  The colorer computes a vertex's color and material
+ *  in the same walk, so the material time is estimated from timing every
+ *  MATERIAL_SAMPLE'th call, and the color time is the rest of the walk.
+ * Collecting costs a couple of clock reads per plane of samples and per
+ *  slab, plus a counter per cell, so it is always on.
+**/
+public final class IsoSurfaceExtractionStats {
+
+  /** One in this many calls of calcLitColor is timed. **/
+  static final int MATERIAL_SAMPLE = 64;
+
+  /** The time spent classifying, in nanoseconds. **/
+  long classifyNanos;
+
+  /** The time spent emitting triangles, in nanoseconds. **/
+  long emitNanos;
+
+  /** The wall time of classifying and emitting, in nanoseconds. **/
+  long extractNanos;
+
+  /** The time spent building the output arrays, in nanoseconds. **/
+  long copyNanos;
+
+  /** The time spent computing vertex colors, in nanoseconds. **/
+  long colorNanos;
+
+  /** The estimated time spent computing vertex materials, in nanoseconds. **/
+  long materialNanos;
+
+  /** The wall time of the whole run, in nanoseconds. **/
+  long totalNanos;
+
+  /** The number of cells whose configuration was looked up. **/
+  long cellsVisited;
+
+  /** The number of visited cells that produced triangles. **/
+  long nonEmptyCells;
+
+  /** The number of triangles of the surface. **/
+  int triangles;
+
+  /** The number of vertices of the surface. **/
+  int vertices;
+
+  /** The bytes of the output arrays, see getOutputBytes. **/
+  long outputBytes;
+
+  /** The number of threads that extracted slabs. **/
+  int threads;
+
+  /** true when the run re-extracted only the cells that changed. **/
+  boolean incremental;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates empty stats, for the generator to fill in.
+  **/
+  IsoSurfaceExtractionStats() {
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getClassifyNanos >------------------------------------------------//
+
+  /**
+   * This method returns the time spent classifying, summed over threads.
+   * @return A long containing the time in nanoseconds.
+  **/
+  public long getClassifyNanos() { return(classifyNanos); }
+
+  //----< getEmitNanos >----------------------------------------------------//
+
+  /**
+   * This method returns the time spent emitting, summed over threads.
+   * @return A long containing the time in nanoseconds.
+  **/
+  public long getEmitNanos() { return(emitNanos); }
+
+  //----< getExtractNanos >-------------------------------------------------//
+
+  /**
+   * This method returns the wall time of classifying and emitting.
+   * @return A long containing the time in nanoseconds.
+  **/
+  public long getExtractNanos() { return(extractNanos); }
+
+  //----< getCopyNanos >----------------------------------------------------//
+
+  /**
+   * This method returns the time spent building the output arrays.
+   * @return A long containing the time in nanoseconds.
+  **/
+  public long getCopyNanos() { return(copyNanos); }
+
+  //----< getColorNanos >---------------------------------------------------//
+
+  /**
+   * This method returns the time spent computing the vertex colors.
+   * @return A long containing the time in nanoseconds, 0 without a colorer.
+  **/
+  public long getColorNanos() { return(colorNanos); }
+
+  //----< getMaterialNanos >------------------------------------------------//
+
+  /**
+   * This method returns the estimated time spent computing the vertex
+   *  materials.
+   * @return A long containing the time in nanoseconds, 0 without a lit
+   *  colorer.
+  **/
+  public long getMaterialNanos() { return(materialNanos); }
+
+  //----< getTotalNanos >---------------------------------------------------//
+
+  /**
+   * This method returns the wall time of the whole run.
+   * @return A long containing the time in nanoseconds.
+  **/
+  public long getTotalNanos() { return(totalNanos); }
+
+  //----< getCellsVisited >-------------------------------------------------//
+
+  /**
+   * This method returns the number of cells whose configuration was looked
+   *  up.  Cells skipped by block skipping or the span-space index aren't
+   *  counted.
+   * @return A long containing the cell count.
+  **/
+  public long getCellsVisited() { return(cellsVisited); }
+
+  //----< getNonEmptyCells >------------------------------------------------//
+
+  /**
+   * This method returns the number of visited cells that produced triangles.
+   *  An incremental run only emits the cells that changed, and counts those.
+   * @return A long containing the cell count.
+  **/
+  public long getNonEmptyCells() { return(nonEmptyCells); }
+
+  //----< getTriangles >----------------------------------------------------//
+
+  /**
+   * This method returns the number of triangles of the surface.
+   * @return An integer containing the triangle count.
+  **/
+  public int getTriangles() { return(triangles); }
+
+  //----< getVertices >-----------------------------------------------------//
+
+  /**
+   * This method returns the number of vertices of the surface.
+   * @return An integer containing the vertex count.
+  **/
+  public int getVertices() { return(vertices); }
+
+  //----< getOutputBytes >--------------------------------------------------//
+
+  /**
+   * This method returns the size of the output the run allocated: the
+   *  packed vertex, normal, and index arrays, and the color and material
+   *  arrays.  Only the elements are counted, not the array headers.
+   * @return A long containing the size in bytes.
+  **/
+  public long getOutputBytes() { return(outputBytes); }
+
+  //----< getThreads >------------------------------------------------------//
+
+  /**
+   * This method returns the number of threads that extracted slabs.
+   * @return An integer containing the thread count, at least 1.
+  **/
+  public int getThreads() { return(threads); }
+
+  //----< isIncremental >---------------------------------------------------//
+
+  /**
+   * This method tells whether the run was a setThresholds that re-emitted
+   *  only the cells that changed.
+   * @return true for an incremental run.
+  **/
+  public boolean isIncremental() { return(incremental); }
+
+  //----< toString >--------------------------------------------------------//
+
+  /**
+   * This method returns the stats on one line, times in milliseconds.
+   * @return A String describing the run.
+  **/
+  @Override
+public String toString() {
+    return(String.format("total %.3f ms (classify %.3f, emit %.3f, extract "
+                         + "%.3f, copy %.3f, color %.3f, material %.3f), "
+                         + "%d cells visited, %d non-empty, %d triangles, "
+                         + "%d vertices, %d output bytes, %d threads%s",
+                         totalNanos / 1e6, classifyNanos / 1e6,
+                         emitNanos / 1e6, extractNanos / 1e6, copyNanos / 1e6,
+                         colorNanos / 1e6, materialNanos / 1e6, cellsVisited,
+                         nonEmptyCells, triangles, vertices, outputBytes,
+                         threads, incremental ? ", incremental" : ""));
+  } // end toString
+
+} // end class IsoSurfaceExtractionStats
@@ -1,6 +1,14 @@
 package IsosurfaceFX;
 
 import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
 /**
  * This class does the actual isosurface generation.  It's job is to generate
@@ -12,12 +20,45 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
                                             IsoSurfaceGeneratorInterface
 {
 
+  /**
+   * The number of batches a streaming extraction may have published that
+   *  its subscriber hasn't consumed yet.  Extraction waits when the buffer
+   *  is full.
+  **/
+  private static final int BATCH_BUFFER = 2;
+
+  /**
+   * The sample strides of the passes of a progressive extraction, coarsest
+   *  first.  The last pass is the full surface.
+  **/
+  private static final int[] PROGRESSIVE_STRIDES = { 4, 2, 1 };
+
+  /**
+   * The number of cells a span-space extraction visits between checks for
+   *  cancellation.  A walk checks once per layer.
+  **/
+  private static final int CANCEL_CHECK_CELLS = 4096;
+
   /** The data matrix that this class uses to build the surface. **/
   private final IsoSurfaceDataMatrix dataMatrix;
 
   /** A reference to the vertex colorer to use to calculate the colors. **/
   private IsoSurfaceVertexColorer vc;
 
+  /**
+   * The options controlling how the surface is extracted.  The default
+   *  options extract serially on the calling thread.
+  **/
+  private IsoSurfaceExtractionOptions options = new IsoSurfaceExtractionOptions();
+
+  /**
+   * Whether the cells are walked along x, then y, then z whatever the plane
+   *  of the data matrix, as they always were before there were options, so
+   *  the constructors without options keep giving the triangles in the
+   *  order they used to.  The constructors with options clear it.
+  **/
+  private boolean legacyWalk = true;
+
   /** The default comparitor to use against the lower threshold. **/
   private byte lowOp = EQUAL;
 
@@ -38,23 +79,57 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
   **/
   private double highThres = 1.0;
 
-  /** The array of vertices for the geometry. **/
-  private Vector3d[] vertexArr;
+  /**
+   * The classifier built from the comparitors and thresholds, which decides
+   *  whether a data point is inside the isosurface.
+  **/
+  private IsoSurfaceClassifier classifier;
+
+  /**
+   * Whether the vertices of this extraction are interpolated along their
+   *  cube edges, see IsoSurfaceExtractionOptions.setInterpolated.
+  **/
+  private boolean interpolated;
+
+  /** The classifier's thresholds, which interpolated vertices are placed at. **/
+  private double[] crossings;
+
+  /**
+   * Whether the vertex normals of this extraction come from the gradient of
+   *  the values, see IsoSurfaceExtractionOptions.setGradientNormals.
+  **/
+  private boolean gradientNormals;
+
+  /**
+   * The packed array of vertices for the geometry, x,y,z interleaved.  Every
+   *  three consecutive vertices make up a triangle.
+  **/
+  private float[] vertexBuf;
 
-  /** The Vector of vertices for the geometry. **/
-  private Vector<Vector3d> vertVect;
+  /**
+   * The packed array of normals for the geometry, x,y,z interleaved.  Should
+   *  be a normal for each of vertices in the vertexBuf, i.e., their sizes
+   *  should be the same.
+  **/
+  private float[] normalBuf;
+
+  /**
+   * The array of vertices for the geometry.  Derived from vertexBuf the
+   *  first time it's asked for.
+  **/
+  private Vector3d[] vertexArr;
 
   /**
-   * The array of normals for the geometry. Should be a normal for each of
-   *  vertices in the vertexArr, i.e., their sizes should be the same.
+   * The array of normals for the geometry.  Derived from normalBuf the first
+   *  time it's asked for.
   **/
   private Vector3f[] normalArr;
 
   /**
-   * The array of isocube values from the table used to generate the isosurface.
-   *  They are in (x,y,z) order.
+   * The isocube values from the table used to generate the isosurface, one
+   *  per cell.  Null for a streaming extraction.
   **/ 
-  private int[][][] isoCubeArr;
+  private IsoSurfaceCellConfigs cellConfigs;
 
   /** 
    * The array of color arrays for the vertices of the geometry.  There should
@@ -76,6 +151,61 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
   **/
   private int triCnt = 0;
 
+  /**
+   * The axes (X, Y, or Z) the cells are walked along, outermost first.  The
+   *  outermost axis is the independent axis of the data matrix, unless the
+   *  walk is a legacy one, and is also the axis the volume is split into
+   *  slabs along.
+  **/
+  private int[] walkAxes;
+
+  /** The number of cells along the x, y, and z axes. **/
+  private int[] cellDims;
+
+  /** The cube configuration of each walk order case, see calcWalkCaseToConfig. **/
+  private int[] walkCaseToConfig;
+
+  /**
+   * The level 0 blocks of the data matrix's block pyramid that may produce
+   *  part of the surface, or null when every cell is visited.
+  **/
+  private boolean[] activeBlocks;
+
+  /** The number of pyramid blocks along the x, y, and z axes. **/
+  private int[] blockCounts;
+
+  /** The edge length, in cells, of a pyramid block. **/
+  private int blockSize;
+
+  /** The timings and counts of the last run, see getExtractionStats. **/
+  private IsoSurfaceExtractionStats stats;
+
+  /**
+   * The cells, numbered in walk order, that the data matrix's span-space
+   *  index found for the thresholds, ascending.  Null when the cells are
+   *  walked instead.
+  **/
+  private int[] activeCells;
+
+  /**
+   * The vertex indices of the triangles, three per triangle, when the
+   *  surface is extracted as an indexed mesh.  Null otherwise.
+  **/
+  private int[] indexBuf;
+
+  /**
+   * For each cube configuration, the offset of each of its vertices' grid
+   *  edge keys from the key of the cube.  Only used for indexed meshes.
+  **/
+  private long[][] edgeKeyOffsets;
+
+  /**
+   * The future of an asynchronous extraction, see extractAsync.  The
+   *  extraction gives up once the future is done, i.e. cancelled or past its
+   *  deadline.  Null for any other run.
+  **/
+  private volatile CompletableFuture<?> cancellation;
+
   //----< constructor >-----------------------------------------------------//
 
   /**
@@ -237,170 +367,2040 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
     calculateSurface();
   } // end constructor
 
-  //----< calcIsoCube >-----------------------------------------------------//
+  //----< constructor >-----------------------------------------------------//
 
   /**
-   * This internal method will generate an isocube configuration bitstring
-   *  (stored in an int) that is used to access the lookup tables.
-   * @param _x The index of the point along the data matrix's x-axis.
-   * @param _y The index of the point along the data matrix's y-axis.
-   * @param _z The index of the point along the data matrix's z-axis.
+   * This constructor is like the previous one, but also takes the options
+   *  that control how the surface is extracted, e.g. the number of threads.
+   *  The vertex order of the result does not depend on the options.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surface.  May be null.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
   **/
-  private int calcIsoCube(final int _x, final int _y, final int _z)
+  public IsoSurfaceGenerator(final IsoSurfaceDataMatrix _dataMatrix,
+                             final IsoSurfaceVertexColorer _vc,
+                             final byte _lowOp, final double _lowThres,
+                             final byte _highOp, final double _highThres,
+                             final IsoSurfaceExtractionOptions _options)
   {
-    int config = 0;
+    dataMatrix = _dataMatrix;
+    vc = _vc;
+    lowOp = _lowOp;
+    lowThres = _lowThres;
+    highOp = _highOp;
+    highThres = _highThres;
+    options = _options;
+    legacyWalk = false;
+    calculateSurface();
+  } // end constructor
 
-    if(lowOp == highOp) {
-      if(dataMatrix.isPoint(_x, _y, _z, highOp, highThres)) {
-        config = config | VERT0;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y, _z, highOp, highThres)) {
-        config = config | VERT1;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y+1, _z, highOp, highThres)) {
-        config = config | VERT2;
-      } // end if
-      if(dataMatrix.isPoint(_x, _y+1, _z, highOp, highThres)) {
-        config = config | VERT3;
-      } // end if
-      if(dataMatrix.isPoint(_x, _y, _z+1, highOp, highThres)) {
-        config = config | VERT4;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y, _z+1, highOp, highThres)) {
-        config = config | VERT5;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y+1, _z+1, highOp, highThres)) {
-        config = config | VERT6;
-      } // end if
-      if(dataMatrix.isPoint(_x, _y+1, _z+1, highOp, highThres)) {
-        config = config | VERT7;
-      } // end if
-    } else {
-      if(dataMatrix.isPoint(_x, _y, _z,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT0;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y, _z,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT1;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y+1, _z,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT2;
-      } // end if
-      if(dataMatrix.isPoint(_x, _y+1, _z,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT3;
-      } // end if
-      if(dataMatrix.isPoint(_x, _y, _z+1,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT4;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y, _z+1,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT5;
-      } // end if
-      if(dataMatrix.isPoint(_x+1, _y+1, _z+1,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT6;
-      } // end if
-      if(dataMatrix.isPoint(_x, _y+1, _z+1,
-                            lowOp, lowThres, highOp, highThres)) {
-        config = config | VERT7;
-      } // end if
-    } // end if
+  //----< constructor >-----------------------------------------------------//
 
-    return(config);
+  /**
+   * This constructor takes a single threshold along with the options that
+   *  control how the surface is extracted.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surface.  May be null.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+  **/
+  public IsoSurfaceGenerator(final IsoSurfaceDataMatrix _dataMatrix,
+                             final IsoSurfaceVertexColorer _vc,
+                             final byte _op, final double _threshold,
+                             final IsoSurfaceExtractionOptions _options)
+  {
+    dataMatrix = _dataMatrix;
+    vc = _vc;
+    lowOp = highOp = _op;
+    lowThres = highThres = _threshold;
+    options = _options;
+    legacyWalk = false;
+    calculateSurface();
+  } // end constructor
 
-  } // end calcIsoCube
+  //----< constructor >-----------------------------------------------------//
 
-  //----< calculateSurface >------------------------------------------------//
+  /**
+   * This constructor is used by publish.  It doesn't calculate anything;
+   *  the thresholds are set afterwards, and publishBatches prepares the
+   *  walk.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+  **/
+  private IsoSurfaceGenerator(final IsoSurfaceDataMatrix _dataMatrix,
+                              final IsoSurfaceExtractionOptions _options)
+  {
+    dataMatrix = _dataMatrix;
+    options = _options;
+    legacyWalk = false;
+  } // end constructor
+
+  //----< publish >---------------------------------------------------------//
 
   /**
-   * This method is an internal method that will populate the vertex, normal,
-   *  and optionally, the vertex color arrays.  This method makes calls on the
-   *  dataMatrix instance and the IsoGeomTable arrays.
+   * This method sets up a streaming extraction.  Instead of holding the
+   *  whole surface, the extraction publishes it in batches of a fixed number
+   *  of cell layers along the independent axis, in walk order, so the
+   *  consumer can start while extraction is still running.
+   * Each subscriber gets its own extraction, with a generator of its own,
+   *  which starts when it subscribes and runs on the executor from the
+   *  options, or on the common ForkJoinPool, so several subscribers can be
+   *  fed at once.  The extraction only runs ahead of the subscriber's
+   *  requests by a couple of batches, so memory is bounded by the batch
+   *  size rather than the surface size.  It stops early if the subscriber
+   *  cancels, and a failure is passed on through onError.
+   * Batches carry no colors.  In an indexed batch the vertices are welded
+   *  within the batch only, so vertices on the sample plane between two
+   *  batches appear in both.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @param _layersPerBatch The number of cell layers in each batch.
+   * @return A Flow.Publisher of the surface's IsoSurfaceBatch'es.
   **/
-  protected void calculateSurface() {
+  public static Flow.Publisher<IsoSurfaceBatch> publish(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final byte _lowOp, final double _lowThres,
+                                  final byte _highOp, final double _highThres,
+                                  final IsoSurfaceExtractionOptions _options,
+                                  final int _layersPerBatch)
+  {
+    final int layersPerBatch = Math.max(1, _layersPerBatch);
+    final Executor executor = (_options.getExecutor() != null)
+                              ? _options.getExecutor()
+                              : ForkJoinPool.commonPool();
+    return(_subscriber -> {
+      final SubmissionPublisher<IsoSurfaceBatch> publisher =
+        new SubmissionPublisher<IsoSurfaceBatch>(ForkJoinPool.commonPool(),
+                                                 BATCH_BUFFER);
+      publisher.subscribe(_subscriber);
+      final IsoSurfaceGenerator gen =
+        new IsoSurfaceGenerator(_dataMatrix, _options);
+      gen.lowOp = _lowOp;
+      gen.lowThres = _lowThres;
+      gen.highOp = _highOp;
+      gen.highThres = _highThres;
+      executor.execute(() -> gen.publishBatches(publisher, layersPerBatch));
+    });
+  } // end publish
+
+  //----< publish >---------------------------------------------------------//
+
+  /**
+   * This method sets up a streaming extraction with a single threshold, see
+   *  the other publish method.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @param _layersPerBatch The number of cell layers in each batch.
+   * @return A Flow.Publisher of the surface's IsoSurfaceBatch'es.
+  **/
+  public static Flow.Publisher<IsoSurfaceBatch> publish(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final byte _op, final double _threshold,
+                                  final IsoSurfaceExtractionOptions _options,
+                                  final int _layersPerBatch)
+  {
+    return(publish(_dataMatrix, _op, _threshold, _op, _threshold, _options,
+                   _layersPerBatch));
+  } // end publish
+
+  //----< publishProgressive >----------------------------------------------//
+
+  /**
+   * This method sets up a progressive extraction, for showing something
+   *  right away when the full surface takes a while.  The surface is
+   *  extracted in passes, from every PROGRESSIVE_STRIDES[0]'th sample
+   *  down to every sample, and each pass is published as a generator of its
+   *  own as soon as it's done, to replace the one before.  The first pass
+   *  reads a sixty-fourth of the samples, so it is ready in a small
+   *  fraction of the time of the last, which is the same surface the
+   *  constructor with these arguments would give.
+   * Each subscriber gets its own extraction, which starts when it
+   *  subscribes and runs on the executor from the options, or on the common
+   *  ForkJoinPool; each pass extracts with the options' threads.  The
+   *  executor may have fewer threads than the options ask for: the thread
+   *  running the passes extracts slabs too, so a pass never waits for a
+   *  thread the extraction itself holds.  The extraction stops after the
+   *  pass it's in if the subscriber cancels, and a failure is passed on
+   *  through onError.
+   * The coarse passes extract through an IsoSurfaceStridedDataMatrix, with
+   *  the options' settings except the span-space index, which would cost
+   *  more to build than the pass.  They aren't colored, since a colorer is
+   *  given the indices of the data matrix; only the last pass uses the
+   *  colorer.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices of the last pass.  May be null.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @return A Flow.Publisher of the passes, coarsest first.
+  **/
+  public static Flow.Publisher<IsoSurfaceGenerator> publishProgressive(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _lowOp, final double _lowThres,
+                                  final byte _highOp, final double _highThres,
+                                  final IsoSurfaceExtractionOptions _options)
+  {
+    final Executor executor = (_options.getExecutor() != null)
+                              ? _options.getExecutor()
+                              : ForkJoinPool.commonPool();
+    return(_subscriber -> {
+      // The default publisher delivers on its own thread when the common
+      //  pool has too few to spare one besides the extraction, and every
+      //  pass fits in its buffer, so a slow subscriber never holds up the
+      //  next pass.
+      final SubmissionPublisher<IsoSurfaceGenerator> publisher =
+        new SubmissionPublisher<IsoSurfaceGenerator>();
+      publisher.subscribe(_subscriber);
+      executor.execute(() -> publishPasses(publisher, _dataMatrix, _vc,
+                                           _lowOp, _lowThres,
+                                           _highOp, _highThres, _options));
+    });
+  } // end publishProgressive
+
+  //----< publishProgressive >----------------------------------------------//
 
-    vertVect = new Vector<Vector3d>();
-    final Vector<Vector3f> normVect = new Vector<Vector3f>();
+  /**
+   * This method sets up a progressive extraction with a single threshold.
+   *  See the other publishProgressive method.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices of the last pass.  May be null.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @return A Flow.Publisher of the passes, coarsest first.
+  **/
+  public static Flow.Publisher<IsoSurfaceGenerator> publishProgressive(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _op, final double _threshold,
+                                  final IsoSurfaceExtractionOptions _options)
+  {
+    return(publishProgressive(_dataMatrix, _vc, _op, _threshold, _op,
+                              _threshold, _options));
+  } // end publishProgressive
 
-    isoCubeArr = new int[dataMatrix.getXMaxDim()-1]
-                        [dataMatrix.getYMaxDim()-1]
-                        [dataMatrix.getZMaxDim()-1];
+  //----< publishPasses >---------------------------------------------------//
 
+  /**
+   * This method runs one progressive extraction: it extracts the passes one
+   *  after another and submits each as it's done.
+   * @param _publisher The publisher of the subscriber to feed.
+   * @param _dataMatrix The data matrix to extract.
+   * @param _vc The colorer of the last pass.  May be null.
+   * @param _lowOp The comparitor against the lower threshold.
+   * @param _lowThres The lower threshold.
+   * @param _highOp The comparitor against the upper threshold.
+   * @param _highThres The upper threshold.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+  **/
+  private static void publishPasses(
+                        final SubmissionPublisher<IsoSurfaceGenerator> _publisher,
+                        final IsoSurfaceDataMatrix _dataMatrix,
+                        final IsoSurfaceVertexColorer _vc,
+                        final byte _lowOp, final double _lowThres,
+                        final byte _highOp, final double _highThres,
+                        final IsoSurfaceExtractionOptions _options)
+  {
+    try {
+      final IsoSurfaceExtractionOptions preview =
+        new IsoSurfaceExtractionOptions(_options.getThreadCount(),
+                                        _options.getExecutor());
+      preview.setIndexed(_options.isIndexed());
+      preview.setInterpolated(_options.isInterpolated());
+      preview.setGradientNormals(_options.isGradientNormals());
+      preview.setBlockSkipping(_options.isBlockSkipping());
+      preview.setSpanSpaceIndexing(false);
+
+      for(int i = 0; i < PROGRESSIVE_STRIDES.length; i++) {
+        if(!_publisher.hasSubscribers())
+          break;
+        final int stride = PROGRESSIVE_STRIDES[i];
+        if(stride == 1)
+          _publisher.submit(new IsoSurfaceGenerator(_dataMatrix, _vc,
+                                                    _lowOp, _lowThres,
+                                                    _highOp, _highThres,
+                                                    _options));
+        else
+          _publisher.submit(new IsoSurfaceGenerator(
+                              new IsoSurfaceStridedDataMatrix(_dataMatrix,
+                                                              stride),
+                              null, _lowOp, _lowThres, _highOp, _highThres,
+                              preview));
+      } // end for
+      _publisher.close();
+    } catch(final RuntimeException e) {
+      _publisher.closeExceptionally(e);
+    } // end try
+  } // end publishPasses
 
-    final Tuple3f cntrd = dataMatrix.getCentroid();
+  //----< extractAsync >----------------------------------------------------//
 
-    for(int x = 0; x < dataMatrix.getXMaxDim()-1; x++) {
-      for(int y = 0; y < dataMatrix.getYMaxDim()-1; y++) {
-        for(int z = 0; z < dataMatrix.getZMaxDim()-1; z++) {
+  /**
+   * This method extracts a surface without blocking the calling thread,
+   *  e.g. the JavaFX Application Thread.  The extraction runs on the
+   *  executor from the options, or on the common ForkJoinPool, and the
+   *  returned future completes with the generator once it's done.
+   * Cancelling the future stops the extraction: it checks between slabs, and
+   *  between the layers of cells within each slab, and gives up as soon as
+   *  it sees the future is done.  A deadline works the same way, completing
+   *  the future with a TimeoutException when it passes.  A generator that
+   *  was given up on is never handed out.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surface.  May be null.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @param _deadlineMillis The time the extraction may take, in
+   *  milliseconds, or 0 for no deadline.
+   * @return A CompletableFuture of the generator holding the surface.
+  **/
+  public static CompletableFuture<IsoSurfaceGenerator> extractAsync(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _lowOp, final double _lowThres,
+                                  final byte _highOp, final double _highThres,
+                                  final IsoSurfaceExtractionOptions _options,
+                                  final long _deadlineMillis)
+  {
+    final IsoSurfaceGenerator gen = new IsoSurfaceGenerator(_dataMatrix, _options);
+    gen.vc = _vc;
+    gen.lowOp = _lowOp;
+    gen.lowThres = _lowThres;
+    gen.highOp = _highOp;
+    gen.highThres = _highThres;
+
+    final CompletableFuture<IsoSurfaceGenerator> result =
+      new CompletableFuture<IsoSurfaceGenerator>();
+    if(_deadlineMillis > 0)
+      result.orTimeout(_deadlineMillis, TimeUnit.MILLISECONDS);
+    gen.cancellation = result;
+
+    final Executor executor = (_options.getExecutor() != null)
+                              ? _options.getExecutor()
+                              : ForkJoinPool.commonPool();
+    executor.execute(() -> {
+      try {
+        if(result.isDone())
+          return;
+        gen.calculateSurface();
+        gen.cancellation = null;
+        result.complete(gen);
+      } catch(final RuntimeException | Error e) {
+        result.completeExceptionally(e);
+      } // end try
+    });
+    return(result);
+  } // end extractAsync
+
+  //----< extractAsync >----------------------------------------------------//
 
-          isoCubeArr[x][y][z] = calcIsoCube(x, y, z);
+  /**
+   * This method extracts a surface with a single threshold without blocking
+   *  the calling thread.  See the other extractAsync method.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surface.  May be null.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @param _deadlineMillis The time the extraction may take, in
+   *  milliseconds, or 0 for no deadline.
+   * @return A CompletableFuture of the generator holding the surface.
+  **/
+  public static CompletableFuture<IsoSurfaceGenerator> extractAsync(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _op, final double _threshold,
+                                  final IsoSurfaceExtractionOptions _options,
+                                  final long _deadlineMillis)
+  {
+    return(extractAsync(_dataMatrix, _vc, _op, _threshold, _op, _threshold,
+                        _options, _deadlineMillis));
+  } // end extractAsync
+
+  //----< extractMulti >----------------------------------------------------//
 
-          final float[] vertArr = IsoGeomTable.geoms[isoCubeArr[x][y][z]];
+  /**
+   * This method extracts the surfaces of several thresholds, e.g. nested
+   *  shells like skin and bone, in a single pass over the data matrix.  Each
+   *  sample is read once and classified against every threshold, and each
+   *  threshold's cells are emitted into its own surface, so the matrix is
+   *  read once however many surfaces there are.  Every surface comes out as
+   *  the single threshold constructor would make it.
+   * When blocks are skipped the pass visits the blocks any of the surfaces
+   *  needs.  The span-space index finds different cells for each threshold,
+   *  so it isn't used.  The stats of each surface describe the shared pass.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurfaces.
+   * @param _vc A IsoSurfaceVertexColorer subclass instance to use to derive
+   *  the colors of the vertices for the surfaces.  May be null.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  thresholds.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _thresholds The double values that the matrix values are
+   *  compared to, one per surface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @return The generators holding the surfaces, in the order of the
+   *  thresholds.
+   * @throws IllegalArgumentException If there are no thresholds.
+  **/
+  public static IsoSurfaceGenerator[] extractMulti(
+                                  final IsoSurfaceDataMatrix _dataMatrix,
+                                  final IsoSurfaceVertexColorer _vc,
+                                  final byte _op, final double[] _thresholds,
+                                  final IsoSurfaceExtractionOptions _options)
+    throws IllegalArgumentException
+  {
+    if(_thresholds.length == 0)
+      throw new IllegalArgumentException("No thresholds");
+
+    final IsoSurfaceExtractionOptions multiOptions =
+      new IsoSurfaceExtractionOptions(_options.getThreadCount(),
+                                      _options.getExecutor());
+    multiOptions.setIndexed(_options.isIndexed());
+    multiOptions.setInterpolated(_options.isInterpolated());
+    multiOptions.setGradientNormals(_options.isGradientNormals());
+    multiOptions.setBlockSkipping(_options.isBlockSkipping());
+    multiOptions.setSpanSpaceIndexing(false);
+
+    final int count = _thresholds.length;
+    final IsoSurfaceGenerator[] surfaces = new IsoSurfaceGenerator[count];
+    final IsoSurfaceExtractionEvent[] events =
+      new IsoSurfaceExtractionEvent[count];
+    final long start = System.nanoTime();
+    for(int k = 0; k < count; k++) {
+      events[k] = new IsoSurfaceExtractionEvent();
+      events[k].begin();
+      final IsoSurfaceGenerator surface =
+        new IsoSurfaceGenerator(_dataMatrix, multiOptions);
+      surface.vc = _vc;
+      surface.lowOp = surface.highOp = _op;
+      surface.lowThres = surface.highThres = _thresholds[k];
+      surface.prepareWalk();
+      surface.cellConfigs = new IsoSurfaceCellConfigs(surface.cellDims);
+      surfaces[k] = surface;
+    } // end for
 
-          if(vertArr != null) {
-            int len = 0;
-            while(len < vertArr.length) {
-              final Vector3d vertex = applyScales(vertArr[len]   + x - cntrd.x,
-                                            vertArr[len+1] + y - cntrd.y,
-                                            vertArr[len+2] - z + cntrd.z);
-              vertVect.add(vertex);
-                    // 1 for each vert
-              normVect.add(IsoNormTable.norms[isoCubeArr[x][y][z]][len/12]);
+    // The first surface walks the cells, through the blocks of all of them.
+    final IsoSurfaceGenerator lead = surfaces[0];
+    if(lead.activeBlocks != null) {
+      final boolean[] blocks = lead.activeBlocks.clone();
+      for(int k = 1; k < count; k++)
+        for(int i = 0; i < blocks.length; i++)
+          blocks[i] |= surfaces[k].activeBlocks[i];
+      lead.activeBlocks = blocks;
+    } // end if
+    final long classifyNanos = System.nanoTime() - start;
+
+    final int layers = lead.cellDims[lead.walkAxes[0]];
+    final int slabCount = multiOptions.getSlabCount(layers);
+    final IsoSurfaceSlab[][] slabs = new IsoSurfaceSlab[count][];
+    for(int k = 0; k < count; k++) {
+      slabs[k] = IsoSurfaceSlab.split(layers, slabCount);
+      if(multiOptions.isIndexed()) {
+        for(int i = 0; i < slabs[k].length; i++)
+          slabs[k][i].initIndexed();
+      } // end if
+    } // end for
+    final long extractStart = System.nanoTime();
+    lead.options.runTasks(slabs[0].length, i -> {
+      final IsoSurfaceSlab[] column = new IsoSurfaceSlab[count];
+      for(int k = 0; k < count; k++)
+        column[k] = slabs[k][i];
+      lead.extractSlabMulti(surfaces, column);
+    });
+    final long extractNanos = System.nanoTime() - extractStart;
+
+    for(int k = 0; k < count; k++) {
+      final IsoSurfaceExtractionStats run = new IsoSurfaceExtractionStats();
+      run.classifyNanos = classifyNanos;
+      run.extractNanos = extractNanos;
+      addSlabStats(run, slabs[k]);
+      final long copyStart = System.nanoTime();
+      surfaces[k].mergeSlabs(slabs[k]);
+      run.copyNanos = System.nanoTime() - copyStart;
+      surfaces[k].calcColors(run);
+      surfaces[k].finishStats(run, start, events[k]);
+    } // end for
+    return(surfaces);
+  } // end extractMulti
 
-              len += 4;
-              if(len > 0 && (len % 12 == 0))
-                triCnt += 1;
-            } // end while
-          } // end if
+  //----< publishBatches >--------------------------------------------------//
 
-        } // end for
+  /**
+   * This method runs one streaming extraction: it prepares the walk, then
+   *  extracts the batches one after another and submits them, waiting
+   *  whenever the subscriber is BATCH_BUFFER batches behind.
+   * @param _publisher The publisher of the subscriber to feed.
+   * @param _layersPerBatch The number of cell layers in each batch.
+  **/
+  private void publishBatches(final SubmissionPublisher<IsoSurfaceBatch> _publisher,
+                              final int _layersPerBatch)
+  {
+    try {
+      prepareWalk();
+      final int layers = cellDims[walkAxes[0]];
+      for(int start = 0; start < layers; start += _layersPerBatch) {
+        if(!_publisher.hasSubscribers())
+          break;
+        final IsoSurfaceSlab slab =
+          new IsoSurfaceSlab(start, Math.min(layers, start + _layersPerBatch));
+        if(options.isIndexed())
+          slab.initIndexed();
+        runSlab(slab);
+
+        if(options.isIndexed()) {
+          final float[] norms = slab.normalSums.toFloatArray();
+          normalizeNormals(norms);
+          _publisher.submit(new IsoSurfaceBatch(slab.start, slab.end,
+                                                slab.triCnt,
+                                                slab.vertices.toArray(), norms,
+                                                slab.indices.toArray()));
+        } else {
+          _publisher.submit(new IsoSurfaceBatch(slab.start, slab.end,
+                                                slab.triCnt,
+                                                slab.vertices.toArray(),
+                                                slab.normals.toArray(),
+                                                null));
+        } // end if
       } // end for
-    } // end for
+      _publisher.close();
+    } catch(final RuntimeException e) {
+      _publisher.closeExceptionally(e);
+    } // end try
+  } // end publishBatches
 
-    // Vertices of the geometry
-    vertexArr = new Vector3d[vertVect.size()];
-    vertVect.toArray(vertexArr);
-    // Normals for the aforementioned geometry
-    normalArr = new Vector3f[normVect.size()];
-    normVect.toArray(normalArr);
+  //----< calculateSurface >------------------------------------------------//
 
-    final Vector<float[]> colVect = new Vector<float[]>();
-    final Vector<float[]> matVect = new Vector<float[]>();
-    calcColorArrays(vertVect, colVect, matVect, vc);
-    //calcColorArrays(colVect, matVect, vc);
+  /**
+   * This method is an internal method that will populate the vertex, normal,
+   *  and optionally, the vertex color arrays.  This method makes calls on the
+   *  dataMatrix instance and the IsoGeomTable arrays.
+  **/
+  protected void calculateSurface() {
 
-    // Colors if any
-    if(colVect.size() > 0) {
-      vertColorArr = new float[colVect.size()][];
-      colVect.toArray(vertColorArr);
-    } // end if
-    // Materials if any
-    if(matVect.size() > 0) {
-      vertMaterialArr = new float[matVect.size()][];
-      matVect.toArray(vertMaterialArr);
+    final IsoSurfaceExtractionEvent event = new IsoSurfaceExtractionEvent();
+    event.begin();
+    final long start = System.nanoTime();
+    final IsoSurfaceExtractionStats run = new IsoSurfaceExtractionStats();
+    prepareWalk();
+    cellConfigs = new IsoSurfaceCellConfigs(cellDims);
+    run.classifyNanos = System.nanoTime() - start;
+
+    final int layers = cellDims[walkAxes[0]];
+    final IsoSurfaceSlab[] slabs =
+      IsoSurfaceSlab.split(layers, options.getSlabCount(layers));
+    if(options.isIndexed()) {
+      for(int i = 0; i < slabs.length; i++)
+        slabs[i].initIndexed();
     } // end if
+    final long extractStart = System.nanoTime();
+    extractSlabs(slabs);
+    run.extractNanos = System.nanoTime() - extractStart;
+    addSlabStats(run, slabs);
+    checkCancelled();
+
+    final long copyStart = System.nanoTime();
+    mergeSlabs(slabs);
+    run.copyNanos = System.nanoTime() - copyStart;
+    calcColors(run);
+    finishStats(run, start, event);
 
   } // end calculateSurface
 
-  //----< applyScales >-----------------------------------------------------//
+  //----< mergeSlabs >------------------------------------------------------//
 
   /**
-   * This method is used by calculateSurface to scale the points in all three
-   *  axes.
-   * @param _x The index of the point along the data matrix's x-axis.
-   * @param _y The index of the point along the data matrix's y-axis.
-   * @param _z The index of the point along the data matrix's z-axis.
+   * This method makes the extracted slabs the generator's surface.  The
+   *  slabs are merged in order so the vertex order matches a serial run.
+   * @param _slabs The extracted slabs, in order.
   **/
-  private Vector3d applyScales(float _x, float _y, float _z) {
-    _x *= dataMatrix.getXScale();
-    _y *= dataMatrix.getYScale();
-    _z *= dataMatrix.getZScale();
-    return(new Vector3d(_x, _y, _z));
-  } // end applyScales
+  private void mergeSlabs(final IsoSurfaceSlab[] _slabs) {
+    triCnt = 0;
+    for(int i = 0; i < _slabs.length; i++)
+      triCnt += _slabs[i].triCnt;
+
+    if(options.isIndexed()) {
+      mergeIndexedSlabs(_slabs);
+    } else if(_slabs.length == 1) {
+      vertexBuf = _slabs[0].vertices.toArray();
+      normalBuf = _slabs[0].normals.toArray();
+      indexBuf = null;
+    } else {
+      int floatCnt = 0;
+      for(int i = 0; i < _slabs.length; i++)
+        floatCnt += _slabs[i].vertices.size();
+
+      vertexBuf = new float[floatCnt];
+      normalBuf = new float[floatCnt];
+      int pos = 0;
+      for(int i = 0; i < _slabs.length; i++) {
+        _slabs[i].vertices.copyTo(vertexBuf, pos);
+        _slabs[i].normals.copyTo(normalBuf, pos);
+        pos += _slabs[i].vertices.size();
+      } // end for
+      indexBuf = null;
+    } // end if
+    vertexArr = null;
+    normalArr = null;
+  } // end mergeSlabs
+
+  //----< prepareWalk >-----------------------------------------------------//
+
+  /**
+   * This method sets up everything extractSlab needs besides cellConfigs:
+   *  the cell dimensions, the walk order, the classifier, and the edge keys
+   *  of an indexed mesh.
+  **/
+  private void prepareWalk() {
+    cellDims = new int[] { dataMatrix.getXMaxDim()-1,
+                           dataMatrix.getYMaxDim()-1,
+                           dataMatrix.getZMaxDim()-1 };
+    walkAxes = getWalkAxes();
+    walkCaseToConfig = calcWalkCaseToConfig();
+    prepareClassifier();
+    if(options.isIndexed())
+      edgeKeyOffsets = calcEdgeKeyOffsets();
+  } // end prepareWalk
+
+  //----< prepareClassifier >-----------------------------------------------//
+
+  /**
+   * This method builds the classifier for the current thresholds and finds
+   *  the parts of the data matrix it needs to look at, through the span-space
+   *  index or the block pyramid as the options ask.
+  **/
+  private void prepareClassifier() {
+    classifier = createClassifier();
+    interpolated = options.isInterpolated()
+                   && lowOp != EQUAL && highOp != EQUAL;
+    gradientNormals = options.isGradientNormals();
+    crossings = classifier.getThresholds();
+    activeBlocks = null;
+    activeCells = null;
+    if(options.isSpanSpaceIndexing()) {
+      activeCells = dataMatrix.getSpanSpaceIndex().findActiveCells(classifier);
+    } else if(options.isBlockSkipping()) {
+      final IsoSurfaceBlockPyramid pyramid = dataMatrix.getBlockPyramid();
+      blockSize = pyramid.getBlockSize();
+      blockCounts = pyramid.getBlockCounts(0);
+      activeBlocks = pyramid.findActiveBlocks(classifier);
+    } // end if
+  } // end prepareClassifier
+
+  //----< calcColors >------------------------------------------------------//
+
+  /**
+   * This method fills the vertex color and material arrays from the vertex
+   *  colorer, if there is one.  Arrays the colorer doesn't provide are null.
+   * @param _run The stats of the run, which get the coloring times.
+  **/
+  private void calcColors(final IsoSurfaceExtractionStats _run) {
+    final Vector<float[]> colVect = new Vector<float[]>();
+    final Vector<float[]> matVect = new Vector<float[]>();
+    final long[] materialTime = new long[2];
+    final long start = System.nanoTime();
+    calcColorArrays(null, colVect, matVect, vc, materialTime);
+    final long walk = System.nanoTime() - start;
+    if(materialTime[1] > 0)
+      _run.materialNanos = Math.min(walk, materialTime[0] * matVect.size()
+                                          / materialTime[1]);
+    _run.colorNanos = walk - _run.materialNanos;
+
+    final long copyStart = System.nanoTime();
+    vertColorArr = null;
+    vertMaterialArr = null;
+
+    // Colors if any
+    if(colVect.size() > 0) {
+      vertColorArr = new float[colVect.size()][];
+      colVect.toArray(vertColorArr);
+    } // end if
+    // Materials if any
+    if(matVect.size() > 0) {
+      vertMaterialArr = new float[matVect.size()][];
+      matVect.toArray(vertMaterialArr);
+    } // end if
+    _run.copyNanos += System.nanoTime() - copyStart;
+  } // end calcColors
+
+  //----< addSlabStats >----------------------------------------------------//
+
+  /**
+   * This method adds the timings and counts of extracted slabs to the stats
+   *  of a run.
+   * @param _run The stats of the run.
+   * @param _slabs The extracted slabs.
+  **/
+  private static void addSlabStats(final IsoSurfaceExtractionStats _run,
+                                   final IsoSurfaceSlab[] _slabs)
+  {
+    final IsoLongBuffer threadIds = new IsoLongBuffer();
+    for(int i = 0; i < _slabs.length; i++) {
+      final IsoSurfaceSlab slab = _slabs[i];
+      _run.classifyNanos += slab.classifyNanos;
+      _run.emitNanos += slab.emitNanos;
+      _run.cellsVisited += slab.cellsVisited;
+      _run.nonEmptyCells += slab.nonEmptyCells;
+      boolean seen = false;
+      for(int j = 0; j < threadIds.size() && !seen; j++)
+        seen = (threadIds.get(j) == slab.threadId);
+      if(!seen)
+        threadIds.add(slab.threadId);
+    } // end for
+    _run.threads = threadIds.size();
+  } // end addSlabStats
+
+  //----< finishStats >-----------------------------------------------------//
+
+  /**
+   * This method fills in the sizes of the new surface, makes the stats the
+   *  generator's current ones, and commits the run's flight recorder event
+   *  if it is being recorded.
+   * @param _run The stats of the run.
+   * @param _start The System.nanoTime the run started at.
+   * @param _event The run's IsoSurfaceExtractionEvent, begun with the run.
+  **/
+  private void finishStats(final IsoSurfaceExtractionStats _run,
+                           final long _start,
+                           final IsoSurfaceExtractionEvent _event)
+  {
+    _run.triangles = triCnt;
+    _run.vertices = getVertexCount();
+    long floats = 0;
+    if(vertexBuf != null)
+      floats += vertexBuf.length + normalBuf.length;
+    if(indexBuf != null)
+      floats += indexBuf.length;
+    if(vertColorArr != null)
+      for(int i = 0; i < vertColorArr.length; i++)
+        floats += vertColorArr[i].length;
+    if(vertMaterialArr != null)
+      for(int i = 0; i < vertMaterialArr.length; i++)
+        floats += vertMaterialArr[i].length;
+    _run.outputBytes = floats * 4;
+    _run.totalNanos = System.nanoTime() - _start;
+    stats = _run;
+
+    if(_event.shouldCommit()) {
+      _event.matrixClass = dataMatrix.getClass().getSimpleName();
+      _event.xDim = dataMatrix.getXMaxDim();
+      _event.yDim = dataMatrix.getYMaxDim();
+      _event.zDim = dataMatrix.getZMaxDim();
+      _event.plane = dataMatrix.getPlane();
+      _event.lowOp = lowOp;
+      _event.lowThreshold = lowThres;
+      _event.highOp = highOp;
+      _event.highThreshold = highThres;
+      _event.incremental = _run.incremental;
+      _event.indexed = options.isIndexed();
+      _event.threads = _run.threads;
+      _event.cellsVisited = _run.cellsVisited;
+      _event.nonEmptyCells = _run.nonEmptyCells;
+      _event.triangles = _run.triangles;
+      _event.vertices = _run.vertices;
+      _event.outputBytes = _run.outputBytes;
+      _event.classifyNanos = _run.classifyNanos;
+      _event.emitNanos = _run.emitNanos;
+      _event.copyNanos = _run.copyNanos;
+      _event.commit();
+    } // end if
+  } // end finishStats
+
+  //----< setThreshold >----------------------------------------------------//
+
+  /**
+   * This method changes the generator to a single threshold and updates the
+   *  surface, see setThresholds.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @return The IsoSurfaceDelta from the old surface to the new one.
+  **/
+  public IsoSurfaceDelta setThreshold(final byte _op, final double _threshold) {
+    return(setThresholds(_op, _threshold, _op, _threshold));
+  } // end setThreshold
+
+  //----< setThresholds >---------------------------------------------------//
+
+  /**
+   * This method changes the comparitors and thresholds and updates the
+   *  surface to match, as if the generator had been constructed with them.
+   *  Only the cells whose configuration changed are emitted again; the
+   *  triangles of every other cell are copied over from the old surface.
+   *  The returned delta lists the triangles that went away and the ones
+   *  that came in, so a renderer can patch its copy of the mesh instead of
+   *  replacing it.
+   * An indexed mesh is welded across cells, so it is extracted again in
+   *  full; the delta is still computed cell by cell.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @return The IsoSurfaceDelta from the old surface to the new one.
+  **/
+  public IsoSurfaceDelta setThresholds(final byte _lowOp, final double _lowThres,
+                                       final byte _highOp, final double _highThres)
+  {
+    final IsoSurfaceCellConfigs oldConfigs = cellConfigs;
+    final float[] oldVerts = vertexBuf;
+    final float[] oldNorms = normalBuf;
+    lowOp = _lowOp;
+    lowThres = _lowThres;
+    highOp = _highOp;
+    highThres = _highThres;
+
+    if(options.isIndexed()) {
+      calculateSurface();
+      return(diffSurfaces(oldConfigs, null, null, null));
+    } // end if
+
+    final IsoSurfaceExtractionEvent event = new IsoSurfaceExtractionEvent();
+    event.begin();
+    final long start = System.nanoTime();
+    final IsoSurfaceExtractionStats run = new IsoSurfaceExtractionStats();
+    run.incremental = true;
+    prepareClassifier();
+    cellConfigs = new IsoSurfaceCellConfigs(cellDims);
+    run.classifyNanos = System.nanoTime() - start;
+    final int layers = cellDims[walkAxes[0]];
+    final IsoSurfaceSlab[] slabs =
+      IsoSurfaceSlab.split(layers, options.getSlabCount(layers));
+    for(int i = 0; i < slabs.length; i++)
+      slabs[i].configsOnly = true;
+    final long extractStart = System.nanoTime();
+    extractSlabs(slabs);
+    addSlabStats(run, slabs);
+
+    final long diffStart = System.nanoTime();
+    final IsoSurfaceDelta delta = diffSurfaces(oldConfigs, oldVerts, oldNorms,
+                                               run);
+    run.emitNanos += System.nanoTime() - diffStart;
+    run.extractNanos = System.nanoTime() - extractStart;
+    vertexArr = null;
+    normalArr = null;
+    calcColors(run);
+    finishStats(run, start, event);
+    return(delta);
+  } // end setThresholds
+
+  //----< diffSurfaces >----------------------------------------------------//
+
+  /**
+   * This method compares the old and new configuration of every cell, in
+   *  walk order, and records the triangles of the cells that changed.  A
+   *  cell's triangles are consecutive in both surfaces, and the number of
+   *  triangles before it follows from the configurations of the cells
+   *  before it, so no per cell bookkeeping is kept between extractions.
+   * With interpolated vertices every non-empty cell counts as changed,
+   *  since its vertices moved with the thresholds.
+   * When the old packed arrays are given, the new packed arrays are built
+   *  here as well: the triangles of unchanged cells are copied from the old
+   *  arrays in runs, and the changed cells are emitted.  Otherwise the new
+   *  surface must already be in place and indexed.
+   * @param _oldConfigs The configuration of every cell of the old surface.
+   * @param _oldVerts The packed vertices of the old surface, or null.
+   * @param _oldNorms The packed normals of the old surface, or null.
+   * @param _run The stats of the run, which count the cells emitted here,
+   *  or null.
+   * @return The delta between the surfaces.
+  **/
+  private IsoSurfaceDelta diffSurfaces(final IsoSurfaceCellConfigs _oldConfigs,
+                                       final float[] _oldVerts,
+                                       final float[] _oldNorms,
+                                       final IsoSurfaceExtractionStats _run)
+  {
+    final IsoIntBuffer removed = new IsoIntBuffer();
+    final IsoIntBuffer added = new IsoIntBuffer();
+    final IsoSurfaceSlab addedTris = new IsoSurfaceSlab(0, 0);
+    final IsoIntBuffer addedIndices =
+      (_oldVerts == null) ? new IsoIntBuffer() : null;
+    final IsoFloatBuffer verts = new IsoFloatBuffer();
+    final IsoFloatBuffer norms = new IsoFloatBuffer();
+    final int[] cell = new int[3];
+    int oldTri = 0;
+    int newTri = 0;
+    int keptFrom = 0;
+
+    for(int a = 0; a < cellDims[walkAxes[0]]; a++) {
+      cell[walkAxes[0]] = a;
+      for(int b = 0; b < cellDims[walkAxes[1]]; b++) {
+        cell[walkAxes[1]] = b;
+        for(int c = 0; c < cellDims[walkAxes[2]]; c++) {
+          cell[walkAxes[2]] = c;
+          final int x = cell[X];
+          final int y = cell[Y];
+          final int z = cell[Z];
+          final int oldConfig = _oldConfigs.get(x, y, z);
+          final int newConfig = cellConfigs.get(x, y, z);
+          final int oldCnt = IsoGeomTable.geoms[oldConfig].length / 12;
+          final int newCnt = IsoGeomTable.geoms[newConfig].length / 12;
+          if((oldConfig == newConfig && !interpolated)
+             || (oldCnt == 0 && newCnt == 0)) {
+            oldTri += oldCnt;
+            newTri += newCnt;
+            continue;
+          } // end if
+
+          if(_oldVerts != null) {
+            verts.add(_oldVerts, keptFrom * 9, (oldTri - keptFrom) * 9);
+            norms.add(_oldNorms, keptFrom * 9, (oldTri - keptFrom) * 9);
+            final int first = addedTris.vertices.size();
+            emitSoup(addedTris, newConfig, x, y, z);
+            if(_run != null && newCnt > 0)
+              _run.nonEmptyCells++;
+            verts.add(addedTris.vertices, first, newCnt * 9);
+            norms.add(addedTris.normals, first, newCnt * 9);
+          } else {
+            for(int i = newTri * 3; i < (newTri + newCnt) * 3; i++)
+              addedIndices.add(indexBuf[i]);
+          } // end if
+          addRun(removed, oldTri, oldCnt);
+          addRun(added, newTri, newCnt);
+          oldTri += oldCnt;
+          newTri += newCnt;
+          keptFrom = oldTri;
+        } // end for
+      } // end for
+    } // end for
+
+    if(_oldVerts != null) {
+      verts.add(_oldVerts, keptFrom * 9, (oldTri - keptFrom) * 9);
+      norms.add(_oldNorms, keptFrom * 9, (oldTri - keptFrom) * 9);
+      vertexBuf = verts.toArray();
+      normalBuf = norms.toArray();
+      indexBuf = null;
+      triCnt = newTri;
+      return(new IsoSurfaceDelta(removed.toArray(), added.toArray(),
+                                 addedTris.vertices.toArray(),
+                                 addedTris.normals.toArray()));
+    } else {
+      return(new IsoSurfaceDelta(removed.toArray(), added.toArray(),
+                                 addedIndices.toArray()));
+    } // end if
+  } // end diffSurfaces
+
+  //----< addRun >----------------------------------------------------------//
+
+  /**
+   * This method adds a run of triangles to a list of (start, count) pairs,
+   *  extending the last run when the new one follows on from it.
+   * @param _runs The list of runs, two entries per run.
+   * @param _start The first triangle of the run.
+   * @param _count The number of triangles in the run; nothing is added for 0.
+  **/
+  private static void addRun(final IsoIntBuffer _runs, final int _start,
+                             final int _count)
+  {
+    if(_count == 0)
+      return;
+    final int last = _runs.size() - 2;
+    if(last >= 0 && _runs.get(last) + _runs.get(last + 1) == _start) {
+      _runs.set(last + 1, _runs.get(last + 1) + _count);
+    } else {
+      _runs.add(_start);
+      _runs.add(_count);
+    } // end if
+  } // end addRun
+
+  //----< getWalkAxes >-----------------------------------------------------//
+
+  /**
+   * This method determines the order the cells are walked in.  The outermost
+   *  axis is the independent axis of the data matrix, followed by its major
+   *  and minor axes, which is also the order the matrix stores its data in.
+   *  A legacy walk is always along x, then y, then z.
+   * @return An array of three axes (X, Y, or Z), outermost first.
+  **/
+  private int[] getWalkAxes() {
+    if(legacyWalk)
+      return(new int[] { X, Y, Z });
+    switch(dataMatrix.getPlane()) {
+      case XZ_PLANE : return(new int[] { Y, X, Z });
+      case XY_PLANE : return(new int[] { Z, X, Y });
+      default :       return(new int[] { X, Y, Z });
+    } // end switch
+  } // end getWalkAxes
+
+  //----< extractSlabs >----------------------------------------------------//
+
+  /**
+   * This method extracts the geometry of every slab, see
+   *  IsoSurfaceExtractionOptions.runTasks.
+   * @param _slabs The slabs to extract, in order.
+  **/
+  private void extractSlabs(final IsoSurfaceSlab[] _slabs) {
+    options.runTasks(_slabs.length, i -> runSlab(_slabs[i]));
+  } // end extractSlabs
+
+  //----< runSlab >---------------------------------------------------------//
+
+  /**
+   * This method extracts one slab as a task, recording it as an
+   *  IsoSurfaceSlabEvent when the flight recorder is on.  The event is
+   *  committed on the thread that did the work.
+   * @param _slab The slab to extract.
+  **/
+  private void runSlab(final IsoSurfaceSlab _slab) {
+    checkCancelled();
+    final IsoSurfaceSlabEvent event = new IsoSurfaceSlabEvent();
+    event.begin();
+    extractSlab(_slab);
+    if(event.shouldCommit()) {
+      event.startLayer = _slab.start;
+      event.endLayer = _slab.end;
+      event.cellsVisited = _slab.cellsVisited;
+      event.nonEmptyCells = _slab.nonEmptyCells;
+      event.triangles = _slab.triCnt;
+      event.classifyNanos = _slab.classifyNanos;
+      event.commit();
+    } // end if
+  } // end runSlab
+
+  //----< checkCancelled >--------------------------------------------------//
+
+  /**
+   * This method stops an asynchronous extraction whose future is done.
+   * @throws CancellationException If the extraction was cancelled or ran
+   *  past its deadline.
+  **/
+  private void checkCancelled() throws CancellationException {
+    final CompletableFuture<?> future = cancellation;
+    if(future != null && future.isDone())
+      throw new CancellationException("Extraction given up");
+  } // end checkCancelled
+
+  //----< extractSlab >-----------------------------------------------------//
+
+  /**
+   * This method generates the vertices and normals of the cells in one slab,
+   *  walking them in the order given by walkAxes.  It only writes to the slab
+   *  and to the slab's own layers of cellConfigs, so slabs can be extracted
+   *  concurrently.
+   * Each sample is classified once: the cells of layer a only need the sample
+   *  planes a and a+1, so the slab keeps those two planes of inside/outside
+   *  bits and classifies one new plane per layer.  Moving along the minor
+   *  axis, the four corners a cell shares with the previous cell are shifted
+   *  over and only its four new corners are read from the planes.
+   * When blocks are skipped, only the runs of cells in active blocks are
+   *  visited and only their samples are classified.  The lower plane is
+   *  classified again at the start of each layer of blocks, since the new
+   *  layer's active blocks may need samples the previous layer skipped.
+   *  Skipped cells keep configuration 0 in cellConfigs.
+   * When the span-space index is used, extractCells does the work instead.
+   * @param _slab The slab to extract.
+  **/
+  private void extractSlab(final IsoSurfaceSlab _slab) {
+    final long start = System.nanoTime();
+    _slab.threadId = Thread.currentThread().threadId();
+    if(activeCells != null) {
+      extractCells(_slab);
+      _slab.emitNanos += System.nanoTime() - start;
+      return;
+    } // end if
+
+    final int samples =
+      (cellDims[walkAxes[1]] + 1) * (cellDims[walkAxes[2]] + 1);
+    byte[] lower = new byte[samples];
+    byte[] upper = new byte[samples];
+    boolean[] layerMask = null;
+
+    long classifyNanos = 0;
+
+    for(int a = _slab.start; a < _slab.end; a++) {
+      checkCancelled();
+      final long classifyStart = System.nanoTime();
+      if(a == _slab.start || (activeBlocks != null && a % blockSize == 0)) {
+        if(activeBlocks != null)
+          layerMask = calcLayerMask(a / blockSize);
+        classifyPlane(lower, a, layerMask);
+      } // end if
+      classifyPlane(upper, a + 1, layerMask);
+      classifyNanos += System.nanoTime() - classifyStart;
+      walkLayer(_slab, lower, upper, a, layerMask);
+
+      final byte[] swap = lower;
+      lower = upper;
+      upper = swap;
+    } // end for
+
+    _slab.classifyNanos += classifyNanos;
+    _slab.emitNanos += System.nanoTime() - start - classifyNanos;
+  } // end extractSlab
+
+  //----< walkLayer >-------------------------------------------------------//
+
+  /**
+   * This method walks the cells of one layer of a slab, recording their
+   *  configurations and emitting their geometry into the slab.
+   * @param _slab The slab the layer belongs to.
+   * @param _lower The classified sample plane at the layer.
+   * @param _upper The classified sample plane one layer up.
+   * @param _a The index of the layer along the independent axis.
+   * @param _layerMask The active blocks of the layer's layer of blocks, see
+   *  calcLayerMask, or null to walk every cell.
+  **/
+  private void walkLayer(final IsoSurfaceSlab _slab, final byte[] _lower,
+                         final byte[] _upper, final int _a,
+                         final boolean[] _layerMask)
+  {
+    final int[] cell = new int[3];
+    final int bCells = cellDims[walkAxes[1]];
+    final int cCells = cellDims[walkAxes[2]];
+    final int cSamples = cCells + 1;
+    final long bKeys = bCells + 1;
+    final long cKeys = cSamples;
+
+    final int cBlocks = (_layerMask == null) ? 0 : blockCounts[walkAxes[2]];
+
+    cell[walkAxes[0]] = _a;
+    for(int b = 0; b < bCells; b++) {
+      cell[walkAxes[1]] = b;
+      final int row = b * cSamples;
+      final int maskRow = (_layerMask == null) ? 0 : (b / blockSize) * cBlocks;
+      int c = 0;
+      while(c < cCells) {
+        // Find the next run [c, cEnd) of cells to visit.
+        int cEnd = cCells;
+        if(_layerMask != null) {
+          int bc = c / blockSize;
+          while(bc < cBlocks && !_layerMask[maskRow + bc])
+            bc++;
+          if(bc == cBlocks)
+            break;
+          c = bc * blockSize;
+          while(bc < cBlocks && _layerMask[maskRow + bc])
+            bc++;
+          cEnd = Math.min(cCells, bc * blockSize);
+        } // end if
+
+        // Start with the corners at c in the c+1 bits, so the first shift
+        // moves them into place.
+        int walkCase = cornerBits(_lower, _upper, row + c, cSamples) << 1;
+        _slab.cellsVisited += cEnd - c;
+        for( ; c < cEnd; c++) {
+          cell[walkAxes[2]] = c;
+          final int x = cell[X];
+          final int y = cell[Y];
+          final int z = cell[Z];
+
+          walkCase = ((walkCase >> 1) & 0x55)
+                     | (cornerBits(_lower, _upper, row + c + 1, cSamples) << 1);
+          final int config = walkCaseToConfig[walkCase];
+          if(cellConfigs != null)
+            cellConfigs.set(x, y, z, config);
+          if(_slab.configsOnly)
+            continue;
+
+          if(IsoGeomTable.geoms[config].length == 0)
+            continue;
+          _slab.nonEmptyCells++;
+
+          if(_slab.indices != null) {
+            final long cubeKey = ((_a * bKeys + b) * cKeys + c) * 3;
+            emitIndexed(_slab, config, cubeKey, x, y, z);
+          } else {
+            emitSoup(_slab, config, x, y, z);
+          } // end if
+
+        } // end for
+      } // end while
+    } // end for
+  } // end walkLayer
+
+  //----< extractSlabMulti >------------------------------------------------//
+
+  /**
+   * This method generates one slab of several surfaces at once, see
+   *  extractMulti.  It is extractSlab with a pair of sample planes per
+   *  surface: each plane of samples is read once and classified for every
+   *  surface, then each surface walks the layer into its own slab while the
+   *  layer's samples are still in the cache.  This generator's active blocks
+   *  decide which cells are walked.
+   * @param _surfaces The surfaces, which share this generator's layout.
+   * @param _slabs The slab of each surface, all covering the same layers.
+  **/
+  private void extractSlabMulti(final IsoSurfaceGenerator[] _surfaces,
+                                final IsoSurfaceSlab[] _slabs)
+  {
+    final long start = System.nanoTime();
+    final int count = _surfaces.length;
+    final IsoSurfaceSlab first = _slabs[0];
+    for(int k = 0; k < count; k++)
+      _slabs[k].threadId = Thread.currentThread().threadId();
+
+    final int samples =
+      (cellDims[walkAxes[1]] + 1) * (cellDims[walkAxes[2]] + 1);
+    byte[][] lower = new byte[count][samples];
+    byte[][] upper = new byte[count][samples];
+    final double[] values = new double[samples];
+    boolean[] layerMask = null;
+
+    long classifyNanos = 0;
+
+    for(int a = first.start; a < first.end; a++) {
+      checkCancelled();
+      final long classifyStart = System.nanoTime();
+      if(a == first.start || (activeBlocks != null && a % blockSize == 0)) {
+        if(activeBlocks != null)
+          layerMask = calcLayerMask(a / blockSize);
+        classifyPlane(lower, _surfaces, values, a, layerMask);
+      } // end if
+      classifyPlane(upper, _surfaces, values, a + 1, layerMask);
+      classifyNanos += System.nanoTime() - classifyStart;
+      for(int k = 0; k < count; k++)
+        _surfaces[k].walkLayer(_slabs[k], lower[k], upper[k], a, layerMask);
+
+      final byte[][] swap = lower;
+      lower = upper;
+      upper = swap;
+    } // end for
+
+    final long emitNanos = System.nanoTime() - start - classifyNanos;
+    for(int k = 0; k < count; k++) {
+      _slabs[k].classifyNanos += classifyNanos;
+      _slabs[k].emitNanos += emitNanos;
+    } // end for
+  } // end extractSlabMulti
+
+  //----< extractCells >----------------------------------------------------//
+
+  /**
+   * This method generates the vertices and normals of the slab's share of
+   *  the cells found by the span-space index.  The cells are ascending in
+   *  walk order, so the slab's share is one run of them and the output comes
+   *  out in the same order as when every cell is walked.  The corners of
+   *  each cell are classified on their own, which costs up to eight reads
+   *  per cell but nothing for the cells that aren't found.
+   * @param _slab The slab to extract.
+  **/
+  private void extractCells(final IsoSurfaceSlab _slab) {
+    final int[] cell = new int[3];
+    final int bCells = cellDims[walkAxes[1]];
+    final int cCells = cellDims[walkAxes[2]];
+    final int planeCells = bCells * cCells;
+    final long bKeys = bCells + 1;
+    final long cKeys = cCells + 1;
+
+    final int first = findFirstCell(_slab.start * planeCells);
+    final int last = findFirstCell(_slab.end * planeCells);
+    _slab.cellsVisited += last - first;
+    for(int i = first; i < last; i++) {
+      if((i - first) % CANCEL_CHECK_CELLS == 0)
+        checkCancelled();
+      final int a = activeCells[i] / planeCells;
+      final int rem = activeCells[i] - a * planeCells;
+      final int b = rem / cCells;
+      final int c = rem - b * cCells;
+      cell[walkAxes[0]] = a;
+      cell[walkAxes[1]] = b;
+      cell[walkAxes[2]] = c;
+      final int x = cell[X];
+      final int y = cell[Y];
+      final int z = cell[Z];
+
+      final int config = walkCaseToConfig[classifyCell(cell)];
+      if(cellConfigs != null)
+        cellConfigs.set(x, y, z, config);
+      if(_slab.configsOnly)
+        continue;
+
+      if(IsoGeomTable.geoms[config].length == 0)
+        continue;
+      _slab.nonEmptyCells++;
+      if(_slab.indices != null) {
+        final long cubeKey = ((a * bKeys + b) * cKeys + c) * 3;
+        emitIndexed(_slab, config, cubeKey, x, y, z);
+      } else {
+        emitSoup(_slab, config, x, y, z);
+      } // end if
+    } // end for
+  } // end extractCells
+
+  //----< findFirstCell >---------------------------------------------------//
+
+  /**
+   * This method finds where a cell number would go in activeCells.
+   * @param _cell A cell number, in walk order.
+   * @return The index of the first entry of activeCells that is at least
+   *  _cell, or its length if there is none.
+  **/
+  private int findFirstCell(final int _cell) {
+    int lo = 0;
+    int hi = activeCells.length;
+    while(lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if(activeCells[mid] < _cell)
+        lo = mid + 1;
+      else
+        hi = mid;
+    } // end while
+    return(lo);
+  } // end findFirstCell
+
+  //----< classifyCell >----------------------------------------------------//
+
+  /**
+   * This method classifies the eight corners of one cell.
+   * @param _cell The x, y, and z indices of the cell.
+   * @return The walk order case of the cell, see calcWalkCaseToConfig.
+  **/
+  private int classifyCell(final int[] _cell) {
+    final int[] pt = new int[3];
+    int walkCase = 0;
+    for(int i = 0; i < 8; i++) {
+      pt[walkAxes[0]] = _cell[walkAxes[0]] + ((i >> 2) & 1);
+      pt[walkAxes[1]] = _cell[walkAxes[1]] + ((i >> 1) & 1);
+      pt[walkAxes[2]] = _cell[walkAxes[2]] + (i & 1);
+      if(classifier.isInside(dataMatrix.getPoint(pt[X], pt[Y], pt[Z])))
+        walkCase |= 1 << i;
+    } // end for
+    return(walkCase);
+  } // end classifyCell
+
+  //----< classifyPlane >---------------------------------------------------//
+
+  /**
+   * This method classifies the samples of one plane along the independent
+   *  axis against the thresholds.
+   * @param _bits The array to fill, one entry per sample in walk order: 1 if
+   *  the sample is inside the isosurface, 0 if not.
+   * @param _a The index of the plane along the independent axis.
+   * @param _layerMask The active blocks of the layer of blocks being
+   *  extracted, see calcLayerMask, or null to classify every sample.  Only
+   *  the samples of active blocks are classified; the other entries of _bits
+   *  are left as they were.
+  **/
+  private void classifyPlane(final byte[] _bits, final int _a,
+                             final boolean[] _layerMask)
+  {
+    classifyPlane(new byte[][] { _bits }, null, null, _a, _layerMask);
+  } // end classifyPlane
+
+  //----< classifyPlane >---------------------------------------------------//
+
+  /**
+   * This method classifies the samples of one plane along the independent
+   *  axis for several surfaces at once, or for this generator alone.
+   * @param _bits The arrays to fill, one per surface, see the other
+   *  classifyPlane.
+   * @param _surfaces The surfaces to classify for, or null to use this
+   *  generator's classifier, in which case _bits holds one array.
+   * @param _values A plane of sample values, in walk order, the samples are
+   *  read into; null when _surfaces is.
+   * @param _a The index of the plane along the independent axis.
+   * @param _layerMask The active blocks of the layer of blocks being
+   *  extracted, or null to classify every sample.
+  **/
+  private void classifyPlane(final byte[][] _bits,
+                             final IsoSurfaceGenerator[] _surfaces,
+                             final double[] _values, final int _a,
+                             final boolean[] _layerMask)
+  {
+    final int[] pt = new int[3];
+    final int bCells = cellDims[walkAxes[1]];
+    final int cCells = cellDims[walkAxes[2]];
+    final int cSamples = cCells + 1;
+    pt[walkAxes[0]] = _a;
+    for(int b = 0; b <= bCells; b++) {
+      pt[walkAxes[1]] = b;
+      if(_layerMask == null) {
+        pt[walkAxes[2]] = 0;
+        classifySamples(_bits, _surfaces, _values, pt, b * cSamples, cSamples);
+        continue;
+      } // end if
+
+      // Sample row b is a corner row of cell rows b-1 and b.
+      final int cBlocks = blockCounts[walkAxes[2]];
+      final int below = (b > 0) ? ((b - 1) / blockSize) * cBlocks : -1;
+      final int above = (b < bCells) ? (b / blockSize) * cBlocks : -1;
+      int bc = 0;
+      while(bc < cBlocks) {
+        if(!isRowActive(_layerMask, below, above, bc)) {
+          bc++;
+          continue;
+        } // end if
+        final int first = bc;
+        while(bc < cBlocks && isRowActive(_layerMask, below, above, bc))
+          bc++;
+        final int c0 = first * blockSize;
+        final int c1 = Math.min(cCells, bc * blockSize);
+        pt[walkAxes[2]] = c0;
+        classifySamples(_bits, _surfaces, _values, pt, b * cSamples + c0,
+                        c1 - c0 + 1);
+      } // end while
+    } // end for
+  } // end classifyPlane
+
+  //----< classifySamples >-------------------------------------------------//
+
+  /**
+   * This method classifies a row of samples along the minor axis.  For
+   *  several surfaces the samples are read once into _values, and each
+   *  surface's classifier works from there.
+   * @param _bits The arrays to fill, one per surface.
+   * @param _surfaces The surfaces to classify for, or null to use this
+   *  generator's classifier.
+   * @param _values The plane of sample values; null when _surfaces is.
+   * @param _pt The first sample of the row.
+   * @param _offset The index of the first sample in the plane.
+   * @param _count The number of samples in the row.
+  **/
+  private void classifySamples(final byte[][] _bits,
+                               final IsoSurfaceGenerator[] _surfaces,
+                               final double[] _values, final int[] _pt,
+                               final int _offset, final int _count)
+  {
+    if(_surfaces == null) {
+      dataMatrix.classifyRow(classifier, _pt[X], _pt[Y], _pt[Z], walkAxes[2],
+                             _bits[0], _offset, _count);
+      return;
+    } // end if
+    dataMatrix.readRow(_pt[X], _pt[Y], _pt[Z], walkAxes[2], _values, _offset,
+                       _count);
+    for(int k = 0; k < _surfaces.length; k++)
+      _surfaces[k].classifier.classify(_values, _offset, 1, _bits[k], _offset,
+                                       _count);
+  } // end classifySamples
+
+  //----< isRowActive >-----------------------------------------------------//
+
+  /**
+   * This method checks whether a sample row is needed at one block column,
+   *  which is when either of the cell rows sharing it is active there.
+   * @param _layerMask The active blocks of the layer of blocks.
+   * @param _below The mask offset of the block row below the samples, or -1.
+   * @param _above The mask offset of the block row above the samples, or -1.
+   * @param _bc The block column.
+   * @return true when the samples of the block column must be classified.
+  **/
+  private static boolean isRowActive(final boolean[] _layerMask,
+                                     final int _below, final int _above,
+                                     final int _bc)
+  {
+    return((_below >= 0 && _layerMask[_below + _bc])
+           || (_above >= 0 && _layerMask[_above + _bc]));
+  } // end isRowActive
+
+  //----< calcLayerMask >---------------------------------------------------//
+
+  /**
+   * This method gathers the active flags of one layer of pyramid blocks
+   *  along the independent axis, in walk order.
+   * @param _ba The index of the layer of blocks along the independent axis.
+   * @return A flag per block of the layer, indexed
+   *  bb * (blocks along the minor axis) + bc.
+  **/
+  private boolean[] calcLayerMask(final int _ba) {
+    final int bBlocks = blockCounts[walkAxes[1]];
+    final int cBlocks = blockCounts[walkAxes[2]];
+    final boolean[] mask = new boolean[bBlocks * cBlocks];
+    final int[] blk = new int[3];
+    blk[walkAxes[0]] = _ba;
+    for(int bb = 0; bb < bBlocks; bb++) {
+      blk[walkAxes[1]] = bb;
+      for(int bc = 0; bc < cBlocks; bc++) {
+        blk[walkAxes[2]] = bc;
+        mask[bb * cBlocks + bc] =
+          activeBlocks[(blk[X] * blockCounts[Y] + blk[Y]) * blockCounts[Z] + blk[Z]];
+      } // end for
+    } // end for
+    return(mask);
+  } // end calcLayerMask
+
+  //----< createClassifier >------------------------------------------------//
+
+  /**
+   * This method turns the comparitor and threshold settings into a
+   *  classifier.  As with the original comparisons, when both comparitors
+   *  are the same only the high threshold is used.
+   * @return The classifier for the current settings.
+  **/
+  private IsoSurfaceClassifier createClassifier() {
+    if(lowOp == highOp)
+      return(IsoSurfaceClassifier.create(highOp, highThres));
+    else
+      return(IsoSurfaceClassifier.create(lowOp, lowThres, highOp, highThres));
+  } // end createClassifier
+
+  //----< cornerBits >------------------------------------------------------//
+
+  /**
+   * This method gathers the four samples at one minor axis index of a cell
+   *  row into the low bits of a walk order case, see calcWalkCaseToConfig.
+   * @param _lower The classified sample plane at the cell's layer.
+   * @param _upper The classified sample plane one layer up.
+   * @param _idx The index of the sample in the planes.
+   * @param _rowLen The number of samples in a row of the planes.
+   * @return The walk order case bits of the four samples.
+  **/
+  private static int cornerBits(final byte[] _lower, final byte[] _upper,
+                                final int _idx, final int _rowLen)
+  {
+    return(_lower[_idx] | (_lower[_idx + _rowLen] << 2)
+           | (_upper[_idx] << 4) | (_upper[_idx + _rowLen] << 6));
+  } // end cornerBits
+
+  //----< calcWalkCaseToConfig >--------------------------------------------//
+
+  /**
+   * This method builds the map from walk order cases to cube configurations.
+   *  A walk order case has one bit per cell corner, numbered
+   *  da * 4 + db * 2 + dc, where da, db and dc are the corner's offsets
+   *  along the walk axes, outermost first.  The configuration is the same
+   *  corners expressed as the VERT bits used by the lookup tables.
+   * @return An array of 256 configurations, indexed by walk order case.
+  **/
+  private int[] calcWalkCaseToConfig() {
+    final int[] vertBits = { VERT0, VERT1, VERT3, VERT2,
+                             VERT4, VERT5, VERT7, VERT6 };
+    final int[] cornerBit = new int[8];
+    final int[] off = new int[3];
+    for(int i = 0; i < 8; i++) {
+      off[walkAxes[0]] = (i >> 2) & 1;
+      off[walkAxes[1]] = (i >> 1) & 1;
+      off[walkAxes[2]] = i & 1;
+      cornerBit[i] = vertBits[off[Z] * 4 + off[Y] * 2 + off[X]];
+    } // end for
+
+    final int[] toConfig = new int[256];
+    for(int walkCase = 0; walkCase < 256; walkCase++) {
+      for(int i = 0; i < 8; i++) {
+        if((walkCase & (1 << i)) != 0)
+          toConfig[walkCase] |= cornerBit[i];
+      } // end for
+    } // end for
+    return(toConfig);
+  } // end calcWalkCaseToConfig
+
+  //----< emitIndexed >-----------------------------------------------------//
+
+  /**
+   * This method adds the triangles of one cube to a slab that is being
+   *  extracted as an indexed mesh.  A vertex is only created the first time
+   *  the slab sees its grid edge; later cubes sharing the edge reuse it.  The
+   *  table normal of each triangle is added to its three vertices, and the
+   *  sums are normalized when the slabs are merged.  A gradient normal
+   *  belongs to the vertex itself, so it is set when the vertex is created
+   *  and not added to.
+   * @param _slab The slab being extracted.
+   * @param _config The configuration of the cube, an index into the tables.
+   * @param _cubeKey The grid edge key of the cube's lower/left/back corner.
+   * @param _x The x index of the cube.
+   * @param _y The y index of the cube.
+   * @param _z The z index of the cube.
+  **/
+  private void emitIndexed(final IsoSurfaceSlab _slab, final int _config,
+                           final long _cubeKey,
+                           final int _x, final int _y, final int _z)
+  {
+    final Tuple3f cntrd = dataMatrix.getCentroid();
+    final long[] keyOffs = edgeKeyOffsets[_config];
+    final Vector3f[] norms = IsoNormTable.norms[_config];
+    final float[] off = _slab.vertOffset;
+    final float[] vertNorm = _slab.vertNormal;
+    if(interpolated || gradientNormals)
+      getPointValues(_slab.cornerVals, dataMatrix, _x, _y, _z);
+
+    for(int v = 0; v < keyOffs.length; v++) {
+      final long key = _cubeKey + keyOffs[v];
+      final Vector3f norm = norms[v/3];
+      int idx = _slab.edgeMap.get(key);
+      if(idx == IsoLongIntHashMap.NO_VALUE) {
+        idx = _slab.edgeKeys.size();
+        _slab.edgeMap.put(key, idx);
+        _slab.edgeKeys.add(key);
+        final boolean hasNormal = placeVertex(_slab, _config, v, _x, _y, _z);
+        _slab.vertices.add((off[0] + _x - cntrd.x) * dataMatrix.getXScale(),
+                           (off[1] + _y - cntrd.y) * dataMatrix.getYScale(),
+                           (off[2] - _z + cntrd.z) * dataMatrix.getZScale());
+        if(hasNormal)
+          _slab.normalSums.add(vertNorm[0], vertNorm[1], vertNorm[2]);
+        else if(gradientNormals)
+          _slab.normalSums.add(norm.x, norm.y, norm.z);
+        else
+          _slab.normalSums.add(0.0, 0.0, 0.0);
+      } // end if
+      _slab.indices.add(idx);
+
+      if(!gradientNormals) {
+        final IsoDoubleBuffer sums = _slab.normalSums;
+        sums.set(idx*3,   sums.get(idx*3)   + norm.x);
+        sums.set(idx*3+1, sums.get(idx*3+1) + norm.y);
+        sums.set(idx*3+2, sums.get(idx*3+2) + norm.z);
+      } // end if
+    } // end for
+    _slab.triCnt += keyOffs.length / 3;
+  } // end emitIndexed
+
+  //----< emitSoup >--------------------------------------------------------//
+
+  /**
+   * This method adds the triangles of one cube to a slab, each triangle with
+   *  three vertices of its own and the table normal of the triangle, or
+   *  each vertex's gradient normal.
+   * @param _slab The slab being extracted.
+   * @param _config The configuration of the cube, an index into the tables.
+   * @param _x The x index of the cube.
+   * @param _y The y index of the cube.
+   * @param _z The z index of the cube.
+  **/
+  private void emitSoup(final IsoSurfaceSlab _slab, final int _config,
+                        final int _x, final int _y, final int _z)
+  {
+    final Tuple3f cntrd = dataMatrix.getCentroid();
+    final float xScale = dataMatrix.getXScale();
+    final float yScale = dataMatrix.getYScale();
+    final float zScale = dataMatrix.getZScale();
+    final float[] vertArr = IsoGeomTable.geoms[_config];
+    final float[] off = _slab.vertOffset;
+    final float[] vertNorm = _slab.vertNormal;
+    if(interpolated || gradientNormals)
+      getPointValues(_slab.cornerVals, dataMatrix, _x, _y, _z);
+
+    int len = 0;
+    while(len < vertArr.length) {
+      final boolean hasNormal = placeVertex(_slab, _config, len/4, _x, _y, _z);
+      _slab.vertices.add((off[0] + _x - cntrd.x) * xScale,
+                         (off[1] + _y - cntrd.y) * yScale,
+                         (off[2] - _z + cntrd.z) * zScale);
+            // 1 for each vert
+      if(hasNormal) {
+        _slab.normals.add(vertNorm[0], vertNorm[1], vertNorm[2]);
+      } else {
+        final Vector3f norm = IsoNormTable.norms[_config][len/12];
+        _slab.normals.add(norm.x, norm.y, norm.z);
+      } // end if
+
+      len += 4;
+      if(len > 0 && (len % 12 == 0))
+        _slab.triCnt += 1;
+    } // end while
+  } // end emitSoup
+
+  //----< placeVertex >-----------------------------------------------------//
+
+  /**
+   * This method works out where one vertex of a cube goes, into the slab's
+   *  vertOffset, in IsoGeomTable coordinates: the table's edge midpoint, or
+   *  the interpolated point along the edge.  For gradient normals it also
+   *  works out the vertex's normal, into the slab's vertNormal.  The cube's
+   *  cornerVals must be loaded when either option is on.
+   * @param _slab The slab being extracted.
+   * @param _config The configuration of the cube, an index into the tables.
+   * @param _v The number of the vertex in the cube's IsoGeomTable entry.
+   * @param _x The x index of the cube.
+   * @param _y The y index of the cube.
+   * @param _z The z index of the cube.
+   * @return true when vertNormal holds the vertex's normal, false when the
+   *  triangle's table normal should be used.
+  **/
+  private boolean placeVertex(final IsoSurfaceSlab _slab, final int _config,
+                              final int _v,
+                              final int _x, final int _y, final int _z)
+  {
+    final float[] vertArr = IsoGeomTable.geoms[_config];
+    final float[] off = _slab.vertOffset;
+    off[0] = vertArr[_v*4];
+    off[1] = vertArr[_v*4+1];
+    off[2] = vertArr[_v*4+2];
+    if(!interpolated && !gradientNormals)
+      return(false);
+
+    final int edge = IsoGeomTable.edges[_config][_v];
+    float f = IsoGeomTable.F;
+    if(interpolated) {
+      f = calcEdgeFraction(_slab.cornerVals, edge);
+      switch(edge & 3) {
+        case X :  off[0] = f;  break;
+        case Y :  off[1] = f;  break;
+        default : off[2] = -f;
+      } // end switch
+    } // end if
+    return(gradientNormals && calcGradientNormal(_slab, edge, f, _x, _y, _z));
+  } // end placeVertex
+
+  //----< calcEdgeFraction >------------------------------------------------//
+
+  /**
+   * This method finds how far along a cube edge an interpolated vertex
+   *  goes.  One corner of the edge is inside and the other outside, so one
+   *  of the classifier's thresholds lies between their values (the one
+   *  nearest the inside value, for a band); the vertex goes where the line
+   *  between the two values meets it.  An edge whose values don't bracket
+   *  a threshold, which takes a NaN, keeps its midpoint.
+   * @param _cornerVals The values at the cube's corners, see getPointValues.
+   * @param _edge The edge, as in IsoGeomTable.edges.
+   * @return The distance from the edge's start corner, from 0 to 1.
+  **/
+  private float calcEdgeFraction(final double[] _cornerVals, final int _edge) {
+    final int ox = (_edge >> 2) & 1;
+    final int oy = (_edge >> 3) & 1;
+    final int oz = (_edge >> 4) & 1;
+    final int axis = _edge & 3;
+    final double v0 = _cornerVals[cornerIndex(ox, oy, oz)];
+    final double v1 = _cornerVals[cornerIndex(ox + (axis == X ? 1 : 0),
+                                              oy + (axis == Y ? 1 : 0),
+                                              oz + (axis == Z ? 1 : 0))];
+    final boolean startInside = classifier.isInside(v0);
+    final double in = startInside ? v0 : v1;
+    final double out = startInside ? v1 : v0;
+    final double lo = Math.min(in, out);
+    final double hi = Math.max(in, out);
+
+    double crossing = Double.NaN;
+    for(int i = 0; i < crossings.length; i++) {
+      final double t = crossings[i];
+      if(t >= lo && t <= hi && (Double.isNaN(crossing)
+                                || Math.abs(t - in) < Math.abs(crossing - in)))
+        crossing = t;
+    } // end for
+    if(Double.isNaN(crossing) || v1 == v0)
+      return(IsoGeomTable.F);
+    return((float)Math.min(1.0, Math.max(0.0, (crossing - v0) / (v1 - v0))));
+  } // end calcEdgeFraction
+
+  //----< calcGradientNormal >----------------------------------------------//
+
+  /**
+   * This method works out the gradient normal of a vertex, into the slab's
+   *  vertNormal: the gradients at the two samples of its edge, blended by
+   *  how far along the edge the vertex is, scaled into world units, and
+   *  pointed from the inside corner to the outside one.
+   * @param _slab The slab being extracted, with the cube's cornerVals.
+   * @param _edge The vertex's edge, as in IsoGeomTable.edges.
+   * @param _f The distance of the vertex from the edge's start corner.
+   * @param _x The x index of the cube.
+   * @param _y The y index of the cube.
+   * @param _z The z index of the cube.
+   * @return false when the blended gradient is zero or not a number.
+  **/
+  private boolean calcGradientNormal(final IsoSurfaceSlab _slab,
+                                     final int _edge, final float _f,
+                                     final int _x, final int _y, final int _z)
+  {
+    final int ox = (_edge >> 2) & 1;
+    final int oy = (_edge >> 3) & 1;
+    final int oz = (_edge >> 4) & 1;
+    final int axis = _edge & 3;
+    final int ex = ox + (axis == X ? 1 : 0);
+    final int ey = oy + (axis == Y ? 1 : 0);
+    final int ez = oz + (axis == Z ? 1 : 0);
+
+    final float[] norm = _slab.vertNormal;
+    norm[0] = norm[1] = norm[2] = 0.0f;
+    addGradient(_slab, _x + ox, _y + oy, _z + oz, 1.0f - _f, norm);
+    addGradient(_slab, _x + ex, _y + ey, _z + ez, _f, norm);
+
+    // Values grow along the gradient, so it points outward when the outside
+    // corner has the greater value.
+    final double v0 = _slab.cornerVals[cornerIndex(ox, oy, oz)];
+    final double v1 = _slab.cornerVals[cornerIndex(ex, ey, ez)];
+    final boolean startInside = classifier.isInside(v0);
+    final double in = startInside ? v0 : v1;
+    final double out = startInside ? v1 : v0;
+    final float sign = (out > in) ? 1.0f : -1.0f;
+    final float len = (float)Math.sqrt(norm[0] * norm[0] + norm[1] * norm[1]
+                                       + norm[2] * norm[2]);
+    if(!(len > 0.0f) || Float.isInfinite(len))
+      return(false);
+    norm[0] *= sign / len;
+    norm[1] *= sign / len;
+    norm[2] *= sign / len;
+    return(true);
+  } // end calcGradientNormal
+
+  //----< addGradient >-----------------------------------------------------//
+
+  /**
+   * This method adds the weighted gradient of the values at one sample to
+   *  a sum.  The gradient is a central difference, one sided at the edges
+   *  of the matrix, in world units with z pointing the way the vertices'
+   *  does.  It is cached in the slab's gradient planes, indexed by the
+   *  parity of the sample's layer along the independent axis, so as the
+   *  slab is walked a layer at a time each sample's gradient is computed
+   *  once.
+   * @param _slab The slab being extracted.
+   * @param _sx The x index of the sample.
+   * @param _sy The y index of the sample.
+   * @param _sz The z index of the sample.
+   * @param _weight The weight of the sample's gradient.
+   * @param _sum The sum the weighted gradient is added to.
+  **/
+  private void addGradient(final IsoSurfaceSlab _slab,
+                           final int _sx, final int _sy, final int _sz,
+                           final float _weight, final float[] _sum)
+  {
+    final int cSamples = cellDims[walkAxes[2]] + 1;
+    if(_slab.gradients == null)
+      _slab.initGradients((cellDims[walkAxes[1]] + 1) * cSamples);
+    final int layer = pick(walkAxes[0], _sx, _sy, _sz);
+    final float[] plane = _slab.gradients[layer & 1];
+    final int[] layers = _slab.gradientLayers[layer & 1];
+    final int idx = (pick(walkAxes[1], _sx, _sy, _sz) * cSamples
+                     + pick(walkAxes[2], _sx, _sy, _sz)) * 3;
+
+    if(layers[idx/3] != layer + 1) {
+      final int x0 = Math.max(0, _sx - 1), x1 = Math.min(cellDims[X], _sx + 1);
+      final int y0 = Math.max(0, _sy - 1), y1 = Math.min(cellDims[Y], _sy + 1);
+      final int z0 = Math.max(0, _sz - 1), z1 = Math.min(cellDims[Z], _sz + 1);
+      plane[idx]   = difference(dataMatrix.getPoint(x1, _sy, _sz),
+                                dataMatrix.getPoint(x0, _sy, _sz),
+                                (x1 - x0) * dataMatrix.getXScale());
+      plane[idx+1] = difference(dataMatrix.getPoint(_sx, y1, _sz),
+                                dataMatrix.getPoint(_sx, y0, _sz),
+                                (y1 - y0) * dataMatrix.getYScale());
+      plane[idx+2] = difference(dataMatrix.getPoint(_sx, _sy, z1),
+                                dataMatrix.getPoint(_sx, _sy, z0),
+                                -(z1 - z0) * dataMatrix.getZScale());
+      layers[idx/3] = layer + 1;
+    } // end if
+
+    _sum[0] += _weight * plane[idx];
+    _sum[1] += _weight * plane[idx+1];
+    _sum[2] += _weight * plane[idx+2];
+  } // end addGradient
+
+  //----< difference >------------------------------------------------------//
+
+  /**
+   * This method is one component of a finite difference gradient.
+   * @param _hi The value at the upper sample.
+   * @param _lo The value at the lower sample.
+   * @param _dist The signed world distance between the samples, 0 when the
+   *  matrix is one sample thick along the axis.
+   * @return The slope, or 0 when there's no distance.
+  **/
+  private static float difference(final double _hi, final double _lo,
+                                  final float _dist)
+  {
+    return((_dist == 0.0f) ? 0.0f : (float)((_hi - _lo) / _dist));
+  } // end difference
+
+  //----< pick >------------------------------------------------------------//
+
+  /**
+   * This method picks one coordinate of a point.
+   * @param _axis The axis, X, Y, or Z.
+   * @param _x The x coordinate.
+   * @param _y The y coordinate.
+   * @param _z The z coordinate.
+   * @return The coordinate along _axis.
+  **/
+  private static int pick(final int _axis, final int _x, final int _y,
+                          final int _z)
+  {
+    return((_axis == X) ? _x : (_axis == Y) ? _y : _z);
+  } // end pick
+
+  //----< cornerIndex >-----------------------------------------------------//
+
+  /**
+   * This method numbers a cube corner the way IsoGeomTable and
+   *  getPointValues do: counterclockwise around the near face, then the far
+   *  face.
+   * @param _ox The x offset of the corner, 0 or 1.
+   * @param _oy The y offset of the corner, 0 or 1.
+   * @param _oz The z offset of the corner, 0 or 1.
+   * @return The corner number, 0 to 7.
+  **/
+  private static int cornerIndex(final int _ox, final int _oy, final int _oz) {
+    return(_oz * 4 + ((_oy == 0) ? _ox : 3 - _ox));
+  } // end cornerIndex
+
+  //----< calcEdgeKeyOffsets >----------------------------------------------//
+
+  /**
+   * This method converts the IsoGeomTable edges into grid edge key offsets
+   *  for the current walk order.  A grid edge key numbers the samples in
+   *  walk order and multiplies by three to make room for the edge axis, so
+   *  a key also tells which sample plane along the independent axis the
+   *  edge starts on.
+   * @return For each cube configuration, the key offset of each vertex.
+  **/
+  private long[][] calcEdgeKeyOffsets() {
+    final long bSamples = cellDims[walkAxes[1]] + 1;
+    final long cSamples = cellDims[walkAxes[2]] + 1;
+    final long[][] keyOffs = new long[256][];
+    final int[] off = new int[3];
+
+    for(int i = 0; i < 256; i++) {
+      final int[] edgeArr = IsoGeomTable.edges[i];
+      keyOffs[i] = new long[edgeArr.length];
+      for(int j = 0; j < edgeArr.length; j++) {
+        off[X] = (edgeArr[j] >> 2) & 1;
+        off[Y] = (edgeArr[j] >> 3) & 1;
+        off[Z] = (edgeArr[j] >> 4) & 1;
+        keyOffs[i][j] = ((off[walkAxes[0]] * bSamples + off[walkAxes[1]])
+                         * cSamples + off[walkAxes[2]]) * 3 + (edgeArr[j] & 3);
+      } // end for
+    } // end for
+    return(keyOffs);
+  } // end calcEdgeKeyOffsets
+
+  //----< mergeIndexedSlabs >-----------------------------------------------//
+
+  /**
+   * This method merges the indexed meshes of the slabs, in order, into the
+   *  generator's packed arrays.  Vertices on the sample plane between two
+   *  slabs were created by both of them; the second slab's copy is dropped
+   *  and its triangles point at the first slab's vertex.  Vertices keep the
+   *  order they were first seen in, which matches a serial run.  The normal
+   *  sums of the two copies are added in double, where they're exact, and
+   *  rounded once, so the normals match a serial run too.  A gradient
+   *  normal isn't a sum; the first slab's is kept, as a serial run would.
+   * @param _slabs The extracted slabs, in order.
+  **/
+  private void mergeIndexedSlabs(final IsoSurfaceSlab[] _slabs) {
+    final long planeKeys = (long)(cellDims[walkAxes[1]] + 1)
+                           * (cellDims[walkAxes[2]] + 1) * 3;
+    final int outerAxis = walkAxes[0];
+
+    int floatCnt = 0;
+    int idxCnt = 0;
+    for(int i = 0; i < _slabs.length; i++) {
+      floatCnt += _slabs[i].vertices.size();
+      idxCnt += _slabs[i].indices.size();
+    } // end for
+
+    final IsoFloatBuffer verts = new IsoFloatBuffer(floatCnt);
+    final IsoDoubleBuffer norms = new IsoDoubleBuffer(floatCnt);
+    final int[] indices = new int[idxCnt];
+    int idxPos = 0;
+    IsoLongIntHashMap seam = null;
+
+    for(int i = 0; i < _slabs.length; i++) {
+      final IsoSurfaceSlab slab = _slabs[i];
+      final int[] toMerged = new int[slab.edgeKeys.size()];
+      final IsoLongIntHashMap nextSeam = new IsoLongIntHashMap();
+
+      for(int v = 0; v < toMerged.length; v++) {
+        final long key = slab.edgeKeys.get(v);
+        final long keyPlane = key / planeKeys;
+        final boolean inPlane = (key % 3) != outerAxis;
+
+        int idx = IsoLongIntHashMap.NO_VALUE;
+        if(seam != null && inPlane && keyPlane == slab.start)
+          idx = seam.get(key);
+        if(idx == IsoLongIntHashMap.NO_VALUE) {
+          idx = verts.size() / 3;
+          verts.add(slab.vertices, v*3, 3);
+          norms.add(slab.normalSums, v*3, 3);
+        } else if(!gradientNormals) {
+          for(int k = 0; k < 3; k++)
+            norms.set(idx*3+k,
+                      norms.get(idx*3+k) + slab.normalSums.get(v*3+k));
+        } // end if
+        toMerged[v] = idx;
+
+        if(inPlane && keyPlane == slab.end)
+          nextSeam.put(key, idx);
+      } // end for
+
+      for(int j = 0; j < slab.indices.size(); j++)
+        indices[idxPos++] = toMerged[slab.indices.get(j)];
+      seam = nextSeam;
+    } // end for
+
+    vertexBuf = verts.toArray();
+    normalBuf = norms.toFloatArray();
+    indexBuf = indices;
+    normalizeNormals(normalBuf);
+  } // end mergeIndexedSlabs
+
+  //----< normalizeNormals >------------------------------------------------//
+
+  /**
+   * This method scales the summed normals of an indexed mesh to unit length.
+   * @param _normals The packed normals, x,y,z interleaved.  Zero normals are
+   *  left as they are.
+  **/
+  private static void normalizeNormals(final float[] _normals) {
+    for(int i = 0; i < _normals.length; i += 3) {
+      final float len = (float)Math.sqrt(_normals[i] * _normals[i]
+                                         + _normals[i+1] * _normals[i+1]
+                                         + _normals[i+2] * _normals[i+2]);
+      if(len > 0.0f) {
+        _normals[i]   /= len;
+        _normals[i+1] /= len;
+        _normals[i+2] /= len;
+      } // end if
+    } // end for
+  } // end normalizeNormals
 
   //----< calcColorArrays >-------------------------------------------------//
 
@@ -408,7 +2408,7 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
    * This method is the external version of the calcColorArrays method that is
    *  used to recalculate the colors of an already created isosurface.
    * NOTE: must be called AFTER calculateSurface has had a chance to populate
-   *  the isoCubeArr.  Since calculateSurface is called via the constructor,
+   *  the cell configurations.  Since calculateSurface is called via the constructor,
    *  subsequent user calls shouldn't be a problem.
    * @param _colVect A vector of Color4f's, one for each vertex of the geometry,
    *  used when rendering the appearance in an unlit manner.  The contents of
@@ -423,7 +2423,7 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
                               final Vector<float[]> _matVect,
                               final IsoSurfaceVertexColorer _vc)
   {
-    calcColorArrays(vertVect, _colVect, _matVect, _vc);
+    calcColorArrays(null, _colVect, _matVect, _vc);
   } // end calcColorArrays
 
   //----< calcColorArrays >-------------------------------------------------//
@@ -432,10 +2432,12 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
    * This method will populate the Vector parameters with colorer
    *  information if the colorer is present.
    * NOTE: must be called AFTER calculateSurface has had a chance to populate
-   *  the isoCubeArr.  Since calculateSurface is called via the constructor,
+   *  the cell configurations.  Since calculateSurface is called via the constructor,
    *  subsequent user calls shouldn't be a problem.
    * @param _vertVect A Vector containing the Vector3d's that make up the 
-   *  vertices of the isosurface.
+   *  vertices of the isosurface.  If null, the vertices are read from the
+   *  packed vertex array instead, through a single Vector3d that is reused
+   *  for every call on the colorer.
    * @param _colVect A vector of Color4f's, one for each vertex of the geometry,
    *  used when rendering the appearance in an unlit manner.  The contents of
    *  this Vector will be cleared and new contents will be added.
@@ -450,8 +2452,33 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
                               final Vector<float[]> _matVect,
                               final IsoSurfaceVertexColorer _vc)
   {
+    calcColorArrays(_vertVect, _colVect, _matVect, _vc, null);
+  } // end calcColorArrays
+
+  //----< calcColorArrays >-------------------------------------------------//
+
+  /**
+   * This method is calcColorArrays, optionally timing a sample of the
+   *  calcLitColor calls for the extraction stats.
+   * @param _vertVect The vertices, or null to read the packed array.
+   * @param _colVect The vector receiving the colors.
+   * @param _matVect The vector receiving the materials.
+   * @param _vc The vertex colorer.
+   * @param _materialTime Receives the nanoseconds spent in every
+   *  MATERIAL_SAMPLE'th calcLitColor call, and the number of those calls.
+   *  May be null.
+  **/
+  private void calcColorArrays(final Vector<Vector3d> _vertVect,
+                               final Vector<float[]> _colVect,
+                               final Vector<float[]> _matVect,
+                               final IsoSurfaceVertexColorer _vc,
+                               final long[] _materialTime)
+  {
+    final IsoSurfaceColoringEvent event = new IsoSurfaceColoringEvent();
+    event.begin();
     byte colorerType = IsoSurfaceVertexColorer.NONE;
     final double[] ptVals = new double[8];
+    final Vector3d packedVertex = new Vector3d();
 
     if(_vc != null) {
       colorerType = _vc.getColorerType();
@@ -462,41 +2489,127 @@ public class IsoSurfaceGenerator implements IsoConstInterface,
          colorerType == IsoSurfaceVertexColorer.BOTH)
         _matVect.clear();
 
-      int vertIdx = 0;
-      for(int x = 0; x < dataMatrix.getXMaxDim()-1; x++) {
-        for(int y = 0; y < dataMatrix.getYMaxDim()-1; y++) {
-          for(int z = 0; z < dataMatrix.getZMaxDim()-1; z++) {
-
-            final float[] vertArr = IsoGeomTable.geoms[isoCubeArr[x][y][z]];
-
-            if(vertArr != null) {
-              int len = 0;
-              getPointValues(ptVals, dataMatrix, x, y, z);
-              while(len < vertArr.length) {
-                //Vector3d vertex = applyScales(vertArr[len]   + x - cntrd.x,
-                                              //vertArr[len+1] + y - cntrd.y,
-                                              //vertArr[len+2] - z + cntrd.z);
-                final Vector3d vertex = _vertVect.get(vertIdx);
-                if(_colVect != null)
-                  _colVect.add(_vc.calcUnlitColor(vertex, x, y, z,
-                                                  ptVals[(int)vertArr[len+3]]));
-                if(_matVect != null)
-                  _matVect.add(_vc.calcLitColor(vertex, x, y, z,
-                                                ptVals[(int)vertArr[len+3]]));
-
+      // Walk the cells in the same order calculateSurface emitted them.
+      final int[] cell = new int[3];
+      final long cCells = cellDims[walkAxes[2]];
+      final long planeCells = cellDims[walkAxes[1]] * cCells;
+      final int[] counts = new int[2];   // the next vertex and corner
+      forEachWalkedCell(_id -> {
+        cell[walkAxes[0]] = (int)(_id / planeCells);
+        cell[walkAxes[1]] = (int)(_id % planeCells / cCells);
+        cell[walkAxes[2]] = (int)(_id % cCells);
+        final int x = cell[X];
+        final int y = cell[Y];
+        final int z = cell[Z];
+
+        final float[] vertArr = IsoGeomTable.geoms[cellConfigs.get(x, y, z)];
+
+        if(vertArr.length > 0) {
+          int vertIdx = counts[0];
+          int cornerIdx = counts[1];
+          int len = 0;
+          getPointValues(ptVals, dataMatrix, x, y, z);
+          while(len < vertArr.length) {
+            if(indexBuf != null) {
+              // Shared vertices are colored from the first cube using
+              // them.  Vertices are numbered in the order they're first
+              // used, so a new vertex is always the next one.
+              if(indexBuf[cornerIdx++] != vertIdx) {
                 len += 4;
-                vertIdx++;
-              } // end while
+                continue;
+              } // end if
             } // end if
 
-          } // end for
-        } // end for
-      } // end for
+            final Vector3d vertex;
+            if(_vertVect != null) {
+              vertex = _vertVect.get(vertIdx);
+            } else {
+              vertex = packedVertex;
+              vertex.set(vertexBuf[vertIdx*3], vertexBuf[vertIdx*3+1],
+                         vertexBuf[vertIdx*3+2]);
+            } // end if
+            if(_colVect != null)
+              _colVect.add(_vc.calcUnlitColor(vertex, x, y, z,
+                                              ptVals[(int)vertArr[len+3]]));
+            if(_matVect != null) {
+              if(_materialTime != null
+                 && vertIdx % IsoSurfaceExtractionStats.MATERIAL_SAMPLE == 0) {
+                final long start = System.nanoTime();
+                _matVect.add(_vc.calcLitColor(vertex, x, y, z,
+                                              ptVals[(int)vertArr[len+3]]));
+                _materialTime[0] += System.nanoTime() - start;
+                _materialTime[1]++;
+              } else {
+                _matVect.add(_vc.calcLitColor(vertex, x, y, z,
+                                              ptVals[(int)vertArr[len+3]]));
+              } // end if
+            } // end if
+
+            len += 4;
+            vertIdx++;
+          } // end while
+          counts[0] = vertIdx;
+          counts[1] = cornerIdx;
+        } // end if
+      });
+
+    } // end if
 
+    if(_vc != null && event.shouldCommit()) {
+      event.colorerClass = _vc.getClass();
+      event.colorerType = colorerType;
+      event.colors = (_colVect == null) ? 0 : _colVect.size();
+      event.materials = (_matVect == null) ? 0 : _matVect.size();
+      event.commit();
     } // end if
 
   } // end calcColorArrays
 
+  //----< forEachWalkedCell >-----------------------------------------------//
+
+  /**
+   * This method visits the cells calculateSurface walked, in walk order, by
+   *  their numbers in walk order.  With the span-space index those are its
+   *  active cells; with block skipping, the cells of the active blocks;
+   *  otherwise every cell.  The cells it leaves out produced no surface.
+   * @param _visitor The visitor, given each cell's number.
+  **/
+  private void forEachWalkedCell(final LongConsumer _visitor) {
+    if(activeCells != null) {
+      for(int i = 0; i < activeCells.length; i++)
+        _visitor.accept(activeCells[i]);
+      return;
+    } // end if
+
+    final int aCells = cellDims[walkAxes[0]];
+    final int bCells = cellDims[walkAxes[1]];
+    final int cCells = cellDims[walkAxes[2]];
+    final int cBlocks = (activeBlocks == null) ? 0 : blockCounts[walkAxes[2]];
+    boolean[] layerMask = null;
+    for(int a = 0; a < aCells; a++) {
+      if(activeBlocks != null && a % blockSize == 0)
+        layerMask = calcLayerMask(a / blockSize);
+      for(int b = 0; b < bCells; b++) {
+        final long row = ((long)a * bCells + b) * cCells;
+        if(layerMask == null) {
+          for(int c = 0; c < cCells; c++)
+            _visitor.accept(row + c);
+          continue;
+        } // end if
+
+        // Only the runs of cells in active blocks, as walkLayer visits them.
+        final int maskRow = (b / blockSize) * cBlocks;
+        for(int bc = 0; bc < cBlocks; bc++) {
+          if(!layerMask[maskRow + bc])
+            continue;
+          final int cEnd = Math.min(cCells, (bc + 1) * blockSize);
+          for(int c = bc * blockSize; c < cEnd; c++)
+            _visitor.accept(row + c);
+        } // end for
+      } // end for
+    } // end for
+  } // end forEachWalkedCell
+
   //----< getPointValues >--------------------------------------------------//
 
   /**
@@ -540,6 +2653,17 @@ public int getPolygonCount() {
     return(triCnt);
   } // end getPolygonCount
 
+  //----< getExtractionStats >----------------------------------------------//
+
+  /**
+   * This method returns the timings and counts of the generator's last run,
+   *  the constructor's extraction or the last setThresholds.
+   * @return The IsoSurfaceExtractionStats of the last run.
+  **/
+  public IsoSurfaceExtractionStats getExtractionStats() {
+    return(stats);
+  } // end getExtractionStats
+
   //----< getDataMatrix >---------------------------------------------------//
 
   /**
@@ -561,10 +2685,53 @@ public int getPolygonCount() {
    *  isosurface.
   **/
   @Override
-public Vector3d[] getVertexArray() {
+public synchronized Vector3d[] getVertexArray() {
+    if(vertexArr == null && vertexBuf != null) {
+      vertexArr = new Vector3d[vertexBuf.length / 3];
+      for(int i = 0; i < vertexArr.length; i++)
+        vertexArr[i] = new Vector3d(vertexBuf[i*3], vertexBuf[i*3+1],
+                                    vertexBuf[i*3+2]);
+    } // end if
     return(vertexArr);
   } // end getVertexArray
 
+  //----< getPackedVertexArray >--------------------------------------------//
+
+  /**
+   * This method will return the vertices that comprise the isosurface as one
+   *  packed float array, x,y,z interleaved.  Every three consecutive vertices
+   *  make up a triangle.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  @Override
+public float[] getPackedVertexArray() {
+    return(vertexBuf);
+  } // end getPackedVertexArray
+
+  //----< getIndexArray >---------------------------------------------------//
+
+  /**
+   * This method will return the vertex indices of the triangles when the
+   *  surface was extracted as an indexed mesh, three per triangle.
+   * @return An int array of 3 * getPolygonCount() indices, or null when
+   *  every triangle has three vertices of its own.
+  **/
+  @Override
+public int[] getIndexArray() {
+    return(indexBuf);
+  } // end getIndexArray
+
+  //----< getVertexCount >--------------------------------------------------//
+
+  /**
+   * This method will return the number of vertices in the isosurface.
+   * @return An integer containing the vertex count.
+  **/
+  @Override
+public int getVertexCount() {
+    return(vertexBuf == null ? 0 : vertexBuf.length / 3);
+  } // end getVertexCount
+
   //----< getNormalArray >--------------------------------------------------//
 
   /**
@@ -574,10 +2741,29 @@ public Vector3d[] getVertexArray() {
    *  isosurface.
   **/
   @Override
-public Vector3f[] getNormalArray() {
+public synchronized Vector3f[] getNormalArray() {
+    if(normalArr == null && normalBuf != null) {
+      normalArr = new Vector3f[normalBuf.length / 3];
+      for(int i = 0; i < normalArr.length; i++)
+        normalArr[i] = new Vector3f(normalBuf[i*3], normalBuf[i*3+1],
+                                    normalBuf[i*3+2]);
+    } // end if
     return(normalArr);
   } // end getNormalArray
 
+  //----< getPackedNormalArray >--------------------------------------------//
+
+  /**
+   * This method will return the normals of the isosurface as one packed
+   *  float array, x,y,z interleaved, one normal for each vertex in the packed
+   *  vertex array.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  @Override
+public float[] getPackedNormalArray() {
+    return(normalBuf);
+  } // end getPackedNormalArray
+
   //----< getColorerType >--------------------------------------------------//
 
   /**
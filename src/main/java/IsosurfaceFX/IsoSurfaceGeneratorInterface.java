@@ -31,6 +31,45 @@ public interface IsoSurfaceGeneratorInterface {
   **/
   public Vector3f[] getNormalArray();
 
+  //----< getPackedVertexArray >--------------------------------------------//
+
+  /**
+   * This method should return the vertices that comprise the isosurface as
+   *  one packed float array, x,y,z interleaved, with no per-vertex objects.
+   *  getVertexArray may be derived from it.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  public float[] getPackedVertexArray();
+
+  //----< getPackedNormalArray >--------------------------------------------//
+
+  /**
+   * This method should return the normals of the isosurface as one packed
+   *  float array, x,y,z interleaved, one normal for each vertex in the packed
+   *  vertex array.  getNormalArray may be derived from it.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  public float[] getPackedNormalArray();
+
+  //----< getIndexArray >---------------------------------------------------//
+
+  /**
+   * This method should return the vertex indices of the triangles when the
+   *  isosurface is an indexed mesh, three per triangle.  The vertex, normal,
+   *  and color arrays then hold one entry per unique vertex.
+   * @return An int array of 3 * getPolygonCount() indices, or null when
+   *  every triangle has three vertices of its own.
+  **/
+  public int[] getIndexArray();
+
+  //----< getVertexCount >--------------------------------------------------//
+
+  /**
+   * This method should return the number of vertices in the isosurface.
+   * @return An integer containing the vertex count.
+  **/
+  public int getVertexCount();
+
   //----< getVertexColorArray >---------------------------------------------//
 
   /**
@@ -0,0 +1,1086 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class extracts an isosurface at a level of detail that falls off with
+ *  the distance from the eye, so a distant view of a large volume costs a
+ *  fraction of the triangles of a full extraction.
+ * The volume is split into cubic regions of a fixed number of cells.  Each
+ *  update picks a level of the data matrix's IsoSurfaceResolutionPyramid for
+ *  every region from its distance to the eye: level 0 within the detail
+ *  distance, and one level coarser for each doubling of the distance past
+ *  it.  Each region is extracted by an IsoSurfaceGenerator of its own,
+ *  through an IsoSurfaceRegionDataMatrix, and the regions are extracted in
+ *  parallel.  A region is only extracted again when its level or a
+ *  neighbor's changes.
+ * Where regions of different levels meet, the finer region reads the shared
+ *  face the way the coarsest region there does, interpolated, so both
+ *  surfaces cross the face in the same place.  The finer surface's vertices on
+ *  the face are then moved onto the coarser surface's edges there, which
+ *  closes the seam.  The seam is left with T-junctions, which don't show
+ *  once rendered.  This relies on the vertices being interpolated, since
+ *  then the surfaces cross each coarse cube edge at the same point, so the
+ *  regions are always extracted that way (except for an EQUAL comparitor,
+ *  which can't be, and leaves small gaps).
+ * An update holds the generator's lock only while it swaps in the new
+ *  surface, so a reader that holds the lock, e.g. to read the vertices and
+ *  indices of the same surface, never waits on the regions being extracted.
+ *  Updates run one at a time; updateAsync gives up on the one in flight.
+ * Surfaces have no vertex colors.  In an indexed mesh the vertices are
+ *  welded within each region only.  The pyramid is taken from the data
+ *  matrix when the generator is created, so a generator doesn't see later
+ *  changes to the matrix's data.
+**/
+public class IsoSurfaceLodGenerator implements IsoConstInterface,
+                                               IsoDataMatConstInterface,
+                                               IsoSurfaceGeneratorInterface
+{
+
+  /** The default edge length, in cells, of a region. **/
+  public static final int DEFAULT_REGION_SIZE = 32;
+
+  /** The data matrix that this class uses to build the surface. **/
+  private final IsoSurfaceDataMatrix dataMatrix;
+
+  /** The data matrix at each level of detail. **/
+  private final IsoSurfaceResolutionPyramid pyramid;
+
+  /** The comparitor to use against the lower threshold. **/
+  private final byte lowOp;
+
+  /** The lower threshold that data points are compared to. **/
+  private final double lowThres;
+
+  /** The comparitor to use against the upper threshold. **/
+  private final byte highOp;
+
+  /** The upper threshold that data points are compared to. **/
+  private final double highThres;
+
+  /** The options controlling how the surface is extracted. **/
+  private final IsoSurfaceExtractionOptions options;
+
+  /**
+   * The options each region is extracted with: serially, since the regions
+   *  themselves run in parallel, without the indexes of the data matrix,
+   *  which don't describe the regions, and always interpolated.
+  **/
+  private final IsoSurfaceExtractionOptions regionOptions;
+
+  /** The edge length, in cells, of a region. **/
+  private final int regionSize;
+
+  /** The distance from the eye within which regions get full detail. **/
+  private final double detailDistance;
+
+  /** The coarsest level a region is extracted at. **/
+  private final int maxLevel;
+
+  /** The number of cells along the x, y, and z axes. **/
+  private final int[] cellDims;
+
+  /** The number of regions along the x, y, and z axes. **/
+  private final int[] regionCounts;
+
+  /**
+   * The level of each region, x fastest, or -1 before the first update.
+   *  These are the levels being extracted while an update runs.
+  **/
+  private int[] levels;
+
+  /** The level of each region in the current surface, x fastest. **/
+  private int[] surfaceLevels;
+
+  /** The surface of each region, x fastest. **/
+  private final Region[] regions;
+
+  /**
+   * The packed array of vertices for the geometry, x,y,z interleaved.  Null
+   *  before the first update.
+  **/
+  private float[] vertexBuf;
+
+  /** The packed array of normals for the geometry, x,y,z interleaved. **/
+  private float[] normalBuf;
+
+  /**
+   * The vertex indices of the triangles, three per triangle, when the
+   *  surface is extracted as an indexed mesh.  Null otherwise.
+  **/
+  private int[] indexBuf;
+
+  /**
+   * The array of vertices for the geometry.  Derived from vertexBuf the
+   *  first time it's asked for.
+  **/
+  private Vector3d[] vertexArr;
+
+  /**
+   * The array of normals for the geometry.  Derived from normalBuf the first
+   *  time it's asked for.
+  **/
+  private Vector3f[] normalArr;
+
+  /** The number of triangles of the surface. **/
+  private int triCnt = 0;
+
+  /** The number of regions the last update that changed anything extracted. **/
+  private int extractedCnt = 0;
+
+  /** The lock that runs updates one at a time. **/
+  private final Object updateLock = new Object();
+
+  /** The future of the latest updateAsync, null before the first. **/
+  private CompletableFuture<Boolean> pending;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor takes a single threshold.  Nothing is extracted until
+   *  the first update.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _op A byte comparitor that compares matrix values against the
+   *  specified threshold.  Can be of the values EQUAL, LESS_THAN, LESS_THAN_EQ,
+   *  GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _threshold The double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.
+   * @param _detailDistance The distance from the eye, in the units of the
+   *  vertices, within which the surface is extracted at full detail.
+  **/
+  public IsoSurfaceLodGenerator(final IsoSurfaceDataMatrix _dataMatrix,
+                                final byte _op, final double _threshold,
+                                final IsoSurfaceExtractionOptions _options,
+                                final double _detailDistance)
+  {
+    this(_dataMatrix, _op, _threshold, _op, _threshold, _options,
+         DEFAULT_REGION_SIZE, _detailDistance);
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor takes both thresholds and the region size.  Nothing is
+   *  extracted until the first update.
+   * @param _dataMatrix An IsoSurfaceDataMatrix subclass instance to use as the
+   *  data source to generate the isosurface.
+   * @param _lowOp A byte comparitor that compares matrix values against the
+   *  specified lower threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _lowThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _highOp A byte comparitor that compares matrix values against the
+   *  specified higher threshold.  Can be of the values EQUAL, LESS_THAN,
+   *  LESS_THAN_EQ, GREATER_THAN, or GREATER_THAN_EQ.
+   * @param _highThres A double value that the matrix values are compared to
+   *  to determine if they are considered part of the isosurface.
+   * @param _options The IsoSurfaceExtractionOptions to extract with.  The
+   *  thread count and executor run the regions; the indexed and gradient
+   *  normal settings apply to each region.  Regions are always
+   *  interpolated.
+   * @param _regionSize The edge length, in cells, of a region.  Must be a
+   *  power of two, and limits the coarsest level to log2(_regionSize).
+   * @param _detailDistance The distance from the eye, in the units of the
+   *  vertices, within which the surface is extracted at full detail.
+  **/
+  public IsoSurfaceLodGenerator(final IsoSurfaceDataMatrix _dataMatrix,
+                                final byte _lowOp, final double _lowThres,
+                                final byte _highOp, final double _highThres,
+                                final IsoSurfaceExtractionOptions _options,
+                                final int _regionSize,
+                                final double _detailDistance)
+  {
+    if(_regionSize < 1 || Integer.bitCount(_regionSize) != 1)
+      throw new IllegalArgumentException("Region size must be a power of two: "
+                                         + _regionSize);
+    dataMatrix = _dataMatrix;
+    lowOp = _lowOp;
+    lowThres = _lowThres;
+    highOp = _highOp;
+    highThres = _highThres;
+    options = _options;
+    regionSize = _regionSize;
+    detailDistance = _detailDistance;
+
+    regionOptions = new IsoSurfaceExtractionOptions(1);
+    regionOptions.setBlockSkipping(false);
+    regionOptions.setSpanSpaceIndexing(false);
+    regionOptions.setIndexed(_options.isIndexed());
+    regionOptions.setInterpolated(true);
+    regionOptions.setGradientNormals(_options.isGradientNormals());
+
+    pyramid = _dataMatrix.getResolutionPyramid();
+    maxLevel = Math.min(pyramid.getLevelCount() - 1,
+                        Integer.numberOfTrailingZeros(_regionSize));
+    cellDims = new int[] { Math.max(1, _dataMatrix.getXMaxDim() - 1),
+                           Math.max(1, _dataMatrix.getYMaxDim() - 1),
+                           Math.max(1, _dataMatrix.getZMaxDim() - 1) };
+    regionCounts = new int[3];
+    for(int a = 0; a < 3; a++)
+      regionCounts[a] = (cellDims[a] + _regionSize - 1) / _regionSize;
+    final int count = regionCounts[X] * regionCounts[Y] * regionCounts[Z];
+    levels = new int[count];
+    Arrays.fill(levels, -1);
+    surfaceLevels = levels;
+    regions = new Region[count];
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< update >----------------------------------------------------------//
+
+  /**
+   * This method picks the level of every region for an eye position and, if
+   *  any changed, extracts the regions that need it and rebuilds the surface.
+   * @param _eye The position of the eye, in the units of the vertices.
+   * @return true if the surface changed, false if it is the same as before.
+  **/
+  public boolean update(final Vector3d _eye) {
+    return(update(_eye, null));
+  } // end update
+
+  //----< updateAsync >-----------------------------------------------------//
+
+  /**
+   * This method updates the surface for an eye position without blocking
+   *  the calling thread, e.g. the JavaFX Application Thread.  The update
+   *  runs on the executor from the options, or on the common ForkJoinPool,
+   *  and the returned future completes with what update returns.
+   * Each call cancels the future of the call before it, so when the eye
+   *  moves again the update in flight gives up, checking before each region,
+   *  and the surface stays the one it had.  Cancelling the returned future
+   *  works the same way.
+   * @param _eye The position of the eye, in the units of the vertices.
+   * @return A future that completes with true if the surface changed.
+  **/
+  public CompletableFuture<Boolean> updateAsync(final Vector3d _eye) {
+    final CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
+    final CompletableFuture<Boolean> previous;
+    synchronized(this) {
+      previous = pending;
+      pending = result;
+    } // end synchronized
+    if(previous != null)
+      previous.cancel(false);
+
+    final Executor executor = (options.getExecutor() != null)
+                              ? options.getExecutor()
+                              : ForkJoinPool.commonPool();
+    executor.execute(() -> {
+      try {
+        if(result.isDone())
+          return;
+        result.complete(update(_eye, result));
+      } catch(final RuntimeException | Error e) {
+        result.completeExceptionally(e);
+      } // end try
+    });
+    return(result);
+  } // end updateAsync
+
+  //----< update >----------------------------------------------------------//
+
+  /**
+   * This method runs an update, giving up if its future is done.  A region
+   *  already extracted for the new levels is kept for the next update, whose
+   *  keys still match it.
+   * @param _eye The position of the eye, in the units of the vertices.
+   * @param _cancellation The future of an asynchronous update, or null.
+   * @return true if the surface changed, false if it is the same as before.
+   * @throws CancellationException If the future is done.
+  **/
+  private boolean update(final Vector3d _eye,
+                         final CompletableFuture<?> _cancellation)
+  {
+    synchronized(updateLock) {
+      checkCancelled(_cancellation);
+      final int[] newLevels = new int[levels.length];
+      for(int i = 0; i < newLevels.length; i++)
+        newLevels[i] = selectLevel(i, _eye);
+      if(Arrays.equals(newLevels, levels))
+        return(false);
+      final int[] oldLevels = levels;
+      levels = newLevels;
+
+      final int[] stale = new int[regions.length];
+      int staleCnt = 0;
+      for(int i = 0; i < regions.length; i++)
+        if(regions[i] == null || !Arrays.equals(regions[i].key, calcKey(i)))
+          stale[staleCnt++] = i;
+      try {
+        extractRegions(Arrays.copyOf(stale, staleCnt), _cancellation);
+      } catch(final CancellationException e) {
+        levels = oldLevels;
+        throw e;
+      } // end try
+      stitch(staleCnt);
+      return(true);
+    } // end synchronized
+  } // end update
+
+  //----< checkCancelled >--------------------------------------------------//
+
+  /**
+   * This method stops an asynchronous update whose future is done.
+   * @param _cancellation The future of the update, or null.
+   * @throws CancellationException If the update was cancelled.
+  **/
+  private static void checkCancelled(final CompletableFuture<?> _cancellation)
+    throws CancellationException
+  {
+    if(_cancellation != null && _cancellation.isDone())
+      throw new CancellationException("Update given up");
+  } // end checkCancelled
+
+  //----< selectLevel >-----------------------------------------------------//
+
+  /**
+   * This method picks the level of one region from the distance between the
+   *  eye and the nearest point of the region.
+   * @param _region The index of the region.
+   * @param _eye The position of the eye.
+   * @return The level, 0 within the detail distance and one more for each
+   *  doubling of the distance past it, up to maxLevel.
+  **/
+  private int selectLevel(final int _region, final Vector3d _eye) {
+    final int[] r = regionCoords(_region);
+    final double[] eye = { _eye.x, _eye.y, _eye.z };
+    double distSq = 0.0;
+    for(int a = 0; a < 3; a++) {
+      final int start = r[a] * regionSize;
+      final double p0 = planePosition(a, start);
+      final double p1 = planePosition(a, Math.min(start + regionSize,
+                                                  cellDims[a]));
+      final double gap = Math.max(0.0, Math.max(Math.min(p0, p1) - eye[a],
+                                                eye[a] - Math.max(p0, p1)));
+      distSq += gap * gap;
+    } // end for
+
+    final double dist = Math.sqrt(distSq);
+    if(dist <= detailDistance)
+      return(0);
+    final int level = (int)Math.ceil(Math.log(dist / detailDistance)
+                                     / Math.log(2.0));
+    return(Math.min(level, maxLevel));
+  } // end selectLevel
+
+  //----< calcKey >---------------------------------------------------------//
+
+  /**
+   * This method works out what a region's surface depends on: its own level,
+   *  and the level of each neighbor that is coarser, since those are read on
+   *  the region's boundary.
+   * @param _region The index of the region.
+   * @return The key, 27 levels with the region's in the middle, -1 for
+   *  missing or finer neighbors.
+  **/
+  private int[] calcKey(final int _region) {
+    final int[] r = regionCoords(_region);
+    final int level = levels[_region];
+    final int[] key = new int[27];
+    int k = 0;
+    for(int dz = -1; dz <= 1; dz++)
+      for(int dy = -1; dy <= 1; dy++)
+        for(int dx = -1; dx <= 1; dx++) {
+          final int n = regionIndex(r[X] + dx, r[Y] + dy, r[Z] + dz);
+          if(n == _region)
+            key[k++] = level;
+          else
+            key[k++] = (n < 0 || levels[n] <= level) ? -1 : levels[n];
+        } // end for
+    return(key);
+  } // end calcKey
+
+  //----< extractRegions >--------------------------------------------------//
+
+  /**
+   * This method extracts regions at their current levels, a task per
+   *  region, see IsoSurfaceExtractionOptions.runTasks.
+   * @param _stale The indices of the regions to extract.
+   * @param _cancellation The future of an asynchronous update, or null.
+   * @throws CancellationException If the future is done before a region.
+  **/
+  private void extractRegions(final int[] _stale,
+                              final CompletableFuture<?> _cancellation)
+  {
+    options.runTasks(_stale.length, i -> {
+      checkCancelled(_cancellation);
+      regions[_stale[i]] = extractRegion(_stale[i]);
+    });
+  } // end extractRegions
+
+  //----< extractRegion >---------------------------------------------------//
+
+  /**
+   * This method extracts one region at its current level, and moves its
+   *  vertices from the region's frame into the data matrix's.  Vertices on
+   *  a face of the region are put exactly on the face's plane, so the
+   *  vertices two regions of the same level share match.
+   * @param _region The index of the region.
+   * @return The region's surface.
+  **/
+  private Region extractRegion(final int _region) {
+    final int[] r = regionCoords(_region);
+    final int level = levels[_region];
+    final int step = 1 << level;
+    final int[] origin = new int[3];
+    final int[] cells = new int[3];
+    for(int a = 0; a < 3; a++) {
+      origin[a] = r[a] * regionSize;
+      cells[a] = (Math.min(regionSize, cellDims[a] - origin[a]) + step - 1)
+                 / step;
+    } // end for
+
+    final IsoSurfaceRegionDataMatrix view =
+      new IsoSurfaceRegionDataMatrix(this, pyramid, level, origin, cells);
+    final IsoSurfaceGenerator gen =
+      new IsoSurfaceGenerator(view, null, lowOp, lowThres, highOp, highThres,
+                              regionOptions);
+
+    final Region reg = new Region();
+    reg.key = calcKey(_region);
+    reg.level = level;
+    reg.triCnt = gen.getPolygonCount();
+    reg.indices = gen.getIndexArray();
+    final int vertCnt = gen.getVertexCount();
+    reg.vertices = new float[vertCnt * 3];
+    reg.normals = new float[vertCnt * 3];
+    reg.faces = new byte[vertCnt];
+    if(vertCnt == 0)
+      return(reg);
+    System.arraycopy(gen.getPackedNormalArray(), 0, reg.normals, 0,
+                     vertCnt * 3);
+
+    // The view's vertices run from 0 to cells * scale along x and y, and
+    //  from 0 to -cells * scale along z, as the generator computes them.
+    final float[] local = gen.getPackedVertexArray();
+    final float[] far = { cells[X] * view.getXScale(),
+                          cells[Y] * view.getYScale(),
+                          -(cells[Z] * view.getZScale()) };
+    final float[][] planes = new float[3][2];
+    for(int a = 0; a < 3; a++) {
+      planes[a][0] = planePosition(a, origin[a]);
+      planes[a][1] = planePosition(a, origin[a] + cells[a] * step);
+    } // end for
+    for(int v = 0; v < vertCnt; v++) {
+      int mask = 0;
+      for(int a = 0; a < 3; a++) {
+        final float p = local[v*3 + a];
+        if(p == 0.0f) {
+          mask |= 1 << (a * 2);
+          reg.vertices[v*3 + a] = planes[a][0];
+        } else if(p == far[a]) {
+          mask |= 1 << (a * 2 + 1);
+          reg.vertices[v*3 + a] = planes[a][1];
+        } else {
+          reg.vertices[v*3 + a] = p + planes[a][0];
+        } // end if
+      } // end for
+      reg.faces[v] = (byte)mask;
+    } // end for
+    return(reg);
+  } // end extractRegion
+
+  //----< stitch >----------------------------------------------------------//
+
+  /**
+   * This method gathers the regions' surfaces into the packed arrays and
+   *  closes the seams between regions of different levels.  The regions are
+   *  visited coarsest first.  Each vertex on a face of a region that meets a
+   *  coarser region there is moved to the nearest point of the coarser
+   *  surface's edges on that face, which by then are final.  The new surface
+   *  is swapped in under the generator's lock.
+   * @param _extracted The number of regions the update extracted.
+  **/
+  private void stitch(final int _extracted) {
+    int vertCnt = 0;
+    int tris = 0;
+    final int[] starts = new int[regions.length];
+    for(int i = 0; i < regions.length; i++) {
+      starts[i] = vertCnt;
+      vertCnt += regions[i].faces.length;
+      tris += regions[i].triCnt;
+    } // end for
+
+    final float[] verts = new float[vertCnt * 3];
+    final float[] norms = new float[vertCnt * 3];
+    final int[] indices = options.isIndexed() ? new int[tris * 3] : null;
+    int idx = 0;
+    for(int i = 0; i < regions.length; i++) {
+      final Region reg = regions[i];
+      System.arraycopy(reg.vertices, 0, verts, starts[i] * 3,
+                       reg.vertices.length);
+      System.arraycopy(reg.normals, 0, norms, starts[i] * 3,
+                       reg.normals.length);
+      if(indices != null && reg.indices != null) {
+        for(int k = 0; k < reg.indices.length; k++)
+          indices[idx++] = reg.indices[k] + starts[i];
+      } // end if
+    } // end for
+
+    final float[][] segments = new float[regions.length][];
+    final int[][] segmentFaces = new int[regions.length][];
+    for(int level = maxLevel; level >= 0; level--) {
+      for(int i = 0; i < regions.length; i++) {
+        if(levels[i] != level)
+          continue;
+        if(level < maxLevel)
+          snapRegion(i, starts[i], verts, segments, segmentFaces);
+        collectSegments(i, starts[i], verts, segments, segmentFaces);
+      } // end for
+    } // end for
+
+    synchronized(this) {
+      vertexBuf = verts;
+      normalBuf = norms;
+      indexBuf = indices;
+      vertexArr = null;
+      normalArr = null;
+      triCnt = tris;
+      surfaceLevels = levels;
+      extractedCnt = _extracted;
+    } // end synchronized
+  } // end stitch
+
+  //----< snapRegion >------------------------------------------------------//
+
+  /**
+   * This method moves the vertices on a region's faces onto the edges of
+   *  the coarser regions across those faces.  A vertex on an edge or corner
+   *  of the region is also matched against the regions diagonally across
+   *  it, using only their edges that lie on every face the vertex does.
+   * @param _region The index of the region.
+   * @param _start The index of the region's first vertex in _verts.
+   * @param _verts The packed vertices of the whole surface.
+   * @param _segments The boundary edges of the regions done so far.
+   * @param _segmentFaces The faces each of those edges lies on.
+  **/
+  private void snapRegion(final int _region, final int _start,
+                          final float[] _verts, final float[][] _segments,
+                          final int[][] _segmentFaces)
+  {
+    final Region reg = regions[_region];
+    final int[] r = regionCoords(_region);
+    final float[] point = new float[3];
+    final float[] best = new float[3];
+    for(int v = 0; v < reg.faces.length; v++) {
+      final int mask = reg.faces[v];
+      if(mask == 0)
+        continue;
+      final int base = (_start + v) * 3;
+      point[X] = _verts[base];
+      point[Y] = _verts[base+1];
+      point[Z] = _verts[base+2];
+      double bestDist = Double.MAX_VALUE;
+      for(int dz = -1; dz <= 1; dz++) {
+        if(!isAcross(mask, Z, dz))
+          continue;
+        for(int dy = -1; dy <= 1; dy++) {
+          if(!isAcross(mask, Y, dy))
+            continue;
+          for(int dx = -1; dx <= 1; dx++) {
+            if(!isAcross(mask, X, dx) || (dx == 0 && dy == 0 && dz == 0))
+              continue;
+            final int n = regionIndex(r[X] + dx, r[Y] + dy, r[Z] + dz);
+            if(n < 0 || levels[n] <= reg.level || _segments[n] == null)
+              continue;
+            final int shared = sharedFaces(dx, dy, dz);
+            bestDist = nearestOnSegments(point, _segments[n], _segmentFaces[n],
+                                         shared, best, bestDist);
+          } // end for
+        } // end for
+      } // end for
+      if(bestDist < Double.MAX_VALUE) {
+        _verts[base] = best[X];
+        _verts[base+1] = best[Y];
+        _verts[base+2] = best[Z];
+      } // end if
+    } // end for
+  } // end snapRegion
+
+  //----< isAcross >--------------------------------------------------------//
+
+  /**
+   * This method tells whether a step to a neighboring region along an axis
+   *  crosses a face the vertex is on.
+   * @param _mask The faces of the region the vertex is on.
+   * @param _axis The axis.
+   * @param _d The step along the axis: -1, 0, or 1.
+   * @return true for no step, or a step through a face the vertex is on.
+  **/
+  private static boolean isAcross(final int _mask, final int _axis,
+                                  final int _d)
+  {
+    if(_d == 0)
+      return(true);
+    return((_mask & (1 << (_axis * 2 + (_d > 0 ? 1 : 0)))) != 0);
+  } // end isAcross
+
+  //----< sharedFaces >-----------------------------------------------------//
+
+  /**
+   * This method works out which faces of a neighboring region the region
+   *  touches it along.
+   * @param _dx The step to the neighbor along x: -1, 0, or 1.
+   * @param _dy The step to the neighbor along y: -1, 0, or 1.
+   * @param _dz The step to the neighbor along z: -1, 0, or 1.
+   * @return The neighbor's faces, as a face mask.
+  **/
+  private static int sharedFaces(final int _dx, final int _dy, final int _dz) {
+    final int[] d = { _dx, _dy, _dz };
+    int shared = 0;
+    for(int a = 0; a < 3; a++)
+      if(d[a] != 0)
+        shared |= 1 << (a * 2 + (d[a] > 0 ? 0 : 1));
+    return(shared);
+  } // end sharedFaces
+
+  //----< nearestOnSegments >-----------------------------------------------//
+
+  /**
+   * This method finds the nearest point to a vertex on the edges of a
+   *  region that lie on all of the given faces.
+   * @param _point The vertex.
+   * @param _segments The region's boundary edges, six floats each.
+   * @param _faces The faces each edge lies on.
+   * @param _shared The faces an edge must lie on to be used.
+   * @param _best Receives the nearest point, if it is nearer than _bestDist.
+   * @param _bestDist The squared distance of the nearest point so far.
+   * @return The squared distance of the nearest point, now.
+  **/
+  private static double nearestOnSegments(final float[] _point,
+                                          final float[] _segments,
+                                          final int[] _faces,
+                                          final int _shared,
+                                          final float[] _best,
+                                          double _bestDist)
+  {
+    for(int s = 0; s < _faces.length; s++) {
+      if((_faces[s] & _shared) != _shared)
+        continue;
+      final int i = s * 6;
+      final double ex = _segments[i+3] - _segments[i];
+      final double ey = _segments[i+4] - _segments[i+1];
+      final double ez = _segments[i+5] - _segments[i+2];
+      final double len = ex*ex + ey*ey + ez*ez;
+      double t = 0.0;
+      if(len > 0.0)
+        t = Math.max(0.0, Math.min(1.0, ((_point[X] - _segments[i]) * ex
+                                         + (_point[Y] - _segments[i+1]) * ey
+                                         + (_point[Z] - _segments[i+2]) * ez)
+                                        / len));
+      final double px = _segments[i] + t * ex;
+      final double py = _segments[i+1] + t * ey;
+      final double pz = _segments[i+2] + t * ez;
+      final double dist = (px - _point[X]) * (px - _point[X])
+                          + (py - _point[Y]) * (py - _point[Y])
+                          + (pz - _point[Z]) * (pz - _point[Z]);
+      if(dist < _bestDist) {
+        _bestDist = dist;
+        _best[X] = (float)px;
+        _best[Y] = (float)py;
+        _best[Z] = (float)pz;
+      } // end if
+    } // end for
+    return(_bestDist);
+  } // end nearestOnSegments
+
+  //----< collectSegments >-------------------------------------------------//
+
+  /**
+   * This method gathers the edges of a region's triangles that lie on the
+   *  region's faces, for the finer regions next to it to snap to.
+   * @param _region The index of the region.
+   * @param _start The index of the region's first vertex in _verts.
+   * @param _verts The packed vertices of the whole surface.
+   * @param _segments Receives the region's edges, six floats each.
+   * @param _segmentFaces Receives the faces each edge lies on.
+  **/
+  private void collectSegments(final int _region, final int _start,
+                               final float[] _verts, final float[][] _segments,
+                               final int[][] _segmentFaces)
+  {
+    final Region reg = regions[_region];
+    final IsoFloatBuffer segs = new IsoFloatBuffer();
+    final IsoIntBuffer faces = new IsoIntBuffer();
+    for(int t = 0; t < reg.triCnt; t++) {
+      for(int e = 0; e < 3; e++) {
+        final int v0 = (reg.indices != null) ? reg.indices[t*3 + e] : t*3 + e;
+        final int v1 = (reg.indices != null) ? reg.indices[t*3 + (e+1) % 3]
+                                             : t*3 + (e+1) % 3;
+        final int shared = reg.faces[v0] & reg.faces[v1];
+        if(shared == 0)
+          continue;
+        final int p0 = (_start + v0) * 3;
+        final int p1 = (_start + v1) * 3;
+        segs.add(_verts[p0], _verts[p0+1], _verts[p0+2]);
+        segs.add(_verts[p1], _verts[p1+1], _verts[p1+2]);
+        faces.add(shared);
+      } // end for
+    } // end for
+    _segments[_region] = segs.toArray();
+    _segmentFaces[_region] = faces.toArray();
+  } // end collectSegments
+
+  //----< planePosition >---------------------------------------------------//
+
+  /**
+   * This method returns where a plane of samples of the data matrix lies,
+   *  the way IsoSurfaceGenerator places vertices.
+   * @param _axis The axis across the plane.
+   * @param _idx The index of the plane's samples along the axis.
+   * @return The position of the plane along the axis.
+  **/
+  private float planePosition(final int _axis, final int _idx) {
+    final Tuple3f cntrd = dataMatrix.getCentroid();
+    switch(_axis) {
+      case 0 :  return((_idx - cntrd.x) * dataMatrix.getXScale());
+      case 1 :  return((_idx - cntrd.y) * dataMatrix.getYScale());
+      default : return((cntrd.z - _idx) * dataMatrix.getZScale());
+    } // end switch
+  } // end planePosition
+
+  //----< regionCoords >----------------------------------------------------//
+
+  /**
+   * This method turns the index of a region into its position.
+   * @param _region The index of the region.
+   * @return The position of the region along x, y, and z, in regions.
+  **/
+  private int[] regionCoords(final int _region) {
+    return(new int[] { _region % regionCounts[X],
+                       (_region / regionCounts[X]) % regionCounts[Y],
+                       _region / (regionCounts[X] * regionCounts[Y]) });
+  } // end regionCoords
+
+  //----< regionIndex >-----------------------------------------------------//
+
+  /**
+   * This method turns the position of a region into its index.
+   * @param _rx The position of the region along x, in regions.
+   * @param _ry The position of the region along y, in regions.
+   * @param _rz The position of the region along z, in regions.
+   * @return The index of the region, or -1 past the end of the volume.
+  **/
+  private int regionIndex(final int _rx, final int _ry, final int _rz) {
+    if(_rx < 0 || _ry < 0 || _rz < 0 || _rx >= regionCounts[X]
+       || _ry >= regionCounts[Y] || _rz >= regionCounts[Z])
+      return(-1);
+    return((_rz * regionCounts[Y] + _ry) * regionCounts[X] + _rx);
+  } // end regionIndex
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getCoarsestLevel >------------------------------------------------//
+
+  /**
+   * This method returns the coarsest level of the regions a sample of the
+   *  data matrix belongs to.  A sample on the boundary between regions
+   *  belongs to all of them, up to eight.
+   * @param _x The x index of the sample.
+   * @param _y The y index of the sample.
+   * @param _z The z index of the sample.
+   * @return The coarsest level.
+  **/
+  int getCoarsestLevel(final int _x, final int _y, final int _z) {
+    final int[] p = { _x, _y, _z };
+    final int[] lo = new int[3];
+    final int[] hi = new int[3];
+    for(int a = 0; a < 3; a++) {
+      final int r = p[a] / regionSize;
+      hi[a] = Math.min(r, regionCounts[a] - 1);
+      lo[a] = (p[a] % regionSize == 0 && r > 0) ? Math.min(r - 1, hi[a])
+                                                 : hi[a];
+    } // end for
+
+    int coarsest = 0;
+    for(int rz = lo[Z]; rz <= hi[Z]; rz++)
+      for(int ry = lo[Y]; ry <= hi[Y]; ry++)
+        for(int rx = lo[X]; rx <= hi[X]; rx++)
+          coarsest = Math.max(coarsest, levels[regionIndex(rx, ry, rz)]);
+    return(coarsest);
+  } // end getCoarsestLevel
+
+  //----< getSeamValue >----------------------------------------------------//
+
+  /**
+   * This method reads a sample on a boundary between regions the way the
+   *  coarsest region there sees it.  A sample of that region's level is read
+   *  from the level, from the coarser regions beyond it when it is on their
+   *  boundary too.  A sample between them is interpolated from the ones
+   *  around it, as read that way, so every region sharing the boundary
+   *  reads the same values along it.
+   * @param _level The coarsest level of the regions the sample belongs to,
+   *  see getCoarsestLevel.
+   * @param _x The x index of the sample.
+   * @param _y The y index of the sample.
+   * @param _z The z index of the sample.
+   * @return The value of the sample.
+  **/
+  double getSeamValue(final int _level,
+                      final int _x, final int _y, final int _z)
+  {
+    final int step = 1 << _level;
+    final int[] p = { _x, _y, _z };
+    if(_x % step == 0 && _y % step == 0 && _z % step == 0)
+      return(pyramid.getValue(_level, _x, _y, _z));
+
+    double sum = 0.0;
+    for(int corner = 0; corner < 8; corner++) {
+      final int[] c = new int[3];
+      double weight = 1.0;
+      for(int a = 0; a < 3; a++) {
+        final int off = p[a] % step;
+        final boolean high = ((corner >> a) & 1) != 0;
+        c[a] = p[a] - off + (high ? step : 0);
+        weight *= high ? off / (double)step : 1.0 - off / (double)step;
+      } // end for
+      if(weight == 0.0)
+        continue;
+      sum += weight * getSeamValue(getCoarsestLevel(c[X], c[Y], c[Z]),
+                                   c[X], c[Y], c[Z]);
+    } // end for
+    return(sum);
+  } // end getSeamValue
+
+  //----< getRegionLevel >--------------------------------------------------//
+
+  /**
+   * This method returns the level of a region in the current surface.
+   * @param _rx The position of the region along x, in regions.
+   * @param _ry The position of the region along y, in regions.
+   * @param _rz The position of the region along z, in regions.
+   * @return The level, or -1 before the first update.
+  **/
+  public synchronized int getRegionLevel(final int _rx, final int _ry,
+                                         final int _rz)
+  {
+    return(surfaceLevels[regionIndex(_rx, _ry, _rz)]);
+  } // end getRegionLevel
+
+  //----< getRegionCounts >-------------------------------------------------//
+
+  /**
+   * This method returns the number of regions along each axis.
+   * @return An int array of the region counts along x, y, and z.
+  **/
+  public int[] getRegionCounts() {
+    return(regionCounts.clone());
+  } // end getRegionCounts
+
+  //----< getExtractedRegionCount >-----------------------------------------//
+
+  /**
+   * This method returns how many regions the last update that changed the
+   *  surface extracted, the others having been kept from before.
+   * @return An integer containing the number of regions extracted.
+  **/
+  public synchronized int getExtractedRegionCount() {
+    return(extractedCnt);
+  } // end getExtractedRegionCount
+
+  //----< getDataMatrix >---------------------------------------------------//
+
+  /**
+   * This method allows access to the data matrix that the generator used to
+   *  calculate the isosurface.
+   * @return An IsoSurfaceDataMatrix subclass instance that was used in the
+   *  generation process.
+  **/
+  public IsoSurfaceDataMatrix getDataMatrix() {
+    return(dataMatrix);
+  } // end getDataMatrix
+
+  //----< getPolygonCount >-------------------------------------------------//
+
+  /**
+   * This method will return the number of polygons in the isosurface.
+   * @return An integer containing the polygon count.
+  **/
+  @Override
+public synchronized int getPolygonCount() {
+    return(triCnt);
+  } // end getPolygonCount
+
+  //----< getVertexArray >--------------------------------------------------//
+
+  /**
+   * This method will return the array of vertices that comprises the
+   *  isosurface.
+   * @return An array of Vector3d objects, one object for each vertex in the
+   *  isosurface.
+  **/
+  @Override
+public synchronized Vector3d[] getVertexArray() {
+    if(vertexArr == null && vertexBuf != null) {
+      vertexArr = new Vector3d[vertexBuf.length / 3];
+      for(int i = 0; i < vertexArr.length; i++)
+        vertexArr[i] = new Vector3d(vertexBuf[i*3], vertexBuf[i*3+1],
+                                    vertexBuf[i*3+2]);
+    } // end if
+    return(vertexArr);
+  } // end getVertexArray
+
+  //----< getPackedVertexArray >--------------------------------------------//
+
+  /**
+   * This method will return the vertices that comprise the isosurface as one
+   *  packed float array, x,y,z interleaved.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  @Override
+public synchronized float[] getPackedVertexArray() {
+    return(vertexBuf);
+  } // end getPackedVertexArray
+
+  //----< getIndexArray >---------------------------------------------------//
+
+  /**
+   * This method will return the vertex indices of the triangles when the
+   *  surface was extracted as an indexed mesh, three per triangle.
+   * @return An int array of 3 * getPolygonCount() indices, or null when
+   *  every triangle has three vertices of its own.
+  **/
+  @Override
+public synchronized int[] getIndexArray() {
+    return(indexBuf);
+  } // end getIndexArray
+
+  //----< getVertexCount >--------------------------------------------------//
+
+  /**
+   * This method will return the number of vertices in the isosurface.
+   * @return An integer containing the vertex count.
+  **/
+  @Override
+public synchronized int getVertexCount() {
+    return(vertexBuf == null ? 0 : vertexBuf.length / 3);
+  } // end getVertexCount
+
+  //----< getNormalArray >--------------------------------------------------//
+
+  /**
+   * This method will return the array of normals for the isosurface.  This
+   *  array's indices correspond to the equivalent indices in the vertex array.
+   * @return An array of Vector3f objects, one object for each vertex in the
+   *  isosurface.
+  **/
+  @Override
+public synchronized Vector3f[] getNormalArray() {
+    if(normalArr == null && normalBuf != null) {
+      normalArr = new Vector3f[normalBuf.length / 3];
+      for(int i = 0; i < normalArr.length; i++)
+        normalArr[i] = new Vector3f(normalBuf[i*3], normalBuf[i*3+1],
+                                    normalBuf[i*3+2]);
+    } // end if
+    return(normalArr);
+  } // end getNormalArray
+
+  //----< getPackedNormalArray >--------------------------------------------//
+
+  /**
+   * This method will return the normals of the isosurface as one packed
+   *  float array, x,y,z interleaved, one normal for each vertex in the packed
+   *  vertex array.
+   * @return A float array of 3 * getVertexCount() floats.
+  **/
+  @Override
+public synchronized float[] getPackedNormalArray() {
+    return(normalBuf);
+  } // end getPackedNormalArray
+
+  //----< getColorerType >--------------------------------------------------//
+
+  /**
+   * This method will return the type of colorer used for the per-vertex
+   *  coloring, which for this generator is always none.
+   * @return IsoSurfaceVertexColorer.NONE.
+  **/
+  @Override
+public byte getColorerType() {
+    return(IsoSurfaceVertexColorer.NONE);
+  } // end getColorerType
+
+  //----< getVertexColorArray >---------------------------------------------//
+
+  /**
+   * This method would return the unlit colors of the vertices, which this
+   *  generator doesn't compute.
+   * @return null.
+  **/
+  @Override
+public float[][] getVertexColorArray() {
+    return(null);
+  } // end getVertexColorArray
+
+  //----< getVertexMaterialArray >------------------------------------------//
+
+  /**
+   * This method would return the lit colors of the vertices, which this
+   *  generator doesn't compute.
+   * @return null.
+  **/
+  @Override
+public float[][] getVertexMaterialArray() {
+    return(null);
+  } // end getVertexMaterialArray
+
+  //----< isTranslucencyEnabled >-------------------------------------------//
+
+  /**
+   * This method will indicate whether of not the surface is translucent,
+   *  which without a colorer it never is.
+   * @return false.
+  **/
+  @Override
+public boolean isTranslucencyEnabled() {
+    return(false);
+  } // end isTranslucencyEnabled
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Region
+  ////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * The surface of one region, in the frame of the data matrix, before its
+   *  seams are closed.
+  **/
+  private static final class Region {
+
+    /** What the surface was extracted for, see calcKey. **/
+    int[] key;
+
+    /** The level the surface was extracted at. **/
+    int level;
+
+    /** The number of triangles. **/
+    int triCnt;
+
+    /** The packed vertices. **/
+    float[] vertices;
+
+    /** The packed normals. **/
+    float[] normals;
+
+    /** The vertex indices of the triangles, or null for a triangle soup. **/
+    int[] indices;
+
+    /**
+     * The faces of the region each vertex lies on: bit 2a for the first
+     *  face across axis a, bit 2a+1 for the last.
+    **/
+    byte[] faces;
+
+  } // end class Region
+
+} // end class IsoSurfaceLodGenerator
@@ -0,0 +1,501 @@
+package IsosurfaceFX;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * This implementation of the IsoSurfaceDataMatrix reads its points straight
+ *  out of a raw volume file that is mapped read-only into memory.  Nothing is
+ *  copied onto the heap, so opening a volume is nearly instant and a volume
+ *  may be larger than the heap (or larger than 2 GB); the operating system
+ *  pages the file in as the points are read.
+ * The raw file is a header of some number of bytes, which is skipped, and
+ *  then the points as unsigned 8 or 16 bit integers or as 32 or 64 bit
+ *  floats, in either byte order.  The order of the axes in the file is given
+ *  fastest varying first, "xyz" being the usual layout of a raw volume.  The
+ *  slowest varying axis becomes the independent axis of the matrix, so an
+ *  IsoSurfaceGenerator reads the file front to back.
+ * The matrix is read-only: there is no plane data to set, and the major and
+ *  minor axis offsets are not applied to the points.  Close the matrix to
+ *  unmap the file; reading a point after that throws an
+ *  IllegalStateException.
+ *
+ * The open method reads the layout from a properties file next to the raw
+ *  file, for example:
+ * <pre>
+ *   file   = head.raw
+ *   dims   = 512 512 256
+ *   type   = u16
+ *   endian = little
+ *   scales = 1.0 1.0 2.0
+ * </pre>
+ *  where only dims and type are required.  See open for the other keys.
+**/
+public final class IsoSurfaceMappedDataMatrix extends IsoSurfaceDataMatrix
+  implements AutoCloseable
+{
+
+  // Inherits plane
+  // Inherits xMaxDim, yMaxDim, zMaxDim
+  // Inherits xScale, yScale, zScale
+  // Inherits majorAxisOffset, minorAxisOffset
+
+  /** The element type of unsigned 8 bit integer points. **/
+  public static final byte UINT8 = 0;
+
+  /** The element type of unsigned 16 bit integer points. **/
+  public static final byte UINT16 = 1;
+
+  /** The element type of 32 bit float points. **/
+  public static final byte FLOAT32 = 2;
+
+  /** The element type of 64 bit float points. **/
+  public static final byte FLOAT64 = 3;
+
+  /** The element type of the points, one of UINT8 to FLOAT64. **/
+  private final byte type;
+
+  /** The byte order of the points in the file. **/
+  private final ByteOrder byteOrder;
+
+  /** The value of every point outside the matrix. **/
+  private final double leastValue;
+
+  /** The distance in points between neighbors along the x-axis. **/
+  private final long xStride;
+  /** The distance in points between neighbors along the y-axis. **/
+  private final long yStride;
+  /** The distance in points between neighbors along the z-axis. **/
+  private final long zStride;
+
+  /** The arena that owns the mapping, closed by close. **/
+  private final Arena arena;
+
+  /** The mapped points, starting after the file's header. **/
+  private final MemorySegment segment;
+
+  /** The layout of a UINT16 point in the file's byte order. **/
+  private final ValueLayout.OfShort shortLayout;
+  /** The layout of a FLOAT32 point in the file's byte order. **/
+  private final ValueLayout.OfFloat floatLayout;
+  /** The layout of a FLOAT64 point in the file's byte order. **/
+  private final ValueLayout.OfDouble doubleLayout;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor maps a raw volume file.
+   * @param _file The raw file.
+   * @param _headerBytes The number of bytes to skip at the start of the file.
+   * @param _type The element type, one of UINT8, UINT16, FLOAT32, FLOAT64.
+   * @param _byteOrder The byte order of the points in the file.
+   * @param _axisOrder The axes of the file, fastest varying first: some order
+   *  of the letters x, y and z, such as "xyz".
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.
+   * @param _leastValue The value of every point outside the matrix.
+   * @throws IOException If the file can't be opened or mapped, or is too
+   *  short for the dimensions.
+   * @throws IllegalArgumentException If the type, axis order or dimensions
+   *  are invalid.
+  **/
+  public IsoSurfaceMappedDataMatrix(final Path _file, final long _headerBytes,
+                                    final byte _type, final ByteOrder _byteOrder,
+                                    final String _axisOrder,
+                                    final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                    final float _xScale, final float _yScale, final float _zScale,
+                                    final Tuple3f _centroidPercentages,
+                                    final double _leastValue)
+    throws IOException, IllegalArgumentException
+  {
+    super(slowestPlane(_axisOrder), _xMaxDim, _yMaxDim, _zMaxDim,
+          _xScale, _yScale, _zScale, _centroidPercentages);
+
+    if(_type < UINT8 || _type > FLOAT64)
+      throw new IllegalArgumentException("Unknown element type " + _type);
+    if(_xMaxDim < 0 || _yMaxDim < 0 || _zMaxDim < 0)
+      throw new IllegalArgumentException("Negative matrix dimension");
+    if(_headerBytes < 0)
+      throw new IllegalArgumentException("Negative header size");
+
+    type = _type;
+    byteOrder = _byteOrder;
+    leastValue = _leastValue;
+    shortLayout = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(_byteOrder);
+    floatLayout = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(_byteOrder);
+    doubleLayout = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(_byteOrder);
+
+      // The first axis of the order is the fastest varying.
+    final long[] strides = new long[3];
+    final int[] dims = { _xMaxDim, _yMaxDim, _zMaxDim };
+    long stride = 1;
+    for(int i = 0; i < 3; i++) {
+      final int axis = Character.toLowerCase(_axisOrder.charAt(i)) - 'x';
+      strides[axis] = stride;
+      stride *= dims[axis];
+    } // end for
+    xStride = strides[0];
+    yStride = strides[1];
+    zStride = strides[2];
+
+    final IsoSurfaceVolumeLoadEvent event = new IsoSurfaceVolumeLoadEvent();
+    event.begin();
+    final long bytes = stride * getElementSize(_type);
+    try(FileChannel channel = FileChannel.open(_file, StandardOpenOption.READ)) {
+      if(channel.size() < _headerBytes + bytes)
+        throw new IOException(_file + " is " + channel.size() + " bytes, expected "
+                              + (_headerBytes + bytes));
+      arena = Arena.ofShared();
+      try {
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, _headerBytes, bytes,
+                              arena);
+      } catch(IOException | RuntimeException e) {
+        arena.close();
+        throw e;
+      } // end try
+    } // end try
+    if(event.shouldCommit()) {
+      event.set(this, _file);
+      event.commit();
+    } // end if
+  } // end constructor
+
+  //----< open >------------------------------------------------------------//
+
+  /**
+   * This method maps a raw volume described by a properties file.  The keys
+   *  are:
+   * <ul>
+   *  <li>file: the raw file, relative to the properties file.  Defaults to
+   *   the properties file's name without its last extension, so the layout
+   *   of head.raw can be kept in head.raw.properties.</li>
+   *  <li>dims: the x, y and z sizes of the matrix, positive integers.
+   *   Required.</li>
+   *  <li>type: u8, u16, f32 or f64.  Required.</li>
+   *  <li>endian: little or big.  Defaults to little.</li>
+   *  <li>order: the axes of the file, fastest varying first.  Defaults to
+   *   xyz.</li>
+   *  <li>header: the number of bytes to skip at the start of the file.
+   *   Defaults to 0.</li>
+   *  <li>scales: the x, y and z scaling factors.  Defaults to 1 1 1.</li>
+   *  <li>centroid: the x, y and z centroid percentages.  Defaults to
+   *   0 0 0.</li>
+   *  <li>least: the value of the points outside the matrix.  Defaults to
+   *   0.</li>
+   * </ul>
+   * @param _properties The properties file.
+   * @return The mapped data matrix.
+   * @throws IOException If a file can't be read or the raw file is too short.
+   * @throws IllegalArgumentException If a required key is missing or a value
+   *  is invalid.
+  **/
+  public static IsoSurfaceMappedDataMatrix open(final Path _properties)
+    throws IOException, IllegalArgumentException
+  {
+    final Properties props = new Properties();
+    try(InputStream in = Files.newInputStream(_properties)) {
+      props.load(in);
+    } // end try
+
+    final String name = _properties.getFileName().toString();
+    final int dot = name.lastIndexOf('.');
+    final String file = props.getProperty("file",
+                                          (dot > 0) ? name.substring(0, dot) : name);
+    final Path parent = _properties.toAbsolutePath().getParent();
+
+    final String dims = props.getProperty("dims");
+    if(dims == null)
+      throw new IllegalArgumentException("No dims in " + _properties);
+    final String typeName = props.getProperty("type");
+    if(typeName == null)
+      throw new IllegalArgumentException("No type in " + _properties);
+
+    final byte type;
+    switch(typeName.trim().toLowerCase(Locale.ROOT)) {
+      case "u8" :  type = UINT8;    break;
+      case "u16" : type = UINT16;   break;
+      case "f32" : type = FLOAT32;  break;
+      case "f64" : type = FLOAT64;  break;
+      default :    throw new IllegalArgumentException("Unknown type " + typeName);
+    } // end switch
+
+    final ByteOrder order;
+    final String endian = props.getProperty("endian", "little").trim();
+    if(endian.equalsIgnoreCase("little"))
+      order = ByteOrder.LITTLE_ENDIAN;
+    else if(endian.equalsIgnoreCase("big"))
+      order = ByteOrder.BIG_ENDIAN;
+    else
+      throw new IllegalArgumentException("Unknown endian " + endian);
+
+    final int[] size = parseDims(dims);
+    final float[] scales = parseTriple(props.getProperty("scales", "1 1 1"));
+    final float[] centroid = parseTriple(props.getProperty("centroid", "0 0 0"));
+
+    return(new IsoSurfaceMappedDataMatrix(
+             parent.resolve(file.trim()),
+             Long.parseLong(props.getProperty("header", "0").trim()),
+             type, order, props.getProperty("order", "xyz").trim(),
+             size[0], size[1], size[2],
+             scales[0], scales[1], scales[2],
+             new Tuple3f(centroid[0], centroid[1], centroid[2]),
+             Double.parseDouble(props.getProperty("least", "0").trim())));
+  } // end open
+
+  //----< parseTriple >-----------------------------------------------------//
+
+  /**
+   * This method parses three numbers separated by spaces or commas.
+   * @param _value The property value.
+   * @return The three numbers.
+   * @throws IllegalArgumentException If there aren't exactly three numbers.
+  **/
+  private static float[] parseTriple(final String _value)
+    throws IllegalArgumentException
+  {
+    final String[] parts = _value.trim().split("[\\s,]+");
+    if(parts.length != 3)
+      throw new IllegalArgumentException("Expected three values: " + _value);
+    return(new float[] { Float.parseFloat(parts[0]), Float.parseFloat(parts[1]),
+                         Float.parseFloat(parts[2]) });
+  } // end parseTriple
+
+  //----< parseDims >-------------------------------------------------------//
+
+  /**
+   * This method parses the three dimensions of the matrix, separated by
+   *  spaces or commas.
+   * @param _value The property value.
+   * @return The x, y and z sizes.
+   * @throws IllegalArgumentException If there aren't exactly three values,
+   *  or one isn't a positive integer.
+  **/
+  private static int[] parseDims(final String _value)
+    throws IllegalArgumentException
+  {
+    final String[] parts = _value.trim().split("[\\s,]+");
+    if(parts.length != 3)
+      throw new IllegalArgumentException("Expected three values: " + _value);
+    final int[] dims = new int[3];
+    for(int i = 0; i < 3; i++) {
+      try {
+        dims[i] = Integer.parseInt(parts[i]);
+      } catch(NumberFormatException e) {
+        throw new IllegalArgumentException("Dimension is not an integer: "
+                                           + parts[i], e);
+      } // end try
+      if(dims[i] <= 0)
+        throw new IllegalArgumentException("Dimension is not positive: "
+                                           + parts[i]);
+    } // end for
+    return(dims);
+  } // end parseDims
+
+  //----< slowestPlane >----------------------------------------------------//
+
+  /**
+   * This method picks the plane whose independent axis is the slowest
+   *  varying axis of the file.
+   * @param _axisOrder The axes of the file, fastest varying first.
+   * @return XZ_PLANE, XY_PLANE or YZ_PLANE.
+   * @throws IllegalArgumentException If the order isn't a permutation of
+   *  x, y and z.
+  **/
+  private static byte slowestPlane(final String _axisOrder)
+    throws IllegalArgumentException
+  {
+    final String order = _axisOrder.toLowerCase(Locale.ROOT);
+    if(order.length() != 3 || order.indexOf('x') < 0 || order.indexOf('y') < 0
+       || order.indexOf('z') < 0)
+      throw new IllegalArgumentException("Bad axis order " + _axisOrder);
+    switch(order.charAt(2)) {
+      case 'x' : return(YZ_PLANE);
+      case 'y' : return(XZ_PLANE);
+      default :  return(XY_PLANE);
+    } // end switch
+  } // end slowestPlane
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method is not supported, the mapping is read-only.
+   * @param _idx Unused.
+   * @param _dataPlane Unused.
+   * @throws UnsupportedOperationException Always.
+  **/
+  @Override
+protected void setPlaneData(final int _idx, final Object _dataPlane) {
+    throw new UnsupportedOperationException("Mapped data matrix is read-only");
+  } // end setPlaneData
+
+  //----< close >-----------------------------------------------------------//
+
+  /**
+   * This method unmaps the file.  The matrix can't be read afterwards.
+   *  Closing it again does nothing.
+  **/
+  @Override
+public synchronized void close() {
+    if(arena.scope().isAlive())
+      arena.close();
+  } // end close
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method will return the value of in the matrix at the point
+   *  (_x, _y, _z).  Any indices not within the range of the matrix dimensions
+   *  will automatically return the leastValue specified for the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return A double containing the value of the point at location
+   *  (_x, _y, _z).
+  **/
+  @Override
+public double getPoint(final int _x, final int _y, final int _z) {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      return(leastValue);
+    return(getValue(_x * xStride + _y * yStride + _z * zStride));
+  } // end getPoint
+
+  //----< getValue >--------------------------------------------------------//
+
+  /**
+   * This method reads a point from the mapping, without any bounds checks
+   *  against the matrix dimensions.
+   * @param _idx The index of the point in the file, counted in points.
+   * @return The point widened to a double.
+  **/
+  public double getValue(final long _idx) {
+    switch(type) {
+      case UINT8 :   return(segment.get(ValueLayout.JAVA_BYTE, _idx) & 0xff);
+      case UINT16 :  return(segment.get(shortLayout, _idx << 1) & 0xffff);
+      case FLOAT32 : return(segment.get(floatLayout, _idx << 2));
+      default :      return(segment.get(doubleLayout, _idx << 3));
+    } // end switch
+  } // end getValue
+
+  //----< classifySpan >----------------------------------------------------//
+
+  /**
+   * This method classifies a run of consecutive points inside the matrix
+   *  along one axis, read straight from the mapping.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _bits The array receiving the results, 1 for a point that is
+   *  inside, 0 for one that isn't.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void classifySpan(final IsoSurfaceClassifier _cls,
+                              final int _x, final int _y, final int _z,
+                              final int _axis, final byte[] _bits,
+                              final int _offset, final int _count)
+  {
+    final long stride = (_axis == 0) ? xStride
+                      : (_axis == 1) ? yStride : zStride;
+    long idx = _x * xStride + _y * yStride + _z * zStride;
+    for(int i = 0; i < _count; i++, idx += stride)
+      _bits[_offset + i] = _cls.isInside(getValue(idx)) ? (byte)1 : (byte)0;
+  } // end classifySpan
+
+  //----< readSpan >--------------------------------------------------------//
+
+  /**
+   * This method reads a run of consecutive points inside the matrix along
+   *  one axis, straight from the mapping.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _values The array receiving the values.
+   * @param _offset The index in _values of the first point's value.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void readSpan(final int _x, final int _y, final int _z,
+                          final int _axis, final double[] _values,
+                          final int _offset, final int _count)
+  {
+    final long stride = (_axis == 0) ? xStride
+                      : (_axis == 1) ? yStride : zStride;
+    long idx = _x * xStride + _y * yStride + _z * zStride;
+    for(int i = 0; i < _count; i++, idx += stride)
+      _values[_offset + i] = getValue(idx);
+  } // end readSpan
+
+  //----< getType >---------------------------------------------------------//
+
+  /**
+   * This method returns the element type of the points in the file.
+   * @return One of UINT8, UINT16, FLOAT32, FLOAT64.
+  **/
+  public byte getType() { return(type); }
+
+  //----< getByteOrder >----------------------------------------------------//
+
+  /**
+   * This method returns the byte order of the points in the file.
+   * @return The ByteOrder of the file.
+  **/
+  public ByteOrder getByteOrder() { return(byteOrder); }
+
+  //----< getLeastValue >---------------------------------------------------//
+
+  /**
+   * This method returns the value of the points outside the matrix.
+   * @return The double least value.
+  **/
+  public double getLeastValue() { return(leastValue); }
+
+  //----< getElementSize >--------------------------------------------------//
+
+  /**
+   * This method returns the number of bytes a point of an element type takes.
+   * @param _type One of UINT8, UINT16, FLOAT32, FLOAT64.
+   * @return The size of one point in bytes.
+  **/
+  public static int getElementSize(final byte _type) {
+    switch(_type) {
+      case UINT8 :   return(1);
+      case UINT16 :  return(2);
+      case FLOAT32 : return(4);
+      default :      return(8);
+    } // end switch
+  } // end getElementSize
+
+} // end class IsoSurfaceMappedDataMatrix
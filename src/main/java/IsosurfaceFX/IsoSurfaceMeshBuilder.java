@@ -0,0 +1,160 @@
+package IsosurfaceFX;
+
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.shape.VertexFormat;
+
+/**
+ * This class turns the output of an IsoSurfaceGeneratorInterface into a
+ *  JavaFX TriangleMesh.  The mesh uses VertexFormat.POINT_NORMAL_TEXCOORD,
+ *  so every face vertex is a point index, a normal index and a texture
+ *  coordinate index.  Points and normals share an index, and all faces use
+ *  the single texture coordinate (0,0).
+ * Each of the mesh's arrays is filled with a single bulk setAll call straight
+ *  from the generator's packed arrays, so no per-vertex objects are created.
+ *  The face array is kept between builds and only grown when a larger
+ *  surface needs it, so a builder that is reused for a sequence of surfaces
+ *  (for example while a threshold is being dragged) doesn't reallocate.
+ * This class is not thread safe.  Like any JavaFX node content, the mesh
+ *  should only be built while it's not attached to a live scene, or on the
+ *  JavaFX application thread.
+**/
+public class IsoSurfaceMeshBuilder {
+
+  /** The number of face array entries per triangle vertex (p, n, t). **/
+  private static final int FACE_STRIDE = 3;
+
+  /** The single texture coordinate shared by all of the faces. **/
+  private static final float[] TEX_COORDS = { 0.0f, 0.0f };
+
+  /** The mesh the builder fills. **/
+  private final TriangleMesh mesh;
+
+  /** The face array, reused between builds. **/
+  private int[] faces = new int[0];
+
+  /**
+   * The number of face vertices at the start of the face array that hold
+   *  the faces of a triangle soup (vertex i of the soup at face vertex i).
+   *  Those entries don't depend on the surface, so they aren't rewritten.
+  **/
+  private int soupVertCnt = 0;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates a builder with a new, empty mesh.
+  **/
+  public IsoSurfaceMeshBuilder() {
+    this(new TriangleMesh(VertexFormat.POINT_NORMAL_TEXCOORD));
+  } // end constructor
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates a builder that fills an existing mesh.  The
+   *  mesh is switched to VertexFormat.POINT_NORMAL_TEXCOORD.
+   * @param _mesh The mesh to fill.
+  **/
+  public IsoSurfaceMeshBuilder(final TriangleMesh _mesh) {
+    mesh = _mesh;
+    mesh.setVertexFormat(VertexFormat.POINT_NORMAL_TEXCOORD);
+    mesh.getTexCoords().setAll(TEX_COORDS);
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< build >-----------------------------------------------------------//
+
+  /**
+   * This method replaces the contents of the mesh with a generated surface.
+   *  Both triangle soups and indexed meshes are supported.
+   * @param _gen The generator (or other source) holding the surface.
+   * @return The builder's mesh, filled with the surface.
+  **/
+  public TriangleMesh build(final IsoSurfaceGeneratorInterface _gen) {
+    final int vertCnt = _gen.getVertexCount();
+    final float[] points = _gen.getPackedVertexArray();
+    final float[] normals = _gen.getPackedNormalArray();
+    final int[] indices = _gen.getIndexArray();
+
+    if(vertCnt == 0 || points == null) {
+      clear();
+      return(mesh);
+    } // end if
+
+    final int faceLen;
+    if(indices != null) {
+      faceLen = indices.length * FACE_STRIDE;
+      ensureFaceCapacity(faceLen);
+      for(int i = 0, f = 0; i < indices.length; i++, f += FACE_STRIDE) {
+        faces[f] = indices[i];
+        faces[f+1] = indices[i];
+        faces[f+2] = 0;
+      } // end for
+      soupVertCnt = 0;
+    } else {
+      faceLen = vertCnt * FACE_STRIDE;
+      ensureFaceCapacity(faceLen);
+      if(soupVertCnt < vertCnt) {
+        for(int i = soupVertCnt, f = i * FACE_STRIDE; i < vertCnt;
+            i++, f += FACE_STRIDE)
+        {
+          faces[f] = i;
+          faces[f+1] = i;
+          faces[f+2] = 0;
+        } // end for
+        soupVertCnt = vertCnt;
+      } // end if
+    } // end if/else
+
+    mesh.getPoints().setAll(points, 0, vertCnt * 3);
+    mesh.getNormals().setAll(normals, 0, vertCnt * 3);
+    mesh.getFaces().setAll(faces, 0, faceLen);
+    return(mesh);
+  } // end build
+
+  //----< clear >-----------------------------------------------------------//
+
+  /**
+   * This method removes all of the geometry from the mesh.  The builder's
+   *  face array is kept for the next build.
+  **/
+  public void clear() {
+    mesh.getFaces().clear();
+    mesh.getPoints().clear();
+    mesh.getNormals().clear();
+  } // end clear
+
+  //----< ensureFaceCapacity >----------------------------------------------//
+
+  /**
+   * This method grows the face array so that it can hold a number of
+   *  entries.  The soup faces already in the array are kept.
+   * @param _length The number of entries needed.
+  **/
+  private void ensureFaceCapacity(final int _length) {
+    if(faces.length >= _length)
+      return;
+    final int[] newFaces =
+      new int[Math.max(_length, faces.length + (faces.length >> 1))];
+    System.arraycopy(faces, 0, newFaces, 0, soupVertCnt * FACE_STRIDE);
+    faces = newFaces;
+  } // end ensureFaceCapacity
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getMesh >---------------------------------------------------------//
+
+  /**
+   * This method returns the mesh the builder fills.
+   * @return The TriangleMesh.
+  **/
+  public TriangleMesh getMesh() {
+    return(mesh);
+  } // end getMesh
+
+} // end class IsoSurfaceMeshBuilder
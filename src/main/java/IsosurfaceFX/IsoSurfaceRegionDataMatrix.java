@@ -0,0 +1,99 @@
+package IsosurfaceFX;
+
+/**
+ * This class is the view IsoSurfaceLodGenerator extracts one region through:
+ *  a block of one level of an IsoSurfaceResolutionPyramid, with its origin
+ *  at the region's first sample.  Its scales are the level's, and its
+ *  centroid is its origin, so the generator's vertices come out relative to
+ *  the region.
+ * Samples inside the region are the level's own.  A sample on the region's
+ *  boundary is shared with the neighboring regions, which may be extracted
+ *  at coarser levels; there the view reads what the coarsest of those
+ *  regions does (see IsoSurfaceLodGenerator.getSeamValue), so the region's
+ *  surface meets the coarser one along the boundary rather than leaving a
+ *  crack.
+**/
+final class IsoSurfaceRegionDataMatrix extends IsoSurfaceDataMatrix
+                                       implements IsoConstInterface
+{
+
+  /** The generator, which knows the level of every region. **/
+  private final IsoSurfaceLodGenerator lod;
+
+  /** The level of the pyramid the region is extracted at. **/
+  private final int level;
+
+  /** The level itself. **/
+  private final IsoSurfaceDataMatrix levelMatrix;
+
+  /** The region's first sample, in level 0 samples. **/
+  private final int[] origin;
+
+  /** The region's first sample, in samples of its level. **/
+  private final int[] levelOrigin;
+
+  /** The distance between the region's samples, in level 0 samples. **/
+  private final int step;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates the view of one region.
+   * @param _lod The generator extracting the region.
+   * @param _pyramid The pyramid of the generator's data matrix.
+   * @param _level The level to extract the region at.
+   * @param _origin The region's first sample, in level 0 samples, a multiple
+   *  of 2^_level along each axis.
+   * @param _cells The number of cells of the level along x, y, and z.
+  **/
+  IsoSurfaceRegionDataMatrix(final IsoSurfaceLodGenerator _lod,
+                             final IsoSurfaceResolutionPyramid _pyramid,
+                             final int _level, final int[] _origin,
+                             final int[] _cells)
+  {
+    super((byte)_pyramid.getLevel(_level).getPlane(),
+          _cells[X] + 1, _cells[Y] + 1, _cells[Z] + 1,
+          _pyramid.getLevel(_level).getXScale(),
+          _pyramid.getLevel(_level).getYScale(),
+          _pyramid.getLevel(_level).getZScale(),
+          LOWER_LEFT);
+    lod = _lod;
+    level = _level;
+    levelMatrix = _pyramid.getLevel(_level);
+    origin = _origin.clone();
+    step = 1 << _level;
+    levelOrigin = new int[] { _origin[X] / step, _origin[Y] / step,
+                              _origin[Z] / step };
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method returns a sample of the region, from its level or, on the
+   *  region's boundary, from the coarsest level of the regions sharing it.
+   * @param _x The index of the x-axis of the point in question.
+   * @param _y The index of the y-axis of the point in question.
+   * @param _z The index of the z-axis of the point in question.
+   * @return The double value of the point at coordinate (_x, _y, _z).
+  **/
+  @Override
+  public double getPoint(final int _x, final int _y, final int _z) {
+    if(_x == 0 || _y == 0 || _z == 0 || _x == getXMaxDim() - 1
+       || _y == getYMaxDim() - 1 || _z == getZMaxDim() - 1)
+    {
+      final int x = origin[X] + _x * step;
+      final int y = origin[Y] + _y * step;
+      final int z = origin[Z] + _z * step;
+      final int coarsest = lod.getCoarsestLevel(x, y, z);
+      if(coarsest > level)
+        return(lod.getSeamValue(coarsest, x, y, z));
+    } // end if
+    return(levelMatrix.getPoint(levelOrigin[X] + _x, levelOrigin[Y] + _y,
+                                levelOrigin[Z] + _z));
+  } // end getPoint
+
+} // end class IsoSurfaceRegionDataMatrix
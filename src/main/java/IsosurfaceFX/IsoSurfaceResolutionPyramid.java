@@ -0,0 +1,206 @@
+package IsosurfaceFX;
+
+import java.util.stream.IntStream;
+
+/**
+ * This class holds an IsoSurfaceDataMatrix at a series of resolutions, each
+ *  half the one before along every axis, for extracting distant parts of a
+ *  surface with fewer triangles (see IsoSurfaceLodGenerator).
+ * Level 0 is the matrix itself.  Sample i of level k sits where sample 2i of
+ *  level k-1 does, so the levels line up: a point of level k is
+ *  point i * 2^k of the matrix.  Each sample is the [1 2 1] / 4 tent
+ *  average of its 3x3x3 neighborhood in the level below, which keeps the
+ *  coarse levels from aliasing, and samples past the end of the level below
+ *  repeat its last one.  A level has n / 2 + 1 samples along an axis the
+ *  level below has n along, so it always reaches the far end.
+ * Levels are IsoSurfaceDenseFloatDataMatrix instances with the matrix's
+ *  plane and scales multiplied by 2^k.  Each level is built from the one
+ *  below it in parallel, a plane of samples per task.  A pyramid describes
+ *  the matrix as it was when the pyramid was built;
+ *  IsoSurfaceDataMatrix.getResolutionPyramid builds a new one after the
+ *  matrix's data changes.
+**/
+public class IsoSurfaceResolutionPyramid implements IsoConstInterface {
+
+  /** The levels stop once an axis is down to this many samples. **/
+  public static final int MIN_SAMPLES = 3;
+
+  /** The most levels a pyramid has, counting level 0. **/
+  public static final int MAX_LEVELS = 8;
+
+  /** The levels, level 0 being the matrix. **/
+  private final IsoSurfaceDataMatrix[] levels;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor builds the pyramid of a data matrix.
+   * @param _dataMatrix The data matrix, which becomes level 0.
+  **/
+  public IsoSurfaceResolutionPyramid(final IsoSurfaceDataMatrix _dataMatrix) {
+    int count = 1;
+    int[] dims = { _dataMatrix.getXMaxDim(), _dataMatrix.getYMaxDim(),
+                   _dataMatrix.getZMaxDim() };
+    while(count < MAX_LEVELS
+          && Math.min(dims[X], Math.min(dims[Y], dims[Z])) > MIN_SAMPLES) {
+      dims = halve(dims);
+      count++;
+    } // end while
+
+    levels = new IsoSurfaceDataMatrix[count];
+    levels[0] = _dataMatrix;
+    for(int level = 1; level < count; level++)
+      levels[level] = buildLevel(levels[level-1]);
+  } // end constructor
+
+  //----< halve >-----------------------------------------------------------//
+
+  /**
+   * This method works out the sample counts of the level above a level.
+   * @param _dims The number of samples along x, y, and z.
+   * @return The number of samples along x, y, and z of the next level.
+  **/
+  private static int[] halve(final int[] _dims) {
+    return(new int[] { _dims[X] / 2 + 1, _dims[Y] / 2 + 1, _dims[Z] / 2 + 1 });
+  } // end halve
+
+  //----< buildLevel >------------------------------------------------------//
+
+  /**
+   * This method builds the level above a level, filtering and subsampling
+   *  it.  The planes of x are built in parallel on the common pool.
+   * @param _below The level to build from.
+   * @return The new level.
+  **/
+  private static IsoSurfaceDataMatrix buildLevel(final IsoSurfaceDataMatrix _below) {
+    final int[] src = { _below.getXMaxDim(), _below.getYMaxDim(),
+                        _below.getZMaxDim() };
+    final int[] dims = halve(src);
+    final IsoSurfaceDenseFloatDataMatrix level =
+      new IsoSurfaceDenseFloatDataMatrix((byte)_below.getPlane(),
+                                         dims[X], dims[Y], dims[Z],
+                                         _below.getXScale() * 2.0f,
+                                         _below.getYScale() * 2.0f,
+                                         _below.getZScale() * 2.0f,
+                                         new Tuple3f(0.0f, 0.0f, 0.0f),
+                                         0.0f);
+    final float[] data = level.getData();
+    IntStream.range(0, dims[X]).parallel().forEach(x -> {
+      for(int y = 0; y < dims[Y]; y++)
+        for(int z = 0; z < dims[Z]; z++)
+          data[level.getIndex(x, y, z)] = (float)filter(_below, src, x, y, z);
+    });
+    return(level);
+  } // end buildLevel
+
+  //----< filter >----------------------------------------------------------//
+
+  /**
+   * This method works out one sample of a new level: the tent weighted
+   *  average of the 3x3x3 samples around the one it sits on.
+   * @param _below The level below.
+   * @param _src The number of samples along x, y, and z of the level below.
+   * @param _x The x index of the new sample.
+   * @param _y The y index of the new sample.
+   * @param _z The z index of the new sample.
+   * @return The value of the new sample.
+  **/
+  private static double filter(final IsoSurfaceDataMatrix _below,
+                               final int[] _src,
+                               final int _x, final int _y, final int _z)
+  {
+    double sum = 0.0;
+    for(int dx = -1; dx <= 1; dx++) {
+      final int sx = clamp(_x * 2 + dx, _src[X]);
+      for(int dy = -1; dy <= 1; dy++) {
+        final int sy = clamp(_y * 2 + dy, _src[Y]);
+        for(int dz = -1; dz <= 1; dz++) {
+          final int sz = clamp(_z * 2 + dz, _src[Z]);
+          final int weight = (2 - Math.abs(dx)) * (2 - Math.abs(dy))
+                             * (2 - Math.abs(dz));
+          sum += weight * _below.getPoint(sx, sy, sz);
+        } // end for
+      } // end for
+    } // end for
+    return(sum / 64.0);
+  } // end filter
+
+  //----< clamp >-----------------------------------------------------------//
+
+  /**
+   * This method keeps a sample index inside a level.
+   * @param _idx The index.
+   * @param _dim The number of samples along the axis.
+   * @return The index, moved to the nearest end if it is past one.
+  **/
+  private static int clamp(final int _idx, final int _dim) {
+    return(Math.max(0, Math.min(_dim - 1, _idx)));
+  } // end clamp
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getLevelCount >---------------------------------------------------//
+
+  /**
+   * This method returns the number of levels, counting the matrix itself.
+   * @return An integer containing the level count, at least 1.
+  **/
+  public int getLevelCount() { return(levels.length); }
+
+  //----< getLevel >--------------------------------------------------------//
+
+  /**
+   * This method returns one level of the pyramid.
+   * @param _level The level, 0 for the matrix itself.
+   * @return The data matrix of the level.
+  **/
+  public IsoSurfaceDataMatrix getLevel(final int _level) {
+    return(levels[_level]);
+  } // end getLevel
+
+  //----< getValue >--------------------------------------------------------//
+
+  /**
+   * This method reads one level at a point of the matrix that may fall
+   *  between the level's samples, interpolating linearly between them.
+   *  Indices past the end of the level use its last sample.
+   * @param _level The level to read.
+   * @param _x The x index of the point, in level 0 samples.
+   * @param _y The y index of the point, in level 0 samples.
+   * @param _z The z index of the point, in level 0 samples.
+   * @return The interpolated value.
+  **/
+  public double getValue(final int _level,
+                         final int _x, final int _y, final int _z)
+  {
+    final IsoSurfaceDataMatrix matrix = levels[_level];
+    final int step = 1 << _level;
+    final int[] p = { _x, _y, _z };
+    final int[] dims = { matrix.getXMaxDim(), matrix.getYMaxDim(),
+                         matrix.getZMaxDim() };
+    final int[] lo = new int[3];
+    final int[] hi = new int[3];
+    final double[] t = new double[3];
+    for(int a = 0; a < 3; a++) {
+      lo[a] = clamp(p[a] / step, dims[a]);
+      hi[a] = clamp(p[a] / step + 1, dims[a]);
+      t[a] = (p[a] % step) / (double)step;
+    } // end for
+
+    double sum = 0.0;
+    for(int corner = 0; corner < 8; corner++) {
+      double weight = 1.0;
+      for(int a = 0; a < 3; a++)
+        weight *= ((corner >> a) & 1) == 0 ? 1.0 - t[a] : t[a];
+      if(weight == 0.0)
+        continue;
+      sum += weight * matrix.getPoint(((corner & 1) == 0) ? lo[X] : hi[X],
+                                      ((corner & 2) == 0) ? lo[Y] : hi[Y],
+                                      ((corner & 4) == 0) ? lo[Z] : hi[Z]);
+    } // end for
+    return(sum);
+  } // end getValue
+
+} // end class IsoSurfaceResolutionPyramid
@@ -0,0 +1,158 @@
+package IsosurfaceFX;
+
+/**
+ * This class is one slab of an extraction: a contiguous range of cell layers
+ *  along the independent axis of the data matrix, plus the geometry the
+ *  IsoSurfaceGenerator produced for that range.  Slabs are filled
+ *  independently (possibly on different threads) and merged in order.
+**/
+class IsoSurfaceSlab {
+
+  /** The first cell layer (inclusive) along the independent axis. **/
+  protected final int start;
+
+  /** The last cell layer (exclusive) along the independent axis. **/
+  protected final int end;
+
+  /** The vertices generated for this slab, packed x,y,z, in walk order. **/
+  protected final IsoFloatBuffer vertices = new IsoFloatBuffer();
+
+  /**
+   * The normals generated for this slab, packed x,y,z, one per vertex.  An
+   *  indexed slab leaves this empty and fills normalSums instead.
+  **/
+  protected final IsoFloatBuffer normals = new IsoFloatBuffer();
+
+  /** The number of triangles generated for this slab. **/
+  protected int triCnt = 0;
+
+  /**
+   * Whether only the cube configurations of the slab's cells are wanted.
+   *  The geometry of such a slab is left empty.
+  **/
+  protected boolean configsOnly = false;
+
+  /**
+   * The vertex indices of the slab's triangles, three per triangle, local to
+   *  the slab.  Only used when extracting an indexed mesh.
+  **/
+  protected IsoIntBuffer indices;
+
+  /**
+   * The grid edge key of each of the slab's vertices, in vertex order.  Only
+   *  used when extracting an indexed mesh.
+  **/
+  protected IsoLongBuffer edgeKeys;
+
+  /**
+   * The map from grid edge key to slab-local vertex index.  Only used when
+   *  extracting an indexed mesh.
+  **/
+  protected IsoLongIntHashMap edgeMap;
+
+  /**
+   * The normals of the slab's vertices, packed x,y,z, before normalizing.
+   *  A vertex's normal is the sum of its triangles' normals, which is
+   *  exact in double, so it comes out the same whichever slabs the
+   *  triangles fall in.  Only used when extracting an indexed mesh.
+  **/
+  protected IsoDoubleBuffer normalSums;
+
+  /** The number of cells of the slab whose configuration was looked up. **/
+  protected long cellsVisited = 0;
+
+  /** The number of the slab's cells that produced triangles. **/
+  protected long nonEmptyCells = 0;
+
+  /** The time spent classifying the slab's samples, in nanoseconds. **/
+  protected long classifyNanos = 0;
+
+  /** The rest of the time spent extracting the slab, in nanoseconds. **/
+  protected long emitNanos = 0;
+
+  /** The id of the thread that extracted the slab. **/
+  protected long threadId = 0;
+
+  /**
+   * The values at the eight corners of the cell being emitted, numbered as
+   *  in IsoGeomTable.  Only used when vertices are interpolated.
+  **/
+  protected final double[] cornerVals = new double[8];
+
+  /**
+   * The offset, in IsoGeomTable coordinates, of the vertex being emitted
+   *  within its cell.
+  **/
+  protected final float[] vertOffset = new float[3];
+
+  /** The normal of the vertex being emitted, when it has its own. **/
+  protected final float[] vertNormal = new float[3];
+
+  /**
+   * The gradients of the samples of two sample layers along the independent
+   *  axis, indexed by layer parity, three floats per sample in walk order.
+   *  Only used for gradient normals.
+  **/
+  protected float[][] gradients;
+
+  /**
+   * For each entry of gradients, one more than the sample layer it was
+   *  computed for, or 0 when it hasn't been.
+  **/
+  protected int[][] gradientLayers;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates an empty slab over a range of cell layers.
+   * @param _start The first cell layer (inclusive) of the slab.
+   * @param _end The last cell layer (exclusive) of the slab.
+  **/
+  IsoSurfaceSlab(final int _start, final int _end) {
+    start = _start;
+    end = _end;
+  } // end constructor
+
+  //----< initIndexed >-----------------------------------------------------//
+
+  /**
+   * This method creates the buffers needed to extract an indexed mesh.
+  **/
+  void initIndexed() {
+    indices = new IsoIntBuffer();
+    edgeKeys = new IsoLongBuffer();
+    edgeMap = new IsoLongIntHashMap();
+    normalSums = new IsoDoubleBuffer();
+  } // end initIndexed
+
+  //----< initGradients >---------------------------------------------------//
+
+  /**
+   * This method creates the gradient cache needed for gradient normals.
+   *  Its two planes roll along the independent axis as the slab is walked.
+   * @param _planeSamples The number of samples in a sample layer.
+  **/
+  void initGradients(final int _planeSamples) {
+    gradients = new float[2][_planeSamples * 3];
+    gradientLayers = new int[2][_planeSamples];
+  } // end initGradients
+
+  //----< split >-----------------------------------------------------------//
+
+  /**
+   * This method splits a number of cell layers into evenly sized slabs.
+   * @param _layers The number of cell layers along the independent axis.
+   * @param _count The number of slabs to create.
+   * @return An array of slabs covering all of the layers, in order.
+  **/
+  static IsoSurfaceSlab[] split(final int _layers, final int _count) {
+    final int count = Math.max(1, Math.min(_count, _layers));
+    final IsoSurfaceSlab[] slabs = new IsoSurfaceSlab[count];
+    for(int i = 0; i < count; i++) {
+      slabs[i] = new IsoSurfaceSlab((int)((long)_layers * i / count),
+                                    (int)((long)_layers * (i+1) / count));
+    } // end for
+    return(slabs);
+  } // end split
+
+} // end class IsoSurfaceSlab
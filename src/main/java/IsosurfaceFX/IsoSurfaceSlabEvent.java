@@ -0,0 +1,42 @@
+package IsosurfaceFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This Java Flight Recorder event covers the extraction of one slab, a range
+ *  of cell layers along the independent axis.  Slabs are the tasks of a
+ *  multithreaded extraction and the batches of a streaming one, so the
+ *  events show how the work was spread over the threads.
+**/
+@Name("IsosurfaceFX.Slab")
+@Label("Isosurface Slab")
+@Category({ "IsosurfaceFX" })
+@Description("The extraction of one slab of cell layers")
+@StackTrace(false)
+final class IsoSurfaceSlabEvent extends jdk.jfr.Event {
+
+  @Label("Start Layer")
+  @Description("The first cell layer, inclusive")
+  int startLayer;
+
+  @Label("End Layer")
+  @Description("The last cell layer, exclusive")
+  int endLayer;
+
+  @Label("Cells Visited")
+  long cellsVisited;
+
+  @Label("Non-Empty Cells")
+  long nonEmptyCells;
+
+  @Label("Triangles")
+  int triangles;
+
+  @Label("Classify Time (ns)")
+  long classifyNanos;
+
+} // end class IsoSurfaceSlabEvent
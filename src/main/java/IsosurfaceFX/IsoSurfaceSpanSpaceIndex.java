@@ -0,0 +1,421 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This class indexes the cells of an IsoSurfaceDataMatrix by the range of
+ *  values at their eight corners, so the cells that can produce a surface
+ *  are found without looking at the rest of the matrix.  Seen as points
+ *  (min, max) in "span space", the cells a threshold t passes through are
+ *  the ones with min <= t <= max, and a classifier can only tell the
+ *  corners of a cell apart when one of its thresholds passes through the
+ *  cell (see IsoSurfaceClassifier.getThresholds).
+ * The ranges are kept in an interval tree.  Its centers are the distinct
+ *  cell minimums in ascending order, searched as an implicit balanced binary
+ *  tree, and each cell is stored at the first center on its search path
+ *  that lies in its range.  Each center keeps its cells twice, sorted by
+ *  min ascending and by max descending, so a query only reads the cells it
+ *  reports plus one center per level: O(log n + k) for k cells.
+ * Cells whose corners are all equal can never produce a surface and are
+ *  left out.  Cells with a NaN corner are always reported.  The ranges are
+ *  stored as floats rounded outward, so a double matrix can report a cell
+ *  whose range misses a threshold by less than a float's precision; such a
+ *  cell has no surface and costs only its classification.
+ * Cells are identified by their position in the order an IsoSurfaceGenerator
+ *  walks them: (a * bCells + b) * cCells + c, where a, b, and c are the
+ *  cell's indices along the independent, major, and minor axes of the
+ *  matrix's plane.  An index describes the matrix as it was when the index
+ *  was built; IsoSurfaceDataMatrix.getSpanSpaceIndex builds a new one after
+ *  the matrix's data changes.
+**/
+public class IsoSurfaceSpanSpaceIndex implements IsoConstInterface,
+                                                 IsoDataMatConstInterface
+{
+
+  /** The axes (X, Y, or Z) the cells are numbered along, slowest first. **/
+  private final int[] walkAxes;
+
+  /** The number of cells along the x, y, and z axes. **/
+  private final int[] cellDims;
+
+  /** The centers of the tree's nodes, ascending; node i has centers[i]. **/
+  private final float[] centers;
+
+  /**
+   * Where each node's cells start in the byMin and byMax arrays.  Node i
+   *  holds the cells nodeStart[i] up to nodeStart[i+1].
+  **/
+  private final int[] nodeStart;
+
+  /** The cells of each node, sorted by min ascending. **/
+  private final int[] byMinCells;
+
+  /** The min of each cell in byMinCells, rounded down to a float. **/
+  private final float[] byMinKeys;
+
+  /** The cells of each node, sorted by max descending. **/
+  private final int[] byMaxCells;
+
+  /** The max of each cell in byMaxCells, rounded up to a float. **/
+  private final float[] byMaxKeys;
+
+  /** The cells with a NaN corner, ascending. **/
+  private final int[] nanCells;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor builds the index of a data matrix.  Every sample of the
+   *  matrix is read twice, and building the tree sorts the indexed cells
+   *  twice.
+   * @param _dataMatrix The data matrix to index.
+   * @throws IllegalArgumentException If the matrix has more cells than an
+   *  int can number.
+  **/
+  public IsoSurfaceSpanSpaceIndex(final IsoSurfaceDataMatrix _dataMatrix)
+    throws IllegalArgumentException
+  {
+    switch(_dataMatrix.getPlane()) {
+      case XZ_PLANE : walkAxes = new int[] { Y, X, Z };  break;
+      case XY_PLANE : walkAxes = new int[] { Z, X, Y };  break;
+      default :       walkAxes = new int[] { X, Y, Z };
+    } // end switch
+    cellDims = new int[] { Math.max(0, _dataMatrix.getXMaxDim() - 1),
+                           Math.max(0, _dataMatrix.getYMaxDim() - 1),
+                           Math.max(0, _dataMatrix.getZMaxDim() - 1) };
+    final long cellCnt = (long)cellDims[X] * cellDims[Y] * cellDims[Z];
+    if(cellCnt > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Too many cells to index: " + cellCnt);
+
+    final IsoIntBuffer cells = new IsoIntBuffer();
+    final IsoFloatBuffer mins = new IsoFloatBuffer();
+    final IsoFloatBuffer maxs = new IsoFloatBuffer();
+    final IsoIntBuffer nans = new IsoIntBuffer();
+    readRanges(_dataMatrix, cells, mins, maxs, nans);
+    nanCells = nans.toArray();
+
+    final int n = cells.size();
+    final long[] order = new long[n];
+
+    // The centers are the distinct minimums.
+    for(int i = 0; i < n; i++)
+      order[i] = ((long)sortKey(mins.get(i)) << 32) | i;
+    Arrays.sort(order);
+    final float[] keys = new float[n];
+    int centerCnt = 0;
+    for(int k = 0; k < n; k++) {
+      final float min = mins.get((int)order[k]);
+      if(centerCnt == 0 || min != keys[centerCnt - 1])
+        keys[centerCnt++] = min;
+    } // end for
+    centers = Arrays.copyOf(keys, centerCnt);
+
+    final int[] nodeOf = new int[n];
+    nodeStart = new int[centerCnt + 1];
+    for(int i = 0; i < n; i++) {
+      nodeOf[i] = findNode(mins.get(i), maxs.get(i));
+      nodeStart[nodeOf[i] + 1]++;
+    } // end for
+    for(int i = 0; i < centerCnt; i++)
+      nodeStart[i + 1] += nodeStart[i];
+
+    // Distribute the cells in min order, then in max order, so each node's
+    // share comes out sorted.
+    byMinCells = new int[n];
+    byMinKeys = new float[n];
+    int[] pos = Arrays.copyOf(nodeStart, centerCnt);
+    for(int k = 0; k < n; k++) {
+      final int i = (int)order[k];
+      final int p = pos[nodeOf[i]]++;
+      byMinCells[p] = cells.get(i);
+      byMinKeys[p] = mins.get(i);
+    } // end for
+
+    for(int i = 0; i < n; i++)
+      order[i] = ((long)~sortKey(maxs.get(i)) << 32) | i;
+    Arrays.sort(order);
+    byMaxCells = new int[n];
+    byMaxKeys = new float[n];
+    pos = Arrays.copyOf(nodeStart, centerCnt);
+    for(int k = 0; k < n; k++) {
+      final int i = (int)order[k];
+      final int p = pos[nodeOf[i]]++;
+      byMaxCells[p] = cells.get(i);
+      byMaxKeys[p] = maxs.get(i);
+    } // end for
+  } // end constructor
+
+  //----< readRanges >------------------------------------------------------//
+
+  /**
+   * This method computes the range of every cell, walking the matrix one
+   *  sample plane at a time along the independent axis.
+   * @param _dataMatrix The data matrix to read.
+   * @param _cells Receives the cells with a range to index.
+   * @param _mins Receives the min of each of _cells, rounded down.
+   * @param _maxs Receives the max of each of _cells, rounded up.
+   * @param _nans Receives the cells with a NaN corner.
+  **/
+  private void readRanges(final IsoSurfaceDataMatrix _dataMatrix,
+                          final IsoIntBuffer _cells,
+                          final IsoFloatBuffer _mins,
+                          final IsoFloatBuffer _maxs,
+                          final IsoIntBuffer _nans)
+  {
+    final int aCells = cellDims[walkAxes[0]];
+    final int bCells = cellDims[walkAxes[1]];
+    final int cCells = cellDims[walkAxes[2]];
+    final int cSamples = cCells + 1;
+    double[] lower = new double[(bCells + 1) * cSamples];
+    double[] upper = new double[(bCells + 1) * cSamples];
+    if(aCells > 0)
+      readPlane(_dataMatrix, 0, lower);
+
+    int cell = 0;
+    for(int a = 0; a < aCells; a++) {
+      readPlane(_dataMatrix, a + 1, upper);
+      for(int b = 0; b < bCells; b++) {
+        for(int c = 0; c < cCells; c++, cell++) {
+          final int i = b * cSamples + c;
+          final int j = i + cSamples;
+          double min = Math.min(Math.min(lower[i], lower[i+1]),
+                                Math.min(lower[j], lower[j+1]));
+          min = Math.min(min, Math.min(Math.min(upper[i], upper[i+1]),
+                                       Math.min(upper[j], upper[j+1])));
+          double max = Math.max(Math.max(lower[i], lower[i+1]),
+                                Math.max(lower[j], lower[j+1]));
+          max = Math.max(max, Math.max(Math.max(upper[i], upper[i+1]),
+                                       Math.max(upper[j], upper[j+1])));
+
+          if(Double.isNaN(min)) {
+            _nans.add(cell);
+          } else if(min < max) {
+            _cells.add(cell);
+            _mins.add(roundDown(min));
+            _maxs.add(roundUp(max));
+          } // end if
+        } // end for
+      } // end for
+
+      final double[] swap = lower;
+      lower = upper;
+      upper = swap;
+    } // end for
+  } // end readRanges
+
+  //----< readPlane >-------------------------------------------------------//
+
+  /**
+   * This method reads one sample plane along the independent axis.
+   * @param _dataMatrix The data matrix to read.
+   * @param _a The index of the plane along the independent axis.
+   * @param _plane Receives the samples, the minor axis varying fastest.
+  **/
+  private void readPlane(final IsoSurfaceDataMatrix _dataMatrix, final int _a,
+                         final double[] _plane)
+  {
+    final int[] pt = new int[3];
+    final int cSamples = cellDims[walkAxes[2]] + 1;
+    pt[walkAxes[0]] = _a;
+    for(int b = 0; b <= cellDims[walkAxes[1]]; b++) {
+      pt[walkAxes[1]] = b;
+      for(int c = 0; c < cSamples; c++) {
+        pt[walkAxes[2]] = c;
+        _plane[b * cSamples + c] = _dataMatrix.getPoint(pt[X], pt[Y], pt[Z]);
+      } // end for
+    } // end for
+  } // end readPlane
+
+  //----< findNode >--------------------------------------------------------//
+
+  /**
+   * This method finds the node a range is stored at: the first center on
+   *  the search path that lies in the range.  Every range holds its own min,
+   *  which is one of the centers, so a node is always found.
+   * @param _min The min of the range.
+   * @param _max The max of the range.
+   * @return The index of the node.
+  **/
+  private int findNode(final float _min, final float _max) {
+    int lo = 0;
+    int hi = centers.length - 1;
+    while(true) {
+      final int mid = (lo + hi) >>> 1;
+      if(_max < centers[mid])
+        hi = mid - 1;
+      else if(_min > centers[mid])
+        lo = mid + 1;
+      else
+        return(mid);
+    } // end while
+  } // end findNode
+
+  //----< sortKey >---------------------------------------------------------//
+
+  /**
+   * This method maps a float to an int that sorts the same way, so ranges
+   *  can be sorted as packed longs.
+   * @param _val A float that isn't NaN.
+   * @return An int that orders like _val.
+  **/
+  private static int sortKey(final float _val) {
+    final int bits = Float.floatToIntBits(_val);
+    return(bits ^ ((bits >> 31) & 0x7fffffff));
+  } // end sortKey
+
+  //----< roundDown >-------------------------------------------------------//
+
+  /**
+   * This method converts a double to the largest float not above it.
+   * @param _val The value to convert.
+   * @return A float less than or equal to _val.
+  **/
+  private static float roundDown(final double _val) {
+    final float f = (float)_val;
+    return((f > _val) ? Math.nextDown(f) : f);
+  } // end roundDown
+
+  //----< roundUp >---------------------------------------------------------//
+
+  /**
+   * This method converts a double to the smallest float not below it.
+   * @param _val The value to convert.
+   * @return A float greater than or equal to _val.
+  **/
+  private static float roundUp(final double _val) {
+    final float f = (float)_val;
+    return((f < _val) ? Math.nextUp(f) : f);
+  } // end roundUp
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< findActiveCells >-------------------------------------------------//
+
+  /**
+   * This method finds the cells that may produce part of the surface for a
+   *  classifier: the cells one of its thresholds passes through, plus the
+   *  cells with a NaN corner.
+   * @param _cls The classifier for the thresholds.
+   * @return A new array of cells, ascending, so they come in the order an
+   *  IsoSurfaceGenerator walks them.
+  **/
+  public int[] findActiveCells(final IsoSurfaceClassifier _cls) {
+    final IsoIntBuffer found = new IsoIntBuffer();
+    final double[] thresholds = _cls.getThresholds();
+    for(int i = 0; i < thresholds.length; i++)
+      findCells(thresholds[i], found);
+    for(int i = 0; i < nanCells.length; i++)
+      found.add(nanCells[i]);
+
+    final int[] cells = found.toArray();
+    Arrays.sort(cells);
+    if(thresholds.length < 2)
+      return(cells);
+
+    // A cell both thresholds pass through was found twice.
+    int cnt = 0;
+    for(int i = 0; i < cells.length; i++) {
+      if(cnt == 0 || cells[i] != cells[cnt - 1])
+        cells[cnt++] = cells[i];
+    } // end for
+    return(Arrays.copyOf(cells, cnt));
+  } // end findActiveCells
+
+  //----< findCells >-------------------------------------------------------//
+
+  /**
+   * This method finds the cells a threshold passes through, the ones with
+   *  min <= _threshold <= max.  Cells with a NaN corner aren't included.
+   * @param _threshold The threshold.
+   * @return A new array of cells, ascending.
+  **/
+  public int[] findCells(final double _threshold) {
+    final IsoIntBuffer found = new IsoIntBuffer();
+    findCells(_threshold, found);
+    final int[] cells = found.toArray();
+    Arrays.sort(cells);
+    return(cells);
+  } // end findCells
+
+  //----< findCells >-------------------------------------------------------//
+
+  /**
+   * This method adds the cells a threshold passes through to a buffer, in
+   *  no particular order.
+   * @param _threshold The threshold.
+   * @param _found The buffer receiving the cells.
+  **/
+  private void findCells(final double _threshold, final IsoIntBuffer _found) {
+    if(Double.isNaN(_threshold))
+      return;
+
+    int lo = 0;
+    int hi = centers.length - 1;
+    while(lo <= hi) {
+      final int mid = (lo + hi) >>> 1;
+      final int start = nodeStart[mid];
+      final int end = nodeStart[mid + 1];
+      if(_threshold < centers[mid]) {
+        // Every max here is at least the center; only the min decides.
+        for(int i = start; i < end && byMinKeys[i] <= _threshold; i++)
+          _found.add(byMinCells[i]);
+        hi = mid - 1;
+      } else if(_threshold > centers[mid]) {
+        // Every min here is at most the center; only the max decides.
+        for(int i = start; i < end && byMaxKeys[i] >= _threshold; i++)
+          _found.add(byMaxCells[i]);
+        lo = mid + 1;
+      } else {
+        for(int i = start; i < end; i++)
+          _found.add(byMinCells[i]);
+        return;
+      } // end if
+    } // end while
+  } // end findCells
+
+  //----< getCell >---------------------------------------------------------//
+
+  /**
+   * This method returns the number a cell is identified by.
+   * @param _x The index of the cell along the x-axis.
+   * @param _y The index of the cell along the y-axis.
+   * @param _z The index of the cell along the z-axis.
+   * @return The cell's position in walk order.
+  **/
+  public int getCell(final int _x, final int _y, final int _z) {
+    final int[] cell = { _x, _y, _z };
+    return((cell[walkAxes[0]] * cellDims[walkAxes[1]] + cell[walkAxes[1]])
+           * cellDims[walkAxes[2]] + cell[walkAxes[2]]);
+  } // end getCell
+
+  //----< getCellIndices >--------------------------------------------------//
+
+  /**
+   * This method converts a cell number back to the cell's indices.
+   * @param _cell The cell's position in walk order.
+   * @param _xyz Receives the cell's x, y, and z indices.
+  **/
+  public void getCellIndices(final int _cell, final int[] _xyz) {
+    final int cCells = cellDims[walkAxes[2]];
+    final int planeCells = cellDims[walkAxes[1]] * cCells;
+    final int a = _cell / planeCells;
+    final int rem = _cell - a * planeCells;
+    _xyz[walkAxes[0]] = a;
+    _xyz[walkAxes[1]] = rem / cCells;
+    _xyz[walkAxes[2]] = rem % cCells;
+  } // end getCellIndices
+
+  //----< getIndexedCellCount >---------------------------------------------//
+
+  /**
+   * This method returns the number of cells in the tree, which leaves out
+   *  the cells whose corners are all equal and the cells with a NaN corner.
+   * @return An integer containing the number of indexed cells.
+  **/
+  public int getIndexedCellCount() {
+    return(byMinCells.length);
+  } // end getIndexedCellCount
+
+} // end class IsoSurfaceSpanSpaceIndex
@@ -0,0 +1,507 @@
+package IsosurfaceFX;
+
+import java.util.Arrays;
+
+/**
+ * This implementation of the IsoSurfaceDataMatrix stores only the regions of
+ *  the matrix that differ from a background value, in a shallow tree like
+ *  the ones OpenVDB uses.  The matrix is covered by a flat grid of internal
+ *  nodes, each 128 points on a side; an internal node holds 16x16x16
+ *  references to leaves, and a leaf is a dense float array of 8x8x8 points.
+ *  Nodes and leaves are only allocated where a point is set to something
+ *  other than the background, so memory grows with the occupied regions and
+ *  not with the bounding box: a 2048^3 matrix of scattered points costs a
+ *  few kilobytes per occupied leaf.
+ * Reading a point is a bounds check and at most three array loads, whatever
+ *  the size of the matrix.  The leaves that exist are the active leaves; see
+ *  getLeafOrigins.  The block pyramid of the matrix is built from the active
+ *  leaves alone, so an IsoSurfaceGenerator with block skipping on only
+ *  visits the cells near them (when the background is outside the surface).
+ * The points of a leaf are laid out like a small dense matrix: the
+ *  independent axis is the slowest varying, then the major axis, then the
+ *  minor axis.  The matrix is filled a point at a time with setPoint; it has
+ *  no planes of data, and the major and minor axis offsets are not applied.
+**/
+public class IsoSurfaceSparseDataMatrix extends IsoSurfaceDataMatrix {
+
+  // Inherits plane
+  // Inherits xMaxDim, yMaxDim, zMaxDim
+  // Inherits xScale, yScale, zScale
+  // Inherits majorAxisOffset, minorAxisOffset
+
+  /** The log base 2 of the number of points on a side of a leaf. **/
+  private static final int LEAF_LOG2 = 3;
+
+  /** The number of points on a side of a leaf. **/
+  public static final int LEAF_SIZE = 1 << LEAF_LOG2;
+
+  /** LEAF_SIZE - 1, to find a point's place in its leaf. **/
+  private static final int LEAF_MASK = LEAF_SIZE - 1;
+
+  /** The log base 2 of the number of leaves on a side of a node. **/
+  private static final int NODE_LOG2 = 4;
+
+  /** The number of leaves on a side of a node, less one. **/
+  private static final int NODE_MASK = (1 << NODE_LOG2) - 1;
+
+  /** The log base 2 of the number of points on a side of a node. **/
+  private static final int NODE_SHIFT = LEAF_LOG2 + NODE_LOG2;
+
+  /** The edge length, in cells, of a block of the matrix's pyramid. **/
+  private static final int PYRAMID_BLOCK_SIZE = 2 * LEAF_SIZE;
+
+  /** The value of every point that isn't in a leaf. **/
+  private final float background;
+
+  /** The number of nodes along the y-axis. **/
+  private final int yNodes;
+  /** The number of nodes along the z-axis. **/
+  private final int zNodes;
+
+  /** The distance in a leaf's array between neighbors along the x-axis. **/
+  private final int xStride;
+  /** The distance in a leaf's array between neighbors along the y-axis. **/
+  private final int yStride;
+  /** The distance in a leaf's array between neighbors along the z-axis. **/
+  private final int zStride;
+
+  /**
+   * The internal nodes, (nx * yNodes + ny) * zNodes + nz, each an array of
+   *  leaves indexed (lx << 8) | (ly << 4) | lz.  Null for a node or leaf
+   *  that holds nothing but background.
+  **/
+  private final float[][][] nodes;
+
+  /** The number of leaves allocated. **/
+  private int leafCount;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates a matrix with every point set to the
+   *  background value.
+   * @param _plane The plane of the two dependent axes are in.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _xScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the x-axis.
+   * @param _yScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the y-axis.
+   * @param _zScale The scaling factor that translates one meter to whatever
+   *  units are used in the data along the z-axis.
+   * @param _centroidPercentages A Tuple3f containing the percentages from the
+   *  lower-left-front of the data set that the should be considered the center
+   *  of said data set.
+   * @param _background The value of every point that hasn't been set, and of
+   *  every point outside the matrix.
+   * @throws IllegalArgumentException If a dimension is negative or the
+   *  matrix is too large for the node grid.
+  **/
+  public IsoSurfaceSparseDataMatrix(final byte _plane,
+                                    final int _xMaxDim, final int _yMaxDim, final int _zMaxDim,
+                                    final float _xScale, final float _yScale, final float _zScale,
+                                    final Tuple3f _centroidPercentages,
+                                    final float _background)
+    throws IllegalArgumentException
+  {
+    super(_plane, _xMaxDim, _yMaxDim, _zMaxDim,
+          _xScale, _yScale, _zScale, _centroidPercentages);
+
+    if(_xMaxDim < 0 || _yMaxDim < 0 || _zMaxDim < 0)
+      throw new IllegalArgumentException("Negative matrix dimension");
+    final int nodeMask = (1 << NODE_SHIFT) - 1;
+    final int xNodes = (int)(((long)_xMaxDim + nodeMask) >> NODE_SHIFT);
+    yNodes = (int)(((long)_yMaxDim + nodeMask) >> NODE_SHIFT);
+    zNodes = (int)(((long)_zMaxDim + nodeMask) >> NODE_SHIFT);
+    final long count = (long)xNodes * yNodes * zNodes;
+    if(count > Integer.MAX_VALUE - 8)
+      throw new IllegalArgumentException("Too many nodes: " + count);
+
+    switch(plane) {
+      case XZ_PLANE : zStride = 1;                  // ind = y, maj = x, min = z
+                      xStride = LEAF_SIZE;
+                      yStride = LEAF_SIZE * LEAF_SIZE;
+                      break;
+      case XY_PLANE : yStride = 1;                  // ind = z, maj = x, min = y
+                      xStride = LEAF_SIZE;
+                      zStride = LEAF_SIZE * LEAF_SIZE;
+                      break;
+      default :       zStride = 1;                  // ind = x, maj = y, min = z
+                      yStride = LEAF_SIZE;
+                      xStride = LEAF_SIZE * LEAF_SIZE;
+    } // end switch
+
+    background = _background;
+    nodes = new float[(int)count][][];
+  } // end constructor
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Setters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< setPoint >--------------------------------------------------------//
+
+  /**
+   * This method stores the value of one point.  Setting a point of an
+   *  unallocated leaf to the background value allocates nothing; any other
+   *  value allocates the leaf, and its node, as needed.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @param _value The value to store.
+   * @throws ArrayIndexOutOfBoundsException If the point is outside the
+   *  matrix.
+  **/
+  public void setPoint(final int _x, final int _y, final int _z,
+                       final float _value)
+  {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      throw new ArrayIndexOutOfBoundsException("(" + _x + ", " + _y + ", "
+                                               + _z + ")");
+
+    final int n = getNodeIndex(_x, _y, _z);
+    final int l = getLeafIndex(_x, _y, _z);
+    float[][] node = nodes[n];
+    float[] leaf = (node == null) ? null : node[l];
+    if(leaf == null) {
+      if(Float.floatToRawIntBits(_value) == Float.floatToRawIntBits(background))
+        return;
+      if(node == null) {
+        node = new float[1 << (3 * NODE_LOG2)][];
+        nodes[n] = node;
+      } // end if
+      leaf = new float[LEAF_SIZE * LEAF_SIZE * LEAF_SIZE];
+      Arrays.fill(leaf, background);
+      node[l] = leaf;
+      leafCount++;
+    } // end if
+    leaf[getLocalIndex(_x, _y, _z)] = _value;
+    invalidateIndexes();
+  } // end setPoint
+
+  //----< setPlaneData >----------------------------------------------------//
+
+  /**
+   * This method is not supported, the matrix is filled with setPoint.
+   * @param _idx Unused.
+   * @param _dataPlane Unused.
+   * @throws UnsupportedOperationException Always.
+  **/
+  @Override
+protected void setPlaneData(final int _idx, final Object _dataPlane) {
+    throw new UnsupportedOperationException("Sparse data matrix is filled "
+                                            + "with setPoint");
+  } // end setPlaneData
+
+  //----< prune >-----------------------------------------------------------//
+
+  /**
+   * This method frees the leaves whose points have all gone back to the
+   *  background value, and the nodes left without leaves.
+   * @return The number of leaves freed.
+  **/
+  public int prune() {
+    final int bits = Float.floatToRawIntBits(background);
+    int cnt = 0;
+    for(int n = 0; n < nodes.length; n++) {
+      final float[][] node = nodes[n];
+      if(node == null)
+        continue;
+      boolean empty = true;
+      for(int l = 0; l < node.length; l++) {
+        final float[] leaf = node[l];
+        if(leaf == null)
+          continue;
+        int i = 0;
+        while(i < leaf.length && Float.floatToRawIntBits(leaf[i]) == bits)
+          i++;
+        if(i == leaf.length) {
+          node[l] = null;
+          cnt++;
+        } else {
+          empty = false;
+        } // end if
+      } // end for
+      if(empty)
+        nodes[n] = null;
+    } // end for
+    leafCount -= cnt;
+    return(cnt);
+  } // end prune
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method will return the value of in the matrix at the point
+   *  (_x, _y, _z).  Any indices not within the range of the matrix dimensions
+   *  will automatically return the background value of the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return A double containing the value of the point at location
+   *  (_x, _y, _z).
+  **/
+  @Override
+public double getPoint(final int _x, final int _y, final int _z) {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      return(background);
+    final float[] leaf = getLeaf(_x, _y, _z);
+    if(leaf == null)
+      return(background);
+    return(leaf[getLocalIndex(_x, _y, _z)]);
+  } // end getPoint
+
+  //----< classifySpan >----------------------------------------------------//
+
+  /**
+   * This method classifies a run of consecutive points inside the matrix
+   *  along one axis, a leaf at a time: the background is classified once for
+   *  the whole run, and the points in a leaf are read straight from its
+   *  array by the classifier.
+   * @param _cls The classifier that decides which values are inside.
+   * @param _x The index along the x-axis of the first point of the run.
+   * @param _y The index along the y-axis of the first point of the run.
+   * @param _z The index along the z-axis of the first point of the run.
+   * @param _axis The axis the run goes along: 0 for x, 1 for y, 2 for z.
+   * @param _bits The array receiving the results, 1 for a point that is
+   *  inside, 0 for one that isn't.
+   * @param _offset The index in _bits of the first point's result.
+   * @param _count The number of points in the run, at least one.
+  **/
+  @Override
+protected void classifySpan(final IsoSurfaceClassifier _cls,
+                              final int _x, final int _y, final int _z,
+                              final int _axis, final byte[] _bits,
+                              final int _offset, final int _count)
+  {
+    final int pos;
+    final int stride;
+    switch(_axis) {
+      case 0 :  pos = _x;  stride = xStride;  break;
+      case 1 :  pos = _y;  stride = yStride;  break;
+      default : pos = _z;  stride = zStride;
+    } // end switch
+    final int dx = (_axis == 0) ? 1 : 0;
+    final int dy = (_axis == 1) ? 1 : 0;
+    final int dz = (_axis == 2) ? 1 : 0;
+    final byte bg = _cls.isInside(background) ? (byte)1 : (byte)0;
+
+    for(int i = 0; i < _count; ) {
+      final int x = _x + i*dx;
+      final int y = _y + i*dy;
+      final int z = _z + i*dz;
+      final int len = Math.min(_count - i, LEAF_SIZE - ((pos + i) & LEAF_MASK));
+      final float[] leaf = getLeaf(x, y, z);
+      if(leaf == null)
+        Arrays.fill(_bits, _offset + i, _offset + i + len, bg);
+      else
+        _cls.classify(leaf, getLocalIndex(x, y, z), stride, _bits, _offset + i,
+                      len);
+      i += len;
+    } // end for
+  } // end classifySpan
+
+  //----< createBlockPyramid >----------------------------------------------//
+
+  /**
+   * This method builds the block pyramid from the active leaves.  A block
+   *  that doesn't touch a leaf holds nothing but background, so only the
+   *  blocks next to leaves are read.
+   * @return A new IsoSurfaceBlockPyramid of the matrix's current data.
+  **/
+  @Override
+protected IsoSurfaceBlockPyramid createBlockPyramid() {
+    final int bs = PYRAMID_BLOCK_SIZE;
+    final int[] samples = { xMaxDim, yMaxDim, zMaxDim };
+    final int[] cnt = IsoSurfaceBlockPyramid.countBlocks(samples, bs);
+    final int blocks = cnt[0] * cnt[1] * cnt[2];
+    final double[] mins = new double[blocks];
+    final double[] maxs = new double[blocks];
+    Arrays.fill(mins, background);
+    Arrays.fill(maxs, background);
+
+      // Block b holds the samples b*bs to b*bs + bs along each axis, so a
+      //  leaf at o touches the blocks from (o - 1) / bs to (o + 7) / bs.
+    final boolean[] touched = new boolean[blocks];
+    final int[] origins = getLeafOrigins();
+    for(int i = 0; i < origins.length; i += 3) {
+      final int x0 = Math.max(0, Math.floorDiv(origins[i] - 1, bs));
+      final int y0 = Math.max(0, Math.floorDiv(origins[i+1] - 1, bs));
+      final int z0 = Math.max(0, Math.floorDiv(origins[i+2] - 1, bs));
+      final int x1 = Math.min(cnt[0] - 1, (origins[i] + LEAF_MASK) / bs);
+      final int y1 = Math.min(cnt[1] - 1, (origins[i+1] + LEAF_MASK) / bs);
+      final int z1 = Math.min(cnt[2] - 1, (origins[i+2] + LEAF_MASK) / bs);
+      for(int bx = x0; bx <= x1; bx++)
+        for(int by = y0; by <= y1; by++)
+          for(int bz = z0; bz <= z1; bz++)
+            touched[(bx * cnt[1] + by) * cnt[2] + bz] = true;
+    } // end for
+
+    for(int b = 0; b < blocks; b++) {
+      if(!touched[b])
+        continue;
+      final int x0 = (b / (cnt[1] * cnt[2])) * bs;
+      final int y0 = ((b / cnt[2]) % cnt[1]) * bs;
+      final int z0 = (b % cnt[2]) * bs;
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      for(int x = x0; x <= Math.min(x0 + bs, xMaxDim - 1); x++) {
+        for(int y = y0; y <= Math.min(y0 + bs, yMaxDim - 1); y++) {
+          for(int z = z0; z <= Math.min(z0 + bs, zMaxDim - 1); z++) {
+            final double val = getPoint(x, y, z);
+            min = Math.min(min, val);
+            max = Math.max(max, val);
+          } // end for
+        } // end for
+      } // end for
+      mins[b] = min;
+      maxs[b] = max;
+    } // end for
+    return(new IsoSurfaceBlockPyramid(bs, samples, mins, maxs));
+  } // end createBlockPyramid
+
+  //----< getLeaf >---------------------------------------------------------//
+
+  /**
+   * This method finds the leaf holding a point inside the matrix.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return The leaf's array, or null when the point is background.
+  **/
+  private float[] getLeaf(final int _x, final int _y, final int _z) {
+    final float[][] node = nodes[getNodeIndex(_x, _y, _z)];
+    return((node == null) ? null : node[getLeafIndex(_x, _y, _z)]);
+  } // end getLeaf
+
+  //----< getNodeIndex >----------------------------------------------------//
+
+  /**
+   * This method returns the index of the node holding a point.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return The index in the node array.
+  **/
+  private int getNodeIndex(final int _x, final int _y, final int _z) {
+    return(((_x >> NODE_SHIFT) * yNodes + (_y >> NODE_SHIFT)) * zNodes
+           + (_z >> NODE_SHIFT));
+  } // end getNodeIndex
+
+  //----< getLeafIndex >----------------------------------------------------//
+
+  /**
+   * This method returns the index of the leaf holding a point within its
+   *  node.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return The index in the node's leaf array.
+  **/
+  private static int getLeafIndex(final int _x, final int _y, final int _z) {
+    return((((_x >> LEAF_LOG2) & NODE_MASK) << (2 * NODE_LOG2))
+           | (((_y >> LEAF_LOG2) & NODE_MASK) << NODE_LOG2)
+           | ((_z >> LEAF_LOG2) & NODE_MASK));
+  } // end getLeafIndex
+
+  //----< getLocalIndex >---------------------------------------------------//
+
+  /**
+   * This method returns where a point is stored in its leaf's array.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return The index in the leaf array.
+  **/
+  private int getLocalIndex(final int _x, final int _y, final int _z) {
+    return((_x & LEAF_MASK) * xStride + (_y & LEAF_MASK) * yStride
+           + (_z & LEAF_MASK) * zStride);
+  } // end getLocalIndex
+
+  //----< getLeafOrigins >--------------------------------------------------//
+
+  /**
+   * This method lists the active leaves, the ones that hold something other
+   *  than background, by the point at their lower-left-front corner.
+   * @return An array of x, y, z triples, one per leaf.
+  **/
+  public int[] getLeafOrigins() {
+    final int[] origins = new int[leafCount * 3];
+    int cnt = 0;
+    for(int n = 0; n < nodes.length; n++) {
+      final float[][] node = nodes[n];
+      if(node == null)
+        continue;
+      final int nx = (n / (yNodes * zNodes)) << NODE_SHIFT;
+      final int ny = ((n / zNodes) % yNodes) << NODE_SHIFT;
+      final int nz = (n % zNodes) << NODE_SHIFT;
+      for(int l = 0; l < node.length; l++) {
+        if(node[l] == null)
+          continue;
+        origins[cnt++] = nx | ((l >> (2 * NODE_LOG2)) << LEAF_LOG2);
+        origins[cnt++] = ny | (((l >> NODE_LOG2) & NODE_MASK) << LEAF_LOG2);
+        origins[cnt++] = nz | ((l & NODE_MASK) << LEAF_LOG2);
+      } // end for
+    } // end for
+    return(origins);
+  } // end getLeafOrigins
+
+  //----< getLeafData >-----------------------------------------------------//
+
+  /**
+   * This method returns the array of the leaf holding a point.  Changes to
+   *  the array are changes to the matrix; call invalidateIndexes after making
+   *  them.
+   * @param _x The index of the point along the x-axis.
+   * @param _y The index of the point along the y-axis.
+   * @param _z The index of the point along the z-axis.
+   * @return The leaf's points, laid out like a dense matrix of LEAF_SIZE
+   *  points on a side, or null when the point is outside the matrix or in
+   *  no leaf.
+  **/
+  public float[] getLeafData(final int _x, final int _y, final int _z) {
+    if(_x < 0 || _x >= xMaxDim || _y < 0 || _y >= yMaxDim
+       || _z < 0 || _z >= zMaxDim)
+      return(null);
+    return(getLeaf(_x, _y, _z));
+  } // end getLeafData
+
+  //----< getLeafCount >----------------------------------------------------//
+
+  /**
+   * This method returns the number of active leaves.
+   * @return An integer containing the leaf count.
+  **/
+  public int getLeafCount() { return(leafCount); }
+
+  //----< getStoredBytes >--------------------------------------------------//
+
+  /**
+   * This method estimates the memory used by the points: the node grid, the
+   *  allocated nodes' leaf references and the leaves.
+   * @return The number of bytes.
+  **/
+  public long getStoredBytes() {
+    long bytes = nodes.length * 4L;
+    for(final float[][] node : nodes)
+      if(node != null)
+        bytes += node.length * 4L + 16;
+    return(bytes + leafCount * (4L * LEAF_SIZE * LEAF_SIZE * LEAF_SIZE + 16));
+  } // end getStoredBytes
+
+  //----< getBackground >---------------------------------------------------//
+
+  /**
+   * This method returns the value of the points that aren't in a leaf.
+   * @return The float background value.
+  **/
+  public float getBackground() { return(background); }
+
+} // end class IsoSurfaceSparseDataMatrix
@@ -0,0 +1,92 @@
+package IsosurfaceFX;
+
+/**
+ * This class is the view a progressive extraction (see
+ *  IsoSurfaceGenerator.publishProgressive) extracts its previews through:
+ *  every stride'th sample of a data matrix along each axis, with the scales
+ *  multiplied by the stride, so the preview lands where the full surface
+ *  will.  When the stride doesn't divide the matrix, the view's last sample
+ *  along an axis is the matrix's last, so the preview covers the whole
+ *  volume.
+ * Nothing is copied; each getPoint reads the matrix.
+**/
+final class IsoSurfaceStridedDataMatrix extends IsoSurfaceDataMatrix {
+
+  /** The matrix being viewed. **/
+  private final IsoSurfaceDataMatrix source;
+
+  /** The distance between the view's samples, in samples of the matrix. **/
+  private final int stride;
+
+  /** The last sample of the matrix along x. **/
+  private final int xLast;
+
+  /** The last sample of the matrix along y. **/
+  private final int yLast;
+
+  /** The last sample of the matrix along z. **/
+  private final int zLast;
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor creates the view of a matrix at a stride.
+   * @param _source The matrix to view.
+   * @param _stride The distance between the view's samples, at least 1.
+  **/
+  IsoSurfaceStridedDataMatrix(final IsoSurfaceDataMatrix _source,
+                              final int _stride)
+  {
+    super((byte)_source.getPlane(),
+          viewDim(_source.getXMaxDim(), _stride),
+          viewDim(_source.getYMaxDim(), _stride),
+          viewDim(_source.getZMaxDim(), _stride),
+          _source.getXScale() * _stride, _source.getYScale() * _stride,
+          _source.getZScale() * _stride,
+          new Tuple3f(_source.getCentroid().x / _stride
+                      / viewDim(_source.getXMaxDim(), _stride),
+                      _source.getCentroid().y / _stride
+                      / viewDim(_source.getYMaxDim(), _stride),
+                      _source.getCentroid().z / _stride
+                      / viewDim(_source.getZMaxDim(), _stride)));
+    source = _source;
+    stride = _stride;
+    xLast = _source.getXMaxDim() - 1;
+    yLast = _source.getYMaxDim() - 1;
+    zLast = _source.getZMaxDim() - 1;
+  } // end constructor
+
+  //----< viewDim >---------------------------------------------------------//
+
+  /**
+   * This method works out how many samples the view has along an axis.
+   * @param _dim The number of samples of the matrix along the axis.
+   * @param _stride The distance between the view's samples.
+   * @return Enough samples to reach the matrix's last one, at least 1.
+  **/
+  private static int viewDim(final int _dim, final int _stride) {
+    return((Math.max(0, _dim - 1) + _stride - 1) / _stride + 1);
+  } // end viewDim
+
+  ////////////////////////////////////////////////////////////////////////////
+  // Getters
+  ////////////////////////////////////////////////////////////////////////////
+
+  //----< getPoint >--------------------------------------------------------//
+
+  /**
+   * This method returns a sample of the view, the matrix's sample at stride
+   *  times the indices, or its last one past the end.
+   * @param _x The index of the x-axis of the point in question.
+   * @param _y The index of the y-axis of the point in question.
+   * @param _z The index of the z-axis of the point in question.
+   * @return The double value of the point at coordinate (_x, _y, _z).
+  **/
+  @Override
+public double getPoint(final int _x, final int _y, final int _z) {
+    return(source.getPoint(Math.min(_x * stride, xLast),
+                           Math.min(_y * stride, yLast),
+                           Math.min(_z * stride, zLast)));
+  } // end getPoint
+
+} // end class IsoSurfaceStridedDataMatrix
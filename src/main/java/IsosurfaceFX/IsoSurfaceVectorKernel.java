@@ -0,0 +1,251 @@
+package IsosurfaceFX;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class holds the SIMD classification loops of IsoSurfaceClassifier,
+ *  written with the jdk.incubator.vector API.  A run of samples is loaded a
+ *  vector at a time, compared against one or two thresholds into a lane
+ *  mask, and the mask is written out as one 0 or 1 byte per sample, eight
+ *  bytes per store.
+ * This is the only class that refers to the incubator module, and
+ *  IsoSurfaceClassifier only calls it when the module is in the boot layer
+ *  (java --add-modules jdk.incubator.vector), so the library still runs,
+ *  with the scalar loops, when it isn't.
+**/
+final class IsoSurfaceVectorKernel implements IsoDataMatConstInterface {
+
+  /** The float species the loops use, the widest the hardware has. **/
+  private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+  /** The double species the loops use, the widest the hardware has. **/
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+  /** A view of a byte array as little-endian longs, for the bit stores. **/
+  private static final VarHandle LONGS =
+    MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  /**
+   * For each 8 bit mask, the 8 bytes holding its bits as 0 or 1, lowest
+   *  bit first.
+  **/
+  private static final long[] BYTES = new long[256];
+
+  static {
+    for(int m = 0; m < 256; m++) {
+      long bytes = 0;
+      for(int i = 0; i < 8; i++)
+        bytes |= (long)((m >> i) & 1) << (i * 8);
+      BYTES[m] = bytes;
+    } // end for
+  } // end static
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This class only has static methods.
+  **/
+  private IsoSurfaceVectorKernel() {
+  } // end constructor
+
+  //----< classify >--------------------------------------------------------//
+
+  /**
+   * This method classifies the leading whole vectors of a contiguous run of
+   *  floats.  A value is inside when it passes the first comparison and, if
+   *  there is one, the second.  The thresholds are doubles; they are rounded
+   *  to the float that gives each comparison the same answer it gives in
+   *  double precision.
+   * @param _data The array holding the values.
+   * @param _idx The index of the first value.
+   * @param _bits The array receiving the results, 1 for inside, 0 for
+   *  outside.
+   * @param _offset The index in _bits of the first result.
+   * @param _count The number of values in the run.
+   * @param _op1 The first comparitor, EQUAL to GREATER_THAN_EQ.
+   * @param _thres1 The first threshold.
+   * @param _op2 The second comparitor, or -1 for none.
+   * @param _thres2 The second threshold.
+   * @return The number of values classified, a multiple of the vector
+   *  length; the caller classifies the rest.
+  **/
+  static int classify(final float[] _data, final int _idx, final byte[] _bits,
+                      final int _offset, final int _count,
+                      final byte _op1, final double _thres1,
+                      final byte _op2, final double _thres2)
+  {
+    final int lanes = FLOATS.length();
+    final int bound = FLOATS.loopBound(_count);
+    final float t1 = toFloat(_op1, _thres1);
+    final float t2 = toFloat(_op2, _thres2);
+    int i = 0;
+    if(_op2 < 0) {
+      for( ; i < bound; i += lanes) {
+        final FloatVector v = FloatVector.fromArray(FLOATS, _data, _idx + i);
+        store(_bits, _offset + i, compare(v, _op1, t1).toLong(), lanes);
+      } // end for
+    } else {
+      for( ; i < bound; i += lanes) {
+        final FloatVector v = FloatVector.fromArray(FLOATS, _data, _idx + i);
+        final VectorMask<Float> m = compare(v, _op1, t1).and(compare(v, _op2, t2));
+        store(_bits, _offset + i, m.toLong(), lanes);
+      } // end for
+    } // end if
+    return(i);
+  } // end classify
+
+  //----< classify >--------------------------------------------------------//
+
+  /**
+   * This method classifies the leading whole vectors of a contiguous run of
+   *  doubles.  A value is inside when it passes the first comparison and, if
+   *  there is one, the second.
+   * @param _data The array holding the values.
+   * @param _idx The index of the first value.
+   * @param _bits The array receiving the results, 1 for inside, 0 for
+   *  outside.
+   * @param _offset The index in _bits of the first result.
+   * @param _count The number of values in the run.
+   * @param _op1 The first comparitor, EQUAL to GREATER_THAN_EQ.
+   * @param _thres1 The first threshold.
+   * @param _op2 The second comparitor, or -1 for none.
+   * @param _thres2 The second threshold.
+   * @return The number of values classified, a multiple of the vector
+   *  length; the caller classifies the rest.
+  **/
+  static int classify(final double[] _data, final int _idx, final byte[] _bits,
+                      final int _offset, final int _count,
+                      final byte _op1, final double _thres1,
+                      final byte _op2, final double _thres2)
+  {
+    final int lanes = DOUBLES.length();
+    final int bound = DOUBLES.loopBound(_count);
+    int i = 0;
+    if(_op2 < 0) {
+      for( ; i < bound; i += lanes) {
+        final DoubleVector v = DoubleVector.fromArray(DOUBLES, _data, _idx + i);
+        store(_bits, _offset + i, compare(v, _op1, _thres1).toLong(), lanes);
+      } // end for
+    } else {
+      for( ; i < bound; i += lanes) {
+        final DoubleVector v = DoubleVector.fromArray(DOUBLES, _data, _idx + i);
+        final VectorMask<Double> m = compare(v, _op1, _thres1)
+                                     .and(compare(v, _op2, _thres2));
+        store(_bits, _offset + i, m.toLong(), lanes);
+      } // end for
+    } // end if
+    return(i);
+  } // end classify
+
+  //----< getFloatLanes >---------------------------------------------------//
+
+  /**
+   * This method returns the number of floats the loops handle at a time.
+   * @return An integer containing the float vector length.
+  **/
+  static int getFloatLanes() { return(FLOATS.length()); }
+
+  //----< getDoubleLanes >--------------------------------------------------//
+
+  /**
+   * This method returns the number of doubles the loops handle at a time.
+   * @return An integer containing the double vector length.
+  **/
+  static int getDoubleLanes() { return(DOUBLES.length()); }
+
+  //----< compare >---------------------------------------------------------//
+
+  /**
+   * This method compares a vector of floats against a threshold.  Each case
+   *  passes a constant operator, so the comparison compiles to one vector
+   *  instruction.
+   * @param _v The values.
+   * @param _op The comparitor, EQUAL to GREATER_THAN_EQ.
+   * @param _thres The threshold.
+   * @return The mask of the lanes that pass.
+  **/
+  private static VectorMask<Float> compare(final FloatVector _v, final byte _op,
+                                           final float _thres)
+  {
+    switch(_op) {
+      case EQUAL :        return(_v.compare(VectorOperators.EQ, _thres));
+      case LESS_THAN :    return(_v.compare(VectorOperators.LT, _thres));
+      case LESS_THAN_EQ : return(_v.compare(VectorOperators.LE, _thres));
+      case GREATER_THAN : return(_v.compare(VectorOperators.GT, _thres));
+      default :           return(_v.compare(VectorOperators.GE, _thres));
+    } // end switch
+  } // end compare
+
+  //----< compare >---------------------------------------------------------//
+
+  /**
+   * This method compares a vector of doubles against a threshold.
+   * @param _v The values.
+   * @param _op The comparitor, EQUAL to GREATER_THAN_EQ.
+   * @param _thres The threshold.
+   * @return The mask of the lanes that pass.
+  **/
+  private static VectorMask<Double> compare(final DoubleVector _v,
+                                            final byte _op,
+                                            final double _thres)
+  {
+    switch(_op) {
+      case EQUAL :        return(_v.compare(VectorOperators.EQ, _thres));
+      case LESS_THAN :    return(_v.compare(VectorOperators.LT, _thres));
+      case LESS_THAN_EQ : return(_v.compare(VectorOperators.LE, _thres));
+      case GREATER_THAN : return(_v.compare(VectorOperators.GT, _thres));
+      default :           return(_v.compare(VectorOperators.GE, _thres));
+    } // end switch
+  } // end compare
+
+  //----< toFloat >---------------------------------------------------------//
+
+  /**
+   * This method rounds a double threshold to the float threshold that
+   *  classifies every float value the same way.  A value below a threshold
+   *  is below the smallest float at or above it, and a value above it is
+   *  above the largest float at or below it.  A threshold that isn't a float
+   *  can't equal a float, so EQUAL gets NaN, which equals nothing.
+   * @param _op The comparitor, EQUAL to GREATER_THAN_EQ, or -1.
+   * @param _thres The double threshold.
+   * @return The float threshold.
+  **/
+  private static float toFloat(final byte _op, final double _thres) {
+    final float f = (float)_thres;
+    switch(_op) {
+      case EQUAL :           return((f == _thres) ? f : Float.NaN);
+      case LESS_THAN :
+      case GREATER_THAN_EQ : return((f < _thres) ? Math.nextUp(f) : f);
+      case LESS_THAN_EQ :
+      case GREATER_THAN :    return((f > _thres) ? Math.nextDown(f) : f);
+      default :              return(f);
+    } // end switch
+  } // end toFloat
+
+  //----< store >-----------------------------------------------------------//
+
+  /**
+   * This method writes a lane mask out as one byte per lane.
+   * @param _bits The array receiving the bytes.
+   * @param _offset The index in _bits of the first lane's byte.
+   * @param _mask The mask, lane i in bit i.
+   * @param _lanes The number of lanes.
+  **/
+  private static void store(final byte[] _bits, final int _offset,
+                            final long _mask, final int _lanes)
+  {
+    int i = 0;
+    for( ; i + 8 <= _lanes; i += 8)
+      LONGS.set(_bits, _offset + i, BYTES[(int)(_mask >>> i) & 0xff]);
+    for( ; i < _lanes; i++)
+      _bits[_offset + i] = (byte)((_mask >>> i) & 1);
+  } // end store
+
+} // end class IsoSurfaceVectorKernel
@@ -0,0 +1,50 @@
+package IsosurfaceFX;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This Java Flight Recorder event covers filling a data matrix in bulk:
+ *  copying another matrix into it, or mapping a file.
+**/
+@Name("IsosurfaceFX.VolumeLoad")
+@Label("Isosurface Volume Load")
+@Category({ "IsosurfaceFX" })
+@Description("Filling a data matrix from another matrix or a file")
+final class IsoSurfaceVolumeLoadEvent extends jdk.jfr.Event {
+
+  @Label("Matrix Class")
+  String matrixClass;
+
+  @Label("Source")
+  @Description("The file mapped, or the class of the matrix copied")
+  String source;
+
+  @Label("X Dimension")
+  int xDim;
+
+  @Label("Y Dimension")
+  int yDim;
+
+  @Label("Z Dimension")
+  int zDim;
+
+  //----< set >-------------------------------------------------------------//
+
+  /**
+   * This method fills in the fields from the matrix that was loaded.
+   * @param _matrix The matrix that was loaded.
+   * @param _source The file or matrix it was loaded from.
+  **/
+  void set(final IsoSurfaceDataMatrix _matrix, final Object _source) {
+    matrixClass = _matrix.getClass().getSimpleName();
+    source = (_source instanceof IsoSurfaceDataMatrix)
+             ? _source.getClass().getSimpleName() : String.valueOf(_source);
+    xDim = _matrix.getXMaxDim();
+    yDim = _matrix.getYMaxDim();
+    zDim = _matrix.getZMaxDim();
+  } // end set
+
+} // end class IsoSurfaceVolumeLoadEvent
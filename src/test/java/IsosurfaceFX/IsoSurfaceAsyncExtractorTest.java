@@ -0,0 +1,45 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceAsyncExtractor.
+**/
+class IsoSurfaceAsyncExtractorTest implements IsoDataMatConstInterface {
+
+  //----< quickExtractionsOnSmallPool >-------------------------------------//
+
+  /**
+   * Extractions started in quick succession, like a dragged slider's, on a
+   *  pool with fewer threads than the options ask for: the cancelled ones
+   *  give their threads back and the last one finishes.
+  **/
+  @Test
+  void quickExtractionsOnSmallPool() throws Exception {
+    final IsoSurfaceDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XZ_PLANE, 48, 40, 36, 11);
+    final ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      final IsoSurfaceAsyncExtractor extractor =
+        new IsoSurfaceAsyncExtractor(new IsoSurfaceExtractionOptions(4, pool));
+      CompletableFuture<IsoSurfaceGenerator> last = null;
+      for(int i = 0; i < 5; i++)
+        last = extractor.extract(matrix, null, GREATER_THAN, 1.0 + i * 0.5);
+      final IsoSurfaceGenerator gen = last.get(60, TimeUnit.SECONDS);
+      IsoSurfaceGeneratorTest.assertSameSurface(
+        new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 3.0,
+                                new IsoSurfaceExtractionOptions()), gen);
+      assertTrue(pool.submit(() -> true).get(60, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end quickExtractionsOnSmallPool
+
+} // end class IsoSurfaceAsyncExtractorTest
@@ -0,0 +1,156 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceBrickedDataMatrix.
+**/
+class IsoSurfaceBrickedDataMatrixTest implements IsoDataMatConstInterface {
+
+  //----< matchesDense >----------------------------------------------------//
+
+  /**
+   * In every plane, and with bricks smaller and larger than the matrix's
+   *  edges, a bricked copy holds the dense matrix's values, reads leastValue
+   *  outside, and extracts the same surface serially and in parallel.
+  **/
+  @Test
+  void matchesDense() {
+    for(final byte plane : new byte[] { XZ_PLANE, XY_PLANE, YZ_PLANE }) {
+      final IsoSurfaceDoubleDataMatrix dense =
+        IsoSurfaceTestVolumes.blobs(plane, 37, 30, 26, 11L);
+      final IsoSurfaceBrickedDataMatrix small =
+        new IsoSurfaceBrickedDataMatrix(plane, 37, 30, 26, 1.0f, 1.5f, 0.75f,
+                                        CENTER, 8, -1.0f);
+      small.load(dense);
+      for(final IsoSurfaceBrickedDataMatrix bricked :
+            new IsoSurfaceBrickedDataMatrix[] {
+              small, new IsoSurfaceBrickedDataMatrix(dense, -1.0f) })
+      {
+        for(int z = -1; z <= 26; z++)
+          for(int y = -1; y <= 30; y++)
+            for(int x = -1; x <= 37; x++) {
+              final boolean inside = x >= 0 && x < 37 && y >= 0 && y < 30
+                                     && z >= 0 && z < 26;
+              assertEquals(inside ? dense.getPoint(x, y, z) : -1.0,
+                           bricked.getPoint(x, y, z),
+                           "point " + x + "," + y + "," + z);
+            } // end for
+        for(int threads = 1; threads <= 4; threads += 3) {
+          final IsoSurfaceExtractionOptions options =
+            new IsoSurfaceExtractionOptions(threads);
+          IsoSurfaceGeneratorTest.assertSameSurface(
+            new IsoSurfaceGenerator(dense, null, GREATER_THAN, 2.0, options),
+            new IsoSurfaceGenerator(bricked, null, GREATER_THAN, 2.0,
+                                    options));
+        } // end for
+      } // end for
+    } // end for
+  } // end matchesDense
+
+  //----< compactFoldsUniformBricks >---------------------------------------//
+
+  /**
+   * Compacting folds exactly the mixed bricks whose points all came out the
+   *  same, into their value, and leaves every point as it was.
+  **/
+  @Test
+  void compactFoldsUniformBricks() {
+    final IsoSurfaceBrickedDataMatrix matrix =
+      new IsoSurfaceBrickedDataMatrix(XZ_PLANE, 40, 36, 32, 1.0f, 1.0f, 1.0f,
+                                      LOWER_LEFT, 8, 0.0f);
+    for(int z = 24; z < 32; z++)
+      for(int y = 16; y < 24; y++)
+        for(int x = 8; x < 16; x++)
+          matrix.setPoint(x, y, z, 3.0f);
+    matrix.setPoint(2, 3, 4, 5.0f);
+    matrix.setPoint(2, 3, 4, 0.0f);
+    matrix.setPoint(17, 9, 10, 1.0f);
+    matrix.setPoint(18, 9, 10, 2.0f);
+    assertEquals(3, matrix.getMixedBrickCount());
+
+    final float[][][] before = new float[40][36][32];
+    for(int x = 0; x < 40; x++)
+      for(int y = 0; y < 36; y++)
+        for(int z = 0; z < 32; z++)
+          before[x][y][z] = (float)matrix.getPoint(x, y, z);
+    final long bytes = matrix.getStoredBytes();
+
+    assertEquals(2, matrix.compact());
+    assertEquals(1, matrix.getMixedBrickCount());
+    assertTrue(matrix.getStoredBytes() < bytes);
+    final int full = matrix.getBrickIndex(1, 2, 3);
+    assertTrue(matrix.isBrickUniform(full));
+    assertEquals(3.0f, matrix.getBrickValue(full));
+    assertTrue(matrix.isBrickUniform(matrix.getBrickIndex(0, 0, 0)));
+    assertEquals(0.0f, matrix.getBrickValue(matrix.getBrickIndex(0, 0, 0)));
+    assertFalse(matrix.isBrickUniform(matrix.getBrickIndex(2, 1, 1)));
+    for(int x = 0; x < 40; x++)
+      for(int y = 0; y < 36; y++)
+        for(int z = 0; z < 32; z++)
+          assertEquals(before[x][y][z], matrix.getPoint(x, y, z));
+    assertEquals(0, matrix.compact());
+  } // end compactFoldsUniformBricks
+
+  //----< writesRebuildIndexes >--------------------------------------------//
+
+  /**
+   * The indexes are reused until the matrix is written, by point, by plane,
+   *  or by loading, and the next one asked for holds the written values.
+  **/
+  @Test
+  void writesRebuildIndexes() {
+    final IsoSurfaceBrickedDataMatrix matrix =
+      new IsoSurfaceBrickedDataMatrix(XY_PLANE, 40, 36, 32, 1.0f, 1.0f, 1.0f,
+                                      LOWER_LEFT, 8, 0.0f);
+    IsoSurfaceBlockPyramid last = matrix.getBlockPyramid();
+    assertSame(last, matrix.getBlockPyramid());
+    assertEquals(0.0, IsoSurfaceSparseDataMatrixTest.topMax(last));
+
+    for(int y = 2; y < 20; y++)
+      matrix.setPoint(9, y, 4, y);
+    last = assertRebuilt(matrix, last, 19.0);
+
+    matrix.compact();
+    final float[][] plane = new float[40][36];
+    plane[11][12] = 25.0f;
+    matrix.setPlaneData(30, plane);
+    last = assertRebuilt(matrix, last, 25.0);
+
+    final IsoSurfaceBrickedDataMatrix source =
+      new IsoSurfaceBrickedDataMatrix(XY_PLANE, 40, 36, 32, 1.0f, 1.0f, 1.0f,
+                                      LOWER_LEFT, 8, 0.0f);
+    source.setPoint(33, 1, 17, 7.0f);
+    matrix.load(source);
+    assertRebuilt(matrix, last, 7.0);
+  } // end writesRebuildIndexes
+
+  //----< assertRebuilt >---------------------------------------------------//
+
+  /**
+   * This method checks that a matrix's block pyramid was rebuilt after a
+   *  write, and is then reused.
+   * @param _matrix The matrix that was written.
+   * @param _before The pyramid from before the write.
+   * @param _max The largest value of the matrix after the write.
+   * @return The rebuilt pyramid.
+  **/
+  private static IsoSurfaceBlockPyramid assertRebuilt(
+                                      final IsoSurfaceDataMatrix _matrix,
+                                      final IsoSurfaceBlockPyramid _before,
+                                      final double _max)
+  {
+    final IsoSurfaceBlockPyramid after = _matrix.getBlockPyramid();
+    assertNotSame(_before, after);
+    assertSame(after, _matrix.getBlockPyramid());
+    assertEquals(_max, IsoSurfaceSparseDataMatrixTest.topMax(after));
+    return(after);
+  } // end assertRebuilt
+
+} // end class IsoSurfaceBrickedDataMatrixTest
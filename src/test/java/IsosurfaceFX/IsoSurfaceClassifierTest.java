@@ -0,0 +1,76 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceClassifier.
+**/
+class IsoSurfaceClassifierTest implements IsoDataMatConstInterface {
+
+  /** The comparitors the classifiers are made with. **/
+  private static final byte[] OPS = { EQUAL, LESS_THAN, LESS_THAN_EQ,
+                                      GREATER_THAN, GREATER_THAN_EQ };
+
+  //----< runsMatchIsInside >-----------------------------------------------//
+
+  /**
+   * Classifying a run, with the SIMD kernel when it's available, gives what
+   *  isInside gives for each value, for every pair of comparitors, at any
+   *  offset, with values on the thresholds, NaNs and signed zeros.
+  **/
+  @Test
+  void runsMatchIsInside() {
+    final float[] floats = new float[203];
+    final double[] doubles = new double[floats.length];
+    for(int i = 0; i < floats.length; i++) {
+      floats[i] = ((i * 37) % 19 - 9) * 0.25f;
+      if(i % 23 == 0)
+        floats[i] = Float.NaN;
+      else if(i % 29 == 0)
+        floats[i] = -0.0f;
+      doubles[i] = floats[i];
+    } // end for
+
+    for(final byte lowOp : OPS) {
+      for(final byte highOp : OPS) {
+        final IsoSurfaceClassifier cls =
+          IsoSurfaceClassifier.create(lowOp, -0.75, highOp, 1.25);
+        check(cls, floats, doubles);
+      } // end for
+      check(IsoSurfaceClassifier.create(lowOp, 0.0), floats, doubles);
+    } // end for
+  } // end runsMatchIsInside
+
+  //----< check >-----------------------------------------------------------//
+
+  /**
+   * This method checks a classifier's runs against its isInside, for runs
+   *  starting at each of the first few values.
+   * @param _cls The classifier.
+   * @param _floats The values as floats.
+   * @param _doubles The same values as doubles.
+  **/
+  private static void check(final IsoSurfaceClassifier _cls,
+                            final float[] _floats, final double[] _doubles)
+  {
+    for(int start = 0; start < 9; start++) {
+      final int count = _floats.length - start - 1;
+      final byte[] fromFloats = new byte[count + 3];
+      final byte[] fromDoubles = new byte[count + 3];
+      _cls.classify(_floats, start, 1, fromFloats, 2, count);
+      _cls.classify(_doubles, start, 1, fromDoubles, 2, count);
+      for(int i = 0; i < count; i++) {
+        final byte expected = _cls.isInside(_floats[start + i]) ? (byte)1
+                                                                : (byte)0;
+        assertEquals(expected, fromFloats[2 + i], "float " + _floats[start + i]);
+        assertEquals(expected, fromDoubles[2 + i],
+                     "double " + _doubles[start + i]);
+      } // end for
+      assertEquals(0, fromFloats[count + 2]);
+      assertEquals(0, fromDoubles[count + 2]);
+    } // end for
+  } // end check
+
+} // end class IsoSurfaceClassifierTest
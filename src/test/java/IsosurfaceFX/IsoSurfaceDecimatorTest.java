@@ -0,0 +1,124 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceDecimator.
+**/
+class IsoSurfaceDecimatorTest implements IsoDataMatConstInterface {
+
+  //----< staysWithinBounds >-----------------------------------------------//
+
+  /**
+   * Decimating a sphere on one thread or several stops near the target
+   *  triangle count, keeps fewer triangles the larger the error bound, and
+   *  never moves a vertex off the sphere by much more than the bound.
+  **/
+  @Test
+  void staysWithinBounds() {
+    final IsoSurfaceExtractionOptions extract =
+      new IsoSurfaceExtractionOptions(2);
+    extract.setIndexed(true);
+    extract.setInterpolated(true);
+    final IsoSurfaceGenerator sphere =
+      new IsoSurfaceGenerator(IsoSurfaceTestVolumes.sphere(40, 14.0), null,
+                              GREATER_THAN, 0.0, extract);
+    final float[] verts = sphere.getPackedVertexArray();
+    final double[] center = IsoSurfaceGeneratorTest.getCenter(verts);
+    final double[] radii = getRadii(verts, center);
+    final int source = sphere.getPolygonCount();
+
+    for(int threads = 1; threads <= 4; threads += 3) {
+      final IsoSurfaceExtractionOptions options =
+        new IsoSurfaceExtractionOptions(threads);
+      final int target = source / 4;
+      final IsoSurfaceDecimator toTarget =
+        new IsoSurfaceDecimator(sphere, target, options);
+      assertTrue(toTarget.getPolygonCount() <= target + 2,
+                 toTarget.getPolygonCount() + " triangles for " + target);
+      assertTrue(toTarget.getPolygonCount() >= target * 9 / 10,
+                 toTarget.getPolygonCount() + " triangles for " + target);
+
+      int last = source;
+      for(final double error : new double[] { 0.02, 0.1, 0.4 }) {
+        final IsoSurfaceDecimator toError =
+          new IsoSurfaceDecimator(sphere, 0, error, options);
+        final int count = toError.getPolygonCount();
+        assertTrue(count < last, count + " triangles at " + error);
+        last = count;
+        final double[] moved =
+          getRadii(toError.getPackedVertexArray(), center);
+        assertTrue(moved[0] > radii[0] - 2.0 * error
+                   && moved[1] < radii[1] + 2.0 * error,
+                   "radii " + moved[0] + " to " + moved[1] + " at " + error);
+      } // end for
+    } // end for
+  } // end staysWithinBounds
+
+  //----< decimateOnSingleThreadPool >------------------------------------//
+
+  /**
+   * A decimation asking for more threads than its executor has, started on
+   *  the executor's only thread, finishes with the mesh the same options
+   *  give on the common pool.
+  **/
+  @Test
+  void decimateOnSingleThreadPool() throws Exception {
+    final IsoSurfaceExtractionOptions extract =
+      new IsoSurfaceExtractionOptions();
+    extract.setIndexed(true);
+    final IsoSurfaceGenerator sphere =
+      new IsoSurfaceGenerator(IsoSurfaceTestVolumes.sphere(32, 11.0), null,
+                              GREATER_THAN, 0.0, extract);
+    final int target = sphere.getPolygonCount() / 3;
+    final IsoSurfaceDecimator expected =
+      new IsoSurfaceDecimator(sphere, target,
+                              new IsoSurfaceExtractionOptions(4));
+    final ExecutorService pool = Executors.newFixedThreadPool(1);
+    try {
+      final IsoSurfaceExtractionOptions options =
+        new IsoSurfaceExtractionOptions(4, pool);
+      final IsoSurfaceDecimator actual =
+        CompletableFuture.supplyAsync(
+          () -> new IsoSurfaceDecimator(sphere, target, options), pool)
+          .get(60, TimeUnit.SECONDS);
+      assertArrayEquals(expected.getPackedVertexArray(),
+                        actual.getPackedVertexArray());
+      assertArrayEquals(expected.getIndexArray(), actual.getIndexArray());
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end decimateOnSingleThreadPool
+
+  //----< getRadii >--------------------------------------------------------//
+
+  /**
+   * This method returns the range of distances of vertices from a point.
+   * @param _verts The vertices, x,y,z interleaved.
+   * @param _center The point.
+   * @return The smallest and largest distances.
+  **/
+  private static double[] getRadii(final float[] _verts,
+                                   final double[] _center)
+  {
+    final double[] radii = { Double.MAX_VALUE, 0.0 };
+    for(int i = 0; i < _verts.length; i += 3) {
+      final double dx = _verts[i] - _center[0];
+      final double dy = _verts[i+1] - _center[1];
+      final double dz = _verts[i+2] - _center[2];
+      final double r = Math.sqrt(dx*dx + dy*dy + dz*dz);
+      radii[0] = Math.min(radii[0], r);
+      radii[1] = Math.max(radii[1], r);
+    } // end for
+    return(radii);
+  } // end getRadii
+
+} // end class IsoSurfaceDecimatorTest
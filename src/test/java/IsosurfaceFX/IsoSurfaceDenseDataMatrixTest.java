@@ -0,0 +1,256 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceDenseDoubleDataMatrix and
+ *  IsoSurfaceDenseFloatDataMatrix, in every plane, against the layout they
+ *  document and the variable-length matrices they replace.
+**/
+class IsoSurfaceDenseDataMatrixTest implements IsoDataMatConstInterface {
+
+  /** The planes a matrix can be in. **/
+  private static final byte[] PLANES = { XZ_PLANE, XY_PLANE, YZ_PLANE };
+
+  //----< indexLayout >-----------------------------------------------------//
+
+  /**
+   * A wrapped array holding each point's own index reads back, at every
+   *  point, the index of the independent, major and minor axis order, and
+   *  points outside the matrix read the least value.  The array is shared,
+   *  not copied.
+  **/
+  @Test
+  void indexLayout() {
+    for(final byte plane : PLANES) {
+      final double[] doubles = new double[5 * 4 * 3];
+      final float[] floats = new float[doubles.length];
+      for(int i = 0; i < doubles.length; i++) {
+        doubles[i] = i;
+        floats[i] = i;
+      } // end for
+      final IsoSurfaceDenseDoubleDataMatrix dense =
+        new IsoSurfaceDenseDoubleDataMatrix(plane, 5, 4, 3, 1.0f, 1.0f, 1.0f,
+                                            LOWER_LEFT, doubles, -1.0);
+      final IsoSurfaceDenseFloatDataMatrix denseF =
+        new IsoSurfaceDenseFloatDataMatrix(plane, 5, 4, 3, 1.0f, 1.0f, 1.0f,
+                                           LOWER_LEFT, floats, -1.0f);
+      assertEquals(doubles.length, dense.getSize());
+
+      final int[] axes = axes(plane);
+      final int[] dims = { 5, 4, 3 };
+      final int[] p = new int[3];
+      for(p[0] = 0; p[0] < 5; p[0]++)
+        for(p[1] = 0; p[1] < 4; p[1]++)
+          for(p[2] = 0; p[2] < 3; p[2]++) {
+            final int idx = (p[axes[0]] * dims[axes[1]] + p[axes[1]])
+                            * dims[axes[2]] + p[axes[2]];
+            final String at = plane + ": " + Arrays.toString(p);
+            assertEquals(idx, dense.getIndex(p[0], p[1], p[2]), at);
+            assertEquals(idx, denseF.getIndex(p[0], p[1], p[2]), at);
+            assertEquals(idx, dense.getPoint(p[0], p[1], p[2]), at);
+            assertEquals(idx, denseF.getPoint(p[0], p[1], p[2]), at);
+            assertTrue(dense.contains(p[0], p[1], p[2]), at);
+          } // end for
+
+      for(final int[] out : new int[][] { { -1, 0, 0 }, { 5, 0, 0 },
+                                          { 0, -1, 0 }, { 0, 4, 0 },
+                                          { 0, 0, -1 }, { 0, 0, 3 } })
+      {
+        assertFalse(dense.contains(out[0], out[1], out[2]));
+        assertEquals(-1.0, dense.getPoint(out[0], out[1], out[2]));
+        assertEquals(-1.0, denseF.getPoint(out[0], out[1], out[2]));
+      } // end for
+
+      doubles[dense.getIndex(4, 3, 2)] = 100.0;
+      floats[denseF.getIndex(4, 3, 2)] = 100.0f;
+      assertEquals(100.0, dense.getPoint(4, 3, 2));
+      assertEquals(100.0, denseF.getPoint(4, 3, 2));
+    } // end for
+  } // end indexLayout
+
+  //----< setDataCopies >---------------------------------------------------//
+
+  /**
+   * setData copies the array it's given, so later changes to that array
+   *  don't show, and an array of the wrong length is rejected.
+  **/
+  @Test
+  void setDataCopies() {
+    for(final byte plane : PLANES) {
+      final IsoSurfaceDenseDoubleDataMatrix dense =
+        new IsoSurfaceDenseDoubleDataMatrix(plane, 4, 3, 2, 1.0f, 1.0f, 1.0f,
+                                            LOWER_LEFT, 0.0);
+      final IsoSurfaceDenseFloatDataMatrix denseF =
+        new IsoSurfaceDenseFloatDataMatrix(plane, 4, 3, 2, 1.0f, 1.0f, 1.0f,
+                                           LOWER_LEFT, 0.0f);
+      final double[] doubles = new double[24];
+      final float[] floats = new float[24];
+      for(int i = 0; i < 24; i++) {
+        doubles[i] = i * 0.5;
+        floats[i] = i * 0.5f;
+      } // end for
+      dense.setData(doubles);
+      denseF.setData(floats);
+      Arrays.fill(doubles, 9.0);
+      Arrays.fill(floats, 9.0f);
+      for(int i = 0; i < 24; i++) {
+        assertEquals(i * 0.5, dense.getValue(i));
+        assertEquals(i * 0.5f, denseF.getValue(i));
+      } // end for
+
+      assertThrows(IllegalArgumentException.class,
+                   () -> dense.setData(new double[23]));
+      assertThrows(IllegalArgumentException.class,
+                   () -> denseF.setData(new float[25]));
+      assertThrows(IllegalArgumentException.class,
+        () -> new IsoSurfaceDenseDoubleDataMatrix(plane, 4, 3, 2,
+                                                  1.0f, 1.0f, 1.0f,
+                                                  LOWER_LEFT, new double[12],
+                                                  0.0));
+    } // end for
+  } // end setDataCopies
+
+  //----< setPlaneDataMatchesJagged >---------------------------------------//
+
+  /**
+   * Planes of ragged rows, some of them missing and centered off the middle
+   *  so they hang over the edges, read the same as in the variable-length
+   *  matrices given the same planes.
+  **/
+  @Test
+  void setPlaneDataMatchesJagged() {
+    for(final byte plane : PLANES) {
+      final IsoSurfaceDoubleDataMatrix jagged =
+        new IsoSurfaceDoubleDataMatrix(plane, 7, 6, 5, 1.0f, 1.0f, 1.0f,
+                                       LOWER_LEFT, (byte)-1);
+      final IsoSurfaceFloatDataMatrix jaggedF =
+        new IsoSurfaceFloatDataMatrix(plane, 7, 6, 5, 1.0f, 1.0f, 1.0f,
+                                      LOWER_LEFT, -1.0f);
+      final IsoSurfaceDenseDoubleDataMatrix dense =
+        new IsoSurfaceDenseDoubleDataMatrix(plane, 7, 6, 5, 1.0f, 1.0f, 1.0f,
+                                            LOWER_LEFT, -1.0);
+      final IsoSurfaceDenseFloatDataMatrix denseF =
+        new IsoSurfaceDenseFloatDataMatrix(plane, 7, 6, 5, 1.0f, 1.0f, 1.0f,
+                                           LOWER_LEFT, -1.0f);
+      final int[] dims = { 7, 6, 5 };
+      final int[] axes = axes(plane);
+      for(int i = 0; i < dims[axes[0]]; i++) {
+        final double[][] values = new double[dims[axes[1]] + 1][];
+        final float[][] valuesF = new float[values.length][];
+        for(int j = 0; j < values.length; j++) {
+          if((i + j) % 4 == 3)
+            continue;
+          values[j] = new double[dims[axes[2]] - 1 + (i + j) % 3];
+          valuesF[j] = new float[values[j].length];
+          for(int k = 0; k < values[j].length; k++) {
+            values[j][k] = i * 100 + j * 10 + k;
+            valuesF[j][k] = (float)values[j][k];
+          } // end for
+        } // end for
+        final int majCenter = dims[axes[1]] / 2 + (i % 3) - 1;
+        final int minCenter = dims[axes[2]] / 2 - (i % 2);
+        jagged.setPlaneData(i, values, majCenter, minCenter);
+        jaggedF.setPlaneData(i, valuesF, majCenter, minCenter);
+        dense.setPlaneData(i, values, majCenter, minCenter);
+        denseF.setPlaneData(i, valuesF, majCenter, minCenter);
+      } // end for
+
+      assertSameValues(jagged, dense);
+      assertSameValues(jaggedF, denseF);
+    } // end for
+  } // end setPlaneDataMatchesJagged
+
+  //----< loadAndCopyFrom >-------------------------------------------------//
+
+  /**
+   * A dense copy of a variable-length matrix takes its centroid and values
+   *  and extracts the same surface.  Loading into an existing matrix takes
+   *  the values but keeps the matrix's own centroid, and drops the indexes
+   *  built from its old values.
+  **/
+  @Test
+  void loadAndCopyFrom() {
+    for(final byte plane : PLANES) {
+      final IsoSurfaceDoubleDataMatrix source =
+        IsoSurfaceTestVolumes.blobs(plane, 14, 11, 9, 21L);
+      final IsoSurfaceGenerator expected =
+        new IsoSurfaceGenerator(source, null, GREATER_THAN, 2.0,
+                                new IsoSurfaceExtractionOptions());
+
+      final IsoSurfaceDenseDoubleDataMatrix copy =
+        new IsoSurfaceDenseDoubleDataMatrix(source, -2.0);
+      final IsoSurfaceDenseFloatDataMatrix copyF =
+        new IsoSurfaceDenseFloatDataMatrix(source, -2.0f);
+      for(final IsoSurfaceDataMatrix dense : new IsoSurfaceDataMatrix[] {
+                                               copy, copyF })
+      {
+        assertEquals(source.getPlane(), dense.getPlane());
+        assertEquals(source.getCentroid().x, dense.getCentroid().x);
+        assertEquals(source.getCentroid().y, dense.getCentroid().y);
+        assertEquals(source.getCentroid().z, dense.getCentroid().z);
+        assertSameValues(source, dense);
+        assertEquals(-2.0, dense.getPoint(14, 0, 0));
+        IsoSurfaceGeneratorTest.assertSameSurface(expected,
+          new IsoSurfaceGenerator(dense, null, GREATER_THAN, 2.0,
+                                  new IsoSurfaceExtractionOptions()));
+      } // end for
+
+      final IsoSurfaceDenseDoubleDataMatrix loaded =
+        new IsoSurfaceDenseDoubleDataMatrix(plane, 14, 11, 9,
+                                            1.0f, 1.5f, 0.75f, CENTER, 7.0);
+      final IsoSurfaceExtractionOptions indexed =
+        new IsoSurfaceExtractionOptions();
+      indexed.setSpanSpaceIndexing(true);
+      assertEquals(0, new IsoSurfaceGenerator(loaded, null, GREATER_THAN, 2.0,
+                                              indexed).getPolygonCount());
+      loaded.load(source);
+      assertSameValues(source, loaded);
+      assertEquals(7.0, loaded.getPoint(0, -1, 0));
+      IsoSurfaceGeneratorTest.assertSameSurface(expected,
+        new IsoSurfaceGenerator(loaded, null, GREATER_THAN, 2.0, indexed));
+    } // end for
+  } // end loadAndCopyFrom
+
+  //----< axes >------------------------------------------------------------//
+
+  /**
+   * This method returns the independent, major and minor axes of a plane.
+   * @param _plane The plane.
+   * @return The axes, 0 for x, 1 for y, 2 for z, slowest varying first.
+  **/
+  private static int[] axes(final byte _plane) {
+    switch(_plane) {
+      case XZ_PLANE : return(new int[] { 1, 0, 2 });
+      case XY_PLANE : return(new int[] { 2, 0, 1 });
+      default :       return(new int[] { 0, 1, 2 });
+    } // end switch
+  } // end axes
+
+  //----< assertSameValues >------------------------------------------------//
+
+  /**
+   * This method checks that two matrices hold the same value at every point
+   *  inside them.  Outside, a variable-length matrix may still have rows
+   *  where a dense one has the least value.
+   * @param _expected The matrix with the expected values.
+   * @param _actual The matrix to check.
+  **/
+  private static void assertSameValues(final IsoSurfaceDataMatrix _expected,
+                                       final IsoSurfaceDataMatrix _actual)
+  {
+    for(int z = 0; z < _expected.getZMaxDim(); z++)
+      for(int y = 0; y < _expected.getYMaxDim(); y++)
+        for(int x = 0; x < _expected.getXMaxDim(); x++)
+          assertEquals(_expected.getPoint(x, y, z), _actual.getPoint(x, y, z),
+                       "point " + x + "," + y + "," + z);
+  } // end assertSameValues
+
+} // end class IsoSurfaceDenseDataMatrixTest
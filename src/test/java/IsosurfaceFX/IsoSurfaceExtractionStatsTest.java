@@ -0,0 +1,92 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the counts of IsoSurfaceExtractionStats on a volume of
+ *  16 cells a side that is empty but for one sample at (3, 3, 3).  The eight
+ *  cells around the sample each cut off its corner with one triangle, which
+ *  makes a closed octahedron of six distinct vertices.
+**/
+class IsoSurfaceExtractionStatsTest implements IsoDataMatConstInterface {
+
+  /** The number of cells of the volume. **/
+  private static final int CELLS = 16 * 16 * 16;
+
+  //----< countsEveryCell >-------------------------------------------------//
+
+  /**
+   * Without an index every cell is visited, and the eight around the sample
+   *  give a triangle each, three vertices apiece, with a normal for each.
+  **/
+  @Test
+  void countsEveryCell() {
+    final IsoSurfaceExtractionOptions options =
+      new IsoSurfaceExtractionOptions(1);
+    options.setBlockSkipping(false);
+    options.setSpanSpaceIndexing(false);
+    final IsoSurfaceExtractionStats stats = extract(options);
+    assertEquals(CELLS, stats.getCellsVisited());
+    assertEquals(8, stats.getNonEmptyCells());
+    assertEquals(8, stats.getTriangles());
+    assertEquals(24, stats.getVertices());
+    assertEquals((24 * 3 + 24 * 3) * 4, stats.getOutputBytes());
+    assertEquals(1, stats.getThreads());
+    assertFalse(stats.isIncremental());
+  } // end countsEveryCell
+
+  //----< countsSkippedCells >----------------------------------------------//
+
+  /**
+   * Block skipping only visits the block of 8 cells a side that holds the
+   *  sample, and the span-space index only the eight cells around it.  The
+   *  indexed mesh has the octahedron's six vertices and 24 indices.
+  **/
+  @Test
+  void countsSkippedCells() {
+    final IsoSurfaceExtractionOptions blocks =
+      new IsoSurfaceExtractionOptions(1);
+    blocks.setBlockSkipping(true);
+    blocks.setSpanSpaceIndexing(false);
+    final IsoSurfaceExtractionStats skipped = extract(blocks);
+    assertEquals(8 * 8 * 8, skipped.getCellsVisited());
+    assertEquals(8, skipped.getNonEmptyCells());
+    assertEquals(8, skipped.getTriangles());
+
+    final IsoSurfaceExtractionOptions spans =
+      new IsoSurfaceExtractionOptions(1);
+    spans.setSpanSpaceIndexing(true);
+    spans.setIndexed(true);
+    final IsoSurfaceExtractionStats indexed = extract(spans);
+    assertEquals(8, indexed.getCellsVisited());
+    assertEquals(8, indexed.getNonEmptyCells());
+    assertEquals(8, indexed.getTriangles());
+    assertEquals(6, indexed.getVertices());
+    assertEquals((6 * 3 + 6 * 3 + 8 * 3) * 4, indexed.getOutputBytes());
+    assertTrue(indexed.getTotalNanos() >= indexed.getExtractNanos());
+  } // end countsSkippedCells
+
+  //----< extract >---------------------------------------------------------//
+
+  /**
+   * This method extracts the volume's surface.
+   * @param _options The options to extract with.
+   * @return The stats of the extraction.
+  **/
+  private static IsoSurfaceExtractionStats extract(
+                                 final IsoSurfaceExtractionOptions _options)
+  {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      new IsoSurfaceDoubleDataMatrix(XZ_PLANE, 17, 17, 17, 1.0f, 1.0f, 1.0f,
+                                     LOWER_LEFT, (byte)0);
+    IsoSurfaceTestVolumes.fill(matrix, (_x, _y, _z) ->
+      (_x == 3 && _y == 3 && _z == 3) ? 5.0 : 0.0);
+    return(new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 2.0, _options)
+             .getExtractionStats());
+  } // end extract
+
+} // end class IsoSurfaceExtractionStatsTest
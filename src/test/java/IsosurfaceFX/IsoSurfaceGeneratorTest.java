@@ -0,0 +1,635 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceGenerator.
+**/
+class IsoSurfaceGeneratorTest implements IsoDataMatConstInterface {
+
+  /** The longest a test waits for an extraction, in seconds. **/
+  private static final long TIMEOUT_SECONDS = 60;
+
+  //----< legacyWalkIgnoresPlane >------------------------------------------//
+
+  /**
+   * The constructors without options walk the cells along x, then y, then
+   *  z whatever the plane of the matrix, so the same values stored in any
+   *  plane give the same triangles in the same order, which is the order a
+   *  YZ plane matrix's options walk has.
+  **/
+  @Test
+  void legacyWalkIgnoresPlane() {
+    final IsoSurfaceDataMatrix yz =
+      IsoSurfaceTestVolumes.blobs(YZ_PLANE, 27, 23, 21, 9);
+    final IsoSurfaceGenerator expected =
+      extract(yz, new IsoSurfaceExtractionOptions());
+    for(byte plane = XZ_PLANE; plane <= YZ_PLANE; plane++)
+      assertSameSurface(expected,
+        new IsoSurfaceGenerator(
+          IsoSurfaceTestVolumes.blobs(plane, 27, 23, 21, 9),
+          GREATER_THAN, 2.0));
+  } // end legacyWalkIgnoresPlane
+
+  //----< indexedParallelMatchesSerial >-----------------------------------//
+
+  /**
+   * An indexed mesh comes out the same, normals included, whatever the
+   *  number of slabs, with face or gradient normals.
+  **/
+  @Test
+  void indexedParallelMatchesSerial() {
+    for(byte plane = XZ_PLANE; plane <= YZ_PLANE; plane++) {
+      final IsoSurfaceDataMatrix matrix =
+        IsoSurfaceTestVolumes.blobs(plane, 33, 29, 27, 42 + plane);
+      for(final boolean gradient : new boolean[] { false, true }) {
+        final IsoSurfaceGenerator serial =
+          extract(matrix, indexedOptions(1, gradient));
+        for(int threads = 2; threads <= 4; threads++)
+          assertSameSurface(serial,
+                            extract(matrix, indexedOptions(threads,
+                                                           gradient)));
+      } // end for
+    } // end for
+  } // end indexedParallelMatchesSerial
+
+  //----< coloringReadsOnlyNonEmptyCells >----------------------------------//
+
+  /**
+   * Coloring a surface reads the samples of the cells that produced it, not
+   *  those of the whole volume.
+  **/
+  @Test
+  void coloringReadsOnlyNonEmptyCells() {
+    final IsoSurfaceTestVolumes.CountingDataMatrix matrix =
+      new IsoSurfaceTestVolumes.CountingDataMatrix(
+        IsoSurfaceTestVolumes.sphere(64, 6.0));
+    matrix.getBlockPyramid();
+    for(final boolean indexed : new boolean[] { false, true }) {
+      final IsoSurfaceExtractionOptions options =
+        new IsoSurfaceExtractionOptions();
+      options.setIndexed(indexed);
+      matrix.reads.set(0);
+      new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 0.0, options);
+      final long plainReads = matrix.reads.getAndSet(0);
+      final IsoSurfaceGenerator colored =
+        new IsoSurfaceGenerator(matrix, new CellColorer(), GREATER_THAN, 0.0,
+                                options);
+      final long colorReads = matrix.reads.get() - plainReads;
+      assertTrue(colorReads <= 8L * colored.getPolygonCount(),
+                 colorReads + " reads to color " + colored.getPolygonCount()
+                 + " triangles");
+    } // end for
+  } // end coloringReadsOnlyNonEmptyCells
+
+  //----< colorsMatchAcrossCellSearches >-----------------------------------//
+
+  /**
+   * The colors come out the same whether every cell is walked, only the
+   *  active blocks, or only the span-space index's cells.
+  **/
+  @Test
+  void colorsMatchAcrossCellSearches() {
+    final IsoSurfaceDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(YZ_PLANE, 40, 36, 32, 3);
+    for(final boolean indexed : new boolean[] { false, true }) {
+      float[][] expected = null;
+      for(int search = 0; search < 3; search++) {
+        final IsoSurfaceExtractionOptions options =
+          new IsoSurfaceExtractionOptions();
+        options.setIndexed(indexed);
+        options.setBlockSkipping(search == 1);
+        options.setSpanSpaceIndexing(search == 2);
+        final float[][] colors =
+          new IsoSurfaceGenerator(matrix, new CellColorer(), GREATER_THAN,
+                                  2.0, options).getVertexColorArray();
+        if(expected == null)
+          expected = colors;
+        else
+          assertArrayEquals(expected, colors);
+      } // end for
+    } // end for
+  } // end colorsMatchAcrossCellSearches
+
+  //----< extractAsyncOnSingleThreadPool >----------------------------------//
+
+  /**
+   * An asynchronous extraction asking for more threads than its executor
+   *  has finishes, and gives the serial surface.
+  **/
+  @Test
+  void extractAsyncOnSingleThreadPool() throws Exception {
+    final IsoSurfaceDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XZ_PLANE, 40, 36, 32, 7);
+    final ExecutorService pool = Executors.newFixedThreadPool(1);
+    try {
+      final IsoSurfaceGenerator gen =
+        IsoSurfaceGenerator.extractAsync(matrix, null, GREATER_THAN, 2.0,
+                                         new IsoSurfaceExtractionOptions(4,
+                                                                         pool),
+                                         0)
+          .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      assertSameSurface(extract(matrix, new IsoSurfaceExtractionOptions()),
+                        gen);
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end extractAsyncOnSingleThreadPool
+
+  //----< publishProgressiveOnSingleThreadPool >----------------------------//
+
+  /**
+   * A progressive extraction asking for more threads than its executor has
+   *  publishes every pass, the last of which is the serial surface.
+  **/
+  @Test
+  void publishProgressiveOnSingleThreadPool() throws Exception {
+    final IsoSurfaceDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XY_PLANE, 40, 36, 32, 5);
+    final ExecutorService pool = Executors.newFixedThreadPool(1);
+    try {
+      final List<IsoSurfaceGenerator> passes =
+        collect(IsoSurfaceGenerator.publishProgressive(
+                  matrix, null, GREATER_THAN, 2.0,
+                  new IsoSurfaceExtractionOptions(4, pool)))
+          .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      assertTrue(passes.size() > 1, "no coarse passes");
+      assertSameSurface(extract(matrix, new IsoSurfaceExtractionOptions()),
+                        passes.get(passes.size() - 1));
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end publishProgressiveOnSingleThreadPool
+
+  //----< publishFeedsSubscribersAtOnce >----------------------------------//
+
+  /**
+   * Two subscribers of the same streaming publisher, fed at the same time,
+   *  each get every batch of the surface.
+  **/
+  @Test
+  void publishFeedsSubscribersAtOnce() throws Exception {
+    final IsoSurfaceDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XZ_PLANE, 40, 36, 32, 13);
+    final ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      final IsoSurfaceExtractionOptions options =
+        new IsoSurfaceExtractionOptions(1, pool);
+      options.setIndexed(true);
+      final Flow.Publisher<IsoSurfaceBatch> publisher =
+        IsoSurfaceGenerator.publish(matrix, GREATER_THAN, 2.0, options, 3);
+      final CompletableFuture<List<IsoSurfaceBatch>> first =
+        collect(publisher);
+      final CompletableFuture<List<IsoSurfaceBatch>> second =
+        collect(publisher);
+      final List<IsoSurfaceBatch> a = first.get(TIMEOUT_SECONDS,
+                                                TimeUnit.SECONDS);
+      final List<IsoSurfaceBatch> b = second.get(TIMEOUT_SECONDS,
+                                                 TimeUnit.SECONDS);
+
+      int triangles = 0;
+      assertEquals(a.size(), b.size());
+      for(int i = 0; i < a.size(); i++) {
+        assertEquals(a.get(i).getStartLayer(), b.get(i).getStartLayer());
+        assertArrayEquals(a.get(i).getVertices(), b.get(i).getVertices());
+        assertArrayEquals(a.get(i).getIndices(), b.get(i).getIndices());
+        triangles += a.get(i).getTriangleCount();
+      } // end for
+      assertEquals(extract(matrix, options).getPolygonCount(), triangles);
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end publishFeedsSubscribersAtOnce
+
+  //----< parallelMatchesSerial >------------------------------------------//
+
+  /**
+   * A triangle soup comes out the same whatever the number of slabs, with
+   *  every cell walked, only the active blocks, or only the span-space
+   *  index's cells.
+  **/
+  @Test
+  void parallelMatchesSerial() {
+    for(byte plane = XZ_PLANE; plane <= YZ_PLANE; plane++) {
+      final IsoSurfaceDataMatrix matrix =
+        IsoSurfaceTestVolumes.blobs(plane, 35, 31, 26, 17 + plane);
+      for(int search = 0; search < 3; search++) {
+        IsoSurfaceGenerator serial = null;
+        for(int threads = 1; threads <= 4; threads++) {
+          final IsoSurfaceExtractionOptions options =
+            new IsoSurfaceExtractionOptions(threads);
+          options.setBlockSkipping(search == 1);
+          options.setSpanSpaceIndexing(search == 2);
+          final IsoSurfaceGenerator gen = extract(matrix, options);
+          if(serial == null)
+            serial = gen;
+          else
+            assertSameSurface(serial, gen);
+        } // end for
+      } // end for
+    } // end for
+  } // end parallelMatchesSerial
+
+  //----< thresholdDeltaPatchesOldSurface >--------------------------------//
+
+  /**
+   * Changing the threshold gives the surface a new generator would, and the
+   *  delta turns the old triangles into the new ones.
+  **/
+  @Test
+  void thresholdDeltaPatchesOldSurface() {
+    final IsoSurfaceDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XY_PLANE, 38, 34, 30, 21);
+    final double[] thresholds = { 2.5, 1.75, 1.75, 3.0, 2.0 };
+    for(int threads = 1; threads <= 3; threads += 2) {
+      final IsoSurfaceExtractionOptions options =
+        new IsoSurfaceExtractionOptions(threads);
+      final IsoSurfaceGenerator gen = extract(matrix, options);
+      for(final double threshold : thresholds) {
+        final float[] oldVerts = gen.getPackedVertexArray();
+        final float[] oldNorms = gen.getPackedNormalArray();
+        final IsoSurfaceDelta delta = gen.setThreshold(GREATER_THAN,
+                                                       threshold);
+        assertSameSurface(new IsoSurfaceGenerator(matrix, null, GREATER_THAN,
+                                                  threshold, options), gen);
+        assertArrayEquals(gen.getPackedVertexArray(),
+                          patch(oldVerts, delta, delta.getAddedVertices(),
+                                gen.getPolygonCount()));
+        assertArrayEquals(gen.getPackedNormalArray(),
+                          patch(oldNorms, delta, delta.getAddedNormals(),
+                                gen.getPolygonCount()));
+      } // end for
+    } // end for
+  } // end thresholdDeltaPatchesOldSurface
+
+  //----< gradientNormalsFollowSphere >------------------------------------//
+
+  /**
+   * The gradient normals of a sphere point along its radius, and closer to
+   *  it than the face normals do.
+  **/
+  @Test
+  void gradientNormalsFollowSphere() {
+    final IsoSurfaceDataMatrix matrix = IsoSurfaceTestVolumes.sphere(32, 10.0);
+    final double[] worst = new double[2];
+    for(int gradient = 0; gradient < 2; gradient++) {
+      final IsoSurfaceGenerator gen =
+        new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 0.0,
+                                indexedOptions(2, gradient == 1));
+      final float[] verts = gen.getPackedVertexArray();
+      final float[] norms = gen.getPackedNormalArray();
+      final double[] center = getCenter(verts);
+      worst[gradient] = 1.0;
+      for(int i = 0; i < verts.length; i += 3) {
+        final double dx = verts[i] - center[0];
+        final double dy = verts[i+1] - center[1];
+        final double dz = verts[i+2] - center[2];
+        final double cos = (dx*norms[i] + dy*norms[i+1] + dz*norms[i+2])
+                           / Math.sqrt(dx*dx + dy*dy + dz*dz);
+        worst[gradient] = Math.min(worst[gradient], Math.abs(cos));
+      } // end for
+    } // end for
+    assertTrue(worst[1] > 0.99, "gradient normal cosine " + worst[1]);
+    assertTrue(worst[1] > worst[0], "face " + worst[0] + ", gradient "
+                                    + worst[1]);
+  } // end gradientNormalsFollowSphere
+
+  //----< interpolatedVerticesMeetThreshold >------------------------------//
+
+  /**
+   * On a linear field every interpolated vertex lies where the field meets
+   *  a threshold, in every plane, soup or indexed, for a single threshold
+   *  and for both ends of a band.  Midpoint vertices don't.
+  **/
+  @Test
+  void interpolatedVerticesMeetThreshold() {
+    for(final byte plane : new byte[] { XZ_PLANE, XY_PLANE, YZ_PLANE }) {
+      final IsoSurfaceDoubleDataMatrix matrix =
+        new IsoSurfaceDoubleDataMatrix(plane, 8, 7, 6, 1.0f, 1.5f, 0.75f,
+                                       CENTER, (byte)0);
+      IsoSurfaceTestVolumes.fill(matrix, IsoSurfaceGeneratorTest::linear);
+      for(int indexed = 0; indexed < 2; indexed++) {
+        final IsoSurfaceExtractionOptions options =
+          new IsoSurfaceExtractionOptions(2);
+        options.setIndexed(indexed == 1);
+        options.setInterpolated(true);
+        final IsoSurfaceGenerator single =
+          new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 1.7, options);
+        final IsoSurfaceGenerator band =
+          new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 1.2,
+                                  LESS_THAN, 2.6, options);
+        final float[] verts = single.getPackedVertexArray();
+        assertTrue(verts.length > 0);
+        for(int i = 0; i < verts.length; i += 3)
+          assertEquals(1.7, linearAt(matrix, verts, i), 1e-5);
+
+        final float[] bandVerts = band.getPackedVertexArray();
+        final int[] ends = new int[2];
+        for(int i = 0; i < bandVerts.length; i += 3) {
+          final double value = linearAt(matrix, bandVerts, i);
+          final int end = (Math.abs(value - 1.2) < 1e-5) ? 0
+                        : (Math.abs(value - 2.6) < 1e-5) ? 1 : -1;
+          assertTrue(end >= 0, "vertex at " + value);
+          ends[end]++;
+        } // end for
+        assertTrue(ends[0] > 0 && ends[1] > 0, ends[0] + ", " + ends[1]);
+      } // end for
+
+      final float[] midpoints =
+        new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 1.7,
+                                new IsoSurfaceExtractionOptions(1))
+          .getPackedVertexArray();
+      double worst = 0.0;
+      for(int i = 0; i < midpoints.length; i += 3)
+        worst = Math.max(worst,
+                         Math.abs(linearAt(matrix, midpoints, i) - 1.7));
+      assertTrue(worst > 0.01, "midpoint error " + worst);
+    } // end for
+  } // end interpolatedVerticesMeetThreshold
+
+  //----< multiMatchesSingle >----------------------------------------------//
+
+  /**
+   * Each surface of a multi-isovalue pass is the surface its threshold's
+   *  own extraction gives.
+  **/
+  @Test
+  void multiMatchesSingle() {
+    final double[] thresholds = { 1.5, 2.0, 2.75, 4.0 };
+    for(byte plane = XZ_PLANE; plane <= YZ_PLANE; plane++) {
+      final IsoSurfaceDataMatrix matrix =
+        IsoSurfaceTestVolumes.blobs(plane, 34, 30, 28, 31 + plane);
+      for(final boolean indexed : new boolean[] { false, true }) {
+        final IsoSurfaceExtractionOptions options =
+          new IsoSurfaceExtractionOptions(3);
+        options.setIndexed(indexed);
+        options.setInterpolated(indexed);
+        options.setBlockSkipping(true);
+        final IsoSurfaceGenerator[] multi =
+          IsoSurfaceGenerator.extractMulti(matrix, null, GREATER_THAN_EQ,
+                                           thresholds, options);
+        assertEquals(thresholds.length, multi.length);
+        for(int i = 0; i < thresholds.length; i++)
+          assertSameSurface(new IsoSurfaceGenerator(matrix, null,
+                                                    GREATER_THAN_EQ,
+                                                    thresholds[i], options),
+                            multi[i]);
+      } // end for
+    } // end for
+  } // end multiMatchesSingle
+
+  //----< indexedOptions >--------------------------------------------------//
+
+  /**
+   * This method makes the options of an indexed, interpolated extraction.
+   * @param _threads The number of threads.
+   * @param _gradientNormals Whether the normals come from the gradient.
+   * @return The options.
+  **/
+  private static IsoSurfaceExtractionOptions indexedOptions(
+                                              final int _threads,
+                                              final boolean _gradientNormals)
+  {
+    final IsoSurfaceExtractionOptions options =
+      new IsoSurfaceExtractionOptions(_threads);
+    options.setIndexed(true);
+    options.setInterpolated(true);
+    options.setGradientNormals(_gradientNormals);
+    return(options);
+  } // end indexedOptions
+
+  //----< extract >---------------------------------------------------------//
+
+  /**
+   * This method extracts the surface the tests extract by default, the
+   *  samples above 2.
+   * @param _matrix The data matrix.
+   * @param _options The options to extract with.
+   * @return The surface.
+  **/
+  private static IsoSurfaceGenerator extract(
+                                  final IsoSurfaceDataMatrix _matrix,
+                                  final IsoSurfaceExtractionOptions _options)
+  {
+    return(new IsoSurfaceGenerator(_matrix, null, GREATER_THAN, 2.0,
+                                   _options));
+  } // end extract
+
+  //----< patch >-----------------------------------------------------------//
+
+  /**
+   * This method applies a delta to the packed per-vertex data of a triangle
+   *  soup, nine floats per triangle.
+   * @param _old The old surface's data.
+   * @param _delta The delta from the old surface to the new one.
+   * @param _added The data of the added triangles.
+   * @param _triangles The number of triangles of the new surface.
+   * @return The new surface's data.
+  **/
+  private static float[] patch(final float[] _old, final IsoSurfaceDelta _delta,
+                               final float[] _added, final int _triangles)
+  {
+    final float[] kept = new float[_old.length];
+    int keptLen = 0;
+    int from = 0;
+    final int[] removed = _delta.getRemovedRuns();
+    for(int r = 0; r < removed.length; r += 2) {
+      System.arraycopy(_old, from, kept, keptLen, removed[r]*9 - from);
+      keptLen += removed[r]*9 - from;
+      from = (removed[r] + removed[r+1]) * 9;
+    } // end for
+    System.arraycopy(_old, from, kept, keptLen, _old.length - from);
+    keptLen += _old.length - from;
+
+    final float[] patched = new float[_triangles * 9];
+    final int[] added = _delta.getAddedRuns();
+    int keptAt = 0;
+    int addedAt = 0;
+    int to = 0;
+    for(int r = 0; r < added.length; r += 2) {
+      System.arraycopy(kept, keptAt, patched, to, added[r]*9 - to);
+      keptAt += added[r]*9 - to;
+      System.arraycopy(_added, addedAt, patched, added[r]*9, added[r+1]*9);
+      addedAt += added[r+1]*9;
+      to = (added[r] + added[r+1]) * 9;
+    } // end for
+    System.arraycopy(kept, keptAt, patched, to, patched.length - to);
+    assertEquals(keptLen - keptAt, patched.length - to);
+    return(patched);
+  } // end patch
+
+  //----< linear >----------------------------------------------------------//
+
+  /**
+   * This method is the linear field interpolated vertices are tested on,
+   *  sloping differently along each axis.
+   * @param _x The x index of the sample.
+   * @param _y The y index of the sample.
+   * @param _z The z index of the sample.
+   * @return The value of the field there.
+  **/
+  private static double linear(final double _x, final double _y,
+                               final double _z)
+  {
+    return(1.0 + 0.3 * _x + 0.2 * _y - 0.25 * _z);
+  } // end linear
+
+  //----< linearAt >--------------------------------------------------------//
+
+  /**
+   * This method maps a vertex back into the sample indices of a matrix and
+   *  evaluates the linear field there.
+   * @param _matrix The matrix the vertex was extracted from.
+   * @param _verts The packed vertices.
+   * @param _i The index in _verts of the vertex's x coordinate.
+   * @return The value of the linear field at the vertex.
+  **/
+  private static double linearAt(final IsoSurfaceDataMatrix _matrix,
+                                 final float[] _verts, final int _i)
+  {
+    final Tuple3f cntrd = _matrix.getCentroid();
+    return(linear(_verts[_i] / _matrix.getXScale() + cntrd.x,
+                  _verts[_i+1] / _matrix.getYScale() + cntrd.y,
+                  cntrd.z - _verts[_i+2] / _matrix.getZScale()));
+  } // end linearAt
+
+  //----< getCenter >-------------------------------------------------------//
+
+  /**
+   * This method returns the center of the bounding box of packed vertices.
+   * @param _verts The vertices, x,y,z interleaved.
+   * @return The center, x,y,z.
+  **/
+  static double[] getCenter(final float[] _verts) {
+    final double[] min = { Double.MAX_VALUE, Double.MAX_VALUE,
+                           Double.MAX_VALUE };
+    final double[] max = { -Double.MAX_VALUE, -Double.MAX_VALUE,
+                           -Double.MAX_VALUE };
+    for(int i = 0; i < _verts.length; i++) {
+      min[i % 3] = Math.min(min[i % 3], _verts[i]);
+      max[i % 3] = Math.max(max[i % 3], _verts[i]);
+    } // end for
+    return(new double[] { (min[0] + max[0]) / 2.0, (min[1] + max[1]) / 2.0,
+                          (min[2] + max[2]) / 2.0 });
+  } // end getCenter
+
+  //----< collect >---------------------------------------------------------//
+
+  /**
+   * This method subscribes to a publisher and gathers everything it
+   *  publishes.
+   * @param _publisher The publisher.
+   * @return A future of the items, completed when the publisher closes.
+  **/
+  static <T> CompletableFuture<List<T>> collect(
+                                         final Flow.Publisher<T> _publisher)
+  {
+    final CompletableFuture<List<T>> result = new CompletableFuture<List<T>>();
+    _publisher.subscribe(new Flow.Subscriber<T>() {
+      private final List<T> items = new ArrayList<T>();
+
+      @Override
+      public void onSubscribe(final Flow.Subscription _subscription) {
+        _subscription.request(Long.MAX_VALUE);
+      } // end onSubscribe
+
+      @Override
+      public void onNext(final T _item) {
+        items.add(_item);
+      } // end onNext
+
+      @Override
+      public void onError(final Throwable _error) {
+        result.completeExceptionally(_error);
+      } // end onError
+
+      @Override
+      public void onComplete() {
+        result.complete(items);
+      } // end onComplete
+    });
+    return(result);
+  } // end collect
+
+  /**
+   * This class colors each vertex by its cell and the value it was colored
+   *  from, so colors only match when they come from the same cells.
+  **/
+  private static final class CellColorer extends IsoSurfaceVertexColorer {
+
+    //----< constructor >---------------------------------------------------//
+
+    /**
+     * This constructor creates a colorer of unlit colors.
+    **/
+    CellColorer() {
+      super(UNLIT);
+    } // end constructor
+
+    @Override
+    public float[] calcUnlitColor(final Vector3f _vert,
+                                  final int _x, final int _y, final int _z,
+                                  final double _val)
+    {
+      return(new float[] { _x, _y, _z, (float)_val });
+    } // end calcUnlitColor
+
+    @Override
+    public float[] calcUnlitColor(final Vector3d _vert,
+                                  final int _x, final int _y, final int _z,
+                                  final double _val)
+    {
+      return(new float[] { _x, _y, _z, (float)_val });
+    } // end calcUnlitColor
+
+    @Override
+    public float[] calcLitColor(final Vector3f _vert,
+                                final int _x, final int _y, final int _z,
+                                final double _val)
+    {
+      return(new float[] { (float)_val });
+    } // end calcLitColor
+
+    @Override
+    public float[] calcLitColor(final Vector3d _vert,
+                                final int _x, final int _y, final int _z,
+                                final double _val)
+    {
+      return(new float[] { (float)_val });
+    } // end calcLitColor
+
+  } // end class CellColorer
+
+  //----< assertSameSurface >-----------------------------------------------//
+
+  /**
+   * This method checks that two generators hold the same surface, vertex
+   *  for vertex, in the same order.
+   * @param _expected The reference surface.
+   * @param _actual The surface to check.
+  **/
+  static void assertSameSurface(final IsoSurfaceGeneratorInterface _expected,
+                                final IsoSurfaceGeneratorInterface _actual)
+  {
+    assertEquals(_expected.getPolygonCount(), _actual.getPolygonCount());
+    assertTrue(_expected.getPolygonCount() > 0, "empty surface");
+    assertArrayEquals(_expected.getPackedVertexArray(),
+                      _actual.getPackedVertexArray());
+    assertArrayEquals(_expected.getPackedNormalArray(),
+                      _actual.getPackedNormalArray());
+    assertArrayEquals(_expected.getIndexArray(), _actual.getIndexArray());
+  } // end assertSameSurface
+
+} // end class IsoSurfaceGeneratorTest
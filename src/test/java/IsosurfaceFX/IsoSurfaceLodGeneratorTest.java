@@ -0,0 +1,478 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceLodGenerator.
+**/
+class IsoSurfaceLodGeneratorTest implements IsoConstInterface,
+                                           IsoDataMatConstInterface {
+
+  //----< seamsClose >------------------------------------------------------//
+
+  /**
+   * With the eye on a sphere, regions of three levels meet around it, and
+   *  every edge of the surface that only one triangle has lies along another
+   *  such edge, so the T-junctions of the seams leave no gap.
+  **/
+  @Test
+  void seamsClose() {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      IsoSurfaceTestVolumes.sphere(65, 25.0);
+    final IsoSurfaceLodGenerator lod =
+      new IsoSurfaceLodGenerator(matrix, GREATER_THAN, 0.0, GREATER_THAN,
+                                 0.0, new IsoSurfaceExtractionOptions(2),
+                                 16, 6.0);
+    assertTrue(lod.update(position(matrix, 7, 32, 32)));
+    assertEquals(0, lod.getRegionLevel(0, 2, 2));
+    assertEquals(1, lod.getRegionLevel(1, 2, 2));
+    assertEquals(2, lod.getRegionLevel(0, 0, 2));
+
+    final float[] verts = lod.getPackedVertexArray();
+    final Map<List<Float>, float[]> open = new HashMap<>();
+    for(int t = 0; t < verts.length; t += 9)
+      for(int e = 0; e < 3; e++) {
+        final int p0 = t + e * 3;
+        final int p1 = t + (e + 1) % 3 * 3;
+        final float[] edge = { verts[p0], verts[p0+1], verts[p0+2],
+                               verts[p1], verts[p1+1], verts[p1+2] };
+        final List<Float> key = edgeKey(edge);
+        if(open.remove(key) == null)
+          open.put(key, edge);
+      } // end for
+    assertFalse(open.isEmpty());
+
+    final List<float[]> edges = new ArrayList<>(open.values());
+    for(final float[] edge : edges) {
+      final double[] mid = { (edge[0] + edge[3]) / 2.0,
+                             (edge[1] + edge[4]) / 2.0,
+                             (edge[2] + edge[5]) / 2.0 };
+      double nearest = Double.MAX_VALUE;
+      for(final float[] other : edges)
+        if(other != edge)
+          nearest = Math.min(nearest, distance(mid, other));
+      assertTrue(nearest < 1.0e-4, "open edge " + edge[0] + "," + edge[1]
+                 + "," + edge[2] + " is " + nearest + " from the others");
+    } // end for
+  } // end seamsClose
+
+  //----< levelsFollowDistance >--------------------------------------------//
+
+  /**
+   * Each region gets level 0 within the detail distance of the eye and one
+   *  level coarser for each doubling of the distance past it, up to the
+   *  coarsest level the region size allows.
+  **/
+  @Test
+  void levelsFollowDistance() {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XY_PLANE, 40, 30, 20, 7L);
+    final double detail = 5.0;
+    final IsoSurfaceLodGenerator lod =
+      new IsoSurfaceLodGenerator(matrix, GREATER_THAN, 2.0, GREATER_THAN,
+                                 2.0, new IsoSurfaceExtractionOptions(2),
+                                 8, detail);
+    final int[] counts = lod.getRegionCounts();
+    assertArrayEquals(new int[] { 5, 4, 3 }, counts);
+
+    final Vector3d[] eyes = { position(matrix, 0, 0, 0),
+                              position(matrix, 21, 13, 9),
+                              position(matrix, 39, 29, 0),
+                              position(matrix, 500, -300, 200) };
+    for(final Vector3d eye : eyes) {
+      lod.update(eye);
+      for(int rz = 0; rz < counts[Z]; rz++)
+        for(int ry = 0; ry < counts[Y]; ry++)
+          for(int rx = 0; rx < counts[X]; rx++) {
+            final double[] lo = { rx * 8, ry * 8, rz * 8 };
+            final double[] hi = { Math.min(rx * 8 + 8, 39),
+                                  Math.min(ry * 8 + 8, 29),
+                                  Math.min(rz * 8 + 8, 19) };
+            final Vector3d p0 = position(matrix, lo[0], lo[1], lo[2]);
+            final Vector3d p1 = position(matrix, hi[0], hi[1], hi[2]);
+            final double dx = gap(eye.x, p0.x, p1.x);
+            final double dy = gap(eye.y, p0.y, p1.y);
+            final double dz = gap(eye.z, p0.z, p1.z);
+            final double dist = Math.sqrt(dx*dx + dy*dy + dz*dz);
+            int level = 0;
+            for(double d = detail; dist > d && level < 3; d *= 2.0)
+              level++;
+            assertEquals(level, lod.getRegionLevel(rx, ry, rz),
+                         "region " + rx + "," + ry + "," + rz + " at "
+                         + dist);
+          } // end for
+    } // end for
+  } // end levelsFollowDistance
+
+  //----< updateExtractsChangedRegions >------------------------------------//
+
+  /**
+   * An update extracts only the regions whose level, or a coarser
+   *  neighbor's, changed, and leaves the same surface as a generator updated
+   *  straight to the new eye.  An update that changes no level does nothing.
+  **/
+  @Test
+  void updateExtractsChangedRegions() {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XZ_PLANE, 48, 40, 40, 3L);
+    final IsoSurfaceExtractionOptions options =
+      new IsoSurfaceExtractionOptions(2);
+    final IsoSurfaceLodGenerator lod =
+      new IsoSurfaceLodGenerator(matrix, GREATER_THAN, 2.0, GREATER_THAN,
+                                 2.0, options, 8, 4.0);
+    final int[] counts = lod.getRegionCounts();
+    final int total = counts[X] * counts[Y] * counts[Z];
+
+    final Vector3d first = position(matrix, 4, 4, 4);
+    assertTrue(lod.update(first));
+    assertEquals(total, lod.getExtractedRegionCount());
+    assertFalse(lod.update(first));
+
+    int[][] keys = calcKeys(lod, counts);
+    for(final Vector3d eye : new Vector3d[] { position(matrix, 12, 4, 4),
+                                              position(matrix, 40, 30, 20),
+                                              position(matrix, 44, 30, 20) })
+    {
+      assertTrue(lod.update(eye));
+      final int[][] next = calcKeys(lod, counts);
+      int changed = 0;
+      for(int i = 0; i < total; i++)
+        if(!Arrays.equals(keys[i], next[i]))
+          changed++;
+      assertTrue(changed > 0 && changed < total, changed + " changed");
+      assertEquals(changed, lod.getExtractedRegionCount());
+      keys = next;
+
+      final IsoSurfaceLodGenerator fresh =
+        new IsoSurfaceLodGenerator(matrix, GREATER_THAN, 2.0, GREATER_THAN,
+                                   2.0, options, 8, 4.0);
+      fresh.update(eye);
+      assertArrayEquals(fresh.getPackedVertexArray(),
+                        lod.getPackedVertexArray());
+    } // end for
+  } // end updateExtractsChangedRegions
+
+  //----< updateOnSingleThreadPool >----------------------------------------//
+
+  /**
+   * An update asking for more threads than its executor has, started on the
+   *  executor's only thread, finishes with the surface the same options
+   *  give on the common pool.
+  **/
+  @Test
+  void updateOnSingleThreadPool() throws Exception {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      IsoSurfaceTestVolumes.sphere(49, 18.0);
+    final Vector3d eye = position(matrix, 6, 24, 24);
+    final IsoSurfaceLodGenerator expected =
+      new IsoSurfaceLodGenerator(matrix, GREATER_THAN, 0.0, GREATER_THAN,
+                                 0.0, new IsoSurfaceExtractionOptions(4),
+                                 8, 6.0);
+    expected.update(eye);
+    final ExecutorService pool = Executors.newFixedThreadPool(1);
+    try {
+      final IsoSurfaceLodGenerator actual =
+        new IsoSurfaceLodGenerator(matrix, GREATER_THAN, 0.0, GREATER_THAN,
+                                   0.0,
+                                   new IsoSurfaceExtractionOptions(4, pool),
+                                   8, 6.0);
+      CompletableFuture.runAsync(() -> actual.update(eye), pool)
+        .get(60, TimeUnit.SECONDS);
+      assertArrayEquals(expected.getPackedVertexArray(),
+                        actual.getPackedVertexArray());
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end updateOnSingleThreadPool
+
+  //----< asyncUpdateSupersedes >-------------------------------------------//
+
+  /**
+   * An asynchronous update still waiting for a thread is cancelled by the
+   *  next one, and the surface ends up the one of the latest eye position.
+  **/
+  @Test
+  void asyncUpdateSupersedes() throws Exception {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      IsoSurfaceTestVolumes.sphere(49, 18.0);
+    final Vector3d near = position(matrix, 6, 24, 24);
+    final Vector3d far = position(matrix, 42, 24, 24);
+    final IsoSurfaceLodGenerator expected = sphereLod(matrix, null);
+    expected.update(far);
+    final ExecutorService pool = Executors.newFixedThreadPool(1);
+    try {
+      final IsoSurfaceLodGenerator actual = sphereLod(matrix, pool);
+      final CountDownLatch release = new CountDownLatch(1);
+      pool.execute(() -> awaitQuietly(release));
+      final CompletableFuture<Boolean> first = actual.updateAsync(near);
+      final CompletableFuture<Boolean> second = actual.updateAsync(far);
+      assertTrue(first.isCancelled());
+      release.countDown();
+      assertTrue(second.get(60, TimeUnit.SECONDS));
+      assertSameLod(expected, actual);
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end asyncUpdateSupersedes
+
+  //----< cancelledUpdateKeepsSurface >-------------------------------------//
+
+  /**
+   * An update cancelled while its regions are being extracted gives up and
+   *  leaves the surface and levels it had, and the next update still ends
+   *  up with the surface a fresh generator gives.
+  **/
+  @Test
+  void cancelledUpdateKeepsSurface() throws Exception {
+    final AtomicReference<CompletableFuture<Boolean>> inFlight =
+      new AtomicReference<CompletableFuture<Boolean>>();
+    final CountDownLatch read = new CountDownLatch(1);
+    final IsoSurfaceDoubleDataMatrix matrix =
+      new IsoSurfaceDoubleDataMatrix(XZ_PLANE, 49, 49, 49, 1.0f, 1.0f, 1.0f,
+                                     LOWER_LEFT, (byte)0)
+      {
+        @Override
+        public double getPoint(final int _x, final int _y, final int _z) {
+          final CompletableFuture<Boolean> future = inFlight.get();
+          if(future != null && read.getCount() > 0) {
+            future.cancel(false);
+            read.countDown();
+          } // end if
+          return(super.getPoint(_x, _y, _z));
+        } // end getPoint
+      };
+    IsoSurfaceTestVolumes.fill(matrix, (_x, _y, _z) -> {
+      final double dx = _x - 24.0;
+      final double dy = _y - 24.0;
+      final double dz = _z - 24.0;
+      return(18.0 - Math.sqrt(dx*dx + dy*dy + dz*dz));
+    });
+    final Vector3d near = position(matrix, 6, 24, 24);
+    final Vector3d far = position(matrix, 42, 24, 24);
+    final ExecutorService pool = Executors.newFixedThreadPool(1);
+    try {
+      final IsoSurfaceLodGenerator actual = sphereLod(matrix, pool);
+      final IsoSurfaceLodGenerator before = sphereLod(matrix, null);
+      before.update(near);
+      actual.update(near);
+
+      final CountDownLatch release = new CountDownLatch(1);
+      pool.execute(() -> awaitQuietly(release));
+      final CompletableFuture<Boolean> update = actual.updateAsync(far);
+      inFlight.set(update);
+      release.countDown();
+      assertThrows(CancellationException.class,
+                   () -> update.get(60, TimeUnit.SECONDS));
+      pool.submit(() -> { }).get(60, TimeUnit.SECONDS);
+      assertEquals(0, read.getCount());
+      assertSameLod(before, actual);
+
+      inFlight.set(null);
+      final IsoSurfaceLodGenerator expected = sphereLod(matrix, null);
+      expected.update(far);
+      assertTrue(actual.update(far));
+      assertSameLod(expected, actual);
+    } finally {
+      pool.shutdownNow();
+    } // end try
+  } // end cancelledUpdateKeepsSurface
+
+  //----< sphereLod >-------------------------------------------------------//
+
+  /**
+   * This method creates the generator the asynchronous tests update, with
+   *  regions of 8 cells, run serially.
+   * @param _matrix The matrix.
+   * @param _pool The executor to update on, or null for the common pool.
+   * @return The generator, not yet updated.
+  **/
+  private static IsoSurfaceLodGenerator sphereLod(
+                                        final IsoSurfaceDataMatrix _matrix,
+                                        final ExecutorService _pool)
+  {
+    return(new IsoSurfaceLodGenerator(_matrix, GREATER_THAN, 0.0,
+                                      GREATER_THAN, 0.0,
+                                      new IsoSurfaceExtractionOptions(1, _pool),
+                                      8, 6.0));
+  } // end sphereLod
+
+  //----< assertSameLod >---------------------------------------------------//
+
+  /**
+   * This method checks that two generators have the same surface, with each
+   *  region at the same level.
+   * @param _expected The generator with the expected surface.
+   * @param _actual The generator to check.
+  **/
+  private static void assertSameLod(final IsoSurfaceLodGenerator _expected,
+                                    final IsoSurfaceLodGenerator _actual)
+  {
+    final int[] counts = _expected.getRegionCounts();
+    for(int z = 0; z < counts[Z]; z++)
+      for(int y = 0; y < counts[Y]; y++)
+        for(int x = 0; x < counts[X]; x++)
+          assertEquals(_expected.getRegionLevel(x, y, z),
+                       _actual.getRegionLevel(x, y, z),
+                       "region " + x + "," + y + "," + z);
+    assertArrayEquals(_expected.getPackedVertexArray(),
+                      _actual.getPackedVertexArray());
+    assertArrayEquals(_expected.getPackedNormalArray(),
+                      _actual.getPackedNormalArray());
+  } // end assertSameLod
+
+  //----< awaitQuietly >----------------------------------------------------//
+
+  /**
+   * This method holds a pool's thread until a latch is released, so the
+   *  tasks queued behind it wait.
+   * @param _latch The latch.
+  **/
+  private static void awaitQuietly(final CountDownLatch _latch) {
+    try {
+      _latch.await(60, TimeUnit.SECONDS);
+    } catch(final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } // end try
+  } // end awaitQuietly
+
+  //----< position >--------------------------------------------------------//
+
+  /**
+   * This method returns where a sample of a matrix lies, the way
+   *  IsoSurfaceGenerator places vertices.
+   * @param _matrix The matrix.
+   * @param _x The x index of the sample.
+   * @param _y The y index of the sample.
+   * @param _z The z index of the sample.
+   * @return The position of the sample.
+  **/
+  private static Vector3d position(final IsoSurfaceDataMatrix _matrix,
+                                   final double _x, final double _y,
+                                   final double _z)
+  {
+    final Tuple3f cntrd = _matrix.getCentroid();
+    return(new Vector3d((_x - cntrd.x) * _matrix.getXScale(),
+                        (_y - cntrd.y) * _matrix.getYScale(),
+                        (cntrd.z - _z) * _matrix.getZScale()));
+  } // end position
+
+  //----< gap >-------------------------------------------------------------//
+
+  /**
+   * This method returns how far a coordinate lies outside a range.
+   * @param _p The coordinate.
+   * @param _a One end of the range.
+   * @param _b The other end of the range.
+   * @return The distance, 0 inside the range.
+  **/
+  private static double gap(final double _p, final double _a,
+                            final double _b)
+  {
+    return(Math.max(0.0, Math.max(Math.min(_a, _b) - _p,
+                                  _p - Math.max(_a, _b))));
+  } // end gap
+
+  //----< calcKeys >--------------------------------------------------------//
+
+  /**
+   * This method works out what each region's surface depends on: its own
+   *  level and those of its coarser neighbors.
+   * @param _lod The generator.
+   * @param _counts The number of regions along each axis.
+   * @return The key of each region, x fastest.
+  **/
+  private static int[][] calcKeys(final IsoSurfaceLodGenerator _lod,
+                                  final int[] _counts)
+  {
+    final int[][] keys = new int[_counts[X] * _counts[Y] * _counts[Z]][];
+    int i = 0;
+    for(int rz = 0; rz < _counts[Z]; rz++)
+      for(int ry = 0; ry < _counts[Y]; ry++)
+        for(int rx = 0; rx < _counts[X]; rx++) {
+          final int level = _lod.getRegionLevel(rx, ry, rz);
+          final int[] key = new int[27];
+          int k = 0;
+          for(int dz = -1; dz <= 1; dz++)
+            for(int dy = -1; dy <= 1; dy++)
+              for(int dx = -1; dx <= 1; dx++) {
+                final int nx = rx + dx;
+                final int ny = ry + dy;
+                final int nz = rz + dz;
+                int other = -1;
+                if(nx >= 0 && ny >= 0 && nz >= 0 && nx < _counts[X]
+                   && ny < _counts[Y] && nz < _counts[Z])
+                  other = _lod.getRegionLevel(nx, ny, nz);
+                if(dx == 0 && dy == 0 && dz == 0)
+                  other = level;
+                else if(other <= level)
+                  other = -1;
+                key[k++] = other;
+              } // end for
+          keys[i++] = key;
+        } // end for
+    return(keys);
+  } // end calcKeys
+
+  //----< edgeKey >---------------------------------------------------------//
+
+  /**
+   * This method returns a key that is the same for an edge either way
+   *  round.
+   * @param _edge The edge's endpoints, x,y,z interleaved.
+   * @return The key.
+  **/
+  private static List<Float> edgeKey(final float[] _edge) {
+    int order = 0;
+    for(int a = 0; a < 3 && order == 0; a++)
+      order = Float.compare(_edge[a], _edge[a+3]);
+    final int first = (order <= 0) ? 0 : 3;
+    final int second = 3 - first;
+    return(List.of(_edge[first], _edge[first+1], _edge[first+2],
+                   _edge[second], _edge[second+1], _edge[second+2]));
+  } // end edgeKey
+
+  //----< distance >--------------------------------------------------------//
+
+  /**
+   * This method returns the distance from a point to a segment.
+   * @param _p The point.
+   * @param _seg The segment's endpoints, x,y,z interleaved.
+   * @return The distance.
+  **/
+  private static double distance(final double[] _p, final float[] _seg) {
+    final double[] d = { _seg[3] - _seg[0], _seg[4] - _seg[1],
+                         _seg[5] - _seg[2] };
+    final double[] w = { _p[0] - _seg[0], _p[1] - _seg[1], _p[2] - _seg[2] };
+    final double len = d[0]*d[0] + d[1]*d[1] + d[2]*d[2];
+    final double t = (len > 0.0)
+      ? Math.max(0.0, Math.min(1.0, (w[0]*d[0] + w[1]*d[1] + w[2]*d[2])
+                                    / len))
+      : 0.0;
+    double sum = 0.0;
+    for(int a = 0; a < 3; a++) {
+      final double e = w[a] - t * d[a];
+      sum += e * e;
+    } // end for
+    return(Math.sqrt(sum));
+  } // end distance
+
+} // end class IsoSurfaceLodGeneratorTest
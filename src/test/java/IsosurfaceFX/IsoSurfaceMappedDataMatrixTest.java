@@ -0,0 +1,189 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * This class tests IsoSurfaceMappedDataMatrix against dense matrices holding
+ *  the same values.
+**/
+class IsoSurfaceMappedDataMatrixTest implements IsoDataMatConstInterface {
+
+  /** The directory the raw files are written to. **/
+  @TempDir
+  Path dir;
+
+  //----< decodesEveryType >------------------------------------------------//
+
+  /**
+   * Every element type, in either byte order and after a header, reads back
+   *  the values that were written, and the floating point files extract the
+   *  same surface as the dense matrix.
+  **/
+  @Test
+  void decodesEveryType() throws IOException {
+    final IsoSurfaceDoubleDataMatrix dense =
+      IsoSurfaceTestVolumes.blobs(XY_PLANE, 12, 10, 8, 5L);
+    final IsoSurfaceGenerator expected =
+      new IsoSurfaceGenerator(dense, null, GREATER_THAN, 2.0,
+                              new IsoSurfaceExtractionOptions());
+    final byte[] types = { IsoSurfaceMappedDataMatrix.UINT8,
+                           IsoSurfaceMappedDataMatrix.UINT16,
+                           IsoSurfaceMappedDataMatrix.FLOAT32,
+                           IsoSurfaceMappedDataMatrix.FLOAT64 };
+    final double[] scales = { 4.0, 4000.0, 1.0, 1.0 };
+    for(int t = 0; t < types.length; t++)
+      for(final ByteOrder order : new ByteOrder[] { ByteOrder.LITTLE_ENDIAN,
+                                                    ByteOrder.BIG_ENDIAN })
+        for(final int header : new int[] { 0, 37 }) {
+          final Path file = dir.resolve("t" + t + order + header + ".raw");
+          write(file, dense, "xyz", types[t], scales[t], order, header);
+          try(IsoSurfaceMappedDataMatrix mapped =
+                new IsoSurfaceMappedDataMatrix(file, header, types[t], order,
+                                               "xyz", 12, 10, 8,
+                                               1.0f, 1.5f, 0.75f, CENTER,
+                                               0.0))
+          {
+            assertEquals(XY_PLANE, mapped.getPlane());
+            assertSameValues(dense, scales[t], mapped);
+            if(scales[t] == 1.0)
+              IsoSurfaceGeneratorTest.assertSameSurface(expected,
+                new IsoSurfaceGenerator(mapped, null, GREATER_THAN, 2.0,
+                                        new IsoSurfaceExtractionOptions()));
+          } // end try
+        } // end for
+  } // end decodesEveryType
+
+  //----< opensSidecar >----------------------------------------------------//
+
+  /**
+   * A properties file next to the raw file gives its layout, and the matrix
+   *  it opens reads the values that were written.
+  **/
+  @Test
+  void opensSidecar() throws IOException {
+    final IsoSurfaceDoubleDataMatrix dense =
+      IsoSurfaceTestVolumes.blobs(XZ_PLANE, 9, 11, 7, 9L);
+    write(dir.resolve("head.raw"), dense, "zxy",
+          IsoSurfaceMappedDataMatrix.UINT16, 4000.0, ByteOrder.BIG_ENDIAN,
+          12);
+    final Path props = dir.resolve("head.raw.properties");
+    Files.writeString(props, "dims   = 9 11 7\n"
+                             + "type   = u16\n"
+                             + "endian = big\n"
+                             + "order  = zxy\n"
+                             + "header = 12\n"
+                             + "scales = 2, 1, 0.5\n");
+    try(IsoSurfaceMappedDataMatrix mapped =
+          IsoSurfaceMappedDataMatrix.open(props))
+    {
+      assertEquals(XZ_PLANE, mapped.getPlane());
+      assertEquals(2.0f, mapped.getXScale());
+      assertEquals(1.0f, mapped.getYScale());
+      assertEquals(0.5f, mapped.getZScale());
+      assertSameValues(dense, 4000.0, mapped);
+    } // end try
+  } // end opensSidecar
+
+  //----< rejectsBadDims >--------------------------------------------------//
+
+  /**
+   * Dimensions that aren't positive integers are rejected rather than
+   *  truncated.
+  **/
+  @Test
+  void rejectsBadDims() throws IOException {
+    Files.write(dir.resolve("bad.raw"), new byte[64]);
+    for(final String dims : new String[] { "4 4 2.5", "4 0 4", "-4 4 4",
+                                           "4 4", "4 4 4x" })
+    {
+      final Path props = dir.resolve("bad.raw.properties");
+      Files.writeString(props, "dims = " + dims + "\ntype = u8\n");
+      assertThrows(IllegalArgumentException.class,
+                   () -> IsoSurfaceMappedDataMatrix.open(props), dims);
+    } // end for
+  } // end rejectsBadDims
+
+  //----< write >-----------------------------------------------------------//
+
+  /**
+   * This method writes the values of a matrix to a raw file.
+   * @param _file The file.
+   * @param _matrix The matrix.
+   * @param _axisOrder The axes of the file, fastest varying first.
+   * @param _type The element type.
+   * @param _scale The factor to multiply the values by.
+   * @param _order The byte order.
+   * @param _header The number of header bytes, written as 0x7f.
+  **/
+  private static void write(final Path _file,
+                            final IsoSurfaceDataMatrix _matrix,
+                            final String _axisOrder, final byte _type,
+                            final double _scale, final ByteOrder _order,
+                            final int _header)
+    throws IOException
+  {
+    final int[] dims = { _matrix.getXMaxDim(), _matrix.getYMaxDim(),
+                         _matrix.getZMaxDim() };
+    final int[] axes = new int[3];
+    for(int i = 0; i < 3; i++)
+      axes[i] = _axisOrder.charAt(i) - 'x';
+    final int size = 1 << _type;
+    final ByteBuffer buf =
+      ByteBuffer.allocate(_header + dims[0] * dims[1] * dims[2] * size)
+                .order(_order);
+    for(int i = 0; i < _header; i++)
+      buf.put((byte)0x7f);
+
+    final int[] p = new int[3];
+    for(p[axes[2]] = 0; p[axes[2]] < dims[axes[2]]; p[axes[2]]++)
+      for(p[axes[1]] = 0; p[axes[1]] < dims[axes[1]]; p[axes[1]]++)
+        for(p[axes[0]] = 0; p[axes[0]] < dims[axes[0]]; p[axes[0]]++) {
+          final double value = _matrix.getPoint(p[0], p[1], p[2]) * _scale;
+          switch(_type) {
+            case IsoSurfaceMappedDataMatrix.UINT8 :
+              buf.put((byte)value);  break;
+            case IsoSurfaceMappedDataMatrix.UINT16 :
+              buf.putShort((short)value);  break;
+            case IsoSurfaceMappedDataMatrix.FLOAT32 :
+              buf.putFloat((float)value);  break;
+            default :
+              buf.putDouble(value);  break;
+          } // end switch
+        } // end for
+    Files.write(_file, buf.array());
+  } // end write
+
+  //----< assertSameValues >------------------------------------------------//
+
+  /**
+   * This method checks that a mapped matrix holds a dense one's values.
+   * @param _dense The dense matrix.
+   * @param _scale The factor the values were written multiplied by.
+   * @param _mapped The mapped matrix.
+  **/
+  private static void assertSameValues(final IsoSurfaceDataMatrix _dense,
+                                       final double _scale,
+                                       final IsoSurfaceDataMatrix _mapped)
+  {
+    assertEquals(_dense.getXMaxDim(), _mapped.getXMaxDim());
+    assertEquals(_dense.getYMaxDim(), _mapped.getYMaxDim());
+    assertEquals(_dense.getZMaxDim(), _mapped.getZMaxDim());
+    for(int z = 0; z < _dense.getZMaxDim(); z++)
+      for(int y = 0; y < _dense.getYMaxDim(); y++)
+        for(int x = 0; x < _dense.getXMaxDim(); x++)
+          assertEquals(_dense.getPoint(x, y, z) * _scale,
+                       _mapped.getPoint(x, y, z),
+                       "point " + x + "," + y + "," + z);
+  } // end assertSameValues
+
+} // end class IsoSurfaceMappedDataMatrixTest
@@ -0,0 +1,91 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+
+import javafx.scene.shape.TriangleMesh;
+import javafx.scene.shape.VertexFormat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that the TriangleMesh an IsoSurfaceMeshBuilder fills
+ *  holds the generator's points, normals and faces.
+**/
+class IsoSurfaceMeshBuilderTest implements IsoDataMatConstInterface {
+
+  //----< buildsGeneratorOutput >-------------------------------------------//
+
+  /**
+   * One builder, reused for a sequence of soups and indexed meshes of
+   *  different sizes, fills its mesh with exactly each generator's surface,
+   *  and an empty surface empties it.
+  **/
+  @Test
+  void buildsGeneratorOutput() {
+    final IsoSurfaceDoubleDataMatrix matrix =
+      IsoSurfaceTestVolumes.blobs(XZ_PLANE, 20, 16, 12, 3L);
+    final IsoSurfaceMeshBuilder builder =
+      new IsoSurfaceMeshBuilder(new TriangleMesh());
+    final TriangleMesh mesh = builder.getMesh();
+    assertEquals(VertexFormat.POINT_NORMAL_TEXCOORD, mesh.getVertexFormat());
+    assertArrayEquals(new float[] { 0.0f, 0.0f },
+                      mesh.getTexCoords().toArray(null));
+
+    final double[] thresholds = { 2.0, 1.0, 3.0, 1.0, 2.0 };
+    final boolean[] indexed = { false, false, true, true, false };
+    for(int i = 0; i < thresholds.length; i++) {
+      final IsoSurfaceExtractionOptions options =
+        new IsoSurfaceExtractionOptions(2);
+      options.setIndexed(indexed[i]);
+      final IsoSurfaceGenerator gen =
+        new IsoSurfaceGenerator(matrix, null, GREATER_THAN, thresholds[i],
+                                options);
+      assertSame(mesh, builder.build(gen));
+      assertBuilt(gen, mesh);
+    } // end for
+
+    builder.build(new IsoSurfaceGenerator(matrix, null, GREATER_THAN, 100.0,
+                                          new IsoSurfaceExtractionOptions()));
+    assertEquals(0, mesh.getPoints().size());
+    assertEquals(0, mesh.getNormals().size());
+    assertEquals(0, mesh.getFaces().size());
+  } // end buildsGeneratorOutput
+
+  //----< assertBuilt >-----------------------------------------------------//
+
+  /**
+   * This method checks that a mesh holds a generator's surface: its points
+   *  and normals, and a face vertex per index of an indexed mesh, or per
+   *  vertex of a soup, naming the same point and normal.
+   * @param _gen The generator.
+   * @param _mesh The mesh built from it.
+  **/
+  private static void assertBuilt(final IsoSurfaceGeneratorInterface _gen,
+                                  final TriangleMesh _mesh)
+  {
+    final int vertCnt = _gen.getVertexCount();
+    final float[] points = _gen.getPackedVertexArray();
+    final float[] normals = _gen.getPackedNormalArray();
+    final int[] indices = _gen.getIndexArray();
+    assertArrayEquals(Arrays.copyOf(points, vertCnt * 3),
+                      _mesh.getPoints().toArray(null));
+    assertArrayEquals(Arrays.copyOf(normals, vertCnt * 3),
+                      _mesh.getNormals().toArray(null));
+
+    final int[] faces = _mesh.getFaces().toArray(null);
+    final int faceVerts = (indices != null) ? indices.length : vertCnt;
+    assertEquals(_gen.getPolygonCount() * 3, faceVerts);
+    assertEquals(faceVerts * 3, faces.length);
+    for(int i = 0; i < faceVerts; i++) {
+      final int point = (indices != null) ? indices[i] : i;
+      assertEquals(point, faces[i*3], "point of face vertex " + i);
+      assertEquals(point, faces[i*3+1], "normal of face vertex " + i);
+      assertEquals(0, faces[i*3+2], "texture of face vertex " + i);
+    } // end for
+  } // end assertBuilt
+
+} // end class IsoSurfaceMeshBuilderTest
@@ -0,0 +1,190 @@
+package IsosurfaceFX;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests IsoSurfaceSparseDataMatrix.
+**/
+class IsoSurfaceSparseDataMatrixTest implements IsoDataMatConstInterface {
+
+  //----< matchesDense >----------------------------------------------------//
+
+  /**
+   * In every plane, a sparse matrix holding islands in a background reads
+   *  the same values as a dense one, builds the same block pyramid from its
+   *  leaves alone as the dense one does from every sample, and extracts the
+   *  same surface serially and in parallel.
+  **/
+  @Test
+  void matchesDense() {
+    for(final byte plane : new byte[] { XZ_PLANE, XY_PLANE, YZ_PLANE }) {
+      final IsoSurfaceDoubleDataMatrix blobs =
+        IsoSurfaceTestVolumes.blobs(plane, 140, 20, 24, 13L);
+      final IsoSurfaceDoubleDataMatrix dense =
+        new IsoSurfaceDoubleDataMatrix(plane, 140, 20, 24, 1.0f, 1.5f, 0.75f,
+                                       CENTER, (byte)0);
+      IsoSurfaceTestVolumes.fill(dense, (_x, _y, _z) -> {
+        final double value = blobs.getPoint(_x, _y, _z);
+        return((value >= 3.0) ? value : 0.0);
+      });
+      final IsoSurfaceSparseDataMatrix sparse =
+        new IsoSurfaceSparseDataMatrix(plane, 140, 20, 24, 1.0f, 1.5f, 0.75f,
+                                       CENTER, 0.0f);
+      for(int x = 0; x < 140; x++)
+        for(int y = 0; y < 20; y++)
+          for(int z = 0; z < 24; z++)
+            sparse.setPoint(x, y, z, (float)dense.getPoint(x, y, z));
+      assertTrue(sparse.getLeafCount() < 18 * 3 * 3, "every leaf allocated");
+
+      for(int x = -1; x <= 140; x++)
+        for(int y = -1; y <= 20; y++)
+          for(int z = -1; z <= 24; z++)
+            assertEquals(dense.getPoint(x, y, z), sparse.getPoint(x, y, z),
+                         "point " + x + "," + y + "," + z);
+
+      final IsoSurfaceBlockPyramid leaves = sparse.getBlockPyramid();
+      final IsoSurfaceBlockPyramid full =
+        new IsoSurfaceBlockPyramid(dense, leaves.getBlockSize());
+      assertEquals(full.getLevelCount(), leaves.getLevelCount());
+      for(int level = 0; level < full.getLevelCount(); level++) {
+        final int[] counts = full.getBlockCounts(level);
+        assertArrayEquals(counts, leaves.getBlockCounts(level));
+        for(int bx = 0; bx < counts[0]; bx++)
+          for(int by = 0; by < counts[1]; by++)
+            for(int bz = 0; bz < counts[2]; bz++) {
+              assertEquals(full.getMin(level, bx, by, bz),
+                           leaves.getMin(level, bx, by, bz));
+              assertEquals(full.getMax(level, bx, by, bz),
+                           leaves.getMax(level, bx, by, bz));
+            } // end for
+      } // end for
+
+      for(int threads = 1; threads <= 4; threads += 3) {
+        final IsoSurfaceExtractionOptions options =
+          new IsoSurfaceExtractionOptions(threads);
+        options.setBlockSkipping(true);
+        IsoSurfaceGeneratorTest.assertSameSurface(
+          new IsoSurfaceGenerator(dense, null, GREATER_THAN, 2.0, options),
+          new IsoSurfaceGenerator(sparse, null, GREATER_THAN, 2.0, options));
+      } // end for
+    } // end for
+  } // end matchesDense
+
+  //----< listsLeafOrigins >------------------------------------------------//
+
+  /**
+   * The active leaves are listed by their corners, one for each leaf a point
+   *  other than the background was written to, across several nodes.
+  **/
+  @Test
+  void listsLeafOrigins() {
+    final IsoSurfaceSparseDataMatrix matrix =
+      new IsoSurfaceSparseDataMatrix(XY_PLANE, 300, 140, 20, 1.0f, 1.0f, 1.0f,
+                                     LOWER_LEFT, -1.0f);
+    assertEquals(0, matrix.getLeafOrigins().length);
+    final int[][] points = { { 3, 4, 5 }, { 7, 0, 1 }, { 130, 17, 9 },
+                             { 299, 139, 19 }, { 64, 128, 8 } };
+    final Set<List<Integer>> expected = new HashSet<>();
+    for(final int[] p : points) {
+      matrix.setPoint(p[0], p[1], p[2], 2.0f);
+      expected.add(List.of(p[0] & ~7, p[1] & ~7, p[2] & ~7));
+    } // end for
+    matrix.setPoint(40, 40, 10, -1.0f);
+
+    final int[] origins = matrix.getLeafOrigins();
+    assertEquals(expected.size(), matrix.getLeafCount());
+    assertEquals(expected.size() * 3, origins.length);
+    final Set<List<Integer>> actual = new HashSet<>();
+    for(int i = 0; i < origins.length; i += 3)
+      actual.add(List.of(origins[i], origins[i+1], origins[i+2]));
+    assertEquals(expected, actual);
+  } // end listsLeafOrigins
+
+  //----< pruneFreesBackgroundLeaves >--------------------------------------//
+
+  /**
+   * Pruning frees exactly the leaves whose points all went back to the
+   *  background, and no point changes.
+  **/
+  @Test
+  void pruneFreesBackgroundLeaves() {
+    final IsoSurfaceSparseDataMatrix matrix =
+      new IsoSurfaceSparseDataMatrix(XZ_PLANE, 300, 20, 20, 1.0f, 1.0f, 1.0f,
+                                     LOWER_LEFT, 0.0f);
+    matrix.setPoint(3, 4, 5, 1.0f);
+    matrix.setPoint(130, 17, 9, 2.0f);
+    matrix.setPoint(131, 17, 9, 0.0f);
+    matrix.setPoint(200, 2, 2, 3.0f);
+    matrix.setPoint(200, 2, 2, 0.0f);
+    matrix.setPoint(10, 12, 14, -0.0f);
+    assertEquals(4, matrix.getLeafCount());
+    final long bytes = matrix.getStoredBytes();
+
+    assertEquals(1, matrix.prune());
+    assertEquals(3, matrix.getLeafCount());
+    assertTrue(matrix.getStoredBytes() < bytes);
+    assertNull(matrix.getLeafData(200, 2, 2));
+    assertEquals(3 * 3, matrix.getLeafOrigins().length);
+    assertEquals(1.0, matrix.getPoint(3, 4, 5));
+    assertEquals(2.0, matrix.getPoint(130, 17, 9));
+    assertEquals(0.0, matrix.getPoint(200, 2, 2));
+    assertEquals(-0.0, matrix.getPoint(10, 12, 14));
+    assertEquals(0, matrix.prune());
+
+    matrix.setPoint(200, 2, 2, 0.0f);
+    assertEquals(3, matrix.getLeafCount());
+  } // end pruneFreesBackgroundLeaves
+
+  //----< writesRebuildIndexes >--------------------------------------------//
+
+  /**
+   * The indexes are reused until a point is written, and the next one asked
+   *  for holds the written value.
+  **/
+  @Test
+  void writesRebuildIndexes() {
+    final IsoSurfaceSparseDataMatrix matrix =
+      new IsoSurfaceSparseDataMatrix(XZ_PLANE, 40, 36, 32, 1.0f, 1.0f, 1.0f,
+                                     LOWER_LEFT, 0.0f);
+    final IsoSurfaceBlockPyramid empty = matrix.getBlockPyramid();
+    assertSame(empty, matrix.getBlockPyramid());
+    assertEquals(0.0, topMax(empty));
+
+    for(int x = 3; x < 30; x++)
+      matrix.setPoint(x, 5, 7, x);
+    final IsoSurfaceBlockPyramid filled = matrix.getBlockPyramid();
+    assertNotSame(empty, filled);
+    assertSame(filled, matrix.getBlockPyramid());
+    assertEquals(29.0, topMax(filled));
+  } // end writesRebuildIndexes
+
+  //----< topMax >----------------------------------------------------------//
+
+  /**
+   * This method returns the largest value under a pyramid's coarsest level.
+   * @param _pyramid The pyramid.
+   * @return The largest value of the matrix.
+  **/
+  static double topMax(final IsoSurfaceBlockPyramid _pyramid) {
+    final int level = _pyramid.getLevelCount() - 1;
+    final int[] counts = _pyramid.getBlockCounts(level);
+    double max = Double.NEGATIVE_INFINITY;
+    for(int bx = 0; bx < counts[0]; bx++)
+      for(int by = 0; by < counts[1]; by++)
+        for(int bz = 0; bz < counts[2]; bz++)
+          max = Math.max(max, _pyramid.getMax(level, bx, by, bz));
+    return(max);
+  } // end topMax
+
+} // end class IsoSurfaceSparseDataMatrixTest
@@ -0,0 +1,176 @@
+package IsosurfaceFX;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class builds the synthetic volumes the tests extract.  The blobs are
+ *  a few overlapping cones with some noise on top, quantized to quarters so
+ *  that many samples sit exactly on the thresholds the tests use, which
+ *  exercises every comparitor's edge cases.  The noise is a hash of the
+ *  sample's coordinates, so a volume holds the same values whatever plane
+ *  it's stored in.  The sphere is a smooth distance field for the tests
+ *  that measure geometry.
+**/
+final class IsoSurfaceTestVolumes implements IsoDataMatConstInterface {
+
+  //----< constructor >-----------------------------------------------------//
+
+  /**
+   * This constructor is private; the class only has static methods.
+  **/
+  private IsoSurfaceTestVolumes() {
+  } // end constructor
+
+  //----< blobs >-----------------------------------------------------------//
+
+  /**
+   * This method builds a volume of overlapping cones.
+   * @param _plane The plane of the matrix.
+   * @param _xMaxDim The size of the matrix in the x-axis.
+   * @param _yMaxDim The size of the matrix in the y-axis.
+   * @param _zMaxDim The size of the matrix in the z-axis.
+   * @param _seed The seed of the cones and the noise.
+   * @return The volume, with values from 0 up to about a quarter of x.
+  **/
+  static IsoSurfaceDoubleDataMatrix blobs(final byte _plane,
+                                          final int _xMaxDim,
+                                          final int _yMaxDim,
+                                          final int _zMaxDim,
+                                          final long _seed)
+  {
+    final Random random = new Random(_seed);
+    final double[][] cones = new double[4][];
+    for(int i = 0; i < cones.length; i++)
+      cones[i] = new double[] { random.nextDouble() * _xMaxDim,
+                                random.nextDouble() * _yMaxDim,
+                                random.nextDouble() * _zMaxDim,
+                                2.0 + random.nextDouble() * _xMaxDim / 4.0 };
+
+    final IsoSurfaceDoubleDataMatrix matrix =
+      new IsoSurfaceDoubleDataMatrix(_plane, _xMaxDim, _yMaxDim, _zMaxDim,
+                                     1.0f, 1.5f, 0.75f, CENTER, (byte)0);
+    fill(matrix, (_x, _y, _z) -> {
+      double value = 0.0;
+      for(final double[] cone : cones) {
+        final double dx = _x - cone[0];
+        final double dy = _y - cone[1];
+        final double dz = _z - cone[2];
+        value += Math.max(0.0, cone[3] - Math.sqrt(dx*dx + dy*dy + dz*dz));
+      } // end for
+      value += ((_x * 73856093 ^ _y * 19349663 ^ _z * 83492791) & 1023)
+               * (0.3 / 1023.0);
+      return(Math.round(value * 4.0) / 4.0);
+    });
+    return(matrix);
+  } // end blobs
+
+  //----< sphere >----------------------------------------------------------//
+
+  /**
+   * This method builds a cube of samples holding the signed distance to a
+   *  sphere at its center, positive inside.
+   * @param _dim The size of the matrix along each axis.
+   * @param _radius The radius of the sphere, in samples.
+   * @return The volume, whose surface at 0 is the sphere.
+  **/
+  static IsoSurfaceDoubleDataMatrix sphere(final int _dim,
+                                           final double _radius)
+  {
+    final double center = (_dim - 1) / 2.0;
+    final IsoSurfaceDoubleDataMatrix matrix =
+      new IsoSurfaceDoubleDataMatrix(XZ_PLANE, _dim, _dim, _dim,
+                                     1.0f, 1.0f, 1.0f, LOWER_LEFT, (byte)0);
+    fill(matrix, (_x, _y, _z) -> {
+      final double dx = _x - center;
+      final double dy = _y - center;
+      final double dz = _z - center;
+      return(_radius - Math.sqrt(dx*dx + dy*dy + dz*dz));
+    });
+    return(matrix);
+  } // end sphere
+
+  //----< fill >------------------------------------------------------------//
+
+  /**
+   * This method fills a matrix plane by plane from a function of the sample
+   *  coordinates, in the order the planes are stored.
+   * @param _matrix The matrix to fill.
+   * @param _values The value of each sample.
+  **/
+  static void fill(final IsoSurfaceDoubleDataMatrix _matrix,
+                   final Sample _values)
+  {
+    final int plane = _matrix.getPlane();
+    final int[] dims = { _matrix.getXMaxDim(), _matrix.getYMaxDim(),
+                         _matrix.getZMaxDim() };
+    // The independent, major and minor axes of each plane.
+    final int[] axes = (plane == XZ_PLANE) ? new int[] { 1, 0, 2 }
+                     : (plane == XY_PLANE) ? new int[] { 2, 0, 1 }
+                     : new int[] { 0, 1, 2 };
+    final int[] point = new int[3];
+    for(int i = 0; i < dims[axes[0]]; i++) {
+      final double[][] values = new double[dims[axes[1]]][dims[axes[2]]];
+      point[axes[0]] = i;
+      for(int j = 0; j < values.length; j++) {
+        point[axes[1]] = j;
+        for(int k = 0; k < values[j].length; k++) {
+          point[axes[2]] = k;
+          values[j][k] = _values.at(point[0], point[1], point[2]);
+        } // end for
+      } // end for
+      _matrix.setPlaneData(i, values);
+    } // end for
+  } // end fill
+
+  /**
+   * The value of a sample, given its coordinates.
+  **/
+  interface Sample {
+    double at(int _x, int _y, int _z);
+  } // end interface Sample
+
+  /**
+   * This class is a view of a data matrix that counts the samples read
+   *  through it.  Only getPoint is overridden, so every read of the
+   *  default row methods is counted too.
+  **/
+  static final class CountingDataMatrix extends IsoSurfaceDataMatrix {
+
+    /** The matrix being viewed. **/
+    private final IsoSurfaceDataMatrix source;
+
+    /** The number of samples read. **/
+    final AtomicLong reads = new AtomicLong();
+
+    //----< constructor >---------------------------------------------------//
+
+    /**
+     * This constructor creates a counting view of a matrix.
+     * @param _source The matrix to view.
+    **/
+    CountingDataMatrix(final IsoSurfaceDataMatrix _source) {
+      super((byte)_source.getPlane(), _source.getXMaxDim(),
+            _source.getYMaxDim(), _source.getZMaxDim(), _source.getXScale(),
+            _source.getYScale(), _source.getZScale(), LOWER_LEFT);
+      source = _source;
+    } // end constructor
+
+    //----< getPoint >------------------------------------------------------//
+
+    /**
+     * This method reads a sample of the matrix and counts it.
+     * @param _x The index of the x-axis of the point in question.
+     * @param _y The index of the y-axis of the point in question.
+     * @param _z The index of the z-axis of the point in question.
+     * @return The double value of the point at coordinate (_x, _y, _z).
+    **/
+    @Override
+    public double getPoint(final int _x, final int _y, final int _z) {
+      reads.incrementAndGet();
+      return(source.getPoint(_x, _y, _z));
+    } // end getPoint
+
+  } // end class CountingDataMatrix
+
+} // end class IsoSurfaceTestVolumes